@@ -0,0 +1,40 @@
+#!/usr/bin/env bash
+# Throughput and latency of the same build with platform threads and with virtual threads
+# (the virtual-threads profile), at 1k-10k concurrent clients.
+#
+# Needs Java 21, Postgres and Redis (docker-compose up -d db redis), and both jars:
+#   ./mvnw -Pjava21 install -DskipTests && (cd benchmarks && ../mvnw package)
+# Run from the repository root:
+#   EMS_PASSWORD=... benchmarks/load/compare-thread-modes.sh
+# Client and server share the host's cores here; for numbers worth comparing across machines, run
+# ThreadModeLoadTest from a second host with --url pointing at this one.
+# 10k clients hold 10k sockets on each side: raise the open-file limit (ulimit -n) first.
+set -euo pipefail
+
+APP_JAR=$(ls target/*-exec.jar | head -1)
+BENCH_JAR=benchmarks/target/benchmarks.jar
+PORT=${PORT:-8080}
+CLIENTS=${CLIENTS:-1000,2000,5000,10000}
+DURATION=${DURATION:-30s}
+WARMUP=${WARMUP:-10s}
+
+run_mode() {
+  # header line printed only by the first mode
+  local label=$1 from_line=$2; shift 2
+  java -Xmx2g -jar "$APP_JAR" --server.port="$PORT" --app.warmup.enabled=false "$@" > "target/load-$label.log" 2>&1 &
+  local pid=$!
+  trap "kill $pid 2>/dev/null" EXIT
+  until curl -sf "http://localhost:$PORT/actuator/health/readiness" > /dev/null; do
+    kill -0 $pid 2>/dev/null || { echo "$label: server exited, see target/load-$label.log" >&2; exit 1; }
+    sleep 1
+  done
+  java -cp "$BENCH_JAR" com.grootan.ems.bench.ThreadModeLoadTest \
+      --url="http://localhost:$PORT" --email="${EMS_EMAIL:-admin@grootan.com}" --password="${EMS_PASSWORD:?set EMS_PASSWORD}" \
+      --clients="$CLIENTS" --duration="$DURATION" --warmup="$WARMUP" --label="$label" | tail -n +"$from_line"
+  kill $pid; wait $pid 2>/dev/null || true
+  trap - EXIT
+}
+
+ulimit -n 65536 2>/dev/null || echo "warning: open-file limit is $(ulimit -n)" >&2
+run_mode platform 1
+run_mode virtual 2 --spring.profiles.active=virtual-threads
@@ -0,0 +1,64 @@
+-- Compares the two app.search.backend paths for the employee "q" filter at 1M rows.
+--
+--   psql -h localhost -U ems_user -d ems -f benchmarks/sql/search_backends.sql
+--
+-- Runs inside a transaction that is rolled back, so the seeded rows never persist.
+-- Each query is executed with EXPLAIN (ANALYZE, BUFFERS); compare "Execution Time"
+-- and whether the plan is a Seq Scan (like) or a Bitmap Index Scan (postgres).
+
+\set rows 1000000
+\timing on
+
+begin;
+
+insert into departments (code, name) values ('BENCH', 'Benchmark') on conflict do nothing;
+
+insert into employees (full_name, email, emp_role, hire_date, status, department_id)
+select (array['Alice','Bala','Chen','Divya','Erik','Fatima','Gopal','Hana','Ivan','Jaya'])[1 + i % 10]
+           || ' ' || (array['Kumar','Smith','Nair','Garcia','Ito','Khan','Rao','Silva','Müller','Patel'])[1 + (i / 10) % 10]
+           || ' ' || md5(i::text),
+       'bench' || i || '@ems.local',
+       (array['EMPLOYEE','MANAGER','HR','ADMIN'])[1 + i % 4],
+       date '2010-01-01' + (i % 5000),
+       case when i % 7 = 0 then 'INACTIVE' else 'ACTIVE' end,
+       (select id from departments where code = 'BENCH')
+from generate_series(1, :rows) as g(i);
+
+analyze employees;
+
+-- 1) like backend with no trigram index: what every search cost before this change.
+--    Selective term (an md5 fragment, a handful of matches) so the plan cannot stop early.
+set local enable_bitmapscan = off;
+set local enable_indexscan = off;
+explain (analyze, buffers)
+select e.id from employees e
+where lower(e.full_name) like '%3f2a9c%'
+order by e.full_name, e.id limit 10;
+reset enable_bitmapscan;
+reset enable_indexscan;
+
+-- 2) like backend, same predicate, now served by idx_employees_full_name_trgm
+explain (analyze, buffers)
+select e.id from employees e
+where lower(e.full_name) like '%3f2a9c%'
+order by e.full_name, e.id limit 10;
+
+-- 2b) broad term (~1% of rows) in the default fullName order: the planner may prefer walking
+--     idx_employees_full_name_id and filtering, which is why sort=relevance exists
+explain (analyze, buffers)
+select e.id from employees e
+where lower(e.full_name) like '%divya rao%'
+order by e.full_name, e.id limit 10;
+
+-- 3) postgres backend predicate (EmployeeSpecs.textMatches) with sort=relevance
+explain (analyze, buffers)
+select e.id from employees e
+where (to_tsvector('simple', e.full_name || ' ' || e.email || ' ' || e.emp_role) @@ plainto_tsquery('simple', 'divya rao'))
+   or lower(e.full_name) like '%divya rao%'
+   or lower(e.email) like '%divya rao%'
+   or lower(e.emp_role) like '%divya rao%'
+order by (ts_rank(to_tsvector('simple', e.full_name || ' ' || e.email || ' ' || e.emp_role), plainto_tsquery('simple', 'divya rao'))
+          + similarity(lower(e.full_name), lower('divya rao'))) desc, e.id
+limit 10;
+
+rollback;
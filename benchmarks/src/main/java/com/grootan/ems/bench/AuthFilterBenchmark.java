@@ -0,0 +1,177 @@
+package com.grootan.ems.bench;
+
+import com.grootan.ems.auth.AppUserDetails;
+import com.grootan.ems.auth.JwtAuthFilter;
+import com.grootan.ems.auth.JwtService;
+import com.grootan.ems.auth.RevokedTokenRepository;
+import com.grootan.ems.auth.TokenRevocationList;
+import com.grootan.ems.auth.UserStateCache;
+import com.grootan.ems.department.CatalogVersionRepository;
+import com.grootan.ems.user.AppUserRepository;
+import com.grootan.ems.user.Role;
+import com.grootan.ems.user.UserState;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.Filter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time {@code JwtAuthFilter} adds to one authenticated request, before and after claims-based
+ * authentication:
+ * <ul>
+ *   <li>{@code perRequestLookup} — the previous filter: verify the token, then load the account
+ *   with a query per request;</li>
+ *   <li>{@code claimsAndUserStateCache} — the current filter: the verified claims, a
+ *   {@link TokenRevocationList} probe and a {@link UserStateCache} hit.</li>
+ * </ul>
+ * Both read the same {@code app_users} table, held in an in-memory H2 database behind a Hikari
+ * pool, and cycle through {@code users} different tokens. In-process H2 is the best case for the
+ * lookup; against PostgreSQL over the network every request of the old path also pays a round
+ * trip and holds a pool connection for it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AuthFilterBenchmark {
+
+    private static final String SECRET = "benchmark-secret-benchmark-secret-0123456789";
+
+    @Param({"1000"})
+    public int users;
+
+    private HikariDataSource dataSource;
+    private Filter legacy;
+    private Filter current;
+    private String[] bearers;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        HikariConfig config = new HikariConfig();
+        config.setJdbcUrl("jdbc:h2:mem:auth_bench;DB_CLOSE_DELAY=-1");
+        config.setUsername("sa");
+        dataSource = new HikariDataSource(config);
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("create table app_users (id bigint primary key, email varchar(180) not null unique, "
+                + "password_hash varchar(255) not null, role varchar(30) not null, enabled boolean not null)");
+
+        JwtService jwtService = new JwtService(SECRET, 60);
+        bearers = new String[users];
+        for (int i = 0; i < users; i++) {
+            String email = "user" + i + "@grootan.com";
+            jdbc.update("insert into app_users values (?, ?, ?, ?, true)", (long) i + 1, email, "{bcrypt}unused", Role.EMPLOYEE.name());
+            bearers[i] = "Bearer " + jwtService.generateToken((long) i + 1, email, Role.EMPLOYEE);
+        }
+
+        UserDetailsService lookup = email -> jdbc.query(
+                        "select id, email, password_hash, enabled, role from app_users where email = ?",
+                        (rs, n) -> new AppUserDetails(rs.getLong(1), rs.getString(2), rs.getString(3),
+                                rs.getBoolean(4), Role.valueOf(rs.getString(5))), email)
+                .stream().findFirst()
+                .orElseThrow(() -> new UsernameNotFoundException("User not found"));
+        legacy = new LookupFilter(jwtService, lookup);
+
+        AppUserRepository userRepo = Stubs.answering(AppUserRepository.class, "findStateByEmail", args -> jdbc.query(
+                        "select id, enabled, role from app_users where email = ?",
+                        (rs, n) -> new UserState(rs.getLong(1), rs.getBoolean(2), Role.valueOf(rs.getString(3))), args[0])
+                .stream().findFirst());
+        CatalogVersionRepository versionRepo = Stubs.answering(CatalogVersionRepository.class, "findVersion", args -> Optional.of(0L));
+        UserStateCache userStates = new UserStateCache(userRepo, versionRepo, new SimpleMeterRegistry(), 100_000, Duration.ofMinutes(10));
+        RevokedTokenRepository revokedRepo = Stubs.answering(RevokedTokenRepository.class, "findActiveJtis", args -> List.of());
+        TokenRevocationList revocations = new TokenRevocationList(revokedRepo, new SimpleMeterRegistry(), 10_000, 0.01, Duration.ofMinutes(1));
+        current = new JwtAuthFilter(jwtService, userStates, revocations);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        dataSource.close();
+    }
+
+    @Benchmark
+    public Authentication perRequestLookup() throws Exception {
+        return authenticate(legacy);
+    }
+
+    @Benchmark
+    public Authentication claimsAndUserStateCache() throws Exception {
+        return authenticate(current);
+    }
+
+    private Authentication authenticate(Filter filter) throws Exception {
+        MockHttpServletRequest req = new MockHttpServletRequest("GET", "/api/employees");
+        req.addHeader("Authorization", bearers[next++ % bearers.length]);
+        Authentication[] result = new Authentication[1];
+        FilterChain chain = (rq, rs) -> result[0] = SecurityContextHolder.getContext().getAuthentication();
+        try {
+            filter.doFilter(req, new MockHttpServletResponse(), chain);
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+        if (result[0] == null) {
+            throw new IllegalStateException("request was not authenticated");
+        }
+        return result[0];
+    }
+
+    /** {@code JwtAuthFilter} as it was: verify the token, then load the account on every request. */
+    private static final class LookupFilter extends OncePerRequestFilter {
+        private final JwtService jwtService;
+        private final UserDetailsService userDetailsService;
+
+        LookupFilter(JwtService jwtService, UserDetailsService userDetailsService) {
+            this.jwtService = jwtService;
+            this.userDetailsService = userDetailsService;
+        }
+
+        @Override
+        protected void doFilterInternal(HttpServletRequest req, HttpServletResponse res, FilterChain chain)
+                throws ServletException, IOException {
+            String token = req.getHeader("Authorization").substring(7).trim();
+            String email = jwtService.extractEmail(token);
+            if (email != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+                UserDetails ud = userDetailsService.loadUserByUsername(email);
+                var authToken = new UsernamePasswordAuthenticationToken(ud, null, ud.getAuthorities());
+                authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(req));
+                SecurityContextHolder.getContext().setAuthentication(authToken);
+            }
+            chain.doFilter(req, res);
+        }
+    }
+}
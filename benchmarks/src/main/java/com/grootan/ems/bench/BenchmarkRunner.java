@@ -0,0 +1,56 @@
+package com.grootan.ems.bench;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Entry point of {@code benchmarks.jar}: JMH's own command line, with two defaults added so every
+ * run can be compared with earlier ones (see {@link CompareResults}):
+ * <ul>
+ *   <li>the {@code gc} profiler, which adds allocation per operation ({@code gc.alloc.rate.norm})
+ *   and GC counts next to each score;</li>
+ *   <li>JSON results in {@code results/<timestamp>.json}.</li>
+ * </ul>
+ * Any {@code -prof}, {@code -rf} or {@code -rff} on the command line replaces the corresponding
+ * default; {@code -h} and the listing options behave as in plain JMH.
+ */
+public final class BenchmarkRunner {
+
+    private static final DateTimeFormatter STAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private BenchmarkRunner() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions cmd = new CommandLineOptions(args);
+        if (cmd.shouldHelp() || cmd.shouldList() || cmd.shouldListWithParams()
+                || cmd.shouldListProfilers() || cmd.shouldListResultFormats()) {
+            org.openjdk.jmh.Main.main(args);
+            return;
+        }
+
+        ChainedOptionsBuilder options = new OptionsBuilder().parent(cmd);
+        if (cmd.getProfilers().isEmpty()) {
+            options.addProfiler(GCProfiler.class);
+        }
+        if (!cmd.getResultFormat().hasValue() && !cmd.getResult().hasValue()) {
+            options.resultFormat(ResultFormatType.JSON).result(resultFile().toString());
+        }
+        new Runner(options.build()).run();
+    }
+
+    private static Path resultFile() throws IOException {
+        Path dir = Files.createDirectories(Path.of("results"));
+        return dir.resolve(LocalDateTime.now().format(STAMP) + ".json");
+    }
+}
@@ -0,0 +1,115 @@
+package com.grootan.ems.bench;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.grootan.ems.cache.CompressingCacheSerializer;
+import com.grootan.ems.cache.JsonCacheCodec;
+import com.grootan.ems.cache.SchemaCacheCodec;
+import com.grootan.ems.department.dto.DepartmentResponse;
+import com.grootan.ems.employee.dto.EmployeePage;
+import com.grootan.ems.employee.dto.EmployeeResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encode/decode cost of the Redis cache value formats for the three shapes we cache.
+ * <p>
+ * {@code json} is the serializer {@code CacheConfig} used before the codec existed; note that it
+ * decodes to maps rather than DTOs, which flatters its decode time. Entry sizes are printed once
+ * per trial as {@code bytes/entry}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CacheCodecBenchmark {
+
+    @Param({"employee", "departments", "searchPage"})
+    public String payload;
+
+    @Param({"json", "json+deflate", "schema", "schema+deflate"})
+    public String format;
+
+    private RedisSerializer<Object> serializer;
+    private Object value;
+    private byte[] encoded;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ObjectMapper om = new ObjectMapper();
+        om.registerModule(new JavaTimeModule());
+        serializer = switch (format) {
+            case "json" -> new GenericJackson2JsonRedisSerializer(om);
+            case "json+deflate" -> new CompressingCacheSerializer(new JsonCacheCodec(om), 2048);
+            case "schema" -> new CompressingCacheSerializer(new SchemaCacheCodec(), Integer.MAX_VALUE);
+            case "schema+deflate" -> new CompressingCacheSerializer(new SchemaCacheCodec(), 2048);
+            default -> throw new IllegalArgumentException(format);
+        };
+        value = switch (payload) {
+            case "employee" -> employee(1);
+            case "departments" -> departments(30);
+            case "searchPage" -> searchPage(20);
+            default -> throw new IllegalArgumentException(payload);
+        };
+        encoded = serializer.serialize(value);
+        System.out.printf("%n%s/%s: %d bytes/entry%n", payload, format, encoded.length);
+    }
+
+    @Benchmark
+    public byte[] encode() {
+        return serializer.serialize(value);
+    }
+
+    @Benchmark
+    public Object decode() {
+        return serializer.deserialize(encoded);
+    }
+
+    static EmployeeResponse employee(long id) {
+        OffsetDateTime created = OffsetDateTime.of(2023, 1, 1, 9, 0, 0, 0, ZoneOffset.UTC).plusMinutes(id * 7);
+        return new EmployeeResponse(id, "Employee Number " + id, "employee.number" + id + "@grootan.com",
+                LocalDate.of(2019, 1, 1).plusDays(id), id % 5 == 0 ? "INACTIVE" : "ACTIVE",
+                1 + id % 12, "DEPT" + (1 + id % 12), "Department " + (1 + id % 12),
+                created, created.plusDays(30));
+    }
+
+    static List<DepartmentResponse> departments(int n) {
+        List<DepartmentResponse> out = new ArrayList<>(n);
+        OffsetDateTime ts = OffsetDateTime.of(2022, 6, 1, 12, 0, 0, 0, ZoneOffset.UTC);
+        for (long i = 1; i <= n; i++) {
+            out.add(new DepartmentResponse(i, "DEPT" + i, "Department " + i, ts, ts.plusHours(i)));
+        }
+        return out;
+    }
+
+    static EmployeePage searchPage(int size) {
+        List<EmployeeResponse> content = new ArrayList<>(size);
+        for (long i = 0; i < size; i++) {
+            content.add(employee(1_000 + i));
+        }
+        return new EmployeePage(content, PageRequest.of(2, size, Sort.by("fullName")), 48_213, EmployeePage.TotalAccuracy.EXACT);
+    }
+}
@@ -0,0 +1,70 @@
+package com.grootan.ems.bench;
+
+import com.grootan.ems.employee.EmployeeService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.expression.MethodBasedEvaluationContext;
+import org.springframework.core.DefaultParameterNameDiscoverer;
+import org.springframework.core.ParameterNameDiscoverer;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.expression.Expression;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The {@code employeeSearch} cache key, computed on every call to {@code EmployeeService.search}
+ * before the cache is even asked:
+ * <ul>
+ *   <li>{@code spel} — as the cache interceptor does it: the key expression of the method's
+ *   {@link Cacheable} (parsed once, as Spring caches parsed expressions) evaluated against a new
+ *   method-based evaluation context per call;</li>
+ *   <li>{@code direct} — the {@code searchKey} method that expression calls, on its own.</li>
+ * </ul>
+ * The difference is the SpEL overhead per cached call.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CacheKeyBenchmark {
+
+    private final ParameterNameDiscoverer parameterNames = new DefaultParameterNameDiscoverer();
+    private Method search;
+    private Expression key;
+    private Object[] args;
+
+    @Setup(Level.Trial)
+    public void setUp() throws NoSuchMethodException {
+        search = EmployeeService.class.getMethod("search", String.class, Long.class, String.class, Pageable.class);
+        key = new SpelExpressionParser().parseExpression(search.getAnnotation(Cacheable.class).key());
+        args = new Object[]{"Ann", 7L, "active", PageRequest.of(2, 20, Sort.by("fullName").and(Sort.by("id")))};
+    }
+
+    @Benchmark
+    public Object spel() {
+        // the key reads only the arguments, so the root object does not matter
+        MethodBasedEvaluationContext context = new MethodBasedEvaluationContext(this, search, args, parameterNames);
+        return key.getValue(context);
+    }
+
+    @Benchmark
+    public String direct() {
+        return EmployeeService.searchKey((String) args[0], (Long) args[1], (String) args[2], (Pageable) args[3]);
+    }
+}
@@ -0,0 +1,139 @@
+package com.grootan.ems.bench;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Compares two JMH JSON result files (as {@link BenchmarkRunner} writes them) benchmark by
+ * benchmark, matching on name, mode and parameters, and exits with status 1 when any score or
+ * allocation per operation got worse by more than the threshold:
+ * <pre>
+ * java -cp target/benchmarks.jar com.grootan.ems.bench.CompareResults \
+ *     results/baseline.json results/20250101-120000.json --threshold=10
+ * </pre>
+ * A score only counts as a regression when the change is also larger than the two error margins
+ * together, so a noisy benchmark does not fail the comparison on its own. Allocation differences
+ * below 16 bytes per operation are ignored.
+ */
+public final class CompareResults {
+
+    private static final String ALLOC_NORM = "gc.alloc.rate.norm";
+    private static final double ALLOC_NOISE_BYTES = 16;
+
+    private CompareResults() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("usage: CompareResults <baseline.json> <current.json> [--threshold=percent]");
+            System.exit(2);
+        }
+        double threshold = 10;
+        for (int i = 2; i < args.length; i++) {
+            if (args[i].startsWith("--threshold=")) {
+                threshold = Double.parseDouble(args[i].substring("--threshold=".length()));
+            }
+        }
+
+        ObjectMapper om = new ObjectMapper();
+        Map<String, JsonNode> baseline = byKey(om.readTree(new File(args[0])));
+        Map<String, JsonNode> current = byKey(om.readTree(new File(args[1])));
+
+        int regressions = 0;
+        System.out.printf("%-70s %14s %14s %8s %12s %12s %8s%n",
+                "benchmark", "baseline", "current", "change", "B/op before", "B/op after", "change");
+        for (Map.Entry<String, JsonNode> entry : new TreeMap<>(current).entrySet()) {
+            JsonNode now = entry.getValue();
+            JsonNode before = baseline.get(entry.getKey());
+            if (before == null) {
+                System.out.printf("%-70s %14s %14s%n", entry.getKey(), "(new)", score(now));
+                continue;
+            }
+            boolean higherIsBetter = "thrpt".equals(now.path("mode").asText());
+            double was = before.path("primaryMetric").path("score").asDouble();
+            double is = now.path("primaryMetric").path("score").asDouble();
+            double error = finite(before.path("primaryMetric").path("scoreError").asDouble())
+                    + finite(now.path("primaryMetric").path("scoreError").asDouble());
+            double worse = higherIsBetter ? was - is : is - was;
+            boolean slower = worse > error && worse > Math.abs(was) * threshold / 100;
+
+            double allocWas = alloc(before);
+            double allocIs = alloc(now);
+            boolean allocates = !Double.isNaN(allocWas) && !Double.isNaN(allocIs)
+                    && allocIs - allocWas > ALLOC_NOISE_BYTES
+                    && allocIs - allocWas > allocWas * threshold / 100;
+
+            System.out.printf("%-70s %14s %14s %7.1f%% %12s %12s %7s%s%n",
+                    entry.getKey(), score(before), score(now), change(was, is),
+                    bytes(allocWas), bytes(allocIs), Double.isNaN(allocWas) || Double.isNaN(allocIs) ? ""
+                            : String.format("%.1f%%", change(allocWas, allocIs)),
+                    slower || allocates ? "  REGRESSION" : "");
+            if (slower || allocates) {
+                regressions++;
+            }
+        }
+        for (String key : baseline.keySet()) {
+            if (!current.containsKey(key)) {
+                System.out.printf("%-70s %14s %14s%n", key, score(baseline.get(key)), "(gone)");
+            }
+        }
+
+        System.out.printf("%n%d regression(s) beyond %.0f%%%n", regressions, threshold);
+        if (regressions > 0) {
+            System.exit(1);
+        }
+    }
+
+    // "Class.method mode {param=value,...}"; package names left out to keep the column readable
+    private static Map<String, JsonNode> byKey(JsonNode results) {
+        Map<String, JsonNode> out = new LinkedHashMap<>();
+        for (JsonNode result : results) {
+            String benchmark = result.path("benchmark").asText();
+            int method = benchmark.lastIndexOf('.');
+            int type = benchmark.lastIndexOf('.', method - 1);
+            StringBuilder key = new StringBuilder(benchmark.substring(type + 1))
+                    .append(' ').append(result.path("mode").asText());
+            JsonNode params = result.path("params");
+            if (params.size() > 0) {
+                Map<String, String> sorted = new TreeMap<>();
+                for (Iterator<Map.Entry<String, JsonNode>> it = params.fields(); it.hasNext(); ) {
+                    Map.Entry<String, JsonNode> p = it.next();
+                    sorted.put(p.getKey(), p.getValue().asText());
+                }
+                key.append(' ').append(sorted);
+            }
+            out.put(key.toString(), result);
+        }
+        return out;
+    }
+
+    private static String score(JsonNode result) {
+        JsonNode metric = result.path("primaryMetric");
+        return String.format("%.3f %s", metric.path("score").asDouble(), metric.path("scoreUnit").asText());
+    }
+
+    private static double alloc(JsonNode result) {
+        JsonNode metric = result.path("secondaryMetrics").path(ALLOC_NORM);
+        return metric.isMissingNode() ? Double.NaN : metric.path("score").asDouble();
+    }
+
+    private static String bytes(double value) {
+        return Double.isNaN(value) ? "" : String.format("%.0f", value);
+    }
+
+    private static double change(double was, double is) {
+        return was == 0 ? 0 : (is - was) * 100 / Math.abs(was);
+    }
+
+    // JMH reports NaN as the error of a single-iteration run
+    private static double finite(double value) {
+        return Double.isFinite(value) ? value : 0;
+    }
+}
@@ -0,0 +1,126 @@
+package com.grootan.ems.bench;
+
+import com.grootan.ems.department.CatalogVersionRepository;
+import com.grootan.ems.department.Department;
+import com.grootan.ems.department.DepartmentDirectory;
+import com.grootan.ems.department.DepartmentRepository;
+import com.grootan.ems.employee.Employee;
+import com.grootan.ems.employee.EmployeeCounter;
+import com.grootan.ems.employee.EmployeeRepository;
+import com.grootan.ems.employee.EmployeeService;
+import com.grootan.ems.employee.EmployeeStatus;
+import com.grootan.ems.employee.LikeEmployeeTextSearch;
+import com.grootan.ems.employee.dto.EmployeeResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code EmployeeService} from a loaded entity to its response, without the database: what a
+ * cache miss costs once the rows are in memory.
+ * <ul>
+ *   <li>{@code getById} — one {@code toResponse}, with its {@link DepartmentDirectory} lookup;</li>
+ *   <li>{@code searchPage} — {@code search} mapping a page of {@code pageSize} entities and wrapping
+ *   it as an {@code EmployeePage} (the specification is built, the query is a stub).</li>
+ * </ul>
+ * Calls go to the service directly, not through its {@code @Cacheable} proxy.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EmployeeMappingBenchmark {
+
+    private static final int DEPARTMENTS = 30;
+
+    @Param({"20"})
+    public int pageSize;
+
+    private EmployeeService byId;
+    private EmployeeService search;
+    private Pageable pageable;
+    private long next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<Department> departments = new ArrayList<>();
+        OffsetDateTime ts = OffsetDateTime.of(2022, 6, 1, 12, 0, 0, 0, ZoneOffset.UTC);
+        for (long i = 1; i <= DEPARTMENTS; i++) {
+            Department d = new Department();
+            d.setId(i);
+            d.setCode("DEPT" + i);
+            d.setName("Department " + i);
+            d.setCreatedAt(ts);
+            d.setUpdatedAt(ts);
+            departments.add(d);
+        }
+        DepartmentDirectory directory = new DepartmentDirectory(
+                Stubs.answering(DepartmentRepository.class, "findAll", args -> departments),
+                Stubs.answering(CatalogVersionRepository.class, "findVersion", args -> Optional.of(1L)));
+        directory.list(); // loaded once, as at startup
+
+        List<Employee> employees = new ArrayList<>();
+        for (long i = 1; i <= 1_000; i++) {
+            employees.add(employee(i, departments.get((int) (i % DEPARTMENTS))));
+        }
+        pageable = PageRequest.of(0, pageSize, Sort.by("fullName"));
+        Page<Employee> page = new PageImpl<>(employees.subList(0, pageSize), pageable, 48_213);
+
+        EmployeeCounter exact = new EmployeeCounter(null, null, null, null, null, EmployeeCounter.Strategy.EXACT, 0);
+        byId = service(Stubs.answering(EmployeeRepository.class, "findById",
+                args -> Optional.of(employees.get((int) ((Long) args[0] % employees.size())))), directory, exact);
+        search = service(Stubs.answering(EmployeeRepository.class, "findAll", args -> page), directory, exact);
+    }
+
+    private static EmployeeService service(EmployeeRepository repo, DepartmentDirectory directory, EmployeeCounter counter) {
+        return new EmployeeService(repo, null, directory, null, new LikeEmployeeTextSearch(), null, counter);
+    }
+
+    private static Employee employee(long id, Department department) {
+        Employee e = new Employee();
+        e.setId(id);
+        e.setFullName("Employee Number " + id);
+        e.setEmail("employee.number" + id + "@grootan.com");
+        e.setEmpRole("ENGINEER");
+        e.setHireDate(LocalDate.of(2019, 1, 1).plusDays(id));
+        e.setStatus(id % 5 == 0 ? EmployeeStatus.INACTIVE : EmployeeStatus.ACTIVE);
+        e.setDepartment(department);
+        e.setCreatedAt(department.getCreatedAt().plusMinutes(id));
+        e.setUpdatedAt(department.getCreatedAt().plusDays(id));
+        return e;
+    }
+
+    @Benchmark
+    public EmployeeResponse getById() {
+        return byId.getById(next++);
+    }
+
+    @Benchmark
+    public Page<EmployeeResponse> searchPage() {
+        return search.search("number", null, "ACTIVE", pageable);
+    }
+}
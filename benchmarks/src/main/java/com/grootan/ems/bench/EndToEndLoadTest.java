@@ -0,0 +1,512 @@
+package com.grootan.ems.bench;
+
+import com.grootan.ems.EmsApplication;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import redis.embedded.RedisServer;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * End-to-end load test of the whole application on one machine, without staging: it starts an
+ * embedded PostgreSQL and an embedded Redis, boots the application in this JVM against them
+ * (schema and seed data from {@code schema.sql} / {@code data.sql}, as in production), imports
+ * {@code employees} generated employees through {@code POST /api/employees/import}, logs in at
+ * {@code /auth/login} and drives the real controllers over HTTP with a weighted mix of
+ * <ul>
+ *   <li>{@code search} — {@code GET /api/employees} by name, some with a department or status filter;</li>
+ *   <li>{@code getById} — {@code GET /api/employees/{id}}, skewed towards a hot set of ids;</li>
+ *   <li>{@code create}, {@code update}, {@code delete} — {@code POST}, {@code PUT}, {@code DELETE};
+ *   deletes remove employees this run created, updates change seeded ones in place.</li>
+ * </ul>
+ * {@code clients} closed loops send the next request as soon as the previous one answers. After
+ * {@code warmup}, {@code duration} is measured and reported per endpoint: throughput, latency
+ * percentiles, JDBC statements per request ({@link StatementCounter}) and the hit ratio of the
+ * cache the endpoint reads, followed by every cache's gets and hit ratio in the window.
+ * <pre>
+ * java -cp target/benchmarks.jar com.grootan.ems.bench.EndToEndLoadTest \
+ *     --clients=64 --duration=60s --warmup=15s --employees=10000 \
+ *     --mix=search:50,getById:30,create:8,update:8,delete:4 --seed=42
+ * </pre>
+ * Arguments starting with {@code --app.}, {@code --spring.}, {@code --server.} or
+ * {@code --logging.} go to the application, e.g. {@code --app.search.backend=postgres}. Its
+ * BCrypt strength defaults to 4 here, so hashing the imported accounts' passwords does not compete
+ * with the measurement; {@code --app.security.password.bcrypt-strength=0} restores calibration.
+ * Load generator, application, database and Redis share the host: compare runs made on the same
+ * machine, not absolute numbers with production.
+ */
+public final class EndToEndLoadTest {
+
+    private static final String ADMIN_EMAIL = "admin@grootan.com";
+    private static final String ADMIN_PASSWORD = "Admin@123"; // data.sql
+    private static final String DEFAULT_MIX = "search:50,getById:30,create:8,update:8,delete:4";
+    private static final int IMPORT_CHUNK = 2_000;
+    private static final Pattern ID = Pattern.compile("\"id\"\\s*:\\s*(\\d+)");
+
+    private static final String[] FIRST_NAMES = {"Aarav", "Priya", "Rahul", "Ananya", "Vikram", "Divya", "Arjun",
+            "Kavya", "Rohan", "Meera", "Karthik", "Sneha", "Aditya", "Lakshmi", "Nikhil", "Pooja", "Suresh", "Deepa",
+            "Manoj", "Anjali", "James", "Maria", "David", "Sarah", "Michael", "Emma", "Daniel", "Olivia"};
+    private static final String[] LAST_NAMES = {"Sharma", "Iyer", "Reddy", "Nair", "Patel", "Kumar", "Rao", "Menon",
+            "Gupta", "Singh", "Krishnan", "Pillai", "Das", "Joshi", "Smith", "Johnson", "Brown", "Garcia", "Miller"};
+    private static final String[] ROLES = {"EMPLOYEE", "EMPLOYEE", "EMPLOYEE", "EMPLOYEE", "MANAGER", "HR"};
+    // data.sql
+    private static final String[] DEPARTMENT_CODES = {"ENG", "SALES", "OPS", "SUP", "IT", "QA", "FIN", "MKT", "HR", "ADMIN"};
+
+    private EndToEndLoadTest() {
+    }
+
+    enum Endpoint {
+        SEARCH("search", "employeeSearch"),
+        GET_BY_ID("getById", "employeeById"),
+        CREATE("create", null),
+        UPDATE("update", null),
+        DELETE("delete", null);
+
+        final String label;
+        final String cache;
+
+        Endpoint(String label, String cache) {
+            this.label = label;
+            this.cache = cache;
+        }
+
+        static Endpoint of(String label) {
+            for (Endpoint e : values()) {
+                if (e.label.equalsIgnoreCase(label)) {
+                    return e;
+                }
+            }
+            throw new IllegalArgumentException("unknown endpoint " + label + ", expected search, getById, create, update or delete");
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> opts = new LinkedHashMap<>();
+        Map<String, String> appArgs = new LinkedHashMap<>();
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (!arg.startsWith("--") || eq < 0) {
+                throw new IllegalArgumentException("expected --name=value, got " + arg);
+            }
+            String name = arg.substring(2, eq);
+            boolean forApp = name.startsWith("app.") || name.startsWith("spring.")
+                    || name.startsWith("server.") || name.startsWith("logging.");
+            (forApp ? appArgs : opts).put(name, arg.substring(eq + 1));
+        }
+        int clients = Integer.parseInt(opts.getOrDefault("clients", "64"));
+        Duration warmup = Duration.parse("PT" + opts.getOrDefault("warmup", "15s").toUpperCase());
+        Duration measure = Duration.parse("PT" + opts.getOrDefault("duration", "60s").toUpperCase());
+        int employees = Integer.parseInt(opts.getOrDefault("employees", "10000"));
+        long seed = Long.parseLong(opts.getOrDefault("seed", "42"));
+        Map<Endpoint, Integer> mix = mix(opts.getOrDefault("mix", DEFAULT_MIX));
+
+        try (EmbeddedPostgres postgres = EmbeddedPostgres.builder().start()) {
+            int redisPort = freePort();
+            RedisServer redis = new RedisServer(redisPort);
+            redis.start();
+            try (ConfigurableApplicationContext app = boot(postgres.getPort(), redisPort, appArgs)) {
+                run(app, clients, warmup, measure, employees, seed, mix);
+            } finally {
+                redis.stop();
+            }
+        }
+        System.exit(0); // the embedded servers' and the HTTP client's threads
+    }
+
+    private static ConfigurableApplicationContext boot(int postgresPort, int redisPort, Map<String, String> overrides) {
+        Map<String, String> props = new LinkedHashMap<>();
+        props.put("spring.datasource.url", "jdbc:postgresql://localhost:" + postgresPort + "/postgres?reWriteBatchedInserts=true");
+        props.put("spring.datasource.username", "postgres");
+        props.put("spring.datasource.password", "");
+        props.put("app.reactive.r2dbc.url", "r2dbc:postgresql://localhost:" + postgresPort + "/postgres");
+        props.put("app.reactive.r2dbc.username", "postgres");
+        props.put("app.reactive.r2dbc.password", "");
+        props.put("spring.data.redis.host", "localhost");
+        props.put("spring.data.redis.port", String.valueOf(redisPort));
+        props.put("server.port", "0");
+        props.put("app.warmup.enabled", "false"); // the run has its own warm-up phase
+        props.put("app.jwt.expiry-minutes", "1440"); // one token for the whole run
+        props.put("app.security.password.bcrypt-strength", "4");
+        props.put("spring.main.banner-mode", "off");
+        props.put("logging.level.root", "WARN");
+        props.put("logging.level.com.grootan.ems", "ERROR"); // deletes log at WARN
+        props.putAll(overrides);
+
+        // command-line arguments, so they take precedence over application.yaml
+        String[] args = props.entrySet().stream().map(e -> "--" + e.getKey() + "=" + e.getValue()).toArray(String[]::new);
+        System.out.println("Starting the application against PostgreSQL on " + postgresPort + " and Redis on " + redisPort);
+        return new SpringApplicationBuilder(EmsApplication.class, StatementCounter.class).run(args);
+    }
+
+    private static void run(ConfigurableApplicationContext app, int clients, Duration warmup, Duration measure,
+                            int employees, long seed, Map<Endpoint, Integer> mix) throws Exception {
+        String url = "http://localhost:" + app.getEnvironment().getRequiredProperty("local.server.port");
+        ExecutorService callbacks = Executors.newFixedThreadPool(Math.max(2, Runtime.getRuntime().availableProcessors() / 2));
+        HttpClient http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .executor(callbacks)
+                .build();
+        String bearer = "Bearer " + login(http, url);
+
+        Random random = new Random(seed);
+        long started = System.nanoTime();
+        importEmployees(http, url, bearer, employees, random);
+        JdbcTemplate jdbc = app.getBean(JdbcTemplate.class);
+        List<Seeded> seeded = jdbc.query(
+                "select id, full_name, email, hire_date from employees where email <> ? order by id",
+                (rs, n) -> new Seeded(rs.getLong(1), rs.getString(2), rs.getString(3), rs.getObject(4, LocalDate.class)),
+                ADMIN_EMAIL);
+        System.out.printf("Imported %d employees in %.1f s%n", seeded.size(), (System.nanoTime() - started) / 1e9);
+
+        Workload workload = new Workload(url, bearer, mix, seeded, jdbc.queryForList(
+                "select id from departments order by id", Long.class), seed);
+        StatementCounter statements = app.getBean(StatementCounter.class);
+        MeterRegistry registry = app.getBean(MeterRegistry.class);
+
+        Load load = new Load(http, workload, clients, seed);
+        load.start();
+        Thread.sleep(warmup.toMillis());
+        Window window = new Window();
+        Map<String, Long> statementsBefore = statements.snapshot();
+        Map<String, double[]> cachesBefore = cacheGets(registry);
+        load.current = window; // requests still in flight count towards the warm-up
+        Thread.sleep(measure.toMillis());
+        window.close();
+        Map<String, Long> statementsAfter = statements.snapshot();
+        Map<String, double[]> cachesAfter = cacheGets(registry);
+        load.stop();
+
+        report(window, measure, clients, delta(statementsBefore, statementsAfter), cacheDelta(cachesBefore, cachesAfter));
+        callbacks.shutdownNow();
+    }
+
+    private static String login(HttpClient http, String url) throws Exception {
+        String body = "{\"email\":\"" + ADMIN_EMAIL + "\",\"password\":\"" + ADMIN_PASSWORD + "\"}";
+        HttpResponse<String> res = http.send(HttpRequest.newBuilder(URI.create(url + "/auth/login"))
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(body))
+                        .build(),
+                HttpResponse.BodyHandlers.ofString());
+        Matcher m = Pattern.compile("\"accessToken\"\\s*:\\s*\"([^\"]+)\"").matcher(res.body());
+        if (res.statusCode() != 200 || !m.find()) {
+            throw new IllegalStateException("login failed (" + res.statusCode() + "): " + res.body());
+        }
+        return m.group(1);
+    }
+
+    /** Generated employees through the import endpoint, in CSV chunks. */
+    private static void importEmployees(HttpClient http, String url, String bearer, int count, Random random)
+            throws Exception {
+        for (int from = 0; from < count; from += IMPORT_CHUNK) {
+            StringBuilder csv = new StringBuilder("fullName,email,empRole,hireDate,departmentCode,status\n");
+            for (int i = from; i < Math.min(count, from + IMPORT_CHUNK); i++) {
+                String first = FIRST_NAMES[skewed(random, FIRST_NAMES.length)];
+                String last = LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+                csv.append(first).append(' ').append(last).append(',')
+                        .append(first.toLowerCase()).append('.').append(last.toLowerCase()).append('.').append(i).append("@load.test,")
+                        .append(ROLES[random.nextInt(ROLES.length)]).append(',')
+                        .append(LocalDate.of(2010, 1, 1).plusDays(random.nextInt(15 * 365))).append(',')
+                        .append(DEPARTMENT_CODES[skewed(random, DEPARTMENT_CODES.length)]).append(',')
+                        .append(random.nextInt(10) == 0 ? "INACTIVE" : "ACTIVE").append('\n');
+            }
+            HttpResponse<String> res = http.send(HttpRequest.newBuilder(URI.create(url + "/api/employees/import"))
+                            .header("Authorization", bearer)
+                            .header("Content-Type", "text/csv")
+                            .POST(HttpRequest.BodyPublishers.ofString(csv.toString()))
+                            .build(),
+                    HttpResponse.BodyHandlers.ofString());
+            if (res.statusCode() / 100 != 2) {
+                throw new IllegalStateException("import failed (" + res.statusCode() + "): " + res.body());
+            }
+        }
+    }
+
+    /** An index in [0, n), low indexes much more likely: a few hot values and a long tail. */
+    static int skewed(Random random, int n) {
+        return (int) (n * Math.pow(random.nextDouble(), 3));
+    }
+
+    private static Map<Endpoint, Integer> mix(String spec) {
+        Map<Endpoint, Integer> mix = new EnumMap<>(Endpoint.class);
+        for (String part : spec.split(",")) {
+            String[] kv = part.trim().split(":");
+            mix.put(Endpoint.of(kv[0]), Integer.parseInt(kv[1]));
+        }
+        return mix;
+    }
+
+    // cache name -> {hits, misses}; l1_hit and l2_hit of the two-level caches both count as hits
+    private static Map<String, double[]> cacheGets(MeterRegistry registry) {
+        Map<String, double[]> out = new TreeMap<>();
+        for (Counter counter : registry.find("cache.gets").counters()) {
+            String cache = counter.getId().getTag("cache");
+            String result = counter.getId().getTag("result");
+            if (cache == null || result == null) {
+                continue;
+            }
+            double[] gets = out.computeIfAbsent(cache, k -> new double[2]);
+            gets["miss".equals(result) ? 1 : 0] += counter.count();
+        }
+        return out;
+    }
+
+    private static Map<String, Long> delta(Map<String, Long> before, Map<String, Long> after) {
+        Map<String, Long> out = new TreeMap<>();
+        after.forEach((k, v) -> out.put(k, v - before.getOrDefault(k, 0L)));
+        return out;
+    }
+
+    private static Map<String, double[]> cacheDelta(Map<String, double[]> before, Map<String, double[]> after) {
+        Map<String, double[]> out = new TreeMap<>();
+        after.forEach((k, v) -> {
+            double[] was = before.getOrDefault(k, new double[2]);
+            out.put(k, new double[]{v[0] - was[0], v[1] - was[1]});
+        });
+        return out;
+    }
+
+    private static void report(Window window, Duration measure, int clients,
+                               Map<String, Long> statements, Map<String, double[]> caches) {
+        double seconds = measure.toMillis() / 1000.0;
+        System.out.printf("%n%d clients, %.0f s measured%n", clients, seconds);
+        System.out.printf("%-9s %9s %7s %9s %8s %8s %9s %8s %10s %10s%n",
+                "endpoint", "requests", "errors", "req/s", "p50 ms", "p99 ms", "p99.9 ms", "max ms", "stmts/req", "cache hit");
+        long total = 0;
+        for (Map.Entry<Endpoint, LatencyHistogram> entry : window.byEndpoint.entrySet()) {
+            Endpoint endpoint = entry.getKey();
+            LatencyHistogram stats = entry.getValue();
+            if (stats.count() == 0) {
+                continue;
+            }
+            total += stats.count();
+            double[] gets = endpoint.cache == null ? null : caches.get(endpoint.cache);
+            String hit = gets == null || gets[0] + gets[1] == 0 ? "-"
+                    : String.format("%.1f%%", 100 * gets[0] / (gets[0] + gets[1]));
+            System.out.printf("%-9s %9d %7d %9.0f %8.1f %8.1f %9.1f %8.1f %10.2f %10s%n",
+                    endpoint.label, stats.count(), stats.errors(), stats.count() / seconds,
+                    stats.percentile(0.50), stats.percentile(0.99), stats.percentile(0.999), stats.max(),
+                    statements.getOrDefault(endpoint.label, 0L) / (double) stats.count(), hit);
+        }
+        System.out.printf("%-9s %9d %7s %9.0f%n", "total", total, "", total / seconds);
+        System.out.printf("statements outside measured requests (%s): %d%n",
+                StatementCounter.BACKGROUND, statements.getOrDefault(StatementCounter.BACKGROUND, 0L));
+
+        System.out.printf("%n%-20s %10s %10s%n", "cache", "gets", "hit ratio");
+        caches.forEach((name, gets) -> {
+            double n = gets[0] + gets[1];
+            if (n > 0) {
+                System.out.printf("%-20s %10.0f %9.1f%%%n", name, n, 100 * gets[0] / n);
+            }
+        });
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    record Seeded(long id, String fullName, String email, LocalDate hireDate) {
+    }
+
+    /** Latencies of one measurement window, per endpoint. */
+    private static final class Window {
+        final Map<Endpoint, LatencyHistogram> byEndpoint = new EnumMap<>(Endpoint.class);
+
+        Window() {
+            for (Endpoint e : Endpoint.values()) {
+                byEndpoint.put(e, new LatencyHistogram());
+            }
+        }
+
+        void record(Endpoint endpoint, long nanos, boolean ok) {
+            byEndpoint.get(endpoint).record(nanos, ok);
+        }
+
+        void close() {
+            byEndpoint.values().forEach(LatencyHistogram::close);
+        }
+    }
+
+    /** The next request of a client; a successful create's id is kept for a later delete. */
+    private record Call(Endpoint endpoint, HttpRequest request) {
+    }
+
+    /**
+     * Builds requests from the mix. Each client draws from its own {@link Random}, seeded from
+     * {@code seed}, so a run issues the same kind of requests in the same proportions every time
+     * (their interleaving still depends on timing).
+     */
+    private static final class Workload {
+        private final String url;
+        private final String bearer;
+        private final Endpoint[] weighted;
+        private final List<Seeded> seeded;
+        private final List<Long> departmentIds;
+        private final ConcurrentLinkedDeque<Long> created = new ConcurrentLinkedDeque<>();
+        private final AtomicLong createdCount = new AtomicLong();
+        private final long seed;
+
+        Workload(String url, String bearer, Map<Endpoint, Integer> mix, List<Seeded> seeded,
+                 List<Long> departmentIds, long seed) {
+            this.url = url;
+            this.bearer = bearer;
+            List<Endpoint> slots = new ArrayList<>();
+            mix.forEach((endpoint, weight) -> {
+                for (int i = 0; i < weight; i++) {
+                    slots.add(endpoint);
+                }
+            });
+            if (slots.isEmpty()) {
+                throw new IllegalArgumentException("the mix has no requests");
+            }
+            this.weighted = slots.toArray(Endpoint[]::new);
+            this.seeded = seeded;
+            this.departmentIds = departmentIds;
+            this.seed = seed;
+        }
+
+        Call next(Random random) {
+            Endpoint endpoint = weighted[random.nextInt(weighted.length)];
+            if (endpoint == Endpoint.DELETE) {
+                Long victim = created.pollFirst();
+                if (victim != null) {
+                    return new Call(endpoint, request(endpoint, "/api/employees/" + victim).DELETE().build());
+                }
+                endpoint = Endpoint.CREATE; // nothing of ours left to delete yet
+            }
+            return switch (endpoint) {
+                case SEARCH -> {
+                    StringBuilder path = new StringBuilder("/api/employees?size=20&q=")
+                            .append(FIRST_NAMES[skewed(random, FIRST_NAMES.length)].toLowerCase().substring(0, 3))
+                            .append("&page=").append(skewed(random, 5));
+                    if (random.nextInt(4) == 0) {
+                        path.append("&departmentId=").append(departmentIds.get(skewed(random, departmentIds.size())));
+                    }
+                    if (random.nextInt(4) == 0) {
+                        path.append("&status=ACTIVE");
+                    }
+                    yield new Call(endpoint, request(endpoint, path.toString()).GET().build());
+                }
+                case GET_BY_ID -> new Call(endpoint, request(endpoint,
+                        "/api/employees/" + seeded.get(skewed(random, seeded.size())).id()).GET().build());
+                case CREATE -> {
+                    long n = createdCount.incrementAndGet();
+                    String body = "{\"fullName\":\"Load Test " + n + "\",\"email\":\"created." + seed + "." + n + "@load.test\","
+                            + "\"empRole\":\"" + ROLES[random.nextInt(ROLES.length)] + "\","
+                            + "\"hireDate\":\"" + LocalDate.of(2024, 1, 1).plusDays(random.nextInt(365)) + "\","
+                            + "\"departmentId\":" + departmentIds.get(random.nextInt(departmentIds.size())) + "}";
+                    yield new Call(endpoint, json(request(endpoint, "/api/employees"), "POST", body));
+                }
+                case UPDATE -> {
+                    Seeded e = seeded.get(random.nextInt(seeded.size()));
+                    String body = "{\"fullName\":\"" + e.fullName() + "\",\"email\":\"" + e.email() + "\","
+                            + "\"hireDate\":\"" + e.hireDate() + "\","
+                            + "\"departmentId\":" + departmentIds.get(random.nextInt(departmentIds.size())) + ","
+                            + "\"status\":\"" + (random.nextInt(10) == 0 ? "INACTIVE" : "ACTIVE") + "\"}";
+                    yield new Call(endpoint, json(request(endpoint, "/api/employees/" + e.id()), "PUT", body));
+                }
+                case DELETE -> throw new IllegalStateException(); // handled above
+            };
+        }
+
+        void succeeded(Call call, String body) {
+            if (call.endpoint() == Endpoint.CREATE) {
+                Matcher m = ID.matcher(body);
+                if (m.find()) {
+                    created.addLast(Long.parseLong(m.group(1)));
+                }
+            }
+        }
+
+        private HttpRequest.Builder request(Endpoint endpoint, String path) {
+            return HttpRequest.newBuilder(URI.create(url + path))
+                    .header("Authorization", bearer)
+                    .header(StatementCounter.HEADER, endpoint.label)
+                    .timeout(Duration.ofSeconds(60));
+        }
+
+        private static HttpRequest json(HttpRequest.Builder builder, String method, String body) {
+            return builder.header("Content-Type", "application/json")
+                    .method(method, HttpRequest.BodyPublishers.ofString(body))
+                    .build();
+        }
+    }
+
+    /** {@code clients} closed loops over the workload. */
+    private static final class Load {
+        private final HttpClient http;
+        private final Workload workload;
+        private final int clients;
+        private final long seed;
+        private final CountDownLatch stopped;
+        volatile Window current = new Window();
+        private volatile boolean running = true;
+
+        Load(HttpClient http, Workload workload, int clients, long seed) {
+            this.http = http;
+            this.workload = workload;
+            this.clients = clients;
+            this.seed = seed;
+            this.stopped = new CountDownLatch(clients);
+        }
+
+        void start() {
+            for (int i = 0; i < clients; i++) {
+                next(new Random(seed * 31 + i));
+            }
+        }
+
+        void stop() throws InterruptedException {
+            running = false;
+            if (!stopped.await(1, TimeUnit.MINUTES)) {
+                System.err.println(stopped.getCount() + " clients still waiting for a response");
+            }
+        }
+
+        private void next(Random random) {
+            if (!running) {
+                stopped.countDown();
+                return;
+            }
+            Window window = current;
+            Call call = workload.next(random);
+            long start = System.nanoTime();
+            http.sendAsync(call.request(), HttpResponse.BodyHandlers.ofString()).whenComplete((res, ex) -> {
+                boolean ok = ex == null && res.statusCode() / 100 == 2;
+                window.record(call.endpoint(), System.nanoTime() - start, ok);
+                if (ok) {
+                    workload.succeeded(call, res.body());
+                }
+                next(random);
+            });
+        }
+    }
+}
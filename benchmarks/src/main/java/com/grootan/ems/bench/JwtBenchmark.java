@@ -0,0 +1,59 @@
+package com.grootan.ems.bench;
+
+import com.grootan.ems.auth.JwtService;
+import com.grootan.ems.user.Role;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link JwtService#extractEmail} per authenticated request, cycling through {@code tokens}
+ * distinct tokens. {@code verifiedCache=on} is the default service, where a token already
+ * verified comes from the digest-keyed cache; {@code off} sizes that cache to zero, so every call
+ * parses the token and checks its HMAC signature.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtBenchmark {
+
+    private static final String SECRET = "benchmark-secret-benchmark-secret-0123456789";
+
+    @Param({"on", "off"})
+    public String verifiedCache;
+
+    @Param({"1000"})
+    public int tokens;
+
+    private JwtService jwtService;
+    private String[] issued;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        jwtService = new JwtService(SECRET, 60, "on".equals(verifiedCache) ? 10_000 : 0);
+        issued = new String[tokens];
+        for (int i = 0; i < tokens; i++) {
+            issued[i] = jwtService.generateToken((long) i + 1, "user" + i + "@grootan.com", Role.EMPLOYEE);
+        }
+    }
+
+    @Benchmark
+    public String extractEmail() {
+        return jwtService.extractEmail(issued[next++ % issued.length]);
+    }
+}
@@ -0,0 +1,76 @@
+package com.grootan.ems.bench;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Latencies of the HTTP load tools in log-linear buckets: 16 per power of two, so every
+ * percentile is within about 6% of the true value, with no per-request allocation. Responses
+ * recorded after {@link #close()} (still in flight when the window ended) are dropped.
+ */
+final class LatencyHistogram {
+
+    private static final int SUB_BUCKETS = 16;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(64 * SUB_BUCKETS);
+    private final AtomicLong errors = new AtomicLong();
+    private final AtomicLong maxNanos = new AtomicLong();
+    private volatile boolean closed;
+
+    void record(long nanos, boolean ok) {
+        if (closed) {
+            return; // answered after the measurement window
+        }
+        if (!ok) {
+            errors.incrementAndGet();
+        }
+        buckets.incrementAndGet(bucket(Math.max(1, nanos)));
+        maxNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    void close() {
+        closed = true;
+    }
+
+    long count() {
+        long n = 0;
+        for (int i = 0; i < buckets.length(); i++) {
+            n += buckets.get(i);
+        }
+        return n;
+    }
+
+    long errors() {
+        return errors.get();
+    }
+
+    /** In milliseconds. */
+    double percentile(double p) {
+        long rank = (long) Math.ceil(count() * p);
+        long seen = 0;
+        for (int i = 0; i < buckets.length(); i++) {
+            seen += buckets.get(i);
+            if (seen >= rank && seen > 0) {
+                return Math.min(upperBound(i), maxNanos.get()) / 1e6;
+            }
+        }
+        return 0;
+    }
+
+    /** In milliseconds. */
+    double max() {
+        return maxNanos.get() / 1e6;
+    }
+
+    private static int bucket(long nanos) {
+        int exp = 63 - Long.numberOfLeadingZeros(nanos);
+        int sub = exp < 4 ? 0 : (int) ((nanos >>> (exp - 4)) & (SUB_BUCKETS - 1));
+        return exp * SUB_BUCKETS + sub;
+    }
+
+    private static long upperBound(int bucket) {
+        int exp = bucket / SUB_BUCKETS;
+        int sub = bucket % SUB_BUCKETS;
+        return exp < 4 ? 2L << exp : (SUB_BUCKETS + sub + 1L) << (exp - 4);
+    }
+}
@@ -0,0 +1,76 @@
+package com.grootan.ems.bench;
+
+import com.grootan.ems.auth.AppUserDetails;
+import com.grootan.ems.auth.PasswordHashCalibrator;
+import com.grootan.ems.user.Role;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.authentication.ProviderManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Logins per second through the same authentication path as {@code POST /auth/login}
+ * ({@code DaoAuthenticationProvider} with the delegating BCrypt encoder of {@code SecurityConfig}),
+ * on all cores. The user lookup is in memory, so this is the password-verification ceiling of the
+ * host for each strength; {@code calibrated} is what startup calibration picks here for the
+ * default 100 ms target.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Threads(Threads.MAX)
+@Fork(1)
+public class LoginBenchmark {
+
+    private static final String PASSWORD = "Temp#Pass1234";
+
+    @Param({"10", "11", "12", "calibrated"})
+    public String strength;
+
+    private ProviderManager authManager;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        int s = "calibrated".equals(strength)
+                ? new PasswordHashCalibrator(Duration.ofMillis(100), 10, 14).calibrate()
+                : Integer.parseInt(strength);
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(s);
+        DelegatingPasswordEncoder encoder = new DelegatingPasswordEncoder("bcrypt", Map.of("bcrypt", bcrypt));
+        encoder.setDefaultPasswordEncoderForMatches(bcrypt);
+        String hash = encoder.encode(PASSWORD);
+
+        DaoAuthenticationProvider provider = new DaoAuthenticationProvider(
+                username -> new AppUserDetails(1L, username, hash, true, Role.EMPLOYEE));
+        provider.setPasswordEncoder((PasswordEncoder) encoder);
+        authManager = new ProviderManager(provider);
+        authManager.setEraseCredentialsAfterAuthentication(false);
+        System.out.printf("%nstrength %s -> BCrypt %d%n", strength, s);
+    }
+
+    @Benchmark
+    public Authentication login() {
+        return authManager.authenticate(new UsernamePasswordAuthenticationToken("jane@grootan.com", PASSWORD));
+    }
+}
@@ -0,0 +1,46 @@
+package com.grootan.ems.bench;
+
+import com.grootan.ems.user.PasswordGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Temporary passwords from {@link PasswordGenerator}, one per new employee. {@code contended}
+ * runs the same call on all cores against the one shared generator, as a bulk import does, to
+ * show what its single {@code SecureRandom} costs under contention.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PasswordGeneratorBenchmark {
+
+    @Param({"12", "24"})
+    public int length;
+
+    private final PasswordGenerator generator = new PasswordGenerator();
+
+    @Benchmark
+    public String generate() {
+        return generator.generate(length);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public String contended() {
+        return generator.generate(length);
+    }
+}
@@ -0,0 +1,130 @@
+package com.grootan.ems.bench;
+
+import jakarta.servlet.Filter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.core.Ordered;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * JDBC statements executed per endpoint, for {@link EndToEndLoadTest}, which adds this class to
+ * the application it boots. It wraps the {@code DataSource} so every statement execution is
+ * counted (a batch counts once: it is one round trip), and, as the outermost servlet filter,
+ * attributes the executions on a request's thread to the endpoint named in its
+ * {@value #HEADER} header. Anything else (other requests, background hashing, polls) counts
+ * as {@value #BACKGROUND}. R2DBC reads do not go through the {@code DataSource} and are not
+ * counted.
+ */
+public class StatementCounter implements BeanPostProcessor, Filter, Ordered {
+
+    static final String HEADER = "X-Load-Endpoint";
+    static final String BACKGROUND = "background";
+
+    private static final Set<String> EXECUTE = Set.of(
+            "execute", "executeQuery", "executeUpdate", "executeLargeUpdate", "executeBatch", "executeLargeBatch");
+
+    private final ThreadLocal<String> endpoint = new ThreadLocal<>();
+    private final Map<String, LongAdder> counts = new ConcurrentHashMap<>();
+
+    /** Executions so far, by endpoint. */
+    Map<String, Long> snapshot() {
+        Map<String, Long> out = new TreeMap<>();
+        counts.forEach((name, count) -> out.put(name, count.sum()));
+        return out;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        return bean instanceof DataSource dataSource && !(bean instanceof Counting) ? new Counting(dataSource) : bean;
+    }
+
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+            throws IOException, ServletException {
+        String name = ((HttpServletRequest) request).getHeader(HEADER);
+        endpoint.set(name);
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            endpoint.remove();
+        }
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE; // before security, whose user-state lookups count too
+    }
+
+    private void executed() {
+        String name = endpoint.get();
+        counts.computeIfAbsent(name != null ? name : BACKGROUND, k -> new LongAdder()).increment();
+    }
+
+    // DelegatingDataSource keeps unwrap() working for Boot's pool metrics and health checks
+    private final class Counting extends DelegatingDataSource {
+        Counting(DataSource target) {
+            super(target);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            return counting(super.getConnection());
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return counting(super.getConnection(username, password));
+        }
+    }
+
+    private Connection counting(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    Object result = invoke(connection, method, args);
+                    return switch (method.getName()) {
+                        case "createStatement" -> counting((Statement) result, Statement.class);
+                        case "prepareStatement" -> counting((Statement) result, PreparedStatement.class);
+                        case "prepareCall" -> counting((Statement) result, CallableStatement.class);
+                        default -> result;
+                    };
+                });
+    }
+
+    private Statement counting(Statement statement, Class<? extends Statement> type) {
+        return (Statement) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> {
+                    if (EXECUTE.contains(method.getName())) {
+                        executed();
+                    }
+                    return invoke(statement, method, args);
+                });
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException ex) {
+            throw ex.getCause();
+        }
+    }
+}
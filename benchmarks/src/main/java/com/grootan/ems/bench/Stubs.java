@@ -0,0 +1,22 @@
+package com.grootan.ems.bench;
+
+import java.lang.reflect.Proxy;
+import java.util.function.Function;
+
+/** Stand-ins for Spring Data repositories, so a benchmark can build a service without a database. */
+final class Stubs {
+
+    private Stubs() {
+    }
+
+    /** A repository answering the one query the benchmark needs; any other call fails. */
+    @SuppressWarnings("unchecked")
+    static <T> T answering(Class<T> type, String method, Function<Object[], Object> answer) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (p, m, args) -> {
+            if (m.getName().equals(method)) {
+                return answer.apply(args);
+            }
+            throw new UnsupportedOperationException(m.getName());
+        });
+    }
+}
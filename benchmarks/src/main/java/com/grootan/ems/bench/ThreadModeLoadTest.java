@@ -0,0 +1,155 @@
+package com.grootan.ems.bench;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Closed-loop HTTP load against a running instance, for comparing the platform-thread and
+ * virtual-thread request modes (see {@code load/compare-thread-modes.sh}). Each of {@code clients}
+ * simulated clients sends its next request as soon as the previous one answers, cycling through
+ * {@code paths} with one bearer token; the clients are callbacks on {@link HttpClient#sendAsync},
+ * so 10k of them cost this side no threads. Every level runs {@code warmup}, then measures for
+ * {@code duration} and prints one line: requests, errors (non-2xx or I/O), throughput and the
+ * latency percentiles.
+ * <pre>
+ * java -cp target/benchmarks.jar com.grootan.ems.bench.ThreadModeLoadTest \
+ *     --url=http://localhost:8080 --email=admin@grootan.com --password=... \
+ *     --clients=1000,2000,5000,10000 --duration=30s --warmup=10s --label=virtual
+ * </pre>
+ * {@code --token} replaces the login; {@code --paths} is a comma-separated request mix.
+ */
+public final class ThreadModeLoadTest {
+
+    private static final String DEFAULT_PATHS = "/api/employees,/api/employees?status=ACTIVE,/api/departments,"
+            + "/api/employees/suggest?q=an,/api/employees/scroll?size=20&sort=hireDate,desc";
+
+    private ThreadModeLoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> opts = options(args);
+        String url = opts.getOrDefault("url", "http://localhost:8080");
+        String label = opts.getOrDefault("label", "");
+        Duration warmup = duration(opts.getOrDefault("warmup", "10s"));
+        Duration measure = duration(opts.getOrDefault("duration", "30s"));
+        List<URI> paths = Pattern.compile(",(?=/)").splitAsStream(opts.getOrDefault("paths", DEFAULT_PATHS))
+                .map(p -> URI.create(url + p.trim()))
+                .toList();
+
+        ExecutorService callbacks = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+        HttpClient http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .executor(callbacks)
+                .build();
+        String token = opts.containsKey("token") ? opts.get("token") : login(http, url, opts);
+
+        System.out.printf("%-10s %8s %10s %8s %10s %9s %9s %9s %9s%n",
+                "mode", "clients", "requests", "errors", "req/s", "p50 ms", "p99 ms", "p99.9 ms", "max ms");
+        for (String level : opts.getOrDefault("clients", "1000,2000,5000,10000").split(",")) {
+            Run run = new Run(http, paths, "Bearer " + token, Integer.parseInt(level.trim()));
+            LatencyHistogram stats = run.execute(warmup, measure);
+            System.out.printf("%-10s %8d %10d %8d %10.0f %9.1f %9.1f %9.1f %9.1f%n",
+                    label, run.clients, stats.count(), stats.errors(),
+                    stats.count() / (measure.toMillis() / 1000.0),
+                    stats.percentile(0.50), stats.percentile(0.99), stats.percentile(0.999), stats.max());
+        }
+        callbacks.shutdownNow();
+    }
+
+    private static String login(HttpClient http, String url, Map<String, String> opts) throws Exception {
+        String body = "{\"email\":\"" + opts.getOrDefault("email", "admin@grootan.com")
+                + "\",\"password\":\"" + opts.getOrDefault("password", "") + "\"}";
+        HttpResponse<String> res = http.send(HttpRequest.newBuilder(URI.create(url + "/auth/login"))
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(body))
+                        .build(),
+                HttpResponse.BodyHandlers.ofString());
+        Matcher m = Pattern.compile("\"accessToken\"\\s*:\\s*\"([^\"]+)\"").matcher(res.body());
+        if (res.statusCode() != 200 || !m.find()) {
+            throw new IllegalStateException("login failed (" + res.statusCode() + "): " + res.body());
+        }
+        return m.group(1);
+    }
+
+    private static Map<String, String> options(String[] args) {
+        Map<String, String> opts = new HashMap<>();
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (!arg.startsWith("--") || eq < 0) {
+                throw new IllegalArgumentException("expected --name=value, got " + arg);
+            }
+            opts.put(arg.substring(2, eq), arg.substring(eq + 1));
+        }
+        return opts;
+    }
+
+    private static Duration duration(String value) {
+        return Duration.parse("PT" + value.toUpperCase());
+    }
+
+    /** One load level: {@code clients} closed loops, warmed up, then measured. */
+    private static final class Run {
+        private final HttpClient http;
+        private final List<URI> paths;
+        private final String bearer;
+        private final int clients;
+        private final CountDownLatch stopped;
+        private volatile LatencyHistogram current = new LatencyHistogram();
+        private volatile boolean running = true;
+
+        Run(HttpClient http, List<URI> paths, String bearer, int clients) {
+            this.http = http;
+            this.paths = paths;
+            this.bearer = bearer;
+            this.clients = clients;
+            this.stopped = new CountDownLatch(clients);
+        }
+
+        LatencyHistogram execute(Duration warmup, Duration measure) throws InterruptedException {
+            for (int i = 0; i < clients; i++) {
+                next(i);
+            }
+            Thread.sleep(warmup.toMillis());
+            LatencyHistogram measured = new LatencyHistogram();
+            current = measured; // requests still in flight count towards the warm-up
+            Thread.sleep(measure.toMillis());
+            measured.close();
+            running = false;
+            if (!stopped.await(1, TimeUnit.MINUTES)) {
+                System.err.println(stopped.getCount() + " clients still waiting for a response");
+            }
+            return measured;
+        }
+
+        private void next(int client) {
+            if (!running) {
+                stopped.countDown();
+                return;
+            }
+            LatencyHistogram stats = current;
+            HttpRequest req = HttpRequest.newBuilder(paths.get(client % paths.size()))
+                    .header("Authorization", bearer)
+                    .timeout(Duration.ofSeconds(60))
+                    .GET()
+                    .build();
+            long start = System.nanoTime();
+            http.sendAsync(req, HttpResponse.BodyHandlers.discarding()).whenComplete((res, ex) -> {
+                stats.record(System.nanoTime() - start, ex == null && res.statusCode() / 100 == 2);
+                next(client + clients);
+            });
+        }
+    }
+}
@@ -2,14 +2,18 @@ package com.grootan.ems;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcAutoConfiguration;
 
 import java.util.TimeZone;
 import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 @EnableCaching
-@SpringBootApplication
+@EnableScheduling
+// R2DBC is set up by ReactiveDatabaseConfig: a ConnectionFactory bean would switch off the JDBC DataSource
+@SpringBootApplication(exclude = R2dbcAutoConfiguration.class)
 public class EmsApplication {
 
 	private static final Logger log = LoggerFactory.getLogger(EmsApplication.class);
@@ -0,0 +1,36 @@
+package com.grootan.ems.auth;
+
+import com.grootan.ems.user.AppUser;
+import com.grootan.ems.user.Role;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+
+import java.util.List;
+
+/**
+ * The authenticated {@link AppUser}: carries the id and role along with the Spring Security
+ * fields, so callers of {@code authenticate} need no second lookup.
+ */
+public class AppUserDetails extends User {
+
+    private final Long userId;
+    private final Role role;
+
+    public AppUserDetails(AppUser u) {
+        this(u.getId(), u.getEmail(), u.getPasswordHash(), u.isEnabled(), u.getRole());
+    }
+
+    public AppUserDetails(Long userId, String email, String passwordHash, boolean enabled, Role role) {
+        super(email, passwordHash, enabled, true, true, true, List.of(new SimpleGrantedAuthority("ROLE_" + role.name())));
+        this.userId = userId;
+        this.role = role;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public Role getRole() {
+        return role;
+    }
+}
@@ -2,10 +2,15 @@ package com.grootan.ems.auth;
 
 import com.grootan.ems.auth.dto.LoginRequest;
 import com.grootan.ems.auth.dto.LoginResponse;
-import com.grootan.ems.user.AppUserRepository;
+import com.grootan.ems.auth.dto.RefreshRequest;
+import com.grootan.ems.common.ApiException;
+import io.jsonwebtoken.Claims;
 import jakarta.validation.Valid;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -16,13 +21,18 @@ public class AuthController {
 
     private final AuthenticationManager authManager;
     private final JwtService jwtService;
-    private final AppUserRepository userRepo;
+    private final TokenRevocationList revocations;
+    private final RefreshTokenService refreshTokens;
     private static final Logger log = LoggerFactory.getLogger(AuthController.class);
 
-    public AuthController(AuthenticationManager authManager, JwtService jwtService, AppUserRepository userRepo) {
+    public AuthController(AuthenticationManager authManager,
+                          JwtService jwtService,
+                          TokenRevocationList revocations,
+                          RefreshTokenService refreshTokens) {
         this.authManager = authManager;
         this.jwtService = jwtService;
-        this.userRepo = userRepo;
+        this.revocations = revocations;
+        this.refreshTokens = refreshTokens;
     }
 
     @PostMapping("/login")
@@ -30,12 +40,40 @@ public class AuthController {
         String email = req.getEmail().trim().toLowerCase();
 
         log.info("Login attempt for {}", email);
-        authManager.authenticate(new UsernamePasswordAuthenticationToken(email, req.getPassword()));
+        Authentication auth = authManager.authenticate(new UsernamePasswordAuthenticationToken(email, req.getPassword()));
 
-        var user = userRepo.findByEmail(email).orElseThrow(); // should exist if auth passed
-        String token = jwtService.generateToken(email, user.getRole());
+        // the principal is the user DbUserDetailsService loaded for the password check
+        AppUserDetails user = (AppUserDetails) auth.getPrincipal();
+        LoginResponse tokens = refreshTokens.login(user);
 
         log.info("Login successful for {}", email);
-        return new LoginResponse(token);
+        return tokens;
+    }
+
+    /** A new access token for a refresh token, which is used up; no password check. */
+    @PostMapping("/refresh")
+    public LoginResponse refresh(@Valid @RequestBody RefreshRequest req) {
+        return refreshTokens.refresh(req.getRefreshToken());
+    }
+
+    /**
+     * Revokes the bearer token of this request on every node, and the refresh token (with its
+     * successors) if one is sent; other sessions of the user stay valid.
+     */
+    @PostMapping("/logout")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void logout(@RequestHeader(HttpHeaders.AUTHORIZATION) String authorization,
+                       @RequestBody(required = false) RefreshRequest body) {
+        if (body != null && body.getRefreshToken() != null) {
+            refreshTokens.revoke(body.getRefreshToken());
+        }
+        // the filter has already verified this token and checked it is not revoked
+        Claims claims = jwtService.verify(authorization.substring(7).trim());
+        if (claims.getId() == null) {
+            throw ApiException.badRequest("token_not_revocable", "Token predates revocation support; it expires at "
+                    + claims.getExpiration().toInstant());
+        }
+        revocations.revoke(claims.getId(), claims.getExpiration().toInstant());
+        log.info("Logout for {}", claims.getSubject());
     }
 }
@@ -2,16 +2,16 @@ package com.grootan.ems.auth;
 
 import com.grootan.ems.user.AppUser;
 import com.grootan.ems.user.AppUserRepository;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.*;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.List;
+import java.time.OffsetDateTime;
 
 @Service
-public class DbUserDetailsService implements UserDetailsService {
+public class DbUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
 
     private final AppUserRepository repo;
     private static final Logger log = LoggerFactory.getLogger(DbUserDetailsService.class);
@@ -30,12 +30,19 @@ public class DbUserDetailsService implements UserDetailsService {
                     return new UsernameNotFoundException("User not found");
                 });
 
-        return new User(
-                u.getEmail(),
-                u.getPasswordHash(),
-                u.isEnabled(),
-                true, true, true,
-                List.of(new SimpleGrantedAuthority("ROLE_" + u.getRole().name()))
-        );
+        return new AppUserDetails(u);
+    }
+
+    /**
+     * Called by Spring Security after a successful login whose stored hash is weaker than the
+     * current encoder (older strength, or no {@code {bcrypt}} prefix): stores the rehashed password.
+     */
+    @Override
+    @Transactional
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        repo.updatePasswordHash(user.getUsername(), newPassword, OffsetDateTime.now());
+        log.info("Upgraded password hash of user {}", user.getUsername());
+        AppUserDetails u = (AppUserDetails) user;
+        return new AppUserDetails(u.getUserId(), u.getUsername(), newPassword, u.isEnabled(), u.getRole());
     }
 }
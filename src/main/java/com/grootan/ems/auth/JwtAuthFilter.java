@@ -1,13 +1,14 @@
 package com.grootan.ems.auth;
 
+import com.grootan.ems.user.Role;
+import com.grootan.ems.user.UserState;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
@@ -16,16 +17,25 @@ import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 
+/**
+ * Authenticates bearer requests from the verified token claims: subject, {@code role} and
+ * {@code uid}. The only per-request checks are in memory: {@link TokenRevocationList} rejects
+ * tokens revoked by logout, and {@link UserStateCache} rejects tokens of accounts deleted or
+ * disabled since, and tokens whose role no longer matches the account (the user logs in again to
+ * get the new role).
+ */
 @Component
 public class JwtAuthFilter extends OncePerRequestFilter {
 
     private final JwtService jwtService;
-    private final UserDetailsService userDetailsService;
+    private final UserStateCache userStates;
+    private final TokenRevocationList revocations;
     private static final Logger log = LoggerFactory.getLogger(JwtAuthFilter.class);
 
-    public JwtAuthFilter(JwtService jwtService, UserDetailsService userDetailsService) {
+    public JwtAuthFilter(JwtService jwtService, UserStateCache userStates, TokenRevocationList revocations) {
         this.jwtService = jwtService;
-        this.userDetailsService = userDetailsService;
+        this.userStates = userStates;
+        this.revocations = revocations;
     }
 
     @Override
@@ -42,18 +52,30 @@ public class JwtAuthFilter extends OncePerRequestFilter {
         String token = auth.substring(7).trim();
 
         try {
-            String email = jwtService.extractEmail(token);
+            Claims claims = jwtService.verify(token);
+            String email = claims.getSubject();
 
             if (email != null && SecurityContextHolder.getContext().getAuthentication() == null) {
                 log.debug("Authenticating request {} for user {}", req.getRequestURI(), email);
-                UserDetails ud = userDetailsService.loadUserByUsername(email);
+                Role role = Role.valueOf(claims.get(JwtService.ROLE_CLAIM, String.class));
+                Long userId = claims.get(JwtService.USER_ID_CLAIM, Long.class);
+                // tokens issued before jti was added cannot be revoked; they run out at their exp
+                boolean revoked = claims.getId() != null && revocations.isRevoked(claims.getId());
+                UserState state = revoked ? null : userStates.find(email).orElse(null);
+                if (revoked) {
+                    log.debug("Revoked token {} used for request {}", claims.getId(), req.getRequestURI());
+                } else if (state == null || state.getRole() != role || (userId != null && !userId.equals(state.getId()))) {
+                    log.debug("Token for {} no longer matches the account, request {} stays unauthenticated",
+                            email, req.getRequestURI());
+                } else {
+                    AppUserDetails ud = new AppUserDetails(state.getId(), email, "", true, role);
+                    var authToken = new UsernamePasswordAuthenticationToken(
+                            ud, null, ud.getAuthorities()
+                    );
+                    authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(req));
 
-                var authToken = new UsernamePasswordAuthenticationToken(
-                        ud, null, ud.getAuthorities()
-                );
-                authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(req));
-
-                SecurityContextHolder.getContext().setAuthentication(authToken);
+                    SecurityContextHolder.getContext().setAuthentication(authToken);
+                }
             }
         } catch (Exception ex) {
             log.warn("JWT processing failed for request {}: {}", req.getRequestURI(), ex.getMessage());
@@ -1,8 +1,18 @@
 package com.grootan.ems.auth;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
 import com.grootan.ems.user.Role;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.slf4j.Logger;
@@ -10,55 +20,151 @@ import org.slf4j.LoggerFactory;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.Instant;
+import java.util.Base64;
 import java.util.Date;
 import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * Issues and verifies the HS256 bearer tokens. Parsing uses one immutable {@link JwtParser};
+ * tokens that verified are kept, keyed by their SHA-256 digest, until their {@code exp}
+ * ({@code app.jwt.verified-cache-size} entries at most), so a token the client sends again skips
+ * the Base64 decode, JSON parse and HMAC. Only valid, unexpired tokens are ever cached. Hit and
+ * miss counts are published as the {@code jwtVerified} cache meters.
+ */
 @Service
-public class JwtService {
+public class JwtService implements MeterBinder {
+
+    static final String ROLE_CLAIM = "role";
+    static final String USER_ID_CLAIM = "uid";
+    private static final int DEFAULT_CACHE_SIZE = 10_000;
 
     private final SecretKey key;
+    private final JwtParser parser;
     private final long expiryMinutes;
+    private final Cache<String, Claims> verified;
     private static final Logger log = LoggerFactory.getLogger(JwtService.class);
 
+    public JwtService(String secret, long expiryMinutes) {
+        this(secret, expiryMinutes, DEFAULT_CACHE_SIZE);
+    }
+
+    @Autowired
     public JwtService(
             @Value("${app.jwt.secret}") String secret,
-            @Value("${app.jwt.expiry-minutes}") long expiryMinutes
+            @Value("${app.jwt.expiry-minutes}") long expiryMinutes,
+            @Value("${app.jwt.verified-cache-size:10000}") long verifiedCacheSize
     ) {
         this.key = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        this.parser = Jwts.parser().verifyWith(key).build();
         this.expiryMinutes = expiryMinutes;
-        log.info("Initialized JwtService with expiryMinutes={}", expiryMinutes);
+        this.verified = Caffeine.newBuilder()
+                .maximumSize(verifiedCacheSize)
+                .expireAfter(new UntilTokenExpiry())
+                .recordStats()
+                .build();
+        log.info("Initialized JwtService with expiryMinutes={}, verifiedCacheSize={}", expiryMinutes, verifiedCacheSize);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, verified, "jwtVerified");
+    }
+
+    /** Lifetime of the tokens issued here, in seconds. */
+    public long expirySeconds() {
+        return expiryMinutes * 60;
     }
 
     public String generateToken(String subjectEmail, Role role) {
+        return generateToken(null, subjectEmail, role);
+    }
+
+    /**
+     * The token carries the user id ({@code uid}) and role, so requests can be authenticated from it
+     * alone, and a random id ({@code jti}) by which it can be revoked.
+     */
+    public String generateToken(Long userId, String subjectEmail, Role role) {
         Instant now = Instant.now();
-        Instant exp = now.plusSeconds(expiryMinutes * 60);
+        Instant exp = now.plusSeconds(expirySeconds());
         log.debug("Generating token for {} with role {} expiring at {}", subjectEmail, role, exp);
 
+        Map<String, Object> claims = userId == null
+                ? Map.of(ROLE_CLAIM, role.name())
+                : Map.of(ROLE_CLAIM, role.name(), USER_ID_CLAIM, userId);
         return Jwts.builder()
+                .id(UUID.randomUUID().toString())
                 .subject(subjectEmail)
-                .claims(Map.of("role", role.name()))
+                .claims(claims)
                 .issuedAt(Date.from(now))
                 .expiration(Date.from(exp))
                 .signWith(key)
                 .compact();
     }
 
+    /**
+     * Verifies the signature and expiry and returns every claim. Throws the parser's
+     * {@code JwtException} for an invalid or expired token.
+     */
+    public Claims verify(String token) {
+        String digest = digest(token);
+        Claims claims = verified.getIfPresent(digest);
+        if (claims == null) {
+            claims = parser.parseSignedClaims(token).getPayload();
+            verified.put(digest, claims);
+        }
+        return claims;
+    }
+
     public String extractEmail(String token) {
-        String email = Jwts.parser().verifyWith(key).build()
-                .parseSignedClaims(token)
-                .getPayload()
-                .getSubject();
+        String email = verify(token).getSubject();
         log.debug("Extracted email {} from token", email);
         return email;
     }
 
     public Role extractRole(String token) {
-        String role = (String) Jwts.parser().verifyWith(key).build()
-                .parseSignedClaims(token)
-                .getPayload()
-                .get("role");
+        String role = verify(token).get(ROLE_CLAIM, String.class);
         log.debug("Extracted role {} from token", role);
         return Role.valueOf(role);
     }
+
+    CacheStats verifiedTokenStats() {
+        return verified.stats();
+    }
+
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().withoutPadding().encodeToString(hash);
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 not available", ex);
+        }
+    }
+
+    /** Each entry lives until its token's {@code exp}; the parser rejects the token from then on. */
+    private static final class UntilTokenExpiry implements Expiry<String, Claims> {
+
+        @Override
+        public long expireAfterCreate(String digest, Claims claims, long currentTime) {
+            Date exp = claims.getExpiration();
+            if (exp == null) {
+                return 0; // not cached: without exp nothing bounds how long it would be trusted
+            }
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(0, exp.getTime() - System.currentTimeMillis()));
+        }
+
+        @Override
+        public long expireAfterUpdate(String digest, Claims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+
+        @Override
+        public long expireAfterRead(String digest, Claims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
 }
@@ -0,0 +1,65 @@
+package com.grootan.ems.auth;
+
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.function.IntToLongFunction;
+
+/**
+ * Picks the BCrypt strength for this machine: the highest strength in
+ * {@code [minStrength, maxStrength]} whose verification time stays within {@code target}.
+ * BCrypt time doubles with every strength step, so one measurement at {@code minStrength} is
+ * enough to estimate the others. Never goes below {@code minStrength}, however slow the host.
+ */
+public class PasswordHashCalibrator {
+
+    private static final int SAMPLES = 3;
+
+    private final long targetNanos;
+    private final int minStrength;
+    private final int maxStrength;
+    private final IntToLongFunction measure;
+    private static final Logger log = LoggerFactory.getLogger(PasswordHashCalibrator.class);
+
+    public PasswordHashCalibrator(Duration target, int minStrength, int maxStrength) {
+        this(target, minStrength, maxStrength, PasswordHashCalibrator::measureMatch);
+    }
+
+    PasswordHashCalibrator(Duration target, int minStrength, int maxStrength, IntToLongFunction measure) {
+        this.targetNanos = target.toNanos();
+        this.minStrength = minStrength;
+        this.maxStrength = Math.max(minStrength, maxStrength);
+        this.measure = measure;
+    }
+
+    public int calibrate() {
+        long base = measure.applyAsLong(minStrength);
+        int strength = minStrength;
+        long estimate = base;
+        while (strength < maxStrength && estimate * 2 <= targetNanos) {
+            strength++;
+            estimate *= 2;
+        }
+        log.info("BCrypt strength {} (~{} ms per verification, target {} ms, {} ms at strength {})",
+                strength, estimate / 1_000_000, targetNanos / 1_000_000, base / 1_000_000, minStrength);
+        return strength;
+    }
+
+    /** Median time of one {@code matches} at {@code strength}, after a warm-up round. */
+    static long measureMatch(int strength) {
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(strength);
+        String hash = encoder.encode("calibration-password");
+        encoder.matches("calibration-password", hash);
+        long[] samples = new long[SAMPLES];
+        for (int i = 0; i < SAMPLES; i++) {
+            long start = System.nanoTime();
+            encoder.matches("calibration-password", hash);
+            samples[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(samples);
+        return samples[SAMPLES / 2];
+    }
+}
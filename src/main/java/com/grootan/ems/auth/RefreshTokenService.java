@@ -0,0 +1,140 @@
+package com.grootan.ems.auth;
+
+import com.grootan.ems.auth.dto.LoginResponse;
+import com.grootan.ems.common.ApiException;
+import com.grootan.ems.user.AppUser;
+import com.grootan.ems.user.AppUserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.UUID;
+
+/**
+ * Renews sessions without the password. Login returns a short-lived access token
+ * ({@code app.jwt.expiry-minutes}) and an opaque refresh token valid for
+ * {@code app.auth.refresh.ttl}; {@code POST /auth/refresh} exchanges the refresh token for a new
+ * pair with one indexed lookup, instead of the BCrypt check a login costs.
+ * <p>
+ * Refresh tokens are 256 random bits, so they are stored as a plain SHA-256 digest: nothing can be
+ * guessed from it, and a slow password hash would only give back the cost this removes. Each
+ * token is single use. Its successor belongs to the same family; presenting a used token again
+ * (a copy, or a retry racing the original) deletes the family, so the thief and the user both
+ * have to log in again. Access tokens already issued run out on their own.
+ * <p>
+ * Meter: {@code auth.refresh.reused} (families revoked for reuse).
+ */
+@Service
+public class RefreshTokenService {
+
+    private static final int TOKEN_BYTES = 32;
+
+    private final RefreshTokenRepository repo;
+    private final AppUserRepository users;
+    private final JwtService jwtService;
+    private final Duration ttl;
+    private final SecureRandom random = new SecureRandom();
+    private final Counter reused;
+    private static final Logger log = LoggerFactory.getLogger(RefreshTokenService.class);
+
+    public RefreshTokenService(RefreshTokenRepository repo,
+                               AppUserRepository users,
+                               JwtService jwtService,
+                               MeterRegistry registry,
+                               @Value("${app.auth.refresh.ttl:7d}") Duration ttl) {
+        this.repo = repo;
+        this.users = users;
+        this.jwtService = jwtService;
+        this.ttl = ttl;
+        this.reused = Counter.builder("auth.refresh.reused")
+                .description("Refresh token families revoked because a used token was presented again").register(registry);
+    }
+
+    /** The access and refresh tokens for a user who just proved their password. */
+    @Transactional
+    public LoginResponse login(AppUserDetails user) {
+        String refresh = store(users.getReferenceById(user.getUserId()), UUID.randomUUID().toString());
+        String access = jwtService.generateToken(user.getUserId(), user.getUsername(), user.getRole());
+        return new LoginResponse(access, jwtService.expirySeconds(), refresh);
+    }
+
+    /** Uses up {@code token} and returns a new access token with the token's successor. */
+    @Transactional(noRollbackFor = ApiException.class)
+    public LoginResponse refresh(String token) {
+        RefreshToken current = repo.findByTokenHash(digest(token))
+                .orElseThrow(RefreshTokenService::invalid);
+        OffsetDateTime now = OffsetDateTime.now();
+        if (!current.getExpiresAt().isAfter(now)) {
+            throw invalid();
+        }
+        if (current.getUsedAt() != null || repo.markUsed(current.getId(), now) == 0) {
+            // committed despite the exception (noRollbackFor)
+            repo.deleteFamily(current.getFamilyId());
+            reused.increment();
+            log.warn("Refresh token reused for user id={}, token family revoked", current.getUser().getId());
+            throw ApiException.unauthorized("refresh_token_reused", "Refresh token was already used; log in again");
+        }
+
+        AppUser user = current.getUser();
+        if (!user.isEnabled()) {
+            throw invalid();
+        }
+        String refresh = store(user, current.getFamilyId());
+        String access = jwtService.generateToken(user.getId(), user.getEmail(), user.getRole());
+        log.debug("Refreshed session of user id={}", user.getId());
+        return new LoginResponse(access, jwtService.expirySeconds(), refresh);
+    }
+
+    /** Revokes the family of {@code token}, if it still exists. */
+    @Transactional
+    public void revoke(String token) {
+        repo.findByTokenHash(digest(token)).ifPresent(t -> repo.deleteFamily(t.getFamilyId()));
+    }
+
+    /** Used tokens stay until they expire, for reuse detection; after that they go. */
+    @Scheduled(fixedDelayString = "${app.auth.refresh.purge-interval:1h}",
+            initialDelayString = "${app.auth.refresh.purge-interval:1h}")
+    public void purgeExpired() {
+        try {
+            int purged = repo.deleteExpired(OffsetDateTime.now());
+            if (purged > 0) {
+                log.info("Purged {} expired refresh tokens", purged);
+            }
+        } catch (RuntimeException ex) {
+            log.warn("Refresh token purge failed: {}", ex.getMessage());
+        }
+    }
+
+    private String store(AppUser user, String familyId) {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        random.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        repo.save(new RefreshToken(digest(token), familyId, user, OffsetDateTime.now().plus(ttl)));
+        return token;
+    }
+
+    static String digest(String token) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII)));
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 not available", ex);
+        }
+    }
+
+    private static ApiException invalid() {
+        return ApiException.unauthorized("invalid_refresh_token", "Refresh token is invalid or expired; log in again");
+    }
+}
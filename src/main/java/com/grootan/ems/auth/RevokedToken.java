@@ -0,0 +1,39 @@
+package com.grootan.ems.auth;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+
+import java.time.OffsetDateTime;
+
+/**
+ * A token revoked before its expiry, by its {@code jti}. The row is only needed until the token
+ * would have expired anyway; {@link TokenRevocationList} purges it after that.
+ */
+@Entity
+@Table(name = "revoked_tokens")
+@Getter
+public class RevokedToken {
+
+    @Id
+    @Column(length = 36)
+    private String jti;
+
+    @Column(name = "expires_at", nullable = false)
+    private OffsetDateTime expiresAt;
+
+    @Column(name = "revoked_at", nullable = false)
+    private OffsetDateTime revokedAt;
+
+    protected RevokedToken() {
+    }
+
+    public RevokedToken(String jti, OffsetDateTime expiresAt) {
+        this.jti = jti;
+        this.expiresAt = expiresAt;
+    }
+
+    @PrePersist
+    void prePersist() {
+        revokedAt = OffsetDateTime.now();
+    }
+}
@@ -1,5 +1,7 @@
 package com.grootan.ems.auth;
 
+import jakarta.servlet.DispatcherType;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
@@ -8,6 +10,7 @@ import org.springframework.security.config.annotation.authentication.configurati
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
@@ -15,14 +18,32 @@ import org.springframework.security.web.authentication.UsernamePasswordAuthentic
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.time.Duration;
+import java.util.Map;
+
 @Configuration
 public class SecurityConfig {
 
     private static final Logger log = LoggerFactory.getLogger(SecurityConfig.class);
 
+    /**
+     * BCrypt at {@code app.security.password.bcrypt-strength}, or calibrated at startup to
+     * {@code target-hash-time} when that is 0. New hashes are stored as {@code {bcrypt}...}; hashes
+     * without the prefix (stored before) still verify. Hashes with a lower strength or no prefix are
+     * replaced on the next successful login ({@link DbUserDetailsService#updatePassword}).
+     */
     @Bean
-    PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    PasswordEncoder passwordEncoder(@Value("${app.security.password.bcrypt-strength:0}") int strength,
+                                    @Value("${app.security.password.target-hash-time:100ms}") Duration target,
+                                    @Value("${app.security.password.min-strength:10}") int minStrength,
+                                    @Value("${app.security.password.max-strength:14}") int maxStrength) {
+        if (strength <= 0) {
+            strength = new PasswordHashCalibrator(target, minStrength, maxStrength).calibrate();
+        }
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(strength);
+        DelegatingPasswordEncoder encoder = new DelegatingPasswordEncoder("bcrypt", Map.of("bcrypt", bcrypt));
+        encoder.setDefaultPasswordEncoderForMatches(bcrypt);
+        return encoder;
     }
 
     @Bean
@@ -37,12 +58,22 @@ public class SecurityConfig {
         http.sessionManagement(sm -> sm.sessionCreationPolicy(SessionCreationPolicy.STATELESS));
 
         http.authorizeHttpRequests(auth -> auth
+                // Mono/Flux results are written in an ASYNC dispatch of a request that was already authorized
+                .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
+
                 // Swagger / OpenAPI
                 .requestMatchers("/v3/api-docs/**", "/swagger-ui/**", "/swagger-ui.html").permitAll()
 
-                // Auth
+                // Auth: logout needs the token it revokes
+                .requestMatchers(HttpMethod.POST, "/auth/logout").authenticated()
                 .requestMatchers("/auth/**").permitAll()
 
+                // Liveness / readiness probes
+                .requestMatchers("/actuator/health/**").permitAll()
+
+                // Operations: metrics and cache statistics
+                .requestMatchers("/actuator/**", "/admin/**").hasRole("ADMIN")
+
                 // Departments: ADMIN only
                 .requestMatchers(HttpMethod.GET, "/api/departments/**").hasAnyRole("ADMIN", "HR", "MANAGER", "EMPLOYEE")
 
@@ -50,9 +81,14 @@ public class SecurityConfig {
                 .requestMatchers(HttpMethod.PUT, "/api/departments/**").hasAnyRole("ADMIN", "HR")
                 .requestMatchers(HttpMethod.DELETE, "/api/departments/**").hasAnyRole("ADMIN", "HR")
 
-                // Employees: READ for all authenticated roles
+                // Employees: bulk export for ADMIN/HR, other READ for all authenticated roles
+                .requestMatchers(HttpMethod.GET, "/api/employees/export").hasAnyRole("ADMIN", "HR")
                 .requestMatchers(HttpMethod.GET, "/api/employees/**").hasAnyRole("ADMIN", "HR", "MANAGER", "EMPLOYEE")
 
+                // Reactive reads: same roles as the GETs above; the full stream is an export
+                .requestMatchers(HttpMethod.GET, "/api/reactive/employees/stream").hasAnyRole("ADMIN", "HR")
+                .requestMatchers(HttpMethod.GET, "/api/reactive/**").hasAnyRole("ADMIN", "HR", "MANAGER", "EMPLOYEE")
+
                 // Employees: WRITE for ADMIN + HR_MANAGER
                 .requestMatchers(HttpMethod.POST, "/api/employees/**").hasAnyRole("ADMIN", "HR")
                 .requestMatchers(HttpMethod.PUT, "/api/employees/**").hasAnyRole("ADMIN", "HR", "MANAGER")
@@ -0,0 +1,162 @@
+package com.grootan.ems.auth;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Tokens revoked before their expiry ({@code POST /auth/logout}). The rows live in
+ * {@code revoked_tokens}; each node keeps a {@link BloomFilter} of their {@code jti}s in front of
+ * the table, so the common case, a token that was never revoked, costs one filter probe and no
+ * query. Only a probe that hits (a revoked token, or a false positive at
+ * {@code app.auth.revocation.false-positive-rate}) is confirmed against the table.
+ * <p>
+ * A revocation is in the revoking node's filter at once. The other nodes add the rows revoked
+ * since their last poll ({@code app.auth.revocation.poll-interval}, re-reading
+ * {@code poll-overlap} back to absorb clock skew and late commits). Every
+ * {@code rebuild-interval} the rows of expired tokens are purged and the filter is rebuilt from
+ * the rest, so it does not fill up with tokens that can no longer be used; it is also rebuilt
+ * early once it holds more than it was sized for.
+ * <p>
+ * Meters: {@code tokens.revoked} (entries in this node's filter) and
+ * {@code tokens.revocation.lookups} (filter hits checked against the table).
+ */
+@Component
+public class TokenRevocationList {
+
+    private final RevokedTokenRepository repo;
+    private final int expectedTokens;
+    private final double falsePositiveRate;
+    private final Duration pollOverlap;
+    private final AtomicReference<BloomFilter> filter = new AtomicReference<>();
+    // held across a query: a monitor would pin virtual threads to their carrier (see DepartmentDirectory)
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+    private final Counter lookups;
+    private volatile OffsetDateTime polledAt;
+    private static final Logger log = LoggerFactory.getLogger(TokenRevocationList.class);
+
+    public TokenRevocationList(RevokedTokenRepository repo,
+                               MeterRegistry registry,
+                               @Value("${app.auth.revocation.expected-tokens:10000}") int expectedTokens,
+                               @Value("${app.auth.revocation.false-positive-rate:0.01}") double falsePositiveRate,
+                               @Value("${app.auth.revocation.poll-overlap:1m}") Duration pollOverlap) {
+        this.repo = repo;
+        this.expectedTokens = expectedTokens;
+        this.falsePositiveRate = falsePositiveRate;
+        this.pollOverlap = pollOverlap;
+        this.lookups = Counter.builder("tokens.revocation.lookups")
+                .description("Revocation filter hits checked against revoked_tokens").register(registry);
+        Gauge.builder("tokens.revoked", filter, f -> f.get() == null ? 0 : f.get().insertions())
+                .description("Revoked, unexpired tokens in this node's filter").register(registry);
+    }
+
+    public boolean isRevoked(String jti) {
+        if (!current().mightContain(jti)) {
+            return false;
+        }
+        lookups.increment();
+        return repo.existsById(jti);
+    }
+
+    /** Revokes the token with id {@code jti} until {@code expiresAt}, when it would stop working anyway. */
+    public void revoke(String jti, Instant expiresAt) {
+        repo.save(new RevokedToken(jti, OffsetDateTime.ofInstant(expiresAt, ZoneId.systemDefault())));
+        // under the rebuild lock, so a filter being rebuilt right now cannot drop it
+        rebuildLock.lock();
+        try {
+            current().put(jti);
+        } finally {
+            rebuildLock.unlock();
+        }
+        log.info("Revoked token {} (expires {})", jti, expiresAt);
+    }
+
+    @Scheduled(fixedDelayString = "${app.auth.revocation.poll-interval:5s}",
+            initialDelayString = "${app.auth.revocation.poll-interval:5s}")
+    public void poll() {
+        BloomFilter f = filter.get();
+        if (f == null) {
+            return; // not loaded yet; the first check loads everything
+        }
+        try {
+            if (f.isSaturated()) {
+                rebuild();
+                return;
+            }
+            OffsetDateTime now = OffsetDateTime.now();
+            List<String> revoked = repo.findJtisRevokedSince(polledAt.minus(pollOverlap), now);
+            revoked.forEach(f::put);
+            polledAt = now;
+        } catch (RuntimeException ex) {
+            log.warn("Token revocation poll failed: {}", ex.getMessage());
+        }
+    }
+
+    /** Drops the rows of tokens that have expired since, and rebuilds the filter without them. */
+    @Scheduled(fixedDelayString = "${app.auth.revocation.rebuild-interval:10m}",
+            initialDelayString = "${app.auth.revocation.rebuild-interval:10m}")
+    public void purgeExpired() {
+        if (filter.get() == null) {
+            return;
+        }
+        try {
+            int purged = repo.deleteExpired(OffsetDateTime.now());
+            if (purged > 0) {
+                log.info("Purged {} expired token revocations", purged);
+            }
+            rebuild();
+        } catch (RuntimeException ex) {
+            log.warn("Token revocation purge failed: {}", ex.getMessage());
+        }
+    }
+
+    private BloomFilter current() {
+        BloomFilter f = filter.get();
+        return f != null ? f : firstLoad();
+    }
+
+    // requests that queued behind the first load use its filter instead of loading again
+    private BloomFilter firstLoad() {
+        rebuildLock.lock();
+        try {
+            BloomFilter f = filter.get();
+            return f != null ? f : rebuild();
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    /**
+     * Loads every unexpired revocation into a new filter with room for twice as many. Revocations
+     * committed on other nodes while it loads are picked up by the next poll, which reads back
+     * from the start of the load.
+     */
+    BloomFilter rebuild() {
+        rebuildLock.lock();
+        try {
+            OffsetDateTime start = OffsetDateTime.now();
+            List<String> active = repo.findActiveJtis(start);
+            BloomFilter next = new BloomFilter(Math.max(expectedTokens, active.size() * 2), falsePositiveRate);
+            active.forEach(next::put);
+            filter.set(next);
+            polledAt = start;
+            log.info("Loaded {} revoked tokens into the revocation filter", active.size());
+            return next;
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.grootan.ems.auth;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.grootan.ems.department.CatalogVersion;
+import com.grootan.ems.department.CatalogVersionRepository;
+import com.grootan.ems.user.AppUserChangedEvent;
+import com.grootan.ems.user.AppUserRepository;
+import com.grootan.ems.user.UserState;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Enabled accounts by email, so {@link JwtAuthFilter} can check a verified token against the
+ * current account without a query per request. Disabled and missing accounts are not cached:
+ * tokens for them are rare, and an account activated later must not be shadowed by a stale entry.
+ * <p>
+ * Invalidation works like the department directory: every {@link AppUserChangedEvent} bumps the
+ * {@code users} row of {@link CatalogVersion} in its transaction; the writing node clears its cache
+ * after commit, the others when their poll ({@code app.auth.user-state.poll-interval}) sees a
+ * different version. Entries also expire after {@code ttl} as a safety net.
+ */
+@Component
+public class UserStateCache {
+
+    static final String CATALOG = "users";
+    private static final long UNKNOWN = -1;
+
+    private final AppUserRepository users;
+    private final CatalogVersionRepository versions;
+    private final Cache<String, UserState> states;
+    private final AtomicLong version = new AtomicLong(UNKNOWN);
+    private final AtomicLong invalidations = new AtomicLong();
+    private static final Logger log = LoggerFactory.getLogger(UserStateCache.class);
+
+    public UserStateCache(AppUserRepository users,
+                          CatalogVersionRepository versions,
+                          MeterRegistry registry,
+                          @Value("${app.auth.user-state.max-size:100000}") long maxSize,
+                          @Value("${app.auth.user-state.ttl:10m}") Duration ttl) {
+        this.users = users;
+        this.versions = versions;
+        this.states = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(registry, states, "userState");
+    }
+
+    /** The account behind {@code email} if it exists and is enabled. */
+    public Optional<UserState> find(String email) {
+        if (version.get() == UNKNOWN) {
+            // entries loaded before the first version read could miss a change made meanwhile
+            poll();
+        }
+        UserState cached = states.getIfPresent(email);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        // loaded outside the cache: Caffeine's get(key, loader) runs the loader inside a
+        // ConcurrentHashMap bin lock, which pins a virtual thread's carrier for the whole query
+        long seen = invalidations.get();
+        Optional<UserState> loaded = users.findStateByEmail(email).filter(UserState::isEnabled);
+        loaded.ifPresent(state -> {
+            states.put(email, state);
+            if (invalidations.get() != seen) {
+                states.invalidate(email); // cleared while we loaded; the state may predate the change
+            }
+        });
+        return loaded;
+    }
+
+    /** Runs inside the writing transaction, so the new version commits (or rolls back) with it. */
+    @EventListener
+    public void bumpVersion(AppUserChangedEvent event) {
+        if (versions.increment(CATALOG) == 0) {
+            versions.save(new CatalogVersion(CATALOG, 1));
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAppUserChanged(AppUserChangedEvent event) {
+        log.debug("Clearing user state cache after change of {}", event.getEmail());
+        clear();
+    }
+
+    @Scheduled(fixedDelayString = "${app.auth.user-state.poll-interval:5s}",
+            initialDelayString = "${app.auth.user-state.poll-interval:5s}")
+    public void poll() {
+        try {
+            long stored = versions.findVersion(CATALOG).orElse(0L);
+            long previous = version.getAndSet(stored);
+            if (previous != UNKNOWN && previous != stored) {
+                log.info("Users changed on another node (version {} -> {}), clearing user state cache", previous, stored);
+                clear();
+            }
+        } catch (RuntimeException ex) {
+            log.warn("User state version check failed: {}", ex.getMessage());
+        }
+    }
+
+    private void clear() {
+        invalidations.incrementAndGet();
+        states.invalidateAll();
+    }
+}
@@ -8,8 +8,14 @@ import lombok.Setter;
 public class LoginResponse {
     private final String accessToken;
     private final String tokenType = "Bearer";
+    /** Seconds until the access token expires. */
+    private final long expiresIn;
+    /** Opaque, single use: exchange it at {@code POST /auth/refresh} for a new pair. */
+    private final String refreshToken;
 
-    public LoginResponse(String accessToken) {
+    public LoginResponse(String accessToken, long expiresIn, String refreshToken) {
         this.accessToken = accessToken;
+        this.expiresIn = expiresIn;
+        this.refreshToken = refreshToken;
     }
 }
@@ -0,0 +1,37 @@
+package com.grootan.ems.cache;
+
+import com.grootan.ems.cache.dto.CacheStats;
+import org.springframework.cache.CacheManager;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Per-cache summary of the {@link CacheMetrics} meters on this node. The raw meters are at
+ * {@code /actuator/metrics/cache.*}.
+ */
+@RestController
+@RequestMapping("/admin/caches")
+public class CacheAdminController {
+
+    private final CacheManager cacheManager;
+
+    public CacheAdminController(CacheManager cacheManager) {
+        this.cacheManager = cacheManager;
+    }
+
+    @GetMapping
+    public List<CacheStats> caches() {
+        return cacheManager.getCacheNames().stream()
+                .map(cacheManager::getCache)
+                .filter(Objects::nonNull)
+                .filter(TwoLevelCache.class::isInstance)
+                .map(c -> ((TwoLevelCache) c).stats())
+                .sorted(Comparator.comparing(CacheStats::getName))
+                .toList();
+    }
+}
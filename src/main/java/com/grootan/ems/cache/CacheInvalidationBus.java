@@ -0,0 +1,121 @@
+package com.grootan.ems.cache;
+
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * Redis pub/sub channel that tells the other nodes to drop L1 entries. A message is
+ * {@code node|op|cache|key} where op is {@code E} (evict key) or {@code C} (clear cache);
+ * messages from this node are ignored.
+ */
+public class CacheInvalidationBus implements MessageListener, SmartLifecycle {
+
+    public static final String CHANNEL = "ems:cache-invalidation";
+
+    private final StringRedisTemplate redis;
+    private final RedisMessageListenerContainer container;
+    private volatile boolean running;
+    private final String nodeId = UUID.randomUUID().toString();
+    private volatile BiConsumer<String, String> evictListener = (cache, key) -> { };
+    private volatile Consumer<String> clearListener = cache -> { };
+    private static final Logger log = LoggerFactory.getLogger(CacheInvalidationBus.class);
+
+    public CacheInvalidationBus(StringRedisTemplate redis, RedisMessageListenerContainer container) {
+        this.redis = redis;
+        this.container = container;
+        container.addMessageListener(this, new ChannelTopic(CHANNEL));
+    }
+
+    /**
+     * Subscribes in the background so that an unreachable Redis does not fail startup;
+     * until the subscription succeeds, other nodes' writes are only bounded by the L1 TTL.
+     */
+    @Override
+    public void start() {
+        running = true;
+        Thread subscriber = new Thread(() -> {
+            long backoffMs = 1_000;
+            while (running && !container.isRunning()) {
+                try {
+                    container.start();
+                    log.info("Cache invalidation bus listening on {} as node {}", CHANNEL, nodeId);
+                } catch (RuntimeException ex) {
+                    log.warn("Cache invalidation subscribe failed, retrying in {} ms: {}", backoffMs, ex.getMessage());
+                    try {
+                        Thread.sleep(backoffMs);
+                    } catch (InterruptedException ie) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                    backoffMs = Math.min(backoffMs * 2, 30_000);
+                }
+            }
+        }, "cache-invalidation-subscriber");
+        subscriber.setDaemon(true);
+        subscriber.start();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        container.stop();
+    }
+
+    @Override
+    public int getPhase() {
+        // stop after the web server so in-flight requests can still invalidate
+        return SmartLifecycle.DEFAULT_PHASE - 1024;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    void onRemoteInvalidation(BiConsumer<String, String> evict, Consumer<String> clear) {
+        this.evictListener = evict;
+        this.clearListener = clear;
+    }
+
+    public void publishEvict(String cacheName, String key) {
+        publish("E", cacheName, key);
+    }
+
+    public void publishClear(String cacheName) {
+        publish("C", cacheName, "");
+    }
+
+    private void publish(String op, String cacheName, String key) {
+        try {
+            redis.convertAndSend(CHANNEL, nodeId + "|" + op + "|" + cacheName + "|" + key);
+        } catch (RuntimeException ex) {
+            // Other nodes fall back to their L1 TTL
+            log.warn("Could not publish cache invalidation {} {} {}: {}", op, cacheName, key, ex.getMessage());
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String[] parts = new String(message.getBody(), StandardCharsets.UTF_8).split("\\|", 4);
+        if (parts.length != 4 || parts[0].equals(nodeId)) {
+            return;
+        }
+        log.debug("Remote cache invalidation op={} cache={} key={}", parts[1], parts[2], parts[3]);
+        if ("C".equals(parts[1])) {
+            clearListener.accept(parts[2]);
+        } else {
+            evictListener.accept(parts[2], parts[3]);
+        }
+    }
+}
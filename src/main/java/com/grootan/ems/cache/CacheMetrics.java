@@ -0,0 +1,133 @@
+package com.grootan.ems.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.grootan.ems.cache.dto.CacheStats;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Micrometer meters of one cache, all tagged {@code cache=<name>}:
+ * <ul>
+ *   <li>{@code cache.gets} by {@code result} = {@code l1_hit | l2_hit | miss}</li>
+ *   <li>{@code cache.loads} (timer, histogram) by {@code result} = {@code success | failure},
+ *       and {@code cache.refreshes} for refresh-ahead reloads</li>
+ *   <li>{@code cache.entry.size} bytes written to Redis, after compression</li>
+ *   <li>{@code cache.evictions} by {@code scope} = {@code key | all}: evictions issued on this node,
+ *       {@code all} being {@code @CacheEvict(allEntries = true)} flushes</li>
+ *   <li>{@code cache.invalidations} by {@code scope}: L1 drops requested by other nodes</li>
+ *   <li>{@code cache.l1.evictions} by {@code cause} (size, expired) and the {@code cache.l1.size} gauge</li>
+ * </ul>
+ */
+public class CacheMetrics {
+
+    private final String cacheName;
+    private final Counter l1Hits;
+    private final Counter l2Hits;
+    private final Counter misses;
+    private final Timer loads;
+    private final Timer failedLoads;
+    private final Counter refreshes;
+    private final DistributionSummary entrySize;
+    private final Counter keyEvictions;
+    private final Counter allEntriesEvictions;
+    private final Counter keyInvalidations;
+    private final Counter allEntriesInvalidations;
+    private final MeterRegistry registry;
+
+    public CacheMetrics(String cacheName, MeterRegistry registry) {
+        this.cacheName = cacheName;
+        this.registry = registry;
+        this.l1Hits = gets("l1_hit");
+        this.l2Hits = gets("l2_hit");
+        this.misses = gets("miss");
+        this.loads = loadTimer("success");
+        this.failedLoads = loadTimer("failure");
+        this.refreshes = Counter.builder("cache.refreshes").tag("cache", cacheName)
+                .description("Refresh-ahead reloads").register(registry);
+        this.entrySize = DistributionSummary.builder("cache.entry.size").tag("cache", cacheName)
+                .baseUnit("bytes").description("Serialized size of entries written to Redis")
+                .publishPercentiles(0.5, 0.99).register(registry);
+        this.keyEvictions = evictions("cache.evictions", "key");
+        this.allEntriesEvictions = evictions("cache.evictions", "all");
+        this.keyInvalidations = evictions("cache.invalidations", "key");
+        this.allEntriesInvalidations = evictions("cache.invalidations", "all");
+    }
+
+    private Counter gets(String result) {
+        return Counter.builder("cache.gets").tag("cache", cacheName).tag("result", result).register(registry);
+    }
+
+    private Timer loadTimer(String result) {
+        return Timer.builder("cache.loads").tag("cache", cacheName).tag("result", result)
+                .description("Time spent in the cached method on a miss")
+                .publishPercentileHistogram()
+                .publishPercentiles(0.5, 0.99)
+                .register(registry);
+    }
+
+    private Counter evictions(String name, String scope) {
+        return Counter.builder(name).tag("cache", cacheName).tag("scope", scope).register(registry);
+    }
+
+    void l1Hit() { l1Hits.increment(); }
+    void l2Hit() { l2Hits.increment(); }
+    void miss() { misses.increment(); }
+    void refreshed() { refreshes.increment(); }
+    void evicted(boolean allEntries) { (allEntries ? allEntriesEvictions : keyEvictions).increment(); }
+    void invalidatedRemotely(boolean allEntries) { (allEntries ? allEntriesInvalidations : keyInvalidations).increment(); }
+
+    void loaded(long nanos, boolean success) {
+        (success ? loads : failedLoads).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /** Called by the cache's serializer for every value written to Redis. */
+    public void entryWritten(int bytes) {
+        entrySize.record(bytes);
+    }
+
+    void l1Evicted(String cause) {
+        Counter.builder("cache.l1.evictions").tag("cache", cacheName).tag("cause", cause).register(registry).increment();
+    }
+
+    void l1SizeGauge(Cache<?, ?> l1) {
+        registry.gauge("cache.l1.size", Tags.of("cache", cacheName), l1, Cache::estimatedSize);
+    }
+
+    /** Point-in-time summary for {@code /admin/caches}. */
+    public CacheStats snapshot(long l1Size) {
+        long l1 = (long) l1Hits.count();
+        long l2 = (long) l2Hits.count();
+        long miss = (long) misses.count();
+        long gets = l1 + l2 + miss;
+        return new CacheStats(
+                cacheName,
+                l1Size,
+                l1, l2, miss,
+                gets == 0 ? 0 : (double) (l1 + l2) / gets,
+                loads.count(),
+                failedLoads.count(),
+                loads.mean(TimeUnit.MILLISECONDS),
+                percentile(loads, 0.99),
+                (long) refreshes.count(),
+                Math.round(entrySize.mean()),
+                Math.round(entrySize.max()),
+                (long) keyEvictions.count(),
+                (long) allEntriesEvictions.count(),
+                (long) (keyInvalidations.count() + allEntriesInvalidations.count()));
+    }
+
+    private static double percentile(Timer timer, double p) {
+        for (ValueAtPercentile v : timer.takeSnapshot().percentileValues()) {
+            if (v.percentile() == p) {
+                return v.value(TimeUnit.MILLISECONDS);
+            }
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,14 @@
+package com.grootan.ems.cache;
+
+/**
+ * Turns cache values into bytes and back. The {@link #name()} is part of every Redis key
+ * (see {@code CacheConfig}), so switching codecs never reads entries written by another one.
+ */
+public interface CacheValueCodec {
+
+    String name();
+
+    byte[] encode(Object value);
+
+    Object decode(byte[] bytes);
+}
@@ -0,0 +1,154 @@
+package com.grootan.ems.cache;
+
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Redis value serializer around a {@link CacheValueCodec}. Encoded values of at least
+ * {@code compressAboveBytes} are deflated (fastest level, raw stream) when that actually saves
+ * space. The first byte is a set of flags: {@code 1} deflated, {@code 2} stamped. A stamped entry
+ * ({@link StampedValue}) continues with the write time (8 bytes) and load time (4 bytes); a
+ * deflated one with the inflated length (4 bytes); then the payload.
+ */
+public class CompressingCacheSerializer implements RedisSerializer<Object> {
+
+    private static final int DEFLATED = 1;
+    private static final int STAMPED = 2;
+    /** Largest inflated length accepted; a corrupt length must not allocate up to 2 GB. */
+    static final int MAX_ENTRY_BYTES = 32 << 20;
+
+    private final CacheValueCodec codec;
+    private final int compressAboveBytes;
+    private final IntConsumer entrySizes;
+
+    public CompressingCacheSerializer(CacheValueCodec codec, int compressAboveBytes) {
+        this(codec, compressAboveBytes, bytes -> { });
+    }
+
+    /**
+     * @param entrySizes told the final size of every serialized entry (see {@link CacheMetrics#entryWritten})
+     */
+    public CompressingCacheSerializer(CacheValueCodec codec, int compressAboveBytes, IntConsumer entrySizes) {
+        this.codec = codec;
+        this.compressAboveBytes = compressAboveBytes;
+        this.entrySizes = entrySizes;
+    }
+
+    @Override
+    public byte[] serialize(Object value) {
+        if (value == null) {
+            return null;
+        }
+        StampedValue stamp = value instanceof StampedValue s ? s : null;
+        byte[] payload = codec.encode(StampedValue.unwrap(value));
+        int flags = stamp != null ? STAMPED : 0;
+        int inflatedLength = payload.length;
+        if (payload.length >= compressAboveBytes) {
+            byte[] deflated = deflate(payload);
+            if (deflated.length + 4 < payload.length) {
+                payload = deflated;
+                flags |= DEFLATED;
+            }
+        }
+        ByteBuffer out = ByteBuffer.allocate(1
+                + ((flags & STAMPED) != 0 ? 12 : 0)
+                + ((flags & DEFLATED) != 0 ? 4 : 0)
+                + payload.length);
+        out.put((byte) flags);
+        if (stamp != null) {
+            out.putLong(stamp.writtenAtMillis).putInt(stamp.loadMillis);
+        }
+        if ((flags & DEFLATED) != 0) {
+            out.putInt(inflatedLength);
+        }
+        byte[] bytes = out.put(payload).array();
+        entrySizes.accept(bytes.length);
+        return bytes;
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        int flags = bytes[0];
+        if ((flags & ~(DEFLATED | STAMPED)) != 0) {
+            throw new SerializationException("Unknown cache entry header " + flags);
+        }
+        try {
+            ByteBuffer in = ByteBuffer.wrap(bytes, 1, bytes.length - 1);
+            long writtenAt = 0;
+            int loadMillis = 0;
+            if ((flags & STAMPED) != 0) {
+                writtenAt = in.getLong();
+                loadMillis = in.getInt();
+            }
+            byte[] payload;
+            if ((flags & DEFLATED) != 0) {
+                int length = in.getInt();
+                if (length < 0 || length > MAX_ENTRY_BYTES) {
+                    throw new SerializationException("Compressed cache entry claims " + length + " inflated bytes");
+                }
+                payload = inflate(bytes, in.position(), length);
+            } else {
+                payload = Arrays.copyOfRange(bytes, in.position(), bytes.length);
+            }
+            Object value = codec.decode(payload);
+            return (flags & STAMPED) != 0 ? new StampedValue(value, writtenAt, loadMillis) : value;
+        } catch (BufferUnderflowException ex) {
+            throw new SerializationException("Truncated cache entry header", ex);
+        }
+    }
+
+    private static byte[] deflate(byte[] input) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED, true);
+        try {
+            deflater.setInput(input);
+            deflater.finish();
+            byte[] out = new byte[input.length];
+            int n = 0;
+            while (!deflater.finished()) {
+                if (n == out.length) {
+                    // incompressible; the caller keeps the plain bytes
+                    return input;
+                }
+                n += deflater.deflate(out, n, out.length - n);
+            }
+            return Arrays.copyOf(out, n);
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] inflate(byte[] input, int offset, int length) {
+        Inflater inflater = new Inflater(true);
+        try {
+            inflater.setInput(input, offset, input.length - offset);
+            byte[] out = new byte[length];
+            int n = 0;
+            while (n < length && !inflater.finished()) {
+                int read = inflater.inflate(out, n, length - n);
+                if (read == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                n += read;
+            }
+            if (n != length) {
+                throw new SerializationException("Compressed cache entry inflated to " + n + " of " + length + " bytes");
+            }
+            return out;
+        } catch (DataFormatException ex) {
+            throw new SerializationException("Corrupt compressed cache entry", ex);
+        } finally {
+            inflater.end();
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.grootan.ems.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+
+/**
+ * The original cache format: Jackson JSON via {@link GenericJackson2JsonRedisSerializer}.
+ * Kept as {@code app.cache.codec=json} for rollback and as the benchmark baseline.
+ */
+public class JsonCacheCodec implements CacheValueCodec {
+
+    private final GenericJackson2JsonRedisSerializer serializer;
+
+    public JsonCacheCodec(ObjectMapper objectMapper) {
+        this.serializer = new GenericJackson2JsonRedisSerializer(objectMapper);
+    }
+
+    @Override
+    public String name() {
+        return "json";
+    }
+
+    @Override
+    public byte[] encode(Object value) {
+        return serializer.serialize(value);
+    }
+
+    @Override
+    public Object decode(byte[] bytes) {
+        return serializer.deserialize(bytes);
+    }
+}
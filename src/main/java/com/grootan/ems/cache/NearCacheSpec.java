@@ -0,0 +1,50 @@
+package com.grootan.ems.cache;
+
+import java.time.Duration;
+
+/**
+ * How one cache behaves on this node: size and TTL of the in-process L1, whether concurrent
+ * misses for the same key share one load, and how eagerly hot entries are reloaded before their
+ * Redis TTL runs out.
+ * <p>
+ * Keep the L1 TTL well below the Redis TTL: pub/sub invalidation is best effort, the TTL is what
+ * bounds staleness if a message is lost.
+ */
+public final class NearCacheSpec {
+
+    private final long maximumSize;
+    private final Duration ttl;
+    private final boolean singleFlight;
+    private final double refreshAheadBeta;
+
+    private NearCacheSpec(long maximumSize, Duration ttl, boolean singleFlight, double refreshAheadBeta) {
+        this.maximumSize = maximumSize;
+        this.ttl = ttl;
+        this.singleFlight = singleFlight;
+        this.refreshAheadBeta = refreshAheadBeta;
+    }
+
+    /** Single-flight loading on, refresh-ahead off. */
+    public static NearCacheSpec of(long maximumSize, Duration ttl) {
+        return new NearCacheSpec(maximumSize, ttl, true, 0);
+    }
+
+    public NearCacheSpec singleFlight(boolean enabled) {
+        return new NearCacheSpec(maximumSize, ttl, enabled, refreshAheadBeta);
+    }
+
+    /**
+     * Reload entries early with probability rising towards expiry (XFetch): a hit triggers a
+     * background reload once {@code now - loadTime * beta * ln(rand) >= expiry}. {@code beta = 1}
+     * is the usual choice; larger values refresh earlier, {@code 0} disables it.
+     * Only applies to {@code @Cacheable(sync = true)} methods, which hand the cache their loader.
+     */
+    public NearCacheSpec refreshAhead(double beta) {
+        return new NearCacheSpec(maximumSize, ttl, singleFlight, beta);
+    }
+
+    public long getMaximumSize() { return maximumSize; }
+    public Duration getTtl() { return ttl; }
+    public boolean isSingleFlight() { return singleFlight; }
+    public double getRefreshAheadBeta() { return refreshAheadBeta; }
+}
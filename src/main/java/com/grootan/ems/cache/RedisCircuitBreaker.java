@@ -0,0 +1,115 @@
+package com.grootan.ems.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongSupplier;
+
+/**
+ * Circuit breaker in front of Redis, shared by all {@link TwoLevelCache}s (they talk to the same
+ * server).
+ * <ul>
+ *   <li>CLOSED: calls go through. {@code failureThreshold} consecutive failures, or calls slower
+ *       than {@code slowCallThreshold}, open it.</li>
+ *   <li>OPEN: calls are skipped for {@code openDuration}; caches serve from L1 and the database.</li>
+ *   <li>HALF_OPEN: one probe call goes through; success closes the breaker, failure reopens it.</li>
+ * </ul>
+ * Hard stalls are cut by the Lettuce command timeout ({@code spring.data.redis.timeout}); the breaker
+ * keeps the next requests from paying that timeout again.
+ * <p>
+ * Meters: {@code cache.redis.circuit} (0 closed, 1 open, 2 half-open), {@code cache.redis.failures}
+ * and {@code cache.redis.bypassed}.
+ */
+public class RedisCircuitBreaker {
+
+    private static final Logger log = LoggerFactory.getLogger(RedisCircuitBreaker.class);
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final int failureThreshold;
+    private final long slowCallNanos;
+    private final long openNanos;
+    private final LongSupplier clock;
+
+    private final AtomicReference<State> state = new AtomicReference<>(State.CLOSED);
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private final AtomicLong openedAt = new AtomicLong();
+
+    private Counter failures;
+    private Counter bypassed;
+
+    public RedisCircuitBreaker(int failureThreshold, Duration slowCallThreshold, Duration openDuration) {
+        this(failureThreshold, slowCallThreshold, openDuration, System::nanoTime);
+    }
+
+    RedisCircuitBreaker(int failureThreshold, Duration slowCallThreshold, Duration openDuration, LongSupplier clock) {
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.slowCallNanos = slowCallThreshold.toNanos();
+        this.openNanos = openDuration.toNanos();
+        this.clock = clock;
+    }
+
+    public RedisCircuitBreaker bindTo(MeterRegistry registry) {
+        Gauge.builder("cache.redis.circuit", state, s -> s.get().ordinal())
+                .description("0 closed, 1 open, 2 half-open").register(registry);
+        failures = Counter.builder("cache.redis.failures").description("Failed or slow Redis cache calls").register(registry);
+        bypassed = Counter.builder("cache.redis.bypassed").description("Redis cache calls skipped while the circuit is open").register(registry);
+        return this;
+    }
+
+    public State getState() {
+        return state.get();
+    }
+
+    /**
+     * Whether a Redis call may go out now. An OPEN breaker past its open duration lets exactly one
+     * caller through as the half-open probe.
+     */
+    public boolean tryAcquire() {
+        State current = state.get();
+        if (current == State.CLOSED) {
+            return true;
+        }
+        if (current == State.OPEN && clock.getAsLong() - openedAt.get() >= openNanos
+                && state.compareAndSet(State.OPEN, State.HALF_OPEN)) {
+            log.info("Redis circuit half-open, probing");
+            return true;
+        }
+        if (bypassed != null) bypassed.increment();
+        return false;
+    }
+
+    /** Reports a call let through by {@link #tryAcquire()} that completed after {@code nanos}. */
+    public void onSuccess(long nanos) {
+        if (nanos > slowCallNanos) {
+            onFailure("slow call of " + nanos / 1_000_000 + " ms");
+            return;
+        }
+        consecutiveFailures.set(0);
+        if (state.compareAndSet(State.HALF_OPEN, State.CLOSED)) {
+            log.info("Redis circuit closed, Redis is back");
+        }
+    }
+
+    public void onFailure(String reason) {
+        if (failures != null) failures.increment();
+        int n = consecutiveFailures.incrementAndGet();
+        State current = state.get();
+        if (current != State.HALF_OPEN && (current != State.CLOSED || n < failureThreshold)) {
+            return;
+        }
+        // set before the state flips, so no caller sees OPEN with the previous opening's time
+        openedAt.set(clock.getAsLong());
+        if (state.compareAndSet(current, State.OPEN)) {
+            log.warn("Redis circuit open for {} ms after {} consecutive failures, last: {}",
+                    openNanos / 1_000_000, n, reason);
+        }
+    }
+}
@@ -0,0 +1,338 @@
+package com.grootan.ems.cache;
+
+import com.grootan.ems.department.dto.DepartmentResponse;
+import com.grootan.ems.employee.dto.EmployeePage;
+import com.grootan.ems.employee.dto.EmployeeResponse;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Hand-written binary format for the values we actually cache: a one-byte type tag, then the
+ * fields in a fixed order with no names. Integers are varints, strings are length-prefixed UTF-8
+ * (length 0 means null), other nullable fields share a presence bitmask per record.
+ * <p>
+ * The format is positional, so changing a DTO means changing {@link #encodeEmployee} and
+ * {@link #readEmployee} together and bumping {@link #name()} so old entries are not read.
+ */
+public class SchemaCacheCodec implements CacheValueCodec {
+
+    private static final byte NULL = 0;
+    private static final byte EMPLOYEE = 1;
+    private static final byte DEPARTMENT = 2;
+    private static final byte LIST = 3;
+    private static final byte EMPLOYEE_PAGE = 4;
+    private static final byte LONG = 5;
+    private static final byte STRING = 6;
+
+    private static final Sort.Direction[] DIRECTIONS = Sort.Direction.values();
+    private static final EmployeePage.TotalAccuracy[] ACCURACIES = EmployeePage.TotalAccuracy.values();
+
+    @Override
+    public String name() {
+        return "schema1";
+    }
+
+    @Override
+    public byte[] encode(Object value) {
+        Out out = new Out(256);
+        write(out, value);
+        return out.toByteArray();
+    }
+
+    @Override
+    public Object decode(byte[] bytes) {
+        In in = new In(bytes);
+        try {
+            Object value = read(in);
+            if (in.pos != bytes.length) {
+                throw new SerializationException("Trailing bytes in cache entry: " + (bytes.length - in.pos));
+            }
+            return value;
+        } catch (IndexOutOfBoundsException ex) {
+            throw new SerializationException("Truncated cache entry", ex);
+        }
+    }
+
+    private void write(Out out, Object value) {
+        if (value == null) {
+            out.writeByte(NULL);
+        } else if (value instanceof EmployeeResponse e) {
+            out.writeByte(EMPLOYEE);
+            encodeEmployee(out, e);
+        } else if (value instanceof DepartmentResponse d) {
+            out.writeByte(DEPARTMENT);
+            encodeDepartment(out, d);
+        } else if (value instanceof EmployeePage page) {
+            out.writeByte(EMPLOYEE_PAGE);
+            encodePageable(out, page.getPageable());
+            out.writeVarLong(page.getTotalElements());
+            out.writeByte((byte) page.getTotalAccuracy().ordinal());
+            List<EmployeeResponse> content = page.getContent();
+            out.writeVarLong(content.size());
+            for (EmployeeResponse e : content) {
+                encodeEmployee(out, e);
+            }
+        } else if (value instanceof List<?> list) {
+            out.writeByte(LIST);
+            out.writeVarLong(list.size());
+            for (Object element : list) {
+                write(out, element);
+            }
+        } else if (value instanceof Long l) {
+            out.writeByte(LONG);
+            out.writeZigZag(l);
+        } else if (value instanceof String s) {
+            out.writeByte(STRING);
+            out.writeString(s);
+        } else {
+            throw new SerializationException("No cache schema for " + value.getClass().getName());
+        }
+    }
+
+    private Object read(In in) {
+        byte tag = in.readByte();
+        switch (tag) {
+            case NULL:
+                return null;
+            case EMPLOYEE:
+                return readEmployee(in);
+            case DEPARTMENT:
+                return readDepartment(in);
+            case EMPLOYEE_PAGE: {
+                Pageable pageable = readPageable(in);
+                long total = in.readVarLong();
+                EmployeePage.TotalAccuracy accuracy = ACCURACIES[in.readByte()];
+                int n = in.readSize();
+                List<EmployeeResponse> content = new ArrayList<>(n);
+                for (int i = 0; i < n; i++) {
+                    content.add(readEmployee(in));
+                }
+                return new EmployeePage(Collections.unmodifiableList(content), pageable, total, accuracy);
+            }
+            case LIST: {
+                int n = in.readSize();
+                List<Object> list = new ArrayList<>(n);
+                for (int i = 0; i < n; i++) {
+                    list.add(read(in));
+                }
+                return Collections.unmodifiableList(list);
+            }
+            case LONG:
+                return in.readZigZag();
+            case STRING:
+                return in.readString();
+            default:
+                throw new SerializationException("Unknown cache entry tag " + tag);
+        }
+    }
+
+    private static void encodeEmployee(Out out, EmployeeResponse e) {
+        int present = mask(e.getId(), e.getHireDate(), e.getDepartmentId(), e.getCreatedAt(), e.getUpdatedAt());
+        out.writeByte((byte) present);
+        if (e.getId() != null) out.writeZigZag(e.getId());
+        out.writeString(e.getFullName());
+        out.writeString(e.getEmail());
+        out.writeString(e.getPassword());
+        if (e.getHireDate() != null) out.writeZigZag(e.getHireDate().toEpochDay());
+        out.writeString(e.getStatus());
+        if (e.getDepartmentId() != null) out.writeZigZag(e.getDepartmentId());
+        out.writeString(e.getDepartmentCode());
+        out.writeString(e.getDepartmentName());
+        if (e.getCreatedAt() != null) out.writeTimestamp(e.getCreatedAt());
+        if (e.getUpdatedAt() != null) out.writeTimestamp(e.getUpdatedAt());
+    }
+
+    private static EmployeeResponse readEmployee(In in) {
+        int present = in.readByte();
+        Long id = (present & 1) != 0 ? in.readZigZag() : null;
+        String fullName = in.readString();
+        String email = in.readString();
+        String password = in.readString();
+        LocalDate hireDate = (present & 2) != 0 ? LocalDate.ofEpochDay(in.readZigZag()) : null;
+        String status = in.readString();
+        Long departmentId = (present & 4) != 0 ? in.readZigZag() : null;
+        String departmentCode = in.readString();
+        String departmentName = in.readString();
+        OffsetDateTime createdAt = (present & 8) != 0 ? in.readTimestamp() : null;
+        OffsetDateTime updatedAt = (present & 16) != 0 ? in.readTimestamp() : null;
+        return new EmployeeResponse(id, fullName, email, password, hireDate, status,
+                departmentId, departmentCode, departmentName, createdAt, updatedAt);
+    }
+
+    private static void encodeDepartment(Out out, DepartmentResponse d) {
+        out.writeByte((byte) mask(d.getId(), d.getCreatedAt(), d.getUpdatedAt()));
+        if (d.getId() != null) out.writeZigZag(d.getId());
+        out.writeString(d.getCode());
+        out.writeString(d.getName());
+        if (d.getCreatedAt() != null) out.writeTimestamp(d.getCreatedAt());
+        if (d.getUpdatedAt() != null) out.writeTimestamp(d.getUpdatedAt());
+    }
+
+    private static DepartmentResponse readDepartment(In in) {
+        int present = in.readByte();
+        Long id = (present & 1) != 0 ? in.readZigZag() : null;
+        String code = in.readString();
+        String name = in.readString();
+        OffsetDateTime createdAt = (present & 2) != 0 ? in.readTimestamp() : null;
+        OffsetDateTime updatedAt = (present & 4) != 0 ? in.readTimestamp() : null;
+        return new DepartmentResponse(id, code, name, createdAt, updatedAt);
+    }
+
+    private static void encodePageable(Out out, Pageable pageable) {
+        if (pageable.isUnpaged()) {
+            out.writeVarLong(0);
+            return;
+        }
+        out.writeVarLong(pageable.getPageSize());
+        out.writeVarLong(pageable.getPageNumber());
+        List<Sort.Order> orders = pageable.getSort().toList();
+        out.writeVarLong(orders.size());
+        for (Sort.Order order : orders) {
+            out.writeString(order.getProperty());
+            out.writeByte((byte) order.getDirection().ordinal());
+        }
+    }
+
+    private static Pageable readPageable(In in) {
+        int size = in.readSize();
+        if (size == 0) {
+            return Pageable.unpaged();
+        }
+        int number = in.readSize();
+        int n = in.readSize();
+        List<Sort.Order> orders = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            String property = in.readString();
+            orders.add(new Sort.Order(DIRECTIONS[in.readByte()], property));
+        }
+        return PageRequest.of(number, size, Sort.by(orders));
+    }
+
+    private static int mask(Object... fields) {
+        int mask = 0;
+        for (int i = 0; i < fields.length; i++) {
+            if (fields[i] != null) {
+                mask |= 1 << i;
+            }
+        }
+        return mask;
+    }
+
+    private static final class Out {
+        private byte[] buf;
+        private int pos;
+
+        Out(int capacity) {
+            buf = new byte[capacity];
+        }
+
+        void writeByte(byte b) {
+            ensure(1);
+            buf[pos++] = b;
+        }
+
+        void writeVarLong(long v) {
+            ensure(10);
+            while ((v & ~0x7FL) != 0) {
+                buf[pos++] = (byte) ((v & 0x7F) | 0x80);
+                v >>>= 7;
+            }
+            buf[pos++] = (byte) v;
+        }
+
+        void writeZigZag(long v) {
+            writeVarLong((v << 1) ^ (v >> 63));
+        }
+
+        void writeString(String s) {
+            if (s == null) {
+                writeVarLong(0);
+                return;
+            }
+            byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+            writeVarLong(bytes.length + 1L);
+            ensure(bytes.length);
+            System.arraycopy(bytes, 0, buf, pos, bytes.length);
+            pos += bytes.length;
+        }
+
+        void writeTimestamp(OffsetDateTime t) {
+            writeZigZag(t.toEpochSecond());
+            writeVarLong(t.getNano());
+            writeZigZag(t.getOffset().getTotalSeconds());
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(buf, pos);
+        }
+
+        private void ensure(int n) {
+            if (pos + n > buf.length) {
+                buf = Arrays.copyOf(buf, Math.max(buf.length * 2, pos + n));
+            }
+        }
+    }
+
+    private static final class In {
+        private final byte[] buf;
+        private int pos;
+
+        In(byte[] buf) {
+            this.buf = buf;
+        }
+
+        byte readByte() {
+            return buf[pos++];
+        }
+
+        long readVarLong() {
+            long v = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                byte b = buf[pos++];
+                v |= (long) (b & 0x7F) << shift;
+                if (b >= 0) {
+                    return v;
+                }
+            }
+            throw new SerializationException("Malformed varint in cache entry");
+        }
+
+        int readSize() {
+            return Math.toIntExact(readVarLong());
+        }
+
+        long readZigZag() {
+            long v = readVarLong();
+            return (v >>> 1) ^ -(v & 1);
+        }
+
+        String readString() {
+            int len = readSize();
+            if (len == 0) {
+                return null;
+            }
+            String s = new String(buf, pos, len - 1, StandardCharsets.UTF_8);
+            pos += len - 1;
+            return s;
+        }
+
+        OffsetDateTime readTimestamp() {
+            long seconds = readZigZag();
+            int nanos = readSize();
+            ZoneOffset offset = ZoneOffset.ofTotalSeconds(Math.toIntExact(readZigZag()));
+            return OffsetDateTime.ofInstant(Instant.ofEpochSecond(seconds, nanos), offset);
+        }
+    }
+}
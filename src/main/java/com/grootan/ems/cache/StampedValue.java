@@ -0,0 +1,23 @@
+package com.grootan.ems.cache;
+
+/**
+ * A cached value plus when it was loaded and how long the load took, which refresh-ahead needs
+ * on every node. {@link CompressingCacheSerializer} stores the stamp in the entry header, so
+ * codecs only ever see the bare value.
+ */
+final class StampedValue {
+
+    final Object value;
+    final long writtenAtMillis;
+    final int loadMillis;
+
+    StampedValue(Object value, long writtenAtMillis, int loadMillis) {
+        this.value = value;
+        this.writtenAtMillis = writtenAtMillis;
+        this.loadMillis = loadMillis;
+    }
+
+    static Object unwrap(Object cached) {
+        return cached instanceof StampedValue s ? s.value : cached;
+    }
+}
@@ -0,0 +1,530 @@
+package com.grootan.ems.cache;
+
+import com.grootan.ems.cache.dto.CacheStats;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+import org.springframework.dao.DataAccessException;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * A Spring {@link Cache} that reads through a bounded in-process L1 (Caffeine, W-TinyLFU) before
+ * the Redis L2. Writes and evictions go to both levels; puts and evictions are broadcast so the
+ * other nodes drop their L1 copy, values loaded on a miss are not (another node's copy of a
+ * loaded value is just as current). L1 keys are the string form of the cache key, the same form Redis uses.
+ * <p>
+ * {@link #get(Object, Callable)} (used by {@code @Cacheable(sync = true)}) additionally:
+ * <ul>
+ *   <li>runs one loader per key on this node; concurrent misses wait for its result</li>
+ *   <li>stamps loaded values so a hit close to the Redis expiry can reload them in the background
+ *       (see {@link NearCacheSpec#refreshAhead(double)})</li>
+ * </ul>
+ * Redis calls go through the shared {@link RedisCircuitBreaker}. A failing or skipped read is a
+ * miss; a failing or skipped write marks L2 as possibly stale, and the first call after Redis is
+ * back clears this cache in Redis before using it. Other nodes' L1 copies may miss invalidations
+ * while Redis is down; their L1 TTL bounds that.
+ */
+public class TwoLevelCache implements Cache {
+
+    private static final Logger log = LoggerFactory.getLogger(TwoLevelCache.class);
+
+    private final String name;
+    private final com.github.benmanes.caffeine.cache.Cache<String, Object> l1;
+    private final Cache l2;
+    private final CacheInvalidationBus bus;
+    private final RedisCircuitBreaker breaker;
+    private final NearCacheSpec spec;
+    private final long l2TtlMillis;
+    private final Executor refreshExecutor;
+    private final CacheMetrics metrics;
+
+    private final Map<String, CompletableFuture<Object>> loading = new ConcurrentHashMap<>();
+    private final Set<String> refreshing = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean l2Stale = new AtomicBoolean();
+
+    /**
+     * @param l2Ttl           Redis TTL of this cache; {@code null} or zero disables refresh-ahead
+     * @param refreshExecutor runs refresh-ahead reloads
+     */
+    public TwoLevelCache(String name, com.github.benmanes.caffeine.cache.Cache<String, Object> l1, Cache l2,
+                         CacheInvalidationBus bus, RedisCircuitBreaker breaker, NearCacheSpec spec,
+                         Duration l2Ttl, Executor refreshExecutor, CacheMetrics metrics) {
+        this.name = name;
+        this.l1 = l1;
+        this.l2 = l2;
+        this.bus = bus;
+        this.breaker = breaker;
+        this.spec = spec;
+        this.l2TtlMillis = l2Ttl == null ? 0 : l2Ttl.toMillis();
+        this.refreshExecutor = refreshExecutor;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return l2.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        Object cached = lookup(key, key.toString(), true);
+        return cached == null ? null : new SimpleValueWrapper(StampedValue.unwrap(cached));
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper wrapper = get(key);
+        Object value = wrapper == null ? null : wrapper.get();
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+        return (T) value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        String k = key.toString();
+        Object cached = lookup(key, k, true);
+        if (cached != null) {
+            if (cached instanceof StampedValue stamped && shouldRefreshEarly(stamped)) {
+                refreshInBackground(key, k, valueLoader);
+            }
+            return (T) StampedValue.unwrap(cached);
+        }
+        if (!spec.isSingleFlight()) {
+            return (T) load(key, valueLoader);
+        }
+
+        CompletableFuture<Object> mine = new CompletableFuture<>();
+        CompletableFuture<Object> inFlight = loading.putIfAbsent(k, mine);
+        if (inFlight != null) {
+            return (T) await(key, valueLoader, inFlight);
+        }
+        try {
+            // the previous flight may have stored the value between our lookup and putIfAbsent
+            Object again = lookup(key, k, false);
+            Object value = again != null ? StampedValue.unwrap(again) : load(key, valueLoader);
+            mine.complete(value);
+            return (T) value;
+        } catch (RuntimeException ex) {
+            mine.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            loading.remove(k, mine);
+        }
+    }
+
+    /**
+     * Non-blocking lookup for reactive {@code @Cacheable} methods: L1, then an asynchronous Redis
+     * GET that fills L1. Completes with {@code null} on a miss, and when Redis is skipped or fails.
+     */
+    @Override
+    public CompletableFuture<?> retrieve(Object key) {
+        String k = key.toString();
+        Object local = l1.getIfPresent(k);
+        if (local != null) {
+            metrics.l1Hit();
+            return CompletableFuture.completedFuture(StampedValue.unwrap(local));
+        }
+        return remoteLookup(key, k).thenApply(StampedValue::unwrap);
+    }
+
+    /**
+     * {@link #get(Object, Callable)} for reactive {@code @Cacheable(sync = true)} methods. Nothing
+     * blocks: the Redis GET and the write of a loaded value are asynchronous calls, and concurrent
+     * misses on this node share one load with each other and with blocking callers. A loaded value
+     * is not broadcast (the eviction that emptied the entry already was), and refresh-ahead only
+     * runs on the blocking path.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> CompletableFuture<T> retrieve(Object key, Supplier<CompletableFuture<T>> valueLoader) {
+        String k = key.toString();
+        Object local = l1.getIfPresent(k);
+        if (local != null) {
+            metrics.l1Hit();
+            return CompletableFuture.completedFuture((T) StampedValue.unwrap(local));
+        }
+        if (!spec.isSingleFlight()) {
+            return (CompletableFuture<T>) remoteLookup(key, k).thenCompose(found -> found != null
+                    ? CompletableFuture.completedFuture(StampedValue.unwrap(found))
+                    : loadAsync(key, k, valueLoader));
+        }
+
+        CompletableFuture<Object> mine = new CompletableFuture<>();
+        CompletableFuture<Object> inFlight = loading.putIfAbsent(k, mine);
+        if (inFlight != null) {
+            return (CompletableFuture<T>) withLoaderFailure(inFlight);
+        }
+        remoteLookup(key, k)
+                .thenCompose(found -> found != null
+                        ? CompletableFuture.completedFuture(StampedValue.unwrap(found))
+                        : loadAsync(key, k, valueLoader))
+                .whenComplete((value, ex) -> {
+                    loading.remove(k, mine);
+                    if (ex == null) {
+                        mine.complete(value);
+                    } else {
+                        mine.completeExceptionally(ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex);
+                    }
+                });
+        // a dependent: a subscriber that cancels must not cancel the load the others wait for
+        return (CompletableFuture<T>) withLoaderFailure(mine);
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        write(key, value, true);
+    }
+
+    /**
+     * @param authoritative a {@code @CachePut} rather than a loaded value; losing it in Redis can
+     *                      leave an older value there, losing a loaded value cannot. Only these are
+     *                      broadcast: evicting other nodes for every miss and refresh would have
+     *                      nodes warming a hot key keep dropping each other's L1 copies
+     */
+    private void write(Object key, Object value, boolean authoritative) {
+        l2Call(() -> {
+            l2.put(key, value);
+            return null;
+        }, null, authoritative);
+        String k = key.toString();
+        if (value != null) {
+            l1.put(k, value);
+        } else {
+            l1.invalidate(k);
+        }
+        if (authoritative) {
+            publish(() -> bus.publishEvict(name, k));
+        }
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        ValueWrapper existing = l2Call(() -> l2.putIfAbsent(key, value), null, true);
+        Object current = existing == null ? value : existing.get();
+        if (current != null) {
+            l1.put(key.toString(), current);
+        }
+        return existing == null ? null : new SimpleValueWrapper(StampedValue.unwrap(existing.get()));
+    }
+
+    @Override
+    public void evict(Object key) {
+        metrics.evicted(false);
+        l2Call(() -> {
+            l2.evict(key);
+            return null;
+        }, null, true);
+        String k = key.toString();
+        l1.invalidate(k);
+        publish(() -> bus.publishEvict(name, k));
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        metrics.evicted(false);
+        boolean present = l2Call(() -> l2.evictIfPresent(key), false, true);
+        String k = key.toString();
+        l1.invalidate(k);
+        publish(() -> bus.publishEvict(name, k));
+        return present;
+    }
+
+    @Override
+    public void clear() {
+        metrics.evicted(true);
+        l2Call(() -> {
+            l2.clear();
+            return null;
+        }, null, true);
+        l1.invalidateAll();
+        publish(() -> bus.publishClear(name));
+    }
+
+    @Override
+    public boolean invalidate() {
+        metrics.evicted(true);
+        boolean hadEntries = l2Call(l2::invalidate, false, true);
+        l1.invalidateAll();
+        publish(() -> bus.publishClear(name));
+        return hadEntries;
+    }
+
+    /** Remote invalidation: another node changed the entry, only our L1 copy is stale. */
+    void evictLocal(String key) {
+        metrics.invalidatedRemotely(false);
+        l1.invalidate(key);
+    }
+
+    void clearLocal() {
+        metrics.invalidatedRemotely(true);
+        l1.invalidateAll();
+    }
+
+    /** For {@code /admin/caches}. */
+    public CacheStats stats() {
+        return metrics.snapshot(l1.estimatedSize());
+    }
+
+    /** L1, then L2 (filling L1). Returns the stored form, possibly a {@link StampedValue}. */
+    private Object lookup(Object key, String k, boolean record) {
+        Object local = l1.getIfPresent(k);
+        if (local != null) {
+            if (record) metrics.l1Hit();
+            return local;
+        }
+        ValueWrapper remote = l2Call(() -> l2.get(key), null, false);
+        Object value = remote == null ? null : remote.get();
+        if (value != null) {
+            l1.put(k, value);
+            if (record) metrics.l2Hit();
+        } else if (record) {
+            metrics.miss();
+        }
+        return value;
+    }
+
+    /**
+     * Asynchronous {@link #lookup} past L1. Redis is skipped while the breaker is open, and while
+     * lost writes may have left it stale: clearing it is a blocking call, left to the next blocking
+     * one. Callbacks run on the Redis client's I/O thread, so nothing here may block.
+     */
+    private CompletableFuture<Object> remoteLookup(Object key, String k) {
+        if (l2Stale.get() || !breaker.tryAcquire()) {
+            metrics.miss();
+            return CompletableFuture.completedFuture(null);
+        }
+        long start = System.nanoTime();
+        CompletableFuture<?> remote;
+        try {
+            remote = l2.retrieve(key);
+        } catch (RuntimeException ex) {
+            remote = CompletableFuture.failedFuture(ex);
+        }
+        if (remote == null) {
+            remote = CompletableFuture.completedFuture(null); // "certainly absent"
+        }
+        return remote.handle((found, ex) -> {
+            if (ex != null) {
+                Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+                if (!(cause instanceof DataAccessException)) {
+                    // Redis answered, the codec failed; a half-open probe must still report back
+                    breaker.onSuccess(System.nanoTime() - start);
+                    throw new CompletionException(cause);
+                }
+                breaker.onFailure(cause.getClass().getSimpleName() + ": " + cause.getMessage());
+                log.debug("Redis call on {} failed: {}", name, cause.getMessage());
+                metrics.miss();
+                return null;
+            }
+            breaker.onSuccess(System.nanoTime() - start);
+            Object value = found instanceof ValueWrapper wrapper ? wrapper.get() : found;
+            if (value != null) {
+                l1.put(k, value);
+                metrics.l2Hit();
+            } else {
+                metrics.miss();
+            }
+            return value;
+        });
+    }
+
+    /**
+     * Runs the reactive loader and stores its value in L1 and, asynchronously, in Redis. The Redis
+     * write goes through {@link Cache#retrieve(Object, Supplier)}, the only non-blocking write the
+     * Redis cache offers, so it does not overwrite a value another node stored meanwhile.
+     */
+    @SuppressWarnings("unchecked")
+    private CompletableFuture<Object> loadAsync(Object key, String k, Supplier<? extends CompletableFuture<?>> valueLoader) {
+        long start = System.nanoTime();
+        CompletableFuture<Object> loaded;
+        try {
+            loaded = (CompletableFuture<Object>) valueLoader.get();
+        } catch (RuntimeException ex) {
+            loaded = CompletableFuture.failedFuture(ex);
+        }
+        return loaded.whenComplete((value, ex) -> {
+            long elapsed = System.nanoTime() - start;
+            metrics.loaded(elapsed, ex == null);
+            if (ex == null && value != null) {
+                int loadMillis = (int) Math.min(Integer.MAX_VALUE, TimeUnit.NANOSECONDS.toMillis(elapsed));
+                StampedValue stamped = new StampedValue(value, System.currentTimeMillis(), loadMillis);
+                l1.put(k, stamped);
+                storeAsync(key, stamped);
+            }
+        });
+    }
+
+    private void storeAsync(Object key, StampedValue stamped) {
+        if (l2Stale.get() || !breaker.tryAcquire()) {
+            return; // a lost loaded value cannot leave Redis stale, see write()
+        }
+        long start = System.nanoTime();
+        CompletableFuture<?> stored;
+        try {
+            stored = l2.retrieve(key, () -> CompletableFuture.completedFuture(stamped));
+        } catch (RuntimeException ex) {
+            stored = CompletableFuture.failedFuture(ex);
+        }
+        stored.whenComplete((value, ex) -> {
+            Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+            if (cause instanceof DataAccessException) {
+                breaker.onFailure(cause.getClass().getSimpleName() + ": " + cause.getMessage());
+                log.debug("Redis write on {} failed: {}", name, cause.getMessage());
+            } else {
+                breaker.onSuccess(System.nanoTime() - start);
+                if (cause != null) log.warn("Could not store {} in Redis: {}", name, cause.toString());
+            }
+        });
+    }
+
+    /**
+     * A dependent of a shared load that fails with the loader's own exception, as the caller that
+     * started the load sees it, rather than the blocking path's {@link ValueRetrievalException}.
+     */
+    private static CompletableFuture<Object> withLoaderFailure(CompletableFuture<Object> flight) {
+        return flight.handle((value, ex) -> {
+            if (ex == null) {
+                return value;
+            }
+            Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+            if (cause instanceof ValueRetrievalException vre && vre.getCause() != null) {
+                cause = vre.getCause();
+            }
+            throw cause instanceof RuntimeException re ? re : new CompletionException(cause);
+        });
+    }
+
+    /**
+     * Runs a Redis call through the breaker. Returns {@code fallback} when the call is skipped or
+     * fails with a {@link DataAccessException} (connection failure, command timeout); codec errors
+     * are not a Redis health problem and propagate. The breaker hears back either way, or a
+     * half-open probe that hit a codec error would leave it half-open for good.
+     *
+     * @param write whether a lost call can leave a stale entry in Redis
+     */
+    private <T> T l2Call(Supplier<T> call, T fallback, boolean write) {
+        if (!breaker.tryAcquire()) {
+            if (write) l2Stale.set(true);
+            return fallback;
+        }
+        long start = System.nanoTime();
+        boolean failed = false;
+        try {
+            if (l2Stale.get()) {
+                l2.clear();
+                l2Stale.set(false);
+                log.info("Cleared {} in Redis: writes were lost while Redis was unavailable", name);
+            }
+            return call.get();
+        } catch (DataAccessException ex) {
+            failed = true;
+            if (write) l2Stale.set(true);
+            breaker.onFailure(ex.getClass().getSimpleName() + ": " + ex.getMessage());
+            log.debug("Redis call on {} failed: {}", name, ex.getMessage());
+            return fallback;
+        } finally {
+            if (!failed) {
+                breaker.onSuccess(System.nanoTime() - start);
+            }
+        }
+    }
+
+    /** Pub/sub needs Redis too; don't pay a timeout per invalidation while it is down. */
+    private void publish(Runnable publish) {
+        if (breaker.getState() == RedisCircuitBreaker.State.CLOSED) {
+            publish.run();
+        }
+    }
+
+    private Object load(Object key, Callable<?> valueLoader) {
+        long start = System.nanoTime();
+        Object value;
+        try {
+            value = valueLoader.call();
+        } catch (Exception ex) {
+            metrics.loaded(System.nanoTime() - start, false);
+            throw new ValueRetrievalException(key, valueLoader, ex);
+        }
+        long elapsed = System.nanoTime() - start;
+        metrics.loaded(elapsed, true);
+        if (value != null) {
+            int loadMillis = (int) Math.min(Integer.MAX_VALUE, TimeUnit.NANOSECONDS.toMillis(elapsed));
+            write(key, new StampedValue(value, System.currentTimeMillis(), loadMillis), false);
+        }
+        return value;
+    }
+
+    private Object await(Object key, Callable<?> valueLoader, CompletableFuture<Object> inFlight) {
+        try {
+            return inFlight.join();
+        } catch (CompletionException ex) {
+            // same exception the loading caller got; unwrap so the aspect rethrows the original
+            Throwable cause = ex.getCause();
+            if (cause instanceof ValueRetrievalException vre) {
+                throw new ValueRetrievalException(key, valueLoader, vre.getCause());
+            }
+            throw new ValueRetrievalException(key, valueLoader, cause);
+        }
+    }
+
+    /** XFetch: refresh once {@code now - loadTime * beta * ln(rand)} passes the Redis expiry. */
+    private boolean shouldRefreshEarly(StampedValue stamped) {
+        double beta = spec.getRefreshAheadBeta();
+        if (beta <= 0 || l2TtlMillis <= 0) {
+            return false;
+        }
+        long expiresAt = stamped.writtenAtMillis + l2TtlMillis;
+        double gap = -stamped.loadMillis * beta * Math.log(ThreadLocalRandom.current().nextDouble());
+        return System.currentTimeMillis() + gap >= expiresAt;
+    }
+
+    /**
+     * Reloads with the caller's loader. On a hit Spring has not invoked it, so it can run exactly
+     * once, here, after the caller has returned with the current value.
+     */
+    private void refreshInBackground(Object key, String k, Callable<?> valueLoader) {
+        if (!refreshing.add(k)) {
+            return;
+        }
+        try {
+            refreshExecutor.execute(() -> {
+                try {
+                    metrics.refreshed();
+                    if (load(key, valueLoader) == null) {
+                        evict(key);
+                    }
+                    log.debug("Refreshed {}::{} ahead of expiry", name, k);
+                } catch (RuntimeException ex) {
+                    log.warn("Refresh-ahead of {}::{} failed: {}", name, k, ex.getMessage());
+                } finally {
+                    refreshing.remove(k);
+                }
+            });
+        } catch (RuntimeException ex) {
+            // executor saturated or shutting down; the entry simply expires as usual
+            refreshing.remove(k);
+        }
+    }
+}
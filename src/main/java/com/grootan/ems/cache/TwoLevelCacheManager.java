@@ -0,0 +1,116 @@
+package com.grootan.ems.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.cache.RedisCacheWriter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+
+/**
+ * Puts an L1 in front of every cache of the delegate (Redis) manager that has a
+ * {@link NearCacheSpec}; caches without one are returned unchanged.
+ */
+public class TwoLevelCacheManager implements CacheManager {
+
+    private final CacheManager remote;
+    private final Map<String, NearCacheSpec> nearCaches;
+    private final CacheInvalidationBus bus;
+    private final RedisCircuitBreaker breaker;
+    private final Executor refreshExecutor;
+    private final Map<String, CacheMetrics> metrics;
+    private final Map<String, Cache> caches = new ConcurrentHashMap<>();
+    private static final Logger log = LoggerFactory.getLogger(TwoLevelCacheManager.class);
+
+    /**
+     * @param metrics meters per cache name; every cache with a {@link NearCacheSpec} needs one
+     */
+    public TwoLevelCacheManager(CacheManager remote, Map<String, NearCacheSpec> nearCaches,
+                                CacheInvalidationBus bus, RedisCircuitBreaker breaker, Executor refreshExecutor,
+                                Map<String, CacheMetrics> metrics) {
+        this.remote = remote;
+        this.nearCaches = Map.copyOf(nearCaches);
+        this.bus = bus;
+        this.breaker = breaker;
+        this.refreshExecutor = refreshExecutor;
+        this.metrics = Map.copyOf(metrics);
+        bus.onRemoteInvalidation(this::evictLocal, this::clearLocal);
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        Cache cache = caches.get(name);
+        if (cache != null) {
+            return cache;
+        }
+        Cache l2 = remote.getCache(name);
+        if (l2 == null) {
+            return null;
+        }
+        return caches.computeIfAbsent(name, n -> decorate(n, l2));
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return remote.getCacheNames();
+    }
+
+    private Cache decorate(String name, Cache l2) {
+        NearCacheSpec spec = nearCaches.get(name);
+        if (spec == null) {
+            return l2;
+        }
+        log.info("Cache {} gets an L1 of {} entries with TTL {}, single-flight={}, refresh-ahead beta={}",
+                name, spec.getMaximumSize(), spec.getTtl(), spec.isSingleFlight(), spec.getRefreshAheadBeta());
+        CacheMetrics cacheMetrics = metrics.get(name);
+        com.github.benmanes.caffeine.cache.Cache<String, Object> l1 = Caffeine.newBuilder()
+                .maximumSize(spec.getMaximumSize())
+                .expireAfterWrite(spec.getTtl())
+                .removalListener((String key, Object value, RemovalCause cause) -> {
+                    if (cause.wasEvicted()) {
+                        cacheMetrics.l1Evicted(cause.name().toLowerCase(Locale.ROOT));
+                    }
+                })
+                .build();
+        cacheMetrics.l1SizeGauge(l1);
+        return new TwoLevelCache(name, l1, l2, bus, breaker, spec, remoteTtl(l2), refreshExecutor, cacheMetrics);
+    }
+
+    /**
+     * A Redis TTL chosen by the cached value, for {@code RedisCacheConfiguration#entryTtl}.
+     * {@code ttl} sees the value without its refresh-ahead stamp, and {@code null} when asked for
+     * the cache's usual TTL.
+     */
+    public static RedisCacheWriter.TtlFunction ttlByValue(Function<Object, Duration> ttl) {
+        return (key, value) -> ttl.apply(StampedValue.unwrap(value));
+    }
+
+    private static Duration remoteTtl(Cache l2) {
+        // the usual TTL: refresh-ahead plans with it, entries with a shorter one (ttlByValue) just expire
+        return l2 instanceof RedisCache redis
+                ? redis.getCacheConfiguration().getTtlFunction().getTimeToLive(Object.class, null)
+                : null;
+    }
+
+    private void evictLocal(String cacheName, String key) {
+        if (getCache(cacheName) instanceof TwoLevelCache cache) {
+            cache.evictLocal(key);
+        }
+    }
+
+    private void clearLocal(String cacheName) {
+        if (getCache(cacheName) instanceof TwoLevelCache cache) {
+            cache.clearLocal();
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.grootan.ems.cache.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+public class CacheStats {
+    private String name;
+    private long l1Size;
+    private long l1Hits;
+    private long l2Hits;
+    private long misses;
+    private double hitRatio;
+    private long loads;
+    private long failedLoads;
+    private double loadMeanMs;
+    private double loadP99Ms;
+    private long refreshes;
+    private long entryBytesMean;
+    private long entryBytesMax;         // recent window, not all-time
+    private long evictions;             // single keys, issued on this node
+    private long allEntriesEvictions;   // allEntries = true flushes, issued on this node
+    private long remoteInvalidations;   // L1 drops requested by other nodes
+
+    public CacheStats(String name, long l1Size, long l1Hits, long l2Hits, long misses, double hitRatio,
+                      long loads, long failedLoads, double loadMeanMs, double loadP99Ms, long refreshes,
+                      long entryBytesMean, long entryBytesMax, long evictions, long allEntriesEvictions,
+                      long remoteInvalidations) {
+        this.name = name;
+        this.l1Size = l1Size;
+        this.l1Hits = l1Hits;
+        this.l2Hits = l2Hits;
+        this.misses = misses;
+        this.hitRatio = hitRatio;
+        this.loads = loads;
+        this.failedLoads = failedLoads;
+        this.loadMeanMs = loadMeanMs;
+        this.loadP99Ms = loadP99Ms;
+        this.refreshes = refreshes;
+        this.entryBytesMean = entryBytesMean;
+        this.entryBytesMax = entryBytesMax;
+        this.evictions = evictions;
+        this.allEntriesEvictions = allEntriesEvictions;
+        this.remoteInvalidations = remoteInvalidations;
+    }
+}
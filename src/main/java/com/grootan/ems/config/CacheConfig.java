@@ -2,6 +2,20 @@ package com.grootan.ems.config;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.grootan.ems.cache.CacheInvalidationBus;
+import com.grootan.ems.cache.CacheMetrics;
+import com.grootan.ems.cache.CacheValueCodec;
+import com.grootan.ems.cache.CompressingCacheSerializer;
+import com.grootan.ems.cache.JsonCacheCodec;
+import com.grootan.ems.cache.NearCacheSpec;
+import com.grootan.ems.cache.RedisCircuitBreaker;
+import com.grootan.ems.cache.SchemaCacheCodec;
+import com.grootan.ems.cache.TwoLevelCacheManager;
+import com.grootan.ems.employee.EmployeeCounter;
+import com.grootan.ems.employee.dto.EmployeePage;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.CacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -9,11 +23,17 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.redis.cache.*;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.*;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.Duration;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.Executor;
 
 @Configuration
 public class CacheConfig {
@@ -21,32 +41,96 @@ public class CacheConfig {
     private static final Logger log = LoggerFactory.getLogger(CacheConfig.class);
 
     @Bean
-    public CacheManager cacheManager(RedisConnectionFactory cf) {
+    public CacheInvalidationBus cacheInvalidationBus(StringRedisTemplate redis, RedisConnectionFactory cf) {
+        // Not a bean on purpose: the bus starts it and tolerates Redis being down at startup
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(cf);
+        container.afterPropertiesSet();
+        return new CacheInvalidationBus(redis, container);
+    }
+
+    @Bean
+    public CacheValueCodec cacheValueCodec(@Value("${app.cache.codec:schema}") String codec) {
+        if ("json".equalsIgnoreCase(codec)) {
+            ObjectMapper om = new ObjectMapper();
+            om.registerModule(new JavaTimeModule()); // LocalDate / OffsetDateTime safe
+            return new JsonCacheCodec(om);
+        }
+        return new SchemaCacheCodec();
+    }
+
+    @Bean
+    public RedisCircuitBreaker redisCircuitBreaker(@Value("${app.cache.breaker.failure-threshold:5}") int failureThreshold,
+                                                   @Value("${app.cache.breaker.slow-call:150ms}") Duration slowCall,
+                                                   @Value("${app.cache.breaker.open-duration:10s}") Duration openDuration,
+                                                   MeterRegistry meterRegistry) {
+        log.info("Redis circuit breaker opens after {} failures or calls over {}, for {}", failureThreshold, slowCall, openDuration);
+        return new RedisCircuitBreaker(failureThreshold, slowCall, openDuration).bindTo(meterRegistry);
+    }
 
-        ObjectMapper om = new ObjectMapper();
-        om.registerModule(new JavaTimeModule()); // LocalDate / OffsetDateTime safe
+    @Bean
+    public CacheManager cacheManager(RedisConnectionFactory cf, CacheInvalidationBus invalidationBus,
+                                     RedisCircuitBreaker breaker,
+                                     CacheValueCodec codec,
+                                     @Value("${app.cache.compress-above-bytes:2048}") int compressAboveBytes,
+                                     @Qualifier("applicationTaskExecutor") TaskExecutor taskExecutor,
+                                     PlatformTransactionManager transactionManager,
+                                     MeterRegistry meterRegistry) {
 
         RedisSerializationContext.SerializationPair<Object> valueSerializer =
-                RedisSerializationContext.SerializationPair.fromSerializer(new GenericJackson2JsonRedisSerializer(om));
+                RedisSerializationContext.SerializationPair.fromSerializer(new CompressingCacheSerializer(codec, compressAboveBytes));
 
         RedisCacheConfiguration defaultConfig = RedisCacheConfiguration.defaultCacheConfig()
+                // codec name in the key, so entries written in another format are never decoded
+                .prefixCacheNameWith(codec.name() + ":")
                 .serializeValuesWith(valueSerializer)
                 .serializeKeysWith(RedisSerializationContext.SerializationPair.fromSerializer(new StringRedisSerializer()))
                 .disableCachingNullValues()
                 .entryTtl(Duration.ofMinutes(10)); // default TTL
 
         // Per-cache TTLs (more “production mindset”)
+        Map<String, Duration> ttls = new HashMap<>();
+        ttls.put("employeeSearch", Duration.ofHours(6));
+        ttls.put("employeeById", Duration.ofMinutes(10));
+        ttls.put("employeeCount", Duration.ofMinutes(10));
+
+        // Each cache gets its own meters and its own serializer, so entry sizes are per cache
+        Map<String, CacheMetrics> metrics = new HashMap<>();
         Map<String, RedisCacheConfiguration> configs = new HashMap<>();
-        configs.put("departments", defaultConfig.entryTtl(Duration.ofHours(6)));
-        configs.put("departmentById", defaultConfig.entryTtl(Duration.ofHours(6)));
-        configs.put("employeeSearch", defaultConfig.entryTtl(Duration.ofHours(6)));
-        configs.put("employeeById", defaultConfig.entryTtl(Duration.ofMinutes(10)));
+        ttls.forEach((name, ttl) -> {
+            CacheMetrics cacheMetrics = new CacheMetrics(name, meterRegistry);
+            metrics.put(name, cacheMetrics);
+            configs.put(name, defaultConfig.entryTtl(ttl).serializeValuesWith(RedisSerializationContext.SerializationPair
+                    .fromSerializer(new CompressingCacheSerializer(codec, compressAboveBytes, cacheMetrics::entryWritten))));
+        });
+
+        // A page whose total is an estimate or a cached count must not outlive the employeeCount
+        // entry it came from; only exactly counted pages keep the long search TTL
+        configs.put("employeeSearch", configs.get("employeeSearch").entryTtl(TwoLevelCacheManager.ttlByValue(value ->
+                value instanceof EmployeePage page && page.getTotalAccuracy() != EmployeePage.TotalAccuracy.EXACT
+                        ? ttls.get(EmployeeCounter.CACHE)
+                        : ttls.get("employeeSearch"))));
+
+        // Per-cache in-process L1 (size, TTL) in front of Redis; TTLs stay short because
+        // cross-node invalidation over pub/sub is best effort. Single-flight is on for all of
+        // them; refresh-ahead only helps the @Cacheable(sync = true) methods
+        Map<String, NearCacheSpec> nearCaches = new HashMap<>();
+        nearCaches.put("employeeSearch", NearCacheSpec.of(5_000, Duration.ofSeconds(30)).refreshAhead(1.0));
+        nearCaches.put("employeeById", NearCacheSpec.of(20_000, Duration.ofMinutes(1)).refreshAhead(1.0));
+        nearCaches.put("employeeCount", NearCacheSpec.of(1_000, Duration.ofSeconds(30)));
+
+        // Refresh-ahead runs the @Cacheable method off the request thread; give it a read-only
+        // transaction so lazy associations resolve whatever order the proxies were applied in
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        Executor refreshExecutor = task -> taskExecutor.execute(() -> readOnly.executeWithoutResult(status -> task.run()));
 
-        CacheManager manager = RedisCacheManager.builder(cf)
+        RedisCacheManager redis = RedisCacheManager.builder(cf)
                 .cacheDefaults(defaultConfig)
                 .withInitialCacheConfigurations(configs)
                 .build();
-        log.info("Configured RedisCacheManager with default TTL {} minutes and caches {}", defaultConfig.getTtl().toMinutes(), configs.keySet());
-        return manager;
+        redis.initializeCaches(); // not a bean, so afterPropertiesSet() is never called for us
+        log.info("Configured RedisCacheManager with default TTL {} minutes, codec {} and caches {}", defaultConfig.getTtl().toMinutes(), codec.name(), configs.keySet());
+        return new TwoLevelCacheManager(redis, nearCaches, invalidationBus, breaker, refreshExecutor, metrics);
     }
 }
@@ -0,0 +1,56 @@
+package com.grootan.ems.config;
+
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+
+/**
+ * R2DBC for the reactive read endpoints ({@code /api/reactive/**}), with its own connection pool
+ * next to Hikari. Only the {@link DatabaseClient} is a bean: Spring Boot backs off the JDBC
+ * DataSource, and with it JPA, as soon as an R2DBC {@code ConnectionFactory} bean exists (which is
+ * also why {@code R2dbcAutoConfiguration} is excluded in {@code EmsApplication}).
+ */
+@Configuration
+public class ReactiveDatabaseConfig implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(ReactiveDatabaseConfig.class);
+
+    private ConnectionPool pool;
+
+    @Bean
+    public DatabaseClient reactiveDatabaseClient(@Value("${app.reactive.r2dbc.url}") String url,
+                                                 @Value("${app.reactive.r2dbc.username}") String username,
+                                                 @Value("${app.reactive.r2dbc.password:}") String password,
+                                                 @Value("${app.reactive.r2dbc.max-size:20}") int maxSize,
+                                                 @Value("${app.reactive.r2dbc.max-idle-time:10m}") Duration maxIdleTime) {
+        ConnectionFactoryOptions options = ConnectionFactoryOptions.parse(url).mutate()
+                .option(ConnectionFactoryOptions.USER, username)
+                .option(ConnectionFactoryOptions.PASSWORD, password)
+                .build();
+        pool = new ConnectionPool(ConnectionPoolConfiguration.builder(ConnectionFactories.get(options))
+                .name("ems-reactive")
+                .initialSize(0)
+                .maxSize(maxSize)
+                .maxIdleTime(maxIdleTime)
+                .build());
+        log.info("Configured R2DBC pool for reactive reads with at most {} connections to {}", maxSize, url);
+        return DatabaseClient.create(pool);
+    }
+
+    @Override
+    public void destroy() {
+        if (pool != null) {
+            pool.dispose();
+        }
+    }
+}
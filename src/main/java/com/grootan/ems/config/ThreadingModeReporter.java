@@ -0,0 +1,40 @@
+package com.grootan.ems.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Logs which threads serve requests. {@code spring.threads.virtual.enabled} (the
+ * {@code virtual-threads} profile) only takes effect on Java 21 and later; on an older runtime
+ * Spring Boot quietly stays on platform threads, which this makes visible at startup.
+ */
+@Component
+public class ThreadingModeReporter {
+
+    private final boolean virtualThreads;
+    private final int maxThreads;
+    private static final Logger log = LoggerFactory.getLogger(ThreadingModeReporter.class);
+
+    public ThreadingModeReporter(@Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads,
+                                 @Value("${server.tomcat.threads.max:200}") int maxThreads) {
+        this.virtualThreads = virtualThreads;
+        this.maxThreads = maxThreads;
+    }
+
+    @EventListener(ApplicationStartedEvent.class)
+    public void report() {
+        int java = Runtime.version().feature();
+        if (virtualThreads && java < 21) {
+            log.warn("spring.threads.virtual.enabled is set, but Java {} has no virtual threads: requests run on "
+                    + "{} platform threads. Build with -Pjava21 and run on Java 21 or later", java, maxThreads);
+        } else if (virtualThreads) {
+            log.info("Requests, @Async and @Scheduled work run on virtual threads (Java {})", java);
+        } else {
+            log.info("Requests run on up to {} platform threads (Java {})", maxThreads, java);
+        }
+    }
+}
@@ -0,0 +1,261 @@
+package com.grootan.ems.datagen;
+
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Fills {@code departments}, {@code employees} and {@code app_users} with synthetic rows for
+ * benchmarks and capacity tests ({@link SyntheticDirectory} decides what the rows look like).
+ * Runs as a command line tool: started with the {@code synthetic-data} profile, the application
+ * generates and exits (listening on a random port meanwhile).
+ * <pre>
+ * java -jar target/ems-0.0.1-SNAPSHOT-exec.jar --spring.profiles.active=synthetic-data \
+ *     --app.datagen.employees=2000000 --app.datagen.departments=300 --app.datagen.seed=42
+ * </pre>
+ * Every employee gets an enabled account with role {@code emp_role} and password
+ * {@code app.datagen.password}. Hashing a million passwords would take hours, so
+ * {@code password-hashes} hashes of it (different salts) are computed up front and reused.
+ * <p>
+ * Employees and their accounts are written in chunks of {@code batch-size}, one transaction per
+ * chunk: with {@code COPY ... FROM STDIN} on PostgreSQL, as JDBC batches elsewhere. The whole id
+ * range is reserved from the sequences before the first chunk, so Hibernate's id blocks on
+ * running nodes do not collide with it. Afterwards the department and user catalog versions are bumped, caches
+ * cleared and, on PostgreSQL, the tables analyzed. Running nodes pick up the new departments and
+ * users; their in-memory suggest index only after a restart.
+ * <p>
+ * Runs that start from the same database with the same settings produce the same rows (password
+ * salts aside). A database that already has employees at {@code email-domain} is refused.
+ */
+@Component
+@Profile("synthetic-data")
+public class SyntheticDataGenerator implements ApplicationRunner {
+
+    private static final String EMPLOYEE_COPY =
+            "COPY employees (id, full_name, email, emp_role, hire_date, status, department_id) FROM STDIN WITH (FORMAT csv)";
+    private static final String USER_COPY =
+            "COPY app_users (id, email, password_hash, role, employee_id, enabled) FROM STDIN WITH (FORMAT csv)";
+    private static final String EMPLOYEE_INSERT =
+            "insert into employees (id, full_name, email, emp_role, hire_date, status, department_id) values (?, ?, ?, ?, ?, ?, ?)";
+    private static final String USER_INSERT =
+            "insert into app_users (id, email, password_hash, role, employee_id, enabled) values (?, ?, ?, ?, ?, true)";
+
+    /** What a run wrote. */
+    public record Result(int departments, long employees, long elapsedMs) {
+    }
+
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate tx;
+    private final PasswordEncoder encoder;
+    private final CacheManager cacheManager;
+    private final ApplicationContext context;
+    private final long employees;
+    private final int departments;
+    private final long seed;
+    private final double departmentSkew;
+    private final int batchSize;
+    private final String password;
+    private final int passwordHashes;
+    private final String emailDomain;
+    private final LocalDate hiredUntil;
+    private final boolean exitWhenDone;
+    private static final Logger log = LoggerFactory.getLogger(SyntheticDataGenerator.class);
+
+    public SyntheticDataGenerator(JdbcTemplate jdbc,
+                                  PlatformTransactionManager txManager,
+                                  PasswordEncoder encoder,
+                                  CacheManager cacheManager,
+                                  ApplicationContext context,
+                                  @Value("${app.datagen.employees:1000000}") long employees,
+                                  @Value("${app.datagen.departments:200}") int departments,
+                                  @Value("${app.datagen.seed:42}") long seed,
+                                  @Value("${app.datagen.department-skew:1.1}") double departmentSkew,
+                                  @Value("${app.datagen.batch-size:10000}") int batchSize,
+                                  @Value("${app.datagen.password:Synthetic@123}") String password,
+                                  @Value("${app.datagen.password-hashes:16}") int passwordHashes,
+                                  @Value("${app.datagen.email-domain:synthetic.test}") String emailDomain,
+                                  @Value("${app.datagen.hired-until:2025-12-31}") LocalDate hiredUntil,
+                                  @Value("${app.datagen.exit-when-done:true}") boolean exitWhenDone) {
+        this.jdbc = jdbc;
+        this.tx = new TransactionTemplate(txManager);
+        this.encoder = encoder;
+        this.cacheManager = cacheManager;
+        this.context = context;
+        this.employees = employees;
+        this.departments = departments;
+        this.seed = seed;
+        this.departmentSkew = departmentSkew;
+        this.batchSize = Math.max(1, batchSize);
+        this.password = password;
+        this.passwordHashes = Math.max(1, passwordHashes);
+        this.emailDomain = emailDomain.toLowerCase(Locale.ROOT);
+        this.hiredUntil = hiredUntil;
+        this.exitWhenDone = exitWhenDone;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        generate();
+        if (exitWhenDone) {
+            System.exit(SpringApplication.exit(context, () -> 0));
+        }
+    }
+
+    public Result generate() {
+        long start = System.nanoTime();
+        boolean postgres = Boolean.TRUE.equals(jdbc.execute((ConnectionCallback<Boolean>) con -> con.isWrapperFor(PGConnection.class)));
+        Boolean taken = jdbc.queryForObject("select exists (select 1 from employees where email like ?)",
+                Boolean.class, "%@" + emailDomain);
+        if (Boolean.TRUE.equals(taken)) {
+            throw new IllegalStateException("Employees at " + emailDomain
+                    + " exist already; use another app.datagen.email-domain or an empty database");
+        }
+        log.info("Generating {} departments and {} employees (seed={}, {})",
+                departments, employees, seed, postgres ? "COPY" : "JDBC batches");
+
+        int addedDepartments = insertDepartments();
+        SyntheticDirectory directory = new SyntheticDirectory(seed, hiredUntil, emailDomain);
+        directory.useDepartments(jdbc.queryForList("select id from departments order by id", Long.class), departmentSkew);
+
+        long hashStart = System.nanoTime();
+        List<String> hashes = new ArrayList<>(passwordHashes);
+        for (int i = 0; i < passwordHashes; i++) {
+            hashes.add(encoder.encode(password));
+        }
+        log.info("Hashed the password {} times in {} ms", passwordHashes, (System.nanoTime() - hashStart) / 1_000_000);
+
+        long employeeId = reserveIds("employees", employees, postgres);
+        long userId = reserveIds("app_users", employees, postgres);
+        long written = 0;
+        long lastReport = System.nanoTime();
+        while (written < employees) {
+            int n = (int) Math.min(batchSize, employees - written);
+            List<SyntheticDirectory.EmployeeRow> chunk = new ArrayList<>(n);
+            for (int i = 0; i < n; i++) {
+                chunk.add(directory.employee(employeeId + i));
+            }
+            long firstUserId = userId;
+            tx.executeWithoutResult(status -> {
+                if (postgres) {
+                    copy(chunk, firstUserId, hashes);
+                } else {
+                    batch(chunk, firstUserId, hashes);
+                }
+            });
+            employeeId += n;
+            userId += n;
+            written += n;
+            if (System.nanoTime() - lastReport > 10_000_000_000L) {
+                lastReport = System.nanoTime();
+                log.info("{} of {} employees written", written, employees);
+            }
+        }
+        jdbc.update("update catalog_versions set version = version + 1 where name in ('departments', 'users')");
+        for (String name : cacheManager.getCacheNames()) {
+            Cache cache = cacheManager.getCache(name);
+            if (cache != null) {
+                cache.clear();
+            }
+        }
+        if (postgres) {
+            jdbc.execute("analyze departments, employees, app_users");
+        }
+
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+        log.info("Generated {} departments and {} employees with accounts in {} ms ({} rows/s)",
+                addedDepartments, written, elapsedMs, written * 1000 / Math.max(1, elapsedMs));
+        return new Result(addedDepartments, written, elapsedMs);
+    }
+
+    private int insertDepartments() {
+        List<SyntheticDirectory.DepartmentRow> rows = SyntheticDirectory.departments(departments, seed,
+                new HashSet<>(jdbc.queryForList("select code from departments", String.class)),
+                new HashSet<>(jdbc.queryForList("select name from departments", String.class)));
+        List<Object[]> args = rows.stream().map(d -> new Object[]{d.code(), d.name()}).toList();
+        jdbc.batchUpdate("insert into departments (code, name) values (?, ?)", args);
+        return rows.size();
+    }
+
+    private void copy(List<SyntheticDirectory.EmployeeRow> chunk, long firstUserId, List<String> hashes) {
+        StringBuilder employeeCsv = new StringBuilder(chunk.size() * 96);
+        StringBuilder userCsv = new StringBuilder(chunk.size() * 128);
+        for (int i = 0; i < chunk.size(); i++) {
+            SyntheticDirectory.EmployeeRow e = chunk.get(i);
+            employeeCsv.append(e.id()).append(',').append(e.fullName()).append(',').append(e.email()).append(',')
+                    .append(e.role()).append(',').append(e.hireDate()).append(',').append(e.status()).append(',')
+                    .append(e.departmentId()).append('\n');
+            userCsv.append(firstUserId + i).append(',').append(e.email()).append(',')
+                    .append(hashes.get(i % hashes.size())).append(',').append(e.role()).append(',')
+                    .append(e.id()).append(",true\n");
+        }
+        jdbc.execute((ConnectionCallback<Void>) con -> {
+            CopyManager copy = con.unwrap(PGConnection.class).getCopyAPI();
+            try {
+                copy.copyIn(EMPLOYEE_COPY, new StringReader(employeeCsv.toString()));
+                copy.copyIn(USER_COPY, new StringReader(userCsv.toString()));
+            } catch (IOException ex) {
+                throw new IllegalStateException("COPY failed", ex);
+            }
+            return null;
+        });
+    }
+
+    private void batch(List<SyntheticDirectory.EmployeeRow> chunk, long firstUserId, List<String> hashes) {
+        List<Object[]> employeeArgs = new ArrayList<>(chunk.size());
+        List<Object[]> userArgs = new ArrayList<>(chunk.size());
+        for (int i = 0; i < chunk.size(); i++) {
+            SyntheticDirectory.EmployeeRow e = chunk.get(i);
+            employeeArgs.add(new Object[]{e.id(), e.fullName(), e.email(), e.role().name(), e.hireDate(),
+                    e.status().name(), e.departmentId()});
+            userArgs.add(new Object[]{firstUserId + i, e.email(), hashes.get(i % hashes.size()), e.role().name(), e.id()});
+        }
+        jdbc.batchUpdate(EMPLOYEE_INSERT, employeeArgs);
+        jdbc.batchUpdate(USER_INSERT, userArgs);
+    }
+
+    /**
+     * Takes {@code count} ids of {@code table} before any row is written and returns the first.
+     * On PostgreSQL, nextval is past every id block Hibernate took so far, and the same statement
+     * moves the sequence to the end of the range (rounded up to its increment), so nodes that
+     * allocate while the run is going get blocks after it. Elsewhere the identity restarts past
+     * the range.
+     */
+    private long reserveIds(String table, long count, boolean postgres) {
+        if (!postgres) {
+            Long first = jdbc.queryForObject("select coalesce(max(id), 0) + 1 from " + table, Long.class);
+            jdbc.execute("alter table " + table + " alter column id restart with " + (first + count));
+            return first;
+        }
+        String sequence = jdbc.queryForObject("select pg_get_serial_sequence(?, 'id')", String.class, table);
+        Long increment = jdbc.queryForObject("select seqincrement from pg_sequence where seqrelid = cast(? as regclass)",
+                Long.class, sequence);
+        long span = (Math.max(count - 1, 0) + increment - 1) / increment * increment;
+        Long first = jdbc.queryForObject("select setval(cast(? as regclass), nextval(cast(? as regclass)) + ?) - ?",
+                Long.class, sequence, sequence, span, span);
+        log.info("Reserved ids {}..{} of {}", first, first + span, table);
+        return first;
+    }
+}
@@ -0,0 +1,173 @@
+package com.grootan.ems.datagen;
+
+import com.grootan.ems.employee.EmployeeStatus;
+import com.grootan.ems.user.Role;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Deterministic source of synthetic departments and employees: the same seed, settings and
+ * existing departments give the same rows in the same order.
+ * <ul>
+ *   <li>Department sizes follow a Zipf law over a seeded ranking of all departments, so a few
+ *   are large and most are small.</li>
+ *   <li>First and last names are Zipf-distributed over fixed lists; emails are
+ *   {@code first.last@domain}, numbered from the second holder of a name on.</li>
+ *   <li>Tenure is exponential (mean {@value #MEAN_TENURE_YEARS} years, at most
+ *   {@value #MAX_TENURE_YEARS}): recent hires outnumber old ones, as in a growing company. Hire
+ *   dates fall on weekdays.</li>
+ *   <li>The chance of being {@code INACTIVE} grows with tenure; roles are mostly {@code EMPLOYEE},
+ *   with some {@code MANAGER} and a few {@code HR}.</li>
+ * </ul>
+ */
+final class SyntheticDirectory {
+
+    static final double MEAN_TENURE_YEARS = 4;
+    static final int MAX_TENURE_YEARS = 20;
+    private static final double NAME_SKEW = 0.9;
+
+    private static final String[] FIRST_NAMES = {
+            "Priya", "Rahul", "Aarav", "Ananya", "Karthik", "Divya", "Arjun", "Lakshmi", "Vikram", "Sneha",
+            "Suresh", "Kavya", "Rohan", "Meera", "Aditya", "Deepa", "Nikhil", "Pooja", "Manoj", "Anjali",
+            "Ganesh", "Swathi", "Harish", "Revathi", "Vijay", "Nithya", "Prakash", "Keerthana", "Sanjay", "Janani",
+            "James", "Maria", "David", "Sarah", "Michael", "Emma", "Daniel", "Olivia", "Thomas", "Sophia",
+            "Ahmed", "Fatima", "Omar", "Aisha", "Wei", "Mei", "Hiroshi", "Yuki", "Carlos", "Lucia",
+            "Ivan", "Olga", "Pierre", "Camille", "Lars", "Ingrid", "Kwame", "Amara", "Raj", "Zara"};
+
+    private static final String[] LAST_NAMES = {
+            "Kumar", "Sharma", "Iyer", "Reddy", "Nair", "Patel", "Krishnan", "Rao", "Menon", "Subramanian",
+            "Singh", "Gupta", "Pillai", "Raman", "Venkatesh", "Srinivasan", "Natarajan", "Das", "Joshi", "Mehta",
+            "Balaji", "Murugan", "Chandran", "Rajan", "Shankar", "Bose", "Verma", "Agarwal", "Kapoor", "Chopra",
+            "Smith", "Johnson", "Williams", "Brown", "Jones", "Garcia", "Miller", "Davis", "Martinez", "Wilson",
+            "Khan", "Hassan", "Chen", "Wang", "Tanaka", "Sato", "Silva", "Santos", "Ivanov", "Petrov",
+            "Dubois", "Martin", "Larsen", "Nilsen", "Mensah", "Okafor", "O'Brien", "Murphy", "Fernandez", "Lopez"};
+
+    // {code, name}
+    private static final String[][] FUNCTIONS = {
+            {"PLAT", "Platform Engineering"}, {"APP", "Application Development"}, {"DATA", "Data Engineering"},
+            {"ML", "Machine Learning"}, {"SRE", "Site Reliability"}, {"SEC", "Security"}, {"QE", "Quality Engineering"},
+            {"DES", "Product Design"}, {"PM", "Product Management"}, {"SUP", "Customer Support"},
+            {"SUC", "Customer Success"}, {"SAL", "Field Sales"}, {"ISAL", "Inside Sales"}, {"MKT", "Marketing"},
+            {"FIN", "Finance"}, {"PAY", "Payroll"}, {"TAX", "Tax"}, {"LEG", "Legal"}, {"TA", "Talent Acquisition"},
+            {"PEO", "People Operations"}, {"FAC", "Facilities"}, {"ITS", "IT Services"}, {"PRO", "Procurement"},
+            {"TRN", "Training"}};
+
+    private static final String[][] LOCATIONS = {
+            {"CHN", "Chennai"}, {"BLR", "Bengaluru"}, {"HYD", "Hyderabad"}, {"PUN", "Pune"}, {"CBE", "Coimbatore"},
+            {"DEL", "Delhi"}, {"MUM", "Mumbai"}, {"SIN", "Singapore"}, {"DXB", "Dubai"}, {"LON", "London"},
+            {"BER", "Berlin"}, {"AMS", "Amsterdam"}, {"NYC", "New York"}, {"AUS", "Austin"}, {"TOR", "Toronto"},
+            {"SYD", "Sydney"}};
+
+    record DepartmentRow(String code, String name) {
+    }
+
+    record EmployeeRow(long id, String fullName, String email, Role role, LocalDate hireDate,
+                       EmployeeStatus status, long departmentId) {
+    }
+
+    private final long seed;
+    private final Random random;
+    private final LocalDate hiredUntil;
+    private final String emailDomain;
+    private final ZipfSampler firstNames = new ZipfSampler(FIRST_NAMES.length, NAME_SKEW);
+    private final ZipfSampler lastNames = new ZipfSampler(LAST_NAMES.length, NAME_SKEW);
+    private final Map<String, Integer> emailCounts = new HashMap<>();
+    private ZipfSampler departmentSizes;
+    private long[] departmentByRank;
+
+    SyntheticDirectory(long seed, LocalDate hiredUntil, String emailDomain) {
+        this.seed = seed;
+        this.random = new Random(seed);
+        this.hiredUntil = hiredUntil;
+        this.emailDomain = emailDomain.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * {@code count} new departments, one per function and location in a seeded order, skipping
+     * codes and names already taken. Past every combination, names and codes get a number.
+     */
+    static List<DepartmentRow> departments(int count, long seed, Set<String> takenCodes, Set<String> takenNames) {
+        List<String[][]> combinations = new ArrayList<>();
+        for (String[] function : FUNCTIONS) {
+            for (String[] location : LOCATIONS) {
+                combinations.add(new String[][]{function, location});
+            }
+        }
+        Collections.shuffle(combinations, new Random(seed));
+
+        List<DepartmentRow> out = new ArrayList<>(count);
+        for (int round = 1; out.size() < count; round++) {
+            for (String[][] c : combinations) {
+                String suffix = round == 1 ? "" : "-" + round;
+                String code = c[1][0] + "-" + c[0][0] + suffix;
+                String name = c[1][1] + " " + c[0][1] + (round == 1 ? "" : " " + round);
+                if (!takenCodes.contains(code) && !takenNames.contains(name)) {
+                    out.add(new DepartmentRow(code, name));
+                    if (out.size() == count) {
+                        break;
+                    }
+                }
+            }
+        }
+        return out;
+    }
+
+    /** The departments employees are spread over; the seed decides which ones are the big ones. */
+    void useDepartments(List<Long> departmentIds, double skew) {
+        List<Long> ranked = new ArrayList<>(departmentIds);
+        Collections.shuffle(ranked, new Random(seed ^ 0x5DEECE66DL));
+        departmentByRank = ranked.stream().mapToLong(Long::longValue).toArray();
+        departmentSizes = new ZipfSampler(departmentByRank.length, skew);
+    }
+
+    EmployeeRow employee(long id) {
+        if (departmentSizes == null) {
+            throw new IllegalStateException("useDepartments first");
+        }
+        String first = FIRST_NAMES[firstNames.next(random)];
+        String last = LAST_NAMES[lastNames.next(random)];
+        double tenureYears = tenureYears();
+        double inactive = Math.min(0.5, 0.02 + 0.015 * tenureYears);
+        double roleDraw = random.nextDouble();
+        Role role = roleDraw < 0.03 ? Role.HR : roleDraw < 0.15 ? Role.MANAGER : Role.EMPLOYEE;
+        return new EmployeeRow(
+                id,
+                first + " " + last,
+                email(first, last),
+                role,
+                hireDate(tenureYears),
+                random.nextDouble() < inactive ? EmployeeStatus.INACTIVE : EmployeeStatus.ACTIVE,
+                departmentByRank[departmentSizes.next(random)]);
+    }
+
+    private String email(String first, String last) {
+        String local = (first + "." + last).toLowerCase(Locale.ROOT).replace("'", "");
+        int n = emailCounts.merge(local, 1, Integer::sum);
+        return (n == 1 ? local : local + n) + "@" + emailDomain;
+    }
+
+    private double tenureYears() {
+        double years;
+        do {
+            years = -Math.log(1 - random.nextDouble()) * MEAN_TENURE_YEARS;
+        } while (years > MAX_TENURE_YEARS);
+        return years;
+    }
+
+    private LocalDate hireDate(double tenureYears) {
+        LocalDate date = hiredUntil.minusDays((long) (tenureYears * 365.25));
+        if (date.getDayOfWeek() == DayOfWeek.SATURDAY) {
+            return date.minusDays(1);
+        }
+        return date.getDayOfWeek() == DayOfWeek.SUNDAY ? date.minusDays(2) : date;
+    }
+}
@@ -0,0 +1,34 @@
+package com.grootan.ems.department;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * A counter bumped in the same transaction as every write to a small reference table, so each
+ * node can tell by polling one row whether its in-memory copy is current.
+ */
+@Entity
+@Table(name = "catalog_versions")
+@Getter
+@Setter
+public class CatalogVersion {
+
+    @Id
+    @Column(length = 40)
+    private String name;
+
+    @Column(nullable = false)
+    private long version;
+
+    protected CatalogVersion() {
+    }
+
+    public CatalogVersion(String name, long version) {
+        this.name = name;
+        this.version = version;
+    }
+}
@@ -0,0 +1,17 @@
+package com.grootan.ems.department;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.Optional;
+
+public interface CatalogVersionRepository extends JpaRepository<CatalogVersion, String> {
+
+    @Modifying
+    @Query("update CatalogVersion v set v.version = v.version + 1 where v.name = :name")
+    int increment(String name);
+
+    @Query("select v.version from CatalogVersion v where v.name = :name")
+    Optional<Long> findVersion(String name);
+}
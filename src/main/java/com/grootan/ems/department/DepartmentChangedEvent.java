@@ -0,0 +1,20 @@
+package com.grootan.ems.department;
+
+/**
+ * Published by {@link DepartmentService} on every department write, inside its transaction.
+ */
+public class DepartmentChangedEvent {
+
+    public enum Type { CREATED, UPDATED, DELETED }
+
+    private final Type type;
+    private final Long id;
+
+    public DepartmentChangedEvent(Type type, Long id) {
+        this.type = type;
+        this.id = id;
+    }
+
+    public Type getType() { return type; }
+    public Long getId() { return id; }
+}
@@ -0,0 +1,182 @@
+package com.grootan.ems.department;
+
+import com.grootan.ems.department.dto.DepartmentResponse;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * All departments in memory, by id and by code. There are a few dozen of them and they rarely
+ * change, so reads never go to Redis or the database.
+ * <p>
+ * The directory is an immutable snapshot swapped atomically (copy-on-write). Every department
+ * write bumps the {@code departments} row of {@link CatalogVersion} in its transaction; the
+ * writing node reloads after commit, the others when their poll
+ * ({@code app.departments.poll-interval}) sees a different version.
+ */
+@Component
+public class DepartmentDirectory {
+
+    static final String CATALOG = "departments";
+
+    private final DepartmentRepository repo;
+    private final CatalogVersionRepository versions;
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>();
+    // a lock rather than synchronized: a virtual thread blocked on JDBC inside synchronized pins its carrier
+    private final ReentrantLock reloadLock = new ReentrantLock();
+    private static final Logger log = LoggerFactory.getLogger(DepartmentDirectory.class);
+
+    public DepartmentDirectory(DepartmentRepository repo, CatalogVersionRepository versions) {
+        this.repo = repo;
+        this.versions = versions;
+    }
+
+    /** Sorted by name. */
+    public List<DepartmentResponse> list() {
+        return current().sorted;
+    }
+
+    public Optional<DepartmentResponse> findById(Long id) {
+        return Optional.ofNullable(current().byId.get(id));
+    }
+
+    public Optional<DepartmentResponse> findByCode(String code) {
+        return code == null ? Optional.empty() : Optional.ofNullable(current().byCode.get(code.toUpperCase(Locale.ROOT)));
+    }
+
+    /**
+     * {@link #findById} for writes: a department created on another node is missing here until the
+     * next poll, so on a miss the stored version is checked and, if it moved, the directory reloaded
+     * before giving up. Reads use {@link #findById} and never wait for the database.
+     */
+    public Optional<DepartmentResponse> findCurrentById(Long id) {
+        return findCurrent(s -> s.byId.get(id));
+    }
+
+    /** {@link #findByCode} for writes, see {@link #findCurrentById}. */
+    public Optional<DepartmentResponse> findCurrentByCode(String code) {
+        return code == null ? Optional.empty() : findCurrent(s -> s.byCode.get(code.toUpperCase(Locale.ROOT)));
+    }
+
+    /** Whether the lookups answer from memory; before the first load they query the database. */
+    public boolean isLoaded() {
+        return snapshot.get() != null;
+    }
+
+    public long version() {
+        return current().version;
+    }
+
+    /** Runs inside the writing transaction, so the new version commits (or rolls back) with it. */
+    @EventListener
+    public void bumpVersion(DepartmentChangedEvent event) {
+        if (versions.increment(CATALOG) == 0) {
+            versions.save(new CatalogVersion(CATALOG, 1));
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDepartmentChanged(DepartmentChangedEvent event) {
+        log.debug("Reloading department directory after {} of department id={}", event.getType(), event.getId());
+        reload();
+    }
+
+    @Scheduled(fixedDelayString = "${app.departments.poll-interval:5s}",
+            initialDelayString = "${app.departments.poll-interval:5s}")
+    public void poll() {
+        try {
+            Snapshot loaded = snapshot.get();
+            if (loaded != null && storedVersion() != loaded.version) {
+                reload();
+            }
+        } catch (RuntimeException ex) {
+            log.warn("Department directory version check failed: {}", ex.getMessage());
+        }
+    }
+
+    private Optional<DepartmentResponse> findCurrent(Function<Snapshot, DepartmentResponse> lookup) {
+        Snapshot seen = current();
+        DepartmentResponse found = lookup.apply(seen);
+        if (found == null && storedVersion() != seen.version) {
+            found = lookup.apply(reloadUnlessNewer(seen));
+        }
+        return Optional.ofNullable(found);
+    }
+
+    // concurrent misses (parallel import validation) share one reload
+    private Snapshot reloadUnlessNewer(Snapshot seen) {
+        reloadLock.lock();
+        try {
+            Snapshot latest = snapshot.get();
+            return latest != seen ? latest : reload();
+        } finally {
+            reloadLock.unlock();
+        }
+    }
+
+    private Snapshot current() {
+        Snapshot s = snapshot.get();
+        return s != null ? s : reload();
+    }
+
+    /**
+     * Reads the version before the rows: a write committing in between leaves an older version
+     * with newer rows, and the next poll simply loads again.
+     */
+    Snapshot reload() {
+        reloadLock.lock();
+        try {
+            long version = storedVersion();
+            List<DepartmentResponse> all = repo.findAll(Sort.by("name").ascending()).stream()
+                    .map(DepartmentDirectory::toResponse)
+                    .toList();
+            Snapshot next = new Snapshot(version, all);
+            snapshot.set(next);
+            log.info("Loaded {} departments into the directory (version {})", all.size(), version);
+            return next;
+        } finally {
+            reloadLock.unlock();
+        }
+    }
+
+    private long storedVersion() {
+        return versions.findVersion(CATALOG).orElse(0L);
+    }
+
+    static DepartmentResponse toResponse(Department d) {
+        return new DepartmentResponse(d.getId(), d.getCode(), d.getName(), d.getCreatedAt(), d.getUpdatedAt());
+    }
+
+    private static final class Snapshot {
+        final long version;
+        final List<DepartmentResponse> sorted;
+        final Map<Long, DepartmentResponse> byId;
+        final Map<String, DepartmentResponse> byCode;
+
+        Snapshot(long version, List<DepartmentResponse> sorted) {
+            this.version = version;
+            this.sorted = List.copyOf(sorted);
+            Map<Long, DepartmentResponse> ids = new HashMap<>();
+            Map<String, DepartmentResponse> codes = new HashMap<>();
+            for (DepartmentResponse d : sorted) {
+                ids.put(d.getId(), d);
+                codes.put(d.getCode().toUpperCase(Locale.ROOT), d);
+            }
+            this.byId = Map.copyOf(ids);
+            this.byCode = Map.copyOf(codes);
+        }
+    }
+}
@@ -5,11 +5,10 @@ import com.grootan.ems.department.dto.DepartmentResponse;
 import com.grootan.ems.department.dto.DepartmentUpdateRequest;
 import com.grootan.ems.common.ApiException;
 import org.springframework.cache.annotation.Caching;
-import org.springframework.data.domain.Sort;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.cache.annotation.CacheEvict;
-import org.springframework.cache.annotation.Cacheable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -19,16 +18,16 @@ import java.util.List;
 public class DepartmentService {
 
     private final DepartmentRepository repo;
+    private final DepartmentDirectory directory;
+    private final ApplicationEventPublisher events;
     private static final Logger log = LoggerFactory.getLogger(DepartmentService.class);
 
-    public DepartmentService(DepartmentRepository repo) {
+    public DepartmentService(DepartmentRepository repo, DepartmentDirectory directory, ApplicationEventPublisher events) {
         this.repo = repo;
+        this.directory = directory;
+        this.events = events;
     }
 
-    @Caching(evict = {
-            @CacheEvict(cacheNames = "departmentById", key = "#result.id", condition = "#result != null"),
-            @CacheEvict(cacheNames = "departments", allEntries = true)
-    })
     @Transactional
     public DepartmentResponse create(DepartmentCreateRequest req) {
         String code = req.getCode().trim().toUpperCase();
@@ -49,34 +48,27 @@ public class DepartmentService {
         d.setName(name);
 
         Department saved = repo.save(d);
+        events.publishEvent(new DepartmentChangedEvent(DepartmentChangedEvent.Type.CREATED, saved.getId()));
         log.info("Created department id={}", saved.getId());
         return toResponse(saved);
     }
 
-    @Cacheable(cacheNames = "departmentById", key = "#id")
-    @Transactional(readOnly = true)
     public DepartmentResponse getById(Long id) {
         log.debug("Fetching department id={}", id);
-        Department d = repo.findById(id)
+        return directory.findById(id)
                 .orElseThrow(() -> ApiException.notFound("department_not_found", "Department not found"));
-        log.debug("Fetched department id={}", id);
-        return toResponse(d);
     }
 
-    @Cacheable(cacheNames = "departments")
-    @Transactional(readOnly = true)
     public List<DepartmentResponse> list() {
-        List<DepartmentResponse> departments = repo.findAll(Sort.by("name").ascending())
-                .stream()
-                .map(this::toResponse)
-                .toList();
+        List<DepartmentResponse> departments = directory.list();
         log.debug("Returning {} departments", departments.size());
         return departments;
     }
 
+    // Cached employee responses carry the department name
     @Caching(evict = {
-            @CacheEvict(cacheNames = "departmentById", key = "#id"),
-            @CacheEvict(cacheNames = "departments", allEntries = true)
+            @CacheEvict(cacheNames = "employeeById", allEntries = true),
+            @CacheEvict(cacheNames = "employeeSearch", allEntries = true)
     })
     @Transactional
     public DepartmentResponse update(Long id, DepartmentUpdateRequest req) {
@@ -92,14 +84,11 @@ public class DepartmentService {
 
         d.setName(newName);
         Department saved = repo.save(d);
+        events.publishEvent(new DepartmentChangedEvent(DepartmentChangedEvent.Type.UPDATED, saved.getId()));
         log.info("Updated department id={}", saved.getId());
         return toResponse(saved);
     }
 
-    @Caching(evict = {
-            @CacheEvict(cacheNames = "departmentById", key = "#id"),
-            @CacheEvict(cacheNames = "departments", allEntries = true)
-    })
     @Transactional
     public void delete(Long id) {
         log.warn("Deleting department id={}", id);
@@ -113,16 +102,11 @@ public class DepartmentService {
         }
 
         repo.delete(d);
+        events.publishEvent(new DepartmentChangedEvent(DepartmentChangedEvent.Type.DELETED, id));
         log.warn("Deleted department id={}", id);
     }
 
     private DepartmentResponse toResponse(Department d) {
-        return new DepartmentResponse(
-                d.getId(),
-                d.getCode(),
-                d.getName(),
-                d.getCreatedAt(),
-                d.getUpdatedAt()
-        );
+        return DepartmentDirectory.toResponse(d);
     }
 }
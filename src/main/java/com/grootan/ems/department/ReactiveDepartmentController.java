@@ -0,0 +1,36 @@
+package com.grootan.ems.department;
+
+import com.grootan.ems.department.dto.DepartmentResponse;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.List;
+
+/**
+ * Department list for the reactive read surface. The list is in memory ({@link DepartmentDirectory}),
+ * so this needs no database at all; only a read before the first load goes to JDBC, and that runs
+ * off the request thread.
+ */
+@RestController
+@RequestMapping("/api/reactive/departments")
+public class ReactiveDepartmentController {
+
+    private final DepartmentDirectory directory;
+    private static final Logger log = LoggerFactory.getLogger(ReactiveDepartmentController.class);
+
+    public ReactiveDepartmentController(DepartmentDirectory directory) {
+        this.directory = directory;
+    }
+
+    @GetMapping
+    public Mono<List<DepartmentResponse>> list() {
+        log.debug("Reactive list departments request");
+        Mono<List<DepartmentResponse>> list = Mono.fromSupplier(directory::list);
+        return directory.isLoaded() ? list : list.subscribeOn(Schedulers.boundedElastic());
+    }
+}
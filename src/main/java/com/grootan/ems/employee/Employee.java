@@ -14,8 +14,11 @@ import java.time.OffsetDateTime;
 @Getter
 public class Employee {
 
+    // pooled ids from the bigserial's sequence (incremented by 50 in schema.sql): IDENTITY would
+    // force one round trip per insert and disable JDBC batching
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "employee_seq")
+    @SequenceGenerator(name = "employee_seq", sequenceName = "employees_id_seq", allocationSize = 50)
     private Long id;
 
     @Column(name="full_name", nullable = false, length = 120)
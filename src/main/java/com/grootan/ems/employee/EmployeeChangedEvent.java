@@ -0,0 +1,34 @@
+package com.grootan.ems.employee;
+
+/**
+ * Published by {@link EmployeeService} on every employee write. Listeners that keep derived,
+ * in-process state (suggest index, counts) react to it after the transaction commits.
+ */
+public class EmployeeChangedEvent {
+
+    public enum Type { CREATED, UPDATED, DELETED }
+
+    private final Type type;
+    private final Long id;
+    private final String fullName;
+    private final String email;
+    private final String departmentCode;
+
+    public EmployeeChangedEvent(Type type, Long id, String fullName, String email, String departmentCode) {
+        this.type = type;
+        this.id = id;
+        this.fullName = fullName;
+        this.email = email;
+        this.departmentCode = departmentCode;
+    }
+
+    public static EmployeeChangedEvent of(Type type, Employee e, String departmentCode) {
+        return new EmployeeChangedEvent(type, e.getId(), e.getFullName(), e.getEmail(), departmentCode);
+    }
+
+    public Type getType() { return type; }
+    public Long getId() { return id; }
+    public String getFullName() { return fullName; }
+    public String getEmail() { return email; }
+    public String getDepartmentCode() { return departmentCode; }
+}
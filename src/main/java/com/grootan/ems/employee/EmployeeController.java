@@ -2,27 +2,46 @@ package com.grootan.ems.employee;
 
 import com.grootan.ems.employee.dto.EmployeeCreateRequest;
 import com.grootan.ems.employee.dto.EmployeeResponse;
+import com.grootan.ems.employee.dto.EmployeeSliceResponse;
+import com.grootan.ems.employee.dto.EmployeeSuggestion;
 import com.grootan.ems.employee.dto.EmployeeUpdateRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.data.web.SortDefault;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
 @RestController
 @RequestMapping("/api/employees")
 public class EmployeeController {
 
     private final EmployeeService service;
+    private final EmployeeSuggestService suggestService;
+    private final EmployeeImportService importService;
+    private final EmployeeExportService exportService;
     private static final Logger log = LoggerFactory.getLogger(EmployeeController.class);
 
-    public EmployeeController(EmployeeService service) {
+    public EmployeeController(EmployeeService service, EmployeeSuggestService suggestService,
+                              EmployeeImportService importService, EmployeeExportService exportService) {
         this.service = service;
+        this.suggestService = suggestService;
+        this.importService = importService;
+        this.exportService = exportService;
     }
 
 
@@ -34,6 +53,29 @@ public class EmployeeController {
     }
 
 
+    /**
+     * Bulk import, streamed from the request body. The JSON report streams the generated passwords
+     * as chunks commit, then the counts and per-row errors:
+     *   POST /api/employees/import  Content-Type: text/csv
+     *     fullName,email,empRole,hireDate,departmentCode[,departmentId][,status]
+     *   POST /api/employees/import  Content-Type: application/x-ndjson
+     *     {"fullName":"...","email":"...","empRole":"EMPLOYEE","hireDate":"2024-01-31","departmentId":1}
+     */
+    @PostMapping(value = "/import", consumes = "text/csv")
+    public void importCsv(InputStream body, HttpServletResponse response) throws IOException {
+        log.info("CSV employee import request received");
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        importService.importCsv(body, response.getOutputStream());
+    }
+
+    @PostMapping(value = "/import", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public void importNdjson(InputStream body, HttpServletResponse response) throws IOException {
+        log.info("NDJSON employee import request received");
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        importService.importNdjson(body, response.getOutputStream());
+    }
+
+
     @GetMapping("/{id}")
     public EmployeeResponse get(@PathVariable Long id) {
         log.debug("Fetch employee request id={}", id);
@@ -43,6 +85,7 @@ public class EmployeeController {
     /**
      * Search & filter + pagination:
      *   /api/employees?q=ali&departmentId=1&status=ACTIVE&page=0&size=10&sort=fullName,asc
+     *   sort=relevance orders by match rank when app.search.backend=postgres
      */
 
     @GetMapping
@@ -60,6 +103,66 @@ public class EmployeeController {
         return service.search(q, departmentId, status, pageable);
     }
 
+    /**
+     * Cursor (keyset) pagination, no total count:
+     *   /api/employees/scroll?q=ali&size=50&sort=hireDate,desc&after=<nextCursor from previous slice>
+     */
+    @GetMapping("/scroll")
+    public EmployeeSliceResponse scroll(
+            @RequestParam(required = false) String q,
+            @RequestParam(required = false) Long departmentId,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "10") int size,
+            @SortDefault(sort = "fullName", direction = Sort.Direction.ASC) Sort sort
+    ) {
+        log.debug("Scroll employees q={} departmentId={} status={} size={} after={}", q, departmentId, status, size, after);
+        return service.scroll(q, departmentId, status, after, Math.max(1, Math.min(size, 2000)), sort);
+    }
+
+    /**
+     * Every matching employee in one streamed response, gzip-compressed when the client sends
+     * Accept-Encoding: gzip (ADMIN, HR):
+     *   /api/employees/export?format=ndjson&departmentId=1&status=ACTIVE
+     */
+    @GetMapping("/export")
+    public void export(
+            @RequestParam(required = false) String q,
+            @RequestParam(required = false) Long departmentId,
+            @RequestParam(required = false) String status,
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            HttpServletResponse response
+    ) throws IOException {
+        EmployeeExportService.Format fmt = EmployeeExportService.parseFormat(format);
+        boolean gzip = acceptEncoding != null && acceptEncoding.toLowerCase().contains("gzip");
+        log.info("Export employees q={} departmentId={} status={} format={} gzip={}", q, departmentId, status, fmt, gzip);
+
+        response.setContentType(fmt == EmployeeExportService.Format.CSV ? "text/csv;charset=UTF-8" : "application/x-ndjson;charset=UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"employees." + fmt.name().toLowerCase() + "\"");
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+            GZIPOutputStream out = new GZIPOutputStream(response.getOutputStream(), 64 * 1024);
+            exportService.export(q, departmentId, status, fmt, out);
+            out.finish();
+        } else {
+            OutputStream out = response.getOutputStream();
+            exportService.export(q, departmentId, status, fmt, out);
+        }
+    }
+
+    /**
+     * Typeahead over name, email and department code, served from memory:
+     *   /api/employees/suggest?q=ali&limit=10
+     */
+    @GetMapping("/suggest")
+    public List<EmployeeSuggestion> suggest(@RequestParam String q, @RequestParam(defaultValue = "10") int limit) {
+        log.debug("Suggest employees q={} limit={}", q, limit);
+        return suggestService.suggest(q, Math.max(1, Math.min(limit, 50)));
+    }
+
     @PutMapping("/{id}")
     public EmployeeResponse update(@PathVariable Long id, @Valid @RequestBody EmployeeUpdateRequest req) {
         log.info("Update employee request id={} email={}", id, req.getEmail());
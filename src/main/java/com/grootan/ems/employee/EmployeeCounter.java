@@ -0,0 +1,153 @@
+package com.grootan.ems.employee;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.grootan.ems.employee.dto.EmployeePage.TotalAccuracy;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Decides how {@code totalElements} is computed for employee search ({@code app.search.count-strategy}).
+ * <ul>
+ *   <li>{@code exact} (default): a count query on every search, as before.</li>
+ *   <li>{@code auto}: text searches ({@code q}) are counted exactly. Broad department/status filters
+ *   use an exact count cached in {@code employeeCount} until the next employee write. On a cache miss
+ *   with a large Postgres {@code EXPLAIN} estimate, the estimate is returned and the exact count is
+ *   computed in the background.</li>
+ * </ul>
+ */
+@Component
+public class EmployeeCounter {
+
+    public enum Strategy { EXACT, AUTO }
+
+    public static final String CACHE = "employeeCount";
+
+    private final EmployeeRepository employeeRepo;
+    private final CacheManager cacheManager;
+    private final JdbcTemplate jdbc;
+    private final ObjectMapper objectMapper;
+    private final TaskExecutor executor;
+    private final Strategy strategy;
+    private final long exactBelow;
+    private final Set<String> refreshing = ConcurrentHashMap.newKeySet();
+    private volatile Boolean plannerEstimates;
+    private static final Logger log = LoggerFactory.getLogger(EmployeeCounter.class);
+
+    public EmployeeCounter(EmployeeRepository employeeRepo,
+                           CacheManager cacheManager,
+                           JdbcTemplate jdbc,
+                           ObjectMapper objectMapper,
+                           @Qualifier("applicationTaskExecutor") TaskExecutor executor,
+                           @Value("${app.search.count-strategy:exact}") Strategy strategy,
+                           @Value("${app.search.exact-count-below:50000}") long exactBelow) {
+        this.employeeRepo = employeeRepo;
+        this.cacheManager = cacheManager;
+        this.jdbc = jdbc;
+        this.objectMapper = objectMapper;
+        this.executor = executor;
+        this.strategy = strategy;
+        this.exactBelow = exactBelow;
+        log.info("Employee search count strategy={} exactCountBelow={}", strategy, exactBelow);
+    }
+
+    /** True when search may skip the exact count and ask {@link #count} instead. */
+    public boolean approximate() {
+        return strategy == Strategy.AUTO;
+    }
+
+    public Result count(Specification<Employee> spec, String q, Long departmentId, EmployeeStatus status) {
+        if (strategy == Strategy.EXACT || (q != null && !q.isBlank())) {
+            return new Result(employeeRepo.count(spec), TotalAccuracy.EXACT);
+        }
+
+        String key = "dept=" + (departmentId == null ? "" : departmentId) + "|st=" + (status == null ? "" : status.name());
+        Cache cache = cacheManager.getCache(CACHE);
+        Cache.ValueWrapper hit = cache == null ? null : cache.get(key);
+        if (hit != null && hit.get() instanceof Number cached) {
+            return new Result(cached.longValue(), TotalAccuracy.CACHED);
+        }
+
+        if (supportsPlannerEstimates()) {
+            long estimate = estimate(departmentId, status);
+            if (estimate >= exactBelow) {
+                refreshInBackground(key, spec, cache);
+                return new Result(estimate, TotalAccuracy.ESTIMATED);
+            }
+        }
+
+        long total = employeeRepo.count(spec);
+        if (cache != null) {
+            cache.put(key, total);
+        }
+        return new Result(total, TotalAccuracy.EXACT);
+    }
+
+    private void refreshInBackground(String key, Specification<Employee> spec, Cache cache) {
+        if (cache == null || !refreshing.add(key)) {
+            return;
+        }
+        executor.execute(() -> {
+            try {
+                long total = employeeRepo.count(spec);
+                // A write racing this count can leave a slightly stale entry; the cache TTL bounds it
+                cache.put(key, total);
+                log.debug("Cached exact employee count {}={}", key, total);
+            } catch (RuntimeException ex) {
+                log.warn("Background employee count for {} failed: {}", key, ex.getMessage());
+            } finally {
+                refreshing.remove(key);
+            }
+        });
+    }
+
+    private long estimate(Long departmentId, EmployeeStatus status) {
+        // Mirrors EmployeeSpecs.departmentIdEquals/statusEquals; values are typed, so inlining is safe
+        StringBuilder sql = new StringBuilder("explain (format json) select 1 from employees where 1=1");
+        if (departmentId != null) sql.append(" and department_id = ").append(departmentId.longValue());
+        if (status != null) sql.append(" and status = '").append(status.name()).append('\'');
+        try {
+            String json = jdbc.queryForObject(sql.toString(), String.class);
+            JsonNode plan = objectMapper.readTree(json).path(0).path("Plan");
+            return plan.path("Plan Rows").asLong();
+        } catch (Exception ex) {
+            log.warn("Planner estimate failed, falling back to exact count: {}", ex.getMessage());
+            return 0;
+        }
+    }
+
+    private boolean supportsPlannerEstimates() {
+        Boolean supported = plannerEstimates;
+        if (supported == null) {
+            String product = jdbc.execute((ConnectionCallback<String>) con -> con.getMetaData().getDatabaseProductName());
+            supported = "PostgreSQL".equalsIgnoreCase(product);
+            plannerEstimates = supported;
+        }
+        return supported;
+    }
+
+    public static final class Result {
+        private final long total;
+        private final TotalAccuracy accuracy;
+
+        public Result(long total, TotalAccuracy accuracy) {
+            this.total = total;
+            this.accuracy = accuracy;
+        }
+
+        public long getTotal() { return total; }
+        public TotalAccuracy getAccuracy() { return accuracy; }
+    }
+}
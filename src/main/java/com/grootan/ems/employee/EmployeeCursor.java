@@ -0,0 +1,98 @@
+package com.grootan.ems.employee;
+
+import com.grootan.ems.common.ApiException;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Opaque keyset cursor for employee scrolling: the sort property, its direction and the
+ * last row's (sort key, id) pair, base64url encoded so clients treat it as a token.
+ */
+public final class EmployeeCursor {
+
+    static final Set<String> SORTABLE = Set.of("fullName", "email", "hireDate", "id");
+
+    private static final String VERSION = "v1";
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private EmployeeCursor() {
+    }
+
+    /**
+     * Normalizes the requested sort to a single sortable property plus "id" as the tie-breaker,
+     * both in the same direction, which is what the seek predicate needs to be stable.
+     */
+    public static Sort keysetSort(Sort requested) {
+        Sort.Order order = requested.stream().findFirst().orElse(Sort.Order.asc("fullName"));
+        if (!SORTABLE.contains(order.getProperty())) {
+            throw ApiException.badRequest("invalid_sort", "Sort must be one of " + SORTABLE);
+        }
+        if (order.getProperty().equals("id")) {
+            return Sort.by(order.getDirection(), "id");
+        }
+        return Sort.by(order.getDirection(), order.getProperty()).and(Sort.by(order.getDirection(), "id"));
+    }
+
+    public static ScrollPosition decode(String token, Sort sort) {
+        if (token == null || token.isBlank()) {
+            return ScrollPosition.keyset();
+        }
+        Sort.Order order = sort.iterator().next();
+        String[] parts;
+        try {
+            // v1|property|direction|key|id - the key itself may contain '|', the id never does
+            String raw = new String(DECODER.decode(token), StandardCharsets.UTF_8);
+            int idSep = raw.lastIndexOf('|');
+            String[] head = raw.substring(0, Math.max(idSep, 0)).split("\\|", 4);
+            parts = head.length == 4
+                    ? new String[]{head[0], head[1], head[2], head[3], raw.substring(idSep + 1)}
+                    : new String[0];
+        } catch (IllegalArgumentException ex) {
+            throw ApiException.badRequest("invalid_cursor", "Cursor is malformed");
+        }
+        if (parts.length != 5 || !VERSION.equals(parts[0])) {
+            throw ApiException.badRequest("invalid_cursor", "Cursor is malformed");
+        }
+        if (!parts[1].equals(order.getProperty()) || !parts[2].equals(order.getDirection().name())) {
+            throw ApiException.badRequest("invalid_cursor", "Cursor does not match the requested sort");
+        }
+
+        Map<String, Object> keys = new LinkedHashMap<>();
+        try {
+            keys.put(order.getProperty(), parseKey(order.getProperty(), parts[3]));
+            keys.put("id", Long.valueOf(parts[4]));
+        } catch (RuntimeException ex) {
+            throw ApiException.badRequest("invalid_cursor", "Cursor is malformed");
+        }
+        return ScrollPosition.forward(keys);
+    }
+
+    public static String encode(KeysetScrollPosition position, Sort sort) {
+        Sort.Order order = sort.iterator().next();
+        Map<String, ?> keys = position.getKeys();
+        String raw = String.join("|",
+                VERSION,
+                order.getProperty(),
+                order.getDirection().name(),
+                String.valueOf(keys.get(order.getProperty())),
+                String.valueOf(keys.get("id")));
+        return ENCODER.encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Object parseKey(String property, String value) {
+        return switch (property) {
+            case "hireDate" -> LocalDate.parse(value);
+            case "id" -> Long.valueOf(value);
+            default -> value;
+        };
+    }
+}
@@ -0,0 +1,214 @@
+package com.grootan.ems.employee;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.grootan.ems.common.ApiException;
+import com.grootan.ems.department.DepartmentDirectory;
+import com.grootan.ems.department.dto.DepartmentResponse;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.Locale;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
+
+/**
+ * Backs {@code GET /api/employees/export}: every employee matching the search filters, written
+ * to the response as it is read. One forward-only query ordered by id, fetched
+ * {@code app.export.fetch-size} rows at a time; rows are selected as tuples rather than entities,
+ * so nothing accumulates in the persistence context, and department fields come from the
+ * {@link DepartmentDirectory}. Memory use does not depend on the number of rows.
+ */
+@Service
+public class EmployeeExportService {
+
+    public enum Format { CSV, NDJSON }
+
+    static final String[] COLUMNS = {"id", "fullName", "email", "empRole", "hireDate", "status",
+            "departmentId", "departmentCode", "departmentName", "createdAt", "updatedAt"};
+
+    private static final JsonFactory JSON = new JsonFactory();
+
+    private final EntityManager em;
+    private final EmployeeTextSearch textSearch;
+    private final DepartmentDirectory departments;
+    private final int fetchSize;
+    private static final Logger log = LoggerFactory.getLogger(EmployeeExportService.class);
+
+    public EmployeeExportService(EntityManager em,
+                                 EmployeeTextSearch textSearch,
+                                 DepartmentDirectory departments,
+                                 @Value("${app.export.fetch-size:1000}") int fetchSize) {
+        this.em = em;
+        this.textSearch = textSearch;
+        this.departments = departments;
+        this.fetchSize = fetchSize;
+    }
+
+    public static Format parseFormat(String format) {
+        try {
+            return Format.valueOf(format.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException ex) {
+            throw ApiException.badRequest("invalid_format", "Format must be csv or ndjson");
+        }
+    }
+
+    /** Writes the matching employees to {@code out} and returns how many were written. */
+    @Transactional(readOnly = true)
+    public long export(String q, Long departmentId, String status, Format format, OutputStream out) throws IOException {
+        EmployeeStatus st = (status == null || status.isBlank()) ? null : EmployeeService.parseStatus(status);
+        Specification<Employee> spec = textSearch.matches(q, false)
+                .and(EmployeeSpecs.departmentIdEquals(departmentId))
+                .and(EmployeeSpecs.statusEquals(st));
+
+        CriteriaBuilder cb = em.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Employee> root = query.from(Employee.class);
+        query.multiselect(
+                        root.get("id"), root.get("fullName"), root.get("email"), root.get("empRole"),
+                        root.get("hireDate"), root.get("status"), root.get("department").get("id"),
+                        root.get("createdAt"), root.get("updatedAt"))
+                .where(spec.toPredicate(root, query, cb))
+                .orderBy(cb.asc(root.get("id")));
+
+        long start = System.nanoTime();
+        long rows = 0;
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+        RowWriter rowWriter = format == Format.CSV ? new CsvRowWriter(writer) : new NdjsonRowWriter(writer);
+        try (Stream<Tuple> stream = em.createQuery(query)
+                .setHint(HINT_FETCH_SIZE, fetchSize)
+                .setHint(HINT_READ_ONLY, true)
+                .getResultStream()) {
+            rowWriter.header();
+            for (Tuple t : (Iterable<Tuple>) stream::iterator) {
+                Long deptId = t.get(6, Long.class);
+                DepartmentResponse d = departments.findById(deptId).orElse(null);
+                EmployeeStatus rowStatus = t.get(5, EmployeeStatus.class);
+                rowWriter.row(new Object[]{
+                        t.get(0, Long.class), t.get(1, String.class), t.get(2, String.class), t.get(3, String.class),
+                        t.get(4, LocalDate.class), rowStatus == null ? null : rowStatus.name(), deptId,
+                        d == null ? null : d.getCode(), d == null ? null : d.getName(),
+                        t.get(7, OffsetDateTime.class), t.get(8, OffsetDateTime.class)});
+                rows++;
+            }
+            rowWriter.finish();
+        }
+        writer.flush();
+        log.info("Exported {} employees as {} in {} ms", rows, format, (System.nanoTime() - start) / 1_000_000);
+        return rows;
+    }
+
+    private interface RowWriter {
+        void header() throws IOException;
+
+        void row(Object[] values) throws IOException;
+
+        void finish() throws IOException;
+    }
+
+    private static final class CsvRowWriter implements RowWriter {
+        private final Writer out;
+
+        CsvRowWriter(Writer out) {
+            this.out = out;
+        }
+
+        @Override
+        public void header() throws IOException {
+            out.write(String.join(",", COLUMNS));
+            out.write('\n');
+        }
+
+        @Override
+        public void row(Object[] values) throws IOException {
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) out.write(',');
+                if (values[i] instanceof String text) writeField(neutralizeFormula(text));
+                else if (values[i] != null) writeField(values[i].toString());
+            }
+            out.write('\n');
+        }
+
+        // Spreadsheets evaluate a cell starting with one of these; names and emails are user input
+        private static String neutralizeFormula(String value) {
+            if (value.isEmpty()) {
+                return value;
+            }
+            char first = value.charAt(0);
+            boolean formula = first == '=' || first == '+' || first == '-' || first == '@'
+                    || first == '\t' || first == '\r';
+            return formula ? "'" + value : value;
+        }
+
+        private void writeField(String value) throws IOException {
+            boolean quote = value.indexOf(',') >= 0 || value.indexOf('"') >= 0
+                    || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0;
+            if (!quote) {
+                out.write(value);
+                return;
+            }
+            out.write('"');
+            out.write(value.replace("\"", "\"\""));
+            out.write('"');
+        }
+
+        @Override
+        public void finish() {
+        }
+    }
+
+    private static final class NdjsonRowWriter implements RowWriter {
+        private final JsonGenerator gen;
+
+        NdjsonRowWriter(Writer out) throws IOException {
+            this.gen = JSON.createGenerator(out);
+            gen.setRootValueSeparator(null); // rows end with '\n' instead
+        }
+
+        @Override
+        public void header() {
+        }
+
+        @Override
+        public void row(Object[] values) throws IOException {
+            gen.writeStartObject();
+            for (int i = 0; i < values.length; i++) {
+                Object v = values[i];
+                if (v == null) {
+                    gen.writeNullField(COLUMNS[i]);
+                } else if (v instanceof Long l) {
+                    gen.writeNumberField(COLUMNS[i], l);
+                } else {
+                    gen.writeStringField(COLUMNS[i], v.toString());
+                }
+            }
+            gen.writeEndObject();
+            gen.writeRaw('\n');
+        }
+
+        @Override
+        public void finish() throws IOException {
+            // flushes into the writer, which the caller flushes into the response
+            gen.flush();
+        }
+    }
+}
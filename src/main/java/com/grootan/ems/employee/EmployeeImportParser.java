@@ -0,0 +1,197 @@
+package com.grootan.ems.employee;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.grootan.ems.common.ApiException;
+import com.grootan.ems.employee.dto.EmployeeImportRow;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * Reads import rows one line at a time, so the upload is never held in memory. CSV needs a header
+ * row (column names are matched ignoring case, {@code _} and {@code -}, unknown columns are
+ * ignored); quoted fields may contain commas and {@code ""} but not line breaks. NDJSON is one
+ * {@link EmployeeImportRow} object per line. Blank lines are skipped; a line that cannot be read
+ * becomes a row with an error rather than failing the import.
+ */
+final class EmployeeImportParser implements Iterator<EmployeeImportParser.ParsedRow> {
+
+    static final class ParsedRow {
+        final long line;
+        final EmployeeImportRow row;
+        final String error;
+
+        ParsedRow(long line, EmployeeImportRow row, String error) {
+            this.line = line;
+            this.row = row;
+            this.error = error;
+        }
+    }
+
+    @FunctionalInterface
+    private interface LineParser {
+        EmployeeImportRow parse(String line);
+    }
+
+    private final BufferedReader reader;
+    private final LineParser parser;
+    private long lineNo;
+    private ParsedRow next;
+
+    private EmployeeImportParser(BufferedReader reader, long lineNo, LineParser parser) {
+        this.reader = reader;
+        this.lineNo = lineNo;
+        this.parser = parser;
+    }
+
+    static EmployeeImportParser ndjson(BufferedReader reader, ObjectMapper objectMapper) {
+        return new EmployeeImportParser(reader, 0, line -> {
+            try {
+                return objectMapper.readValue(line, EmployeeImportRow.class);
+            } catch (JsonProcessingException ex) {
+                throw new IllegalArgumentException(ex.getOriginalMessage());
+            }
+        });
+    }
+
+    static EmployeeImportParser csv(BufferedReader reader) {
+        String header = readLine(reader);
+        if (header == null || header.isBlank()) {
+            throw ApiException.badRequest("import_missing_header", "CSV import needs a header row");
+        }
+        Map<String, Integer> columns = new HashMap<>();
+        List<String> names = splitCsv(header.startsWith("\uFEFF") ? header.substring(1) : header);
+        for (int i = 0; i < names.size(); i++) {
+            columns.putIfAbsent(normalize(names.get(i)), i);
+        }
+        for (String required : List.of("fullname", "email", "emprole", "hiredate")) {
+            if (!columns.containsKey(required)) {
+                throw ApiException.badRequest("import_bad_header", "CSV header is missing column " + required);
+            }
+        }
+        if (!columns.containsKey("departmentid") && !columns.containsKey("departmentcode")) {
+            throw ApiException.badRequest("import_bad_header", "CSV header needs departmentId or departmentCode");
+        }
+        return new EmployeeImportParser(reader, 1, line -> csvRow(splitCsv(line), columns));
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (next == null) {
+            String line = readLine(reader);
+            if (line == null) {
+                return false;
+            }
+            lineNo++;
+            if (line.isBlank()) {
+                continue;
+            }
+            try {
+                next = new ParsedRow(lineNo, parser.parse(line), null);
+            } catch (IllegalArgumentException | DateTimeParseException ex) {
+                next = new ParsedRow(lineNo, null, ex.getMessage());
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public ParsedRow next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        ParsedRow row = next;
+        next = null;
+        return row;
+    }
+
+    private static String readLine(BufferedReader reader) {
+        try {
+            return reader.readLine();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private static EmployeeImportRow csvRow(List<String> fields, Map<String, Integer> columns) {
+        EmployeeImportRow row = new EmployeeImportRow();
+        row.setFullName(field(fields, columns, "fullname"));
+        row.setEmail(field(fields, columns, "email"));
+        row.setEmpRole(field(fields, columns, "emprole"));
+        row.setStatus(field(fields, columns, "status"));
+        row.setDepartmentCode(field(fields, columns, "departmentcode"));
+
+        String hireDate = field(fields, columns, "hiredate");
+        if (hireDate != null) {
+            try {
+                row.setHireDate(LocalDate.parse(hireDate));
+            } catch (DateTimeParseException ex) {
+                throw new IllegalArgumentException("hireDate must be yyyy-MM-dd: " + hireDate);
+            }
+        }
+        String departmentId = field(fields, columns, "departmentid");
+        if (departmentId != null) {
+            try {
+                row.setDepartmentId(Long.parseLong(departmentId));
+            } catch (NumberFormatException ex) {
+                throw new IllegalArgumentException("departmentId must be a number: " + departmentId);
+            }
+        }
+        return row;
+    }
+
+    private static String field(List<String> fields, Map<String, Integer> columns, String name) {
+        Integer index = columns.get(name);
+        if (index == null || index >= fields.size()) {
+            return null;
+        }
+        String value = fields.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private static String normalize(String column) {
+        return column.replaceAll("[^A-Za-z0-9]", "").toLowerCase(Locale.ROOT);
+    }
+
+    static List<String> splitCsv(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Unterminated quoted field");
+        }
+        fields.add(current.toString());
+        return fields;
+    }
+}
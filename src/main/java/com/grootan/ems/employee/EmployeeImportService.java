@@ -0,0 +1,416 @@
+package com.grootan.ems.employee;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.grootan.ems.common.ApiException;
+import com.grootan.ems.department.DepartmentDirectory;
+import com.grootan.ems.department.DepartmentRepository;
+import com.grootan.ems.department.dto.DepartmentResponse;
+import com.grootan.ems.employee.dto.EmployeeCreateRequest;
+import com.grootan.ems.employee.dto.EmployeeImportCredential;
+import com.grootan.ems.employee.dto.EmployeeImportError;
+import com.grootan.ems.employee.dto.EmployeeImportReport;
+import com.grootan.ems.employee.dto.EmployeeImportRow;
+import com.grootan.ems.user.AppUser;
+import com.grootan.ems.user.AppUserRepository;
+import com.grootan.ems.user.CredentialProvisioner;
+import com.grootan.ems.user.Role;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Backs {@code POST /api/employees/import}. Rows are read from the request stream in chunks of
+ * {@code app.import.batch-size}; per chunk:
+ * <ol>
+ *   <li>rows are validated in parallel, departments resolved from the {@link DepartmentDirectory}</li>
+ *   <li>emails already taken (in the file or the database) are rejected with one query per chunk</li>
+ *   <li>employees and users are inserted in one transaction; sequence ids let Hibernate send
+ *       them as JDBC batches ({@code hibernate.jdbc.batch_size})</li>
+ * </ol>
+ * Passwords are hashed afterwards by the {@link CredentialProvisioner}; imported accounts can log
+ * in once that is done. The report is written to the response as one JSON object whose
+ * {@code credentials} array comes first and is streamed: each chunk's temporary passwords are
+ * written and flushed once the chunk commits, so memory does not grow with the file.
+ * A failing chunk insert (e.g. an email taken concurrently) rejects that chunk only.
+ */
+@Service
+public class EmployeeImportService {
+
+    private final EmployeeRepository employeeRepo;
+    private final DepartmentRepository deptRepo;
+    private final DepartmentDirectory departments;
+    private final AppUserRepository appUserRepo;
+    private final CredentialProvisioner credentials;
+    private final Validator validator;
+    private final ApplicationEventPublisher events;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate tx;
+    private final ExecutorService workers;
+    private final int batchSize;
+    private final int maxErrors;
+    private static final Logger log = LoggerFactory.getLogger(EmployeeImportService.class);
+
+    public EmployeeImportService(EmployeeRepository employeeRepo,
+                                 DepartmentRepository deptRepo,
+                                 DepartmentDirectory departments,
+                                 AppUserRepository appUserRepo,
+                                 CredentialProvisioner credentials,
+                                 Validator validator,
+                                 ApplicationEventPublisher events,
+                                 ObjectMapper objectMapper,
+                                 PlatformTransactionManager txManager,
+                                 @Value("${app.import.batch-size:500}") int batchSize,
+                                 @Value("${app.import.parallelism:0}") int parallelism,
+                                 @Value("${app.import.max-errors:1000}") int maxErrors) {
+        this.employeeRepo = employeeRepo;
+        this.deptRepo = deptRepo;
+        this.departments = departments;
+        this.appUserRepo = appUserRepo;
+        this.credentials = credentials;
+        this.validator = validator;
+        this.events = events;
+        this.objectMapper = objectMapper;
+        this.tx = new TransactionTemplate(txManager);
+        this.batchSize = Math.max(1, batchSize);
+        this.maxErrors = maxErrors;
+        int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        AtomicInteger n = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "employee-import-" + n.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        workers.shutdownNow();
+    }
+
+    @Caching(evict = {
+            @CacheEvict(cacheNames = "employeeSearch", allEntries = true),
+            @CacheEvict(cacheNames = EmployeeCounter.CACHE, allEntries = true)
+    })
+    public EmployeeImportReport importCsv(InputStream body, OutputStream out) throws IOException {
+        return writeReport(EmployeeImportParser.csv(reader(body)), out);
+    }
+
+    @Caching(evict = {
+            @CacheEvict(cacheNames = "employeeSearch", allEntries = true),
+            @CacheEvict(cacheNames = EmployeeCounter.CACHE, allEntries = true)
+    })
+    public EmployeeImportReport importNdjson(InputStream body, OutputStream out) throws IOException {
+        return writeReport(EmployeeImportParser.ndjson(reader(body), objectMapper), out);
+    }
+
+    private static BufferedReader reader(InputStream body) {
+        return new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8), 64 * 1024);
+    }
+
+    /** The credentials, then the other report fields; returns the report it wrote. */
+    private EmployeeImportReport writeReport(Iterator<EmployeeImportParser.ParsedRow> rows, OutputStream out) throws IOException {
+        JsonGenerator json = objectMapper.getFactory().createGenerator(out);
+        json.writeStartObject();
+        json.writeArrayFieldStart("credentials");
+        EmployeeImportReport report;
+        try {
+            report = importRows(rows, committed -> {
+                try {
+                    for (EmployeeImportCredential c : committed) {
+                        json.writeObject(c);
+                    }
+                    json.flush();
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            });
+        } catch (UncheckedIOException ex) {
+            throw ex.getCause(); // client went away; committed chunks stay imported
+        }
+        json.writeEndArray();
+        Iterator<Map.Entry<String, JsonNode>> fields = objectMapper.valueToTree(report).fields();
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            json.writeFieldName(field.getKey());
+            json.writeTree(field.getValue());
+        }
+        json.writeEndObject();
+        json.flush();
+        return report;
+    }
+
+    /** @param credentials given each chunk's credentials once the chunk has committed */
+    EmployeeImportReport importRows(Iterator<EmployeeImportParser.ParsedRow> rows,
+                                    Consumer<List<EmployeeImportCredential>> credentials) {
+        long start = System.nanoTime();
+        Progress progress = new Progress(credentials);
+        Set<String> seenEmails = new HashSet<>();
+        List<EmployeeImportParser.ParsedRow> chunk = new ArrayList<>(batchSize);
+        while (rows.hasNext()) {
+            chunk.add(rows.next());
+            if (chunk.size() == batchSize) {
+                importChunk(chunk, seenEmails, progress);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            importChunk(chunk, seenEmails, progress);
+        }
+
+        long elapsedMs = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+        double rowsPerSecond = Math.round(progress.received * 10_000.0 / elapsedMs) / 10.0;
+        progress.errors.sort(Comparator.comparingLong(EmployeeImportError::getLine));
+        log.info("Imported {} of {} employees in {} ms ({} rows/s), {} failed",
+                progress.imported, progress.received, elapsedMs, rowsPerSecond, progress.failed);
+        return new EmployeeImportReport(progress.received, progress.imported, progress.failed, elapsedMs, rowsPerSecond,
+                progress.errors, progress.failed > progress.errors.size());
+    }
+
+    private void importChunk(List<EmployeeImportParser.ParsedRow> chunk, Set<String> seenEmails, Progress progress) {
+        progress.received += chunk.size();
+
+        List<Candidate> candidates = new ArrayList<>(chunk.size());
+        for (Candidate c : inParallel(chunk, this::validate)) {
+            if (c.error != null) {
+                progress.reject(c.line, c.email, c.error, c.message, maxErrors);
+            } else if (!seenEmails.add(c.email)) {
+                progress.reject(c.line, c.email, "duplicate_email", "Email appears earlier in the file", maxErrors);
+            } else {
+                candidates.add(c);
+            }
+        }
+        if (candidates.isEmpty()) {
+            return;
+        }
+
+        List<String> emails = candidates.stream().map(c -> c.email).toList();
+        Set<String> taken = new HashSet<>(employeeRepo.findExistingEmails(emails));
+        taken.addAll(appUserRepo.findExistingEmails(emails));
+        List<Candidate> accepted = new ArrayList<>(candidates.size());
+        for (Candidate c : candidates) {
+            if (taken.contains(c.email)) {
+                progress.reject(c.line, c.email, "employee_email_exists", "Employee email already exists", maxErrors);
+            } else {
+                accepted.add(c);
+            }
+        }
+        if (accepted.isEmpty()) {
+            return;
+        }
+
+        try {
+            List<Employee> saved = tx.execute(status -> insert(accepted));
+            List<EmployeeImportCredential> committed = new ArrayList<>(accepted.size());
+            for (int i = 0; i < accepted.size(); i++) {
+                Candidate c = accepted.get(i);
+                committed.add(new EmployeeImportCredential(c.line, saved.get(i).getId(), c.email, c.password));
+            }
+            progress.imported += accepted.size();
+            progress.credentials.accept(committed);
+        } catch (DataAccessException ex) {
+            log.warn("Import chunk of {} rows failed: {}", accepted.size(), ex.getMostSpecificCause().getMessage());
+            for (Candidate c : accepted) {
+                progress.reject(c.line, c.email, "batch_failed",
+                        "Rows of this batch were not imported: " + ex.getMostSpecificCause().getMessage(), maxErrors);
+            }
+        }
+    }
+
+    private List<Employee> insert(List<Candidate> accepted) {
+        List<Employee> employees = new ArrayList<>(accepted.size());
+        for (Candidate c : accepted) {
+            Employee e = new Employee();
+            e.setFullName(c.request.getFullName());
+            e.setEmail(c.email);
+            e.setEmpRole(c.request.getEmpRole());
+            e.setHireDate(c.request.getHireDate());
+            e.setDepartment(deptRepo.getReferenceById(c.department.getId()));
+            if (c.status != null) {
+                e.setStatus(c.status);
+            }
+            employees.add(e);
+        }
+        List<Employee> saved = employeeRepo.saveAll(employees);
+
+        List<AppUser> users = new ArrayList<>(accepted.size());
+        for (int i = 0; i < accepted.size(); i++) {
+            Candidate c = accepted.get(i);
+            AppUser u = new AppUser();
+            u.setEmail(c.email);
+            u.setRole(c.role);
+            u.setEmployee(saved.get(i));
+            users.add(u);
+        }
+        List<String> passwords = credentials.createAccounts(users);
+        for (int i = 0; i < accepted.size(); i++) {
+            accepted.get(i).password = passwords.get(i);
+        }
+        for (int i = 0; i < saved.size(); i++) {
+            events.publishEvent(EmployeeChangedEvent.of(EmployeeChangedEvent.Type.CREATED, saved.get(i),
+                    accepted.get(i).department.getCode()));
+        }
+        return saved;
+    }
+
+    /** Same rules as {@code POST /api/employees}, plus department lookup by code. */
+    private Candidate validate(EmployeeImportParser.ParsedRow parsed) {
+        EmployeeImportRow row = parsed.row;
+        if (parsed.error != null) {
+            return Candidate.rejected(parsed.line, null, "invalid_row", parsed.error);
+        }
+        String email = row.getEmail() == null ? null : row.getEmail().trim().toLowerCase(Locale.ROOT);
+
+        DepartmentResponse department = null;
+        if (row.getDepartmentId() != null) {
+            department = departments.findCurrentById(row.getDepartmentId()).orElse(null);
+        } else if (row.getDepartmentCode() != null) {
+            department = departments.findCurrentByCode(row.getDepartmentCode().trim()).orElse(null);
+        }
+
+        EmployeeCreateRequest req = new EmployeeCreateRequest();
+        req.setFullName(row.getFullName() == null ? null : row.getFullName().trim());
+        req.setEmail(email);
+        req.setEmpRole(row.getEmpRole() == null ? null : row.getEmpRole().trim().toUpperCase(Locale.ROOT));
+        req.setHireDate(row.getHireDate());
+        req.setDepartmentId(department == null ? null : department.getId());
+        req.setStatus(row.getStatus());
+
+        Set<ConstraintViolation<EmployeeCreateRequest>> violations = validator.validate(req);
+        if (!violations.isEmpty()) {
+            ConstraintViolation<EmployeeCreateRequest> v = violations.stream()
+                    .min(Comparator.comparing(cv -> cv.getPropertyPath().toString()))
+                    .orElseThrow();
+            boolean unknownDepartment = "departmentId".equals(v.getPropertyPath().toString())
+                    && (row.getDepartmentId() != null || row.getDepartmentCode() != null);
+            return unknownDepartment
+                    ? Candidate.rejected(parsed.line, email, "department_not_found", "Department not found")
+                    : Candidate.rejected(parsed.line, email, "invalid_field", v.getPropertyPath() + " " + v.getMessage());
+        }
+
+        Role role;
+        try {
+            role = Role.valueOf(req.getEmpRole());
+        } catch (IllegalArgumentException ex) {
+            return Candidate.rejected(parsed.line, email, "invalid_role", "empRole must be one of ADMIN, HR, MANAGER, EMPLOYEE");
+        }
+        EmployeeStatus status = null;
+        if (req.getStatus() != null && !req.getStatus().isBlank()) {
+            try {
+                status = EmployeeStatus.valueOf(req.getStatus().trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException ex) {
+                return Candidate.rejected(parsed.line, email, "invalid_status", "Status must be ACTIVE or INACTIVE");
+            }
+        }
+        return new Candidate(parsed.line, email, req, department, role, status);
+    }
+
+    private <T, R> List<R> inParallel(List<T> items, Function<T, R> work) {
+        List<Callable<R>> tasks = new ArrayList<>(items.size());
+        for (T item : items) {
+            tasks.add(() -> work.apply(item));
+        }
+        try {
+            List<R> results = new ArrayList<>(items.size());
+            for (Future<R> f : workers.invokeAll(tasks)) {
+                results.add(f.get());
+            }
+            return results;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw ApiException.badRequest("import_interrupted", "Import was interrupted");
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException re) {
+                throw re;
+            }
+            throw new IllegalStateException(ex.getCause());
+        }
+    }
+
+    private static final class Candidate {
+        final long line;
+        final String email;
+        final String error;
+        final String message;
+        final EmployeeCreateRequest request;
+        final DepartmentResponse department;
+        final Role role;
+        final EmployeeStatus status;
+        String password;
+
+        Candidate(long line, String email, EmployeeCreateRequest request, DepartmentResponse department,
+                  Role role, EmployeeStatus status) {
+            this(line, email, null, null, request, department, role, status);
+        }
+
+        private Candidate(long line, String email, String error, String message, EmployeeCreateRequest request,
+                          DepartmentResponse department, Role role, EmployeeStatus status) {
+            this.line = line;
+            this.email = email;
+            this.error = error;
+            this.message = message;
+            this.request = request;
+            this.department = department;
+            this.role = role;
+            this.status = status;
+        }
+
+        static Candidate rejected(long line, String email, String error, String message) {
+            return new Candidate(line, email, error, message, null, null, null, null);
+        }
+    }
+
+    private static final class Progress {
+        long received;
+        long imported;
+        long failed;
+        final List<EmployeeImportError> errors = new ArrayList<>();
+        final Consumer<List<EmployeeImportCredential>> credentials;
+
+        Progress(Consumer<List<EmployeeImportCredential>> credentials) {
+            this.credentials = credentials;
+        }
+
+        void reject(long line, String email, String code, String message, int maxErrors) {
+            failed++;
+            if (errors.size() < maxErrors) {
+                errors.add(new EmployeeImportError(line, email, code, message));
+            }
+        }
+    }
+}
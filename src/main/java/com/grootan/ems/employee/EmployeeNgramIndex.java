@@ -0,0 +1,262 @@
+package com.grootan.ems.employee;
+
+import com.grootan.ems.employee.dto.EmployeeSuggestion;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory typeahead index over employee name, email and department code.
+ * <p>
+ * Every term contributes edge grams ({@code ^a, ^ab, ^abc}) and trigrams. Query terms of up to
+ * three characters are answered from the edge grams (prefix match); longer terms intersect their
+ * trigram postings and are then verified against the stored text. Postings are sorted primitive
+ * int arrays, intersected in place under the read lock, and every match is ranked, so the top
+ * results do not depend on ids. Incremental updates take the write lock.
+ */
+class EmployeeNgramIndex {
+
+    private static final int GRAM = 3;
+
+    private final Map<String, Postings> postings = new HashMap<>();
+    private final Map<Integer, Doc> docs = new HashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private static final Logger log = LoggerFactory.getLogger(EmployeeNgramIndex.class);
+
+    void upsert(long id, String fullName, String email, String departmentCode) {
+        if (id > Integer.MAX_VALUE) {
+            // postings hold int ids; such an employee is still found by the database search
+            log.warn("Employee id={} is out of the suggest index's id range, not indexed", id);
+            return;
+        }
+        int key = (int) id;
+        Doc doc = new Doc(key, fullName, departmentCode, email);
+        lock.writeLock().lock();
+        try {
+            Doc previous = docs.put(key, doc);
+            if (previous != null) {
+                unlink(previous);
+            }
+            for (String gram : doc.grams()) {
+                postings.computeIfAbsent(gram, g -> new Postings()).add(key);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void remove(long id) {
+        if (id > Integer.MAX_VALUE) {
+            return; // never indexed
+        }
+        lock.writeLock().lock();
+        try {
+            Doc previous = docs.remove((int) id);
+            if (previous != null) {
+                unlink(previous);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    int size() {
+        lock.readLock().lock();
+        try {
+            return docs.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    List<EmployeeSuggestion> suggest(String q, int limit) {
+        String[] tokens = terms(q);
+        if (tokens.length == 0 || limit <= 0) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            List<Postings> lists = new ArrayList<>();
+            for (String gram : gramsOf(tokens)) {
+                Postings p = postings.get(gram);
+                if (p == null) {
+                    return List.of();
+                }
+                lists.add(p);
+            }
+            // walk the shortest list and probe the others in place; every surviving doc is ranked
+            lists.sort(Comparator.comparingInt(p -> p.size));
+            Postings shortest = lists.get(0);
+            int[] from = new int[lists.size()];
+
+            Comparator<Doc> rank = rankFor(tokens[0]);
+            PriorityQueue<Doc> top = new PriorityQueue<>(limit + 1, rank.reversed());
+            candidates:
+            for (int i = 0; i < shortest.size; i++) {
+                int id = shortest.ids[i];
+                for (int k = 1; k < lists.size(); k++) {
+                    Postings p = lists.get(k);
+                    int pos = Arrays.binarySearch(p.ids, from[k], p.size, id);
+                    from[k] = pos < 0 ? -pos - 1 : pos + 1;
+                    if (pos < 0) {
+                        continue candidates;
+                    }
+                }
+                Doc doc = docs.get(id);
+                if (doc == null || !doc.containsAll(tokens)) {
+                    continue;
+                }
+                top.offer(doc);
+                if (top.size() > limit) {
+                    top.poll();
+                }
+            }
+
+            List<Doc> ordered = new ArrayList<>(top);
+            ordered.sort(rank);
+            List<EmployeeSuggestion> out = new ArrayList<>(ordered.size());
+            for (Doc doc : ordered) {
+                out.add(new EmployeeSuggestion((long) doc.id, doc.fullName, doc.departmentCode));
+            }
+            return out;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static Set<String> gramsOf(String[] tokens) {
+        Set<String> grams = new LinkedHashSet<>();
+        for (String token : tokens) {
+            if (token.length() <= GRAM) {
+                grams.add("^" + token);
+                continue;
+            }
+            for (int i = 0; i + GRAM <= token.length(); i++) {
+                grams.add(token.substring(i, i + GRAM));
+            }
+        }
+        return grams;
+    }
+
+    private void unlink(Doc doc) {
+        for (String gram : doc.grams()) {
+            Postings p = postings.get(gram);
+            if (p != null && p.remove(doc.id) && p.size == 0) {
+                postings.remove(gram);
+            }
+        }
+    }
+
+    private static Comparator<Doc> rankFor(String first) {
+        // name starts with the query, then a name word starts with it, then anything else;
+        // shorter names first so "Ann" beats "Annabelle-Marie", id keeps the order stable
+        return Comparator.<Doc>comparingInt(d -> d.nameLower.startsWith(first) ? 0 : d.nameHasWordStartingWith(first) ? 1 : 2)
+                .thenComparingInt(d -> d.fullName.length())
+                .thenComparing(d -> d.nameLower)
+                .thenComparingInt(d -> d.id);
+    }
+
+    static String[] terms(String text) {
+        if (text == null || text.isBlank()) {
+            return new String[0];
+        }
+        return Arrays.stream(text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+"))
+                .filter(t -> !t.isEmpty())
+                .toArray(String[]::new);
+    }
+
+    private static final class Doc {
+        final int id;
+        final String fullName;
+        final String nameLower;
+        final String departmentCode;
+        /** Distinct terms of name, email and department code, space separated; the grams are derived from it. */
+        final String text;
+
+        Doc(int id, String fullName, String departmentCode, String email) {
+            this.id = id;
+            this.fullName = fullName;
+            this.nameLower = fullName == null ? "" : fullName.toLowerCase(Locale.ROOT);
+            this.departmentCode = departmentCode;
+
+            Set<String> terms = new LinkedHashSet<>();
+            terms.addAll(Arrays.asList(terms(fullName)));
+            terms.addAll(Arrays.asList(terms(email)));
+            terms.addAll(Arrays.asList(terms(departmentCode)));
+            this.text = String.join(" ", terms);
+        }
+
+        /**
+         * Recomputed on upsert and unlink rather than kept: a stored array would hold a String per
+         * gram per employee next to the same keys in the postings map.
+         */
+        Set<String> grams() {
+            Set<String> g = new LinkedHashSet<>();
+            for (String term : text.split(" ")) {
+                for (int len = 1; len <= Math.min(GRAM, term.length()); len++) {
+                    g.add("^" + term.substring(0, len));
+                }
+                for (int i = 0; i + GRAM <= term.length(); i++) {
+                    g.add(term.substring(i, i + GRAM));
+                }
+            }
+            return g;
+        }
+
+        boolean containsAll(String[] tokens) {
+            for (String token : tokens) {
+                // short tokens already matched a word prefix exactly; long ones may be trigram false positives
+                if (token.length() > GRAM && !text.contains(token)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        boolean nameHasWordStartingWith(String token) {
+            return nameLower.contains(" " + token);
+        }
+    }
+
+    /** Sorted, growable int set. Mutated only under the index write lock. */
+    private static final class Postings {
+        int[] ids = new int[4];
+        int size;
+
+        void add(int id) {
+            int pos = Arrays.binarySearch(ids, 0, size, id);
+            if (pos >= 0) {
+                return;
+            }
+            pos = -pos - 1;
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size + (size >> 1) + 1);
+            }
+            System.arraycopy(ids, pos, ids, pos + 1, size - pos);
+            ids[pos] = id;
+            size++;
+        }
+
+        boolean remove(int id) {
+            int pos = Arrays.binarySearch(ids, 0, size, id);
+            if (pos < 0) {
+                return false;
+            }
+            System.arraycopy(ids, pos + 1, ids, pos, size - pos - 1);
+            size--;
+            return true;
+        }
+    }
+}
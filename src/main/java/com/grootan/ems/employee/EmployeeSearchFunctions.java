@@ -0,0 +1,55 @@
+package com.grootan.ems.employee;
+
+import org.hibernate.boot.model.FunctionContributions;
+import org.hibernate.boot.model.FunctionContributor;
+import org.hibernate.type.BasicTypeRegistry;
+import org.hibernate.type.StandardBasicTypes;
+
+/**
+ * Registers the Postgres full-text/trigram expressions used by {@link PostgresEmployeeTextSearch}.
+ * The rendered SQL must stay identical to the expression indexes in schema.sql, otherwise the
+ * planner falls back to a sequential scan. Registered through META-INF/services; the functions are
+ * only rendered when the postgres search backend is selected, so H2 never sees them.
+ */
+public class EmployeeSearchFunctions implements FunctionContributor {
+
+    static final String FTS_MATCH = "employee_fts_match";
+    static final String FTS_RANK = "employee_fts_rank";
+
+    private static final String DOCUMENT = "to_tsvector('simple', ?1 || ' ' || ?2 || ' ' || ?3)";
+    private static final String QUERY = "plainto_tsquery('simple', ?4)";
+    private static final String MATCH = "(" + DOCUMENT + " @@ " + QUERY + ")";
+    private static final String RANK = "(ts_rank(" + DOCUMENT + ", " + QUERY + ") + similarity(lower(?1), lower(?4)))";
+
+    @Override
+    public void contributeFunctions(FunctionContributions contributions) {
+        BasicTypeRegistry types = contributions.getTypeConfiguration().getBasicTypeRegistry();
+
+        // (full_name, email, emp_role, q)
+        contributions.getFunctionRegistry()
+                .patternDescriptorBuilder(FTS_MATCH, MATCH)
+                .setExactArgumentCount(4)
+                .setInvariantType(types.resolve(StandardBasicTypes.BOOLEAN))
+                .register();
+
+        contributions.getFunctionRegistry()
+                .patternDescriptorBuilder(FTS_RANK, RANK)
+                .setExactArgumentCount(4)
+                .setInvariantType(types.resolve(StandardBasicTypes.DOUBLE))
+                .register();
+    }
+
+    /** {@link #FTS_MATCH} as plain SQL over {@code employees e}, the term bound as {@code :q}; for the R2DBC reads. */
+    static String matchSql() {
+        return overEmployees(MATCH);
+    }
+
+    /** {@link #FTS_RANK} as plain SQL over {@code employees e}, the term bound as {@code :q}. */
+    static String rankSql() {
+        return overEmployees(RANK);
+    }
+
+    private static String overEmployees(String pattern) {
+        return pattern.replace("?1", "e.full_name").replace("?2", "e.email").replace("?3", "e.emp_role").replace("?4", ":q");
+    }
+}
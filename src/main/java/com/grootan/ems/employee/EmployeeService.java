@@ -2,19 +2,29 @@ package com.grootan.ems.employee;
 
 import com.grootan.ems.common.ApiException;
 import com.grootan.ems.department.Department;
+import com.grootan.ems.department.DepartmentDirectory;
 import com.grootan.ems.department.DepartmentRepository;
+import com.grootan.ems.department.dto.DepartmentResponse;
 import com.grootan.ems.employee.dto.EmployeeCreateRequest;
+import com.grootan.ems.employee.dto.EmployeePage;
 import com.grootan.ems.employee.dto.EmployeeResponse;
+import com.grootan.ems.employee.dto.EmployeeSliceResponse;
 import com.grootan.ems.employee.dto.EmployeeUpdateRequest;
 import com.grootan.ems.user.AppUser;
-import com.grootan.ems.user.AppUserRepository;
-import com.grootan.ems.user.PasswordGenerator;
+import com.grootan.ems.user.AppUserChangedEvent;
+import com.grootan.ems.user.CredentialProvisioner;
 import com.grootan.ems.user.Role;
 import org.springframework.cache.annotation.Caching;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.KeysetScrollPosition;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.domain.Specification;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.cache.annotation.CacheEvict;
@@ -22,27 +32,35 @@ import org.springframework.cache.annotation.Cacheable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.List;
+
 @Service
 public class EmployeeService {
 
     private final EmployeeRepository employeeRepo;
     private final DepartmentRepository deptRepo;
-    private final AppUserRepository appUserRepo;
-    private final PasswordEncoder encoder;
-    private final PasswordGenerator passwordGenerator;
+    private final DepartmentDirectory departments;
+    private final CredentialProvisioner credentials;
+    private final EmployeeTextSearch textSearch;
+    private final ApplicationEventPublisher events;
+    private final EmployeeCounter counter;
     private static final Logger log = LoggerFactory.getLogger(EmployeeService.class);
+    private static final String RELEVANCE = "relevance";
 
-    public EmployeeService(EmployeeRepository employeeRepo, DepartmentRepository deptRepo, AppUserRepository appUserRepo, PasswordEncoder encoder, PasswordGenerator passwordGenerator) {
+    public EmployeeService(EmployeeRepository employeeRepo, DepartmentRepository deptRepo, DepartmentDirectory departments, CredentialProvisioner credentials, EmployeeTextSearch textSearch, ApplicationEventPublisher events, EmployeeCounter counter) {
         this.employeeRepo = employeeRepo;
         this.deptRepo = deptRepo;
-        this.appUserRepo = appUserRepo;
-        this.encoder = encoder;
-        this.passwordGenerator = passwordGenerator;
+        this.departments = departments;
+        this.credentials = credentials;
+        this.textSearch = textSearch;
+        this.events = events;
+        this.counter = counter;
     }
 
     @Caching(evict = {
             @CacheEvict(cacheNames = "employeeById", key = "#result.id", condition = "#result != null"),
-            @CacheEvict(cacheNames = "employeeSearch", allEntries = true)
+            @CacheEvict(cacheNames = "employeeSearch", allEntries = true),
+            @CacheEvict(cacheNames = EmployeeCounter.CACHE, allEntries = true)
     })
     @Transactional
     public EmployeeResponse create(EmployeeCreateRequest req) {
@@ -57,15 +75,14 @@ public class EmployeeService {
             throw ApiException.conflict("employee_email_exists", "Employee email already exists");
         }
 
-        Department dept = deptRepo.findById(req.getDepartmentId())
-                .orElseThrow(() -> ApiException.notFound("department_not_found", "Department not found"));
+        DepartmentResponse dept = requireDepartment(req.getDepartmentId());
 
         Employee e = new Employee();
         e.setFullName(fullName);
         e.setEmail(email);
         e.setEmpRole(empRole);
         e.setHireDate(req.getHireDate());
-        e.setDepartment(dept);
+        e.setDepartment(deptRepo.getReferenceById(dept.getId()));
 
         if (req.getStatus() != null && !req.getStatus().isBlank()) {
             e.setStatus(parseStatus(req.getStatus()));
@@ -73,20 +90,19 @@ public class EmployeeService {
 
         Employee saved = employeeRepo.save(e);
 
+        // the account can log in once its password is hashed, off this request (CredentialProvisioner)
         AppUser u = new AppUser();
         u.setEmail(email);
-        String password = passwordGenerator.generate(12);
-        u.setPasswordHash(encoder.encode(password));
         u.setRole(userRole);
-        u.setEnabled(true);
         u.setEmployee(saved);
+        String password = credentials.createAccount(u);
 
-        appUserRepo.save(u);
-        log.info("Created employee id={} and linked user account", saved.getId());
+        events.publishEvent(EmployeeChangedEvent.of(EmployeeChangedEvent.Type.CREATED, saved, dept.getCode()));
+        log.info("Created employee id={} and linked user account, pending activation", saved.getId());
         return toResponse(saved,password);
     }
 
-    @Cacheable(cacheNames = "employeeById", key = "#id")
+    @Cacheable(cacheNames = "employeeById", key = "#id", sync = true)
     @Transactional(readOnly = true)
     public EmployeeResponse getById(Long id) {
         log.debug("Fetching employee id={}", id);
@@ -98,11 +114,8 @@ public class EmployeeService {
 
     @Cacheable(
             cacheNames = "employeeSearch",
-            key = "T(java.lang.String).format('q=%s|dept=%s|st=%s|p=%d|s=%d', " +
-                    "(#q == null ? '' : #q.toLowerCase()), " +
-                    "(#departmentId == null ? '' : #departmentId), " +
-                    "(#status == null ? '' : #status.toUpperCase()), " +
-                    "#pageable.pageNumber, #pageable.pageSize)"
+            key = "T(com.grootan.ems.employee.EmployeeService).searchKey(#q, #departmentId, #status, #pageable)",
+            sync = true
     )
     @Transactional(readOnly = true)
     public Page<EmployeeResponse> search(String q, Long departmentId, String status,
@@ -110,19 +123,76 @@ public class EmployeeService {
         log.debug("Searching employees with q={} departmentId={} status={}", q, departmentId, status);
         EmployeeStatus st = (status == null || status.isBlank()) ? null : parseStatus(status);
 
+        // sort=relevance is not an entity property: drop it and let the search backend order by rank
+        boolean ranked = pageable.getSort().getOrderFor(RELEVANCE) != null;
+        if (ranked) {
+            pageable = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize());
+        }
+
         Specification<Employee> spec =
-                EmployeeSpecs.nameContains(q)
+                textSearch.matches(q, ranked)
                         .and(EmployeeSpecs.departmentIdEquals(departmentId))
                         .and(EmployeeSpecs.statusEquals(st));
 
-        Page<EmployeeResponse> results = employeeRepo.findAll(spec, pageable).map(this::toResponse);
-        log.debug("Employee search returned {} results", results.getTotalElements());
+        EmployeePage results;
+        if (!counter.approximate()) {
+            results = EmployeePage.exact(employeeRepo.findAll(spec, pageable).map(this::toResponse));
+        } else {
+            Pageable request = pageable;
+            Slice<Employee> slice = employeeRepo.findBy(spec, query -> query.sortBy(request.getSort()).slice(request));
+            List<EmployeeResponse> content = slice.map(this::toResponse).getContent();
+            // The last non-empty page already tells us the exact total; only count otherwise
+            EmployeeCounter.Result total = (!slice.hasNext() && (!content.isEmpty() || pageable.getPageNumber() == 0))
+                    ? new EmployeeCounter.Result(pageable.getOffset() + content.size(), EmployeePage.TotalAccuracy.EXACT)
+                    : counter.count(spec, q, departmentId, st);
+            results = new EmployeePage(content, pageable, total.getTotal(), total.getAccuracy());
+        }
+        log.debug("Employee search returned {} results ({})", results.getTotalElements(), results.getTotalAccuracy());
         return results;
     }
 
+    /** The {@code employeeSearch} cache key, shared with {@link ReactiveEmployeeService#search}. */
+    public static String searchKey(String q, Long departmentId, String status, Pageable pageable) {
+        return String.format("q=%s|dept=%s|st=%s|p=%d|s=%d",
+                q == null ? "" : q.toLowerCase(),
+                departmentId == null ? "" : departmentId,
+                status == null ? "" : status.toUpperCase(),
+                pageable.getPageNumber(), pageable.getPageSize()) + "|o=" + pageable.getSort();
+    }
+
+    /**
+     * Keyset variant of {@link #search}: seeks past the (sort key, id) encoded in {@code after}
+     * instead of using OFFSET, and never runs a count query.
+     */
+    @Transactional(readOnly = true)
+    public EmployeeSliceResponse scroll(String q, Long departmentId, String status,
+                                        String after, int size, Sort sort) {
+        log.debug("Scrolling employees with q={} departmentId={} status={} size={}", q, departmentId, status, size);
+        EmployeeStatus st = (status == null || status.isBlank()) ? null : parseStatus(status);
+        Sort keysetSort = EmployeeCursor.keysetSort(sort);
+        ScrollPosition position = EmployeeCursor.decode(after, keysetSort);
+
+        Specification<Employee> spec =
+                textSearch.matches(q, false)
+                        .and(EmployeeSpecs.departmentIdEquals(departmentId))
+                        .and(EmployeeSpecs.statusEquals(st));
+
+        Window<Employee> window = employeeRepo.findBy(spec, query -> query
+                .sortBy(keysetSort)
+                .limit(size)
+                .scroll(position));
+
+        String nextCursor = window.hasNext() && !window.isEmpty()
+                ? EmployeeCursor.encode((KeysetScrollPosition) window.positionAt(window.size() - 1), keysetSort)
+                : null;
+        log.debug("Employee scroll returned {} results hasNext={}", window.size(), window.hasNext());
+        return new EmployeeSliceResponse(window.map(this::toResponse).getContent(), window.size(), window.hasNext(), nextCursor);
+    }
+
     @Caching(evict = {
             @CacheEvict(cacheNames = "employeeById", key = "#id"),
-            @CacheEvict(cacheNames = "employeeSearch", allEntries = true)
+            @CacheEvict(cacheNames = "employeeSearch", allEntries = true),
+            @CacheEvict(cacheNames = EmployeeCounter.CACHE, allEntries = true)
     })
     @Transactional
     public EmployeeResponse update(Long id, EmployeeUpdateRequest req) {
@@ -138,8 +208,7 @@ public class EmployeeService {
             throw ApiException.conflict("employee_email_exists", "Employee email already exists");
         }
 
-        Department dept = deptRepo.findById(req.getDepartmentId())
-                .orElseThrow(() -> ApiException.notFound("department_not_found", "Department not found"));
+        DepartmentResponse dept = requireDepartment(req.getDepartmentId());
 
         e.setFullName(fullName);
         e.setEmail(email);
@@ -147,16 +216,18 @@ public class EmployeeService {
         if (req.getStatus() != null && !req.getStatus().isBlank()) {
             e.setStatus(parseStatus(req.getStatus()));
         }
-        e.setDepartment(dept);
+        e.setDepartment(deptRepo.getReferenceById(dept.getId()));
 
         Employee saved = employeeRepo.save(e);
+        events.publishEvent(EmployeeChangedEvent.of(EmployeeChangedEvent.Type.UPDATED, saved, dept.getCode()));
         log.info("Updated employee id={}", saved.getId());
         return toResponse(saved);
     }
 
     @Caching(evict = {
             @CacheEvict(cacheNames = "employeeById", key = "#id"),
-            @CacheEvict(cacheNames = "employeeSearch", allEntries = true)
+            @CacheEvict(cacheNames = "employeeSearch", allEntries = true),
+            @CacheEvict(cacheNames = EmployeeCounter.CACHE, allEntries = true)
     })
     @Transactional
     public void delete(Long id) {
@@ -164,10 +235,13 @@ public class EmployeeService {
         Employee e = employeeRepo.findById(id)
                 .orElseThrow(() -> ApiException.notFound("employee_not_found", "Employee not found"));
         employeeRepo.delete(e);
+        events.publishEvent(new EmployeeChangedEvent(EmployeeChangedEvent.Type.DELETED, id, e.getFullName(), e.getEmail(), null));
+        // the login account goes with the employee (on delete cascade)
+        events.publishEvent(new AppUserChangedEvent(e.getEmail()));
         log.warn("Deleted employee id={}", id);
     }
 
-    private EmployeeStatus parseStatus(String s) {
+    static EmployeeStatus parseStatus(String s) {
         try {
             return EmployeeStatus.valueOf(s.trim().toUpperCase());
         } catch (Exception ex) {
@@ -176,9 +250,23 @@ public class EmployeeService {
         }
     }
 
-    private EmployeeResponse toResponse(Employee e) {
-        // NOTE: department is LAZY, but in a transaction it’s fine to read its fields.
+    private DepartmentResponse requireDepartment(Long id) {
+        return departments.findCurrentById(id)
+                .orElseThrow(() -> ApiException.notFound("department_not_found", "Department not found"));
+    }
+
+    /**
+     * Department fields come from the {@link DepartmentDirectory}; reading the id of the LAZY
+     * association does not load it. Only a department the directory has not seen yet is loaded.
+     */
+    private DepartmentResponse departmentOf(Employee e) {
         Department d = e.getDepartment();
+        return departments.findById(d.getId()).orElseGet(() ->
+                new DepartmentResponse(d.getId(), d.getCode(), d.getName(), d.getCreatedAt(), d.getUpdatedAt()));
+    }
+
+    private EmployeeResponse toResponse(Employee e) {
+        DepartmentResponse d = departmentOf(e);
         return new EmployeeResponse(
                 e.getId(),
                 e.getFullName(),
@@ -194,8 +282,7 @@ public class EmployeeService {
     }
 
     private EmployeeResponse toResponse(Employee e, String password) {
-        // NOTE: department is LAZY, but in a transaction it’s fine to read its fields.
-        Department d = e.getDepartment();
+        DepartmentResponse d = departmentOf(e);
         return new EmployeeResponse(
                 e.getId(),
                 e.getFullName(),
@@ -1,5 +1,8 @@
 package com.grootan.ems.employee;
 
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Expression;
+import org.hibernate.query.criteria.HibernateCriteriaBuilder;
 import org.springframework.data.jpa.domain.Specification;
 
 public class EmployeeSpecs {
@@ -25,4 +28,57 @@ public class EmployeeSpecs {
             return cb.equal(root.get("status"), status);
         };
     }
+
+    /**
+     * Postgres-only: full-text match over name, email and role, OR'ed with substring matches
+     * that the pg_trgm GIN indexes can serve. See {@link EmployeeSearchFunctions}.
+     */
+    public static Specification<Employee> textMatches(String q) {
+        return (root, query, cb) -> {
+            if (q == null || q.trim().isEmpty()) return cb.conjunction();
+            String term = q.trim().toLowerCase();
+            String like = "%" + term + "%";
+            Expression<Boolean> fts = cb.function(EmployeeSearchFunctions.FTS_MATCH, Boolean.class,
+                    root.get("fullName"), root.get("email"), root.get("empRole"), bind(cb, term));
+            return cb.or(
+                    cb.isTrue(fts),
+                    cb.like(cb.lower(root.get("fullName")), like),
+                    cb.like(cb.lower(root.get("email")), like),
+                    cb.like(cb.lower(root.get("empRole")), like)
+            );
+        };
+    }
+
+    /** Rank order for {@code q}; without a term, the same name order as {@link #orderByFullName()}. */
+    public static Specification<Employee> orderByTextRank(String q) {
+        if (q == null || q.trim().isEmpty()) {
+            return orderByFullName();
+        }
+        return (root, query, cb) -> {
+            if (!isCountQuery(query.getResultType())) {
+                Expression<Double> rank = cb.function(EmployeeSearchFunctions.FTS_RANK, Double.class,
+                        root.get("fullName"), root.get("email"), root.get("empRole"), bind(cb, q.trim().toLowerCase()));
+                query.orderBy(cb.desc(rank), cb.asc(root.get("id")));
+            }
+            return cb.conjunction();
+        };
+    }
+
+    public static Specification<Employee> orderByFullName() {
+        return (root, query, cb) -> {
+            if (!isCountQuery(query.getResultType())) {
+                query.orderBy(cb.asc(root.get("fullName")), cb.asc(root.get("id")));
+            }
+            return cb.conjunction();
+        };
+    }
+
+    // cb.literal() would be inlined into the SQL; bind the search term as a parameter instead
+    private static Expression<String> bind(CriteriaBuilder cb, String value) {
+        return ((HibernateCriteriaBuilder) cb).value(value);
+    }
+
+    private static boolean isCountQuery(Class<?> resultType) {
+        return Long.class.equals(resultType) || long.class.equals(resultType);
+    }
 }
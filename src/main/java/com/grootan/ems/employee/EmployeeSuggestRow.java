@@ -0,0 +1,11 @@
+package com.grootan.ems.employee;
+
+/**
+ * Projection used to (re)build the suggest index without loading entities.
+ */
+public interface EmployeeSuggestRow {
+    Long getId();
+    String getFullName();
+    String getEmail();
+    String getDepartmentCode();
+}
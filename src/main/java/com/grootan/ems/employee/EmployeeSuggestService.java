@@ -0,0 +1,61 @@
+package com.grootan.ems.employee;
+
+import com.grootan.ems.employee.dto.EmployeeSuggestion;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Backs {@code GET /api/employees/suggest}: answers typeahead queries from an in-process
+ * {@link EmployeeNgramIndex} instead of Redis or the database. The index is loaded once the
+ * application is ready and kept current from {@link EmployeeChangedEvent}s after commit.
+ */
+@Service
+public class EmployeeSuggestService {
+
+    private final EmployeeRepository employeeRepo;
+    private final TransactionTemplate readOnlyTx;
+    private final EmployeeNgramIndex index = new EmployeeNgramIndex();
+    private static final Logger log = LoggerFactory.getLogger(EmployeeSuggestService.class);
+
+    public EmployeeSuggestService(EmployeeRepository employeeRepo, PlatformTransactionManager txManager) {
+        this.employeeRepo = employeeRepo;
+        this.readOnlyTx = new TransactionTemplate(txManager);
+        this.readOnlyTx.setReadOnly(true);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long start = System.nanoTime();
+        readOnlyTx.executeWithoutResult(status -> {
+            try (Stream<EmployeeSuggestRow> rows = employeeRepo.streamSuggestRows()) {
+                rows.forEach(r -> index.upsert(r.getId(), r.getFullName(), r.getEmail(), r.getDepartmentCode()));
+            }
+        });
+        log.info("Built employee suggest index with {} entries in {} ms", index.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEmployeeChanged(EmployeeChangedEvent event) {
+        log.debug("Applying {} for employee id={} to suggest index", event.getType(), event.getId());
+        if (event.getType() == EmployeeChangedEvent.Type.DELETED) {
+            index.remove(event.getId());
+        } else {
+            index.upsert(event.getId(), event.getFullName(), event.getEmail(), event.getDepartmentCode());
+        }
+    }
+
+    public List<EmployeeSuggestion> suggest(String q, int limit) {
+        List<EmployeeSuggestion> results = index.suggest(q, limit);
+        log.debug("Suggest q={} returned {} results", q, results.size());
+        return results;
+    }
+}
@@ -0,0 +1,26 @@
+package com.grootan.ems.employee;
+
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * Free-text matching for the {@code q} filter. Selected with {@code app.search.backend}:
+ * {@code like} (default, works everywhere incl. H2) or {@code postgres} (pg_trgm + tsvector).
+ */
+public interface EmployeeTextSearch {
+
+    /**
+     * @param ranked when true the specification also orders rows by relevance; only honoured
+     *               when the caller does not apply its own sort
+     */
+    Specification<Employee> matches(String q, boolean ranked);
+
+    /**
+     * The same match as an SQL condition over {@code employees e}, for the R2DBC reads
+     * ({@link ReactiveEmployeeQueries}). Binds the trimmed, lower-cased term as {@code :q} and
+     * {@code %term%} as {@code :like}.
+     */
+    String sqlMatches();
+
+    /** ORDER BY expression for relevance (descending) over {@code employees e}, or {@code null} without a score. */
+    String sqlRank();
+}
@@ -0,0 +1,27 @@
+package com.grootan.ems.employee;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConditionalOnProperty(name = "app.search.backend", havingValue = "like", matchIfMissing = true)
+public class LikeEmployeeTextSearch implements EmployeeTextSearch {
+
+    @Override
+    public Specification<Employee> matches(String q, boolean ranked) {
+        Specification<Employee> spec = EmployeeSpecs.nameContains(q);
+        // No relevance score for a plain LIKE; fall back to the natural name order
+        return ranked ? spec.and(EmployeeSpecs.orderByFullName()) : spec;
+    }
+
+    @Override
+    public String sqlMatches() {
+        return "lower(e.full_name) like :like";
+    }
+
+    @Override
+    public String sqlRank() {
+        return null;
+    }
+}
@@ -0,0 +1,35 @@
+package com.grootan.ems.employee;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Component;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+@Component
+@ConditionalOnProperty(name = "app.search.backend", havingValue = "postgres")
+public class PostgresEmployeeTextSearch implements EmployeeTextSearch {
+
+    private static final Logger log = LoggerFactory.getLogger(PostgresEmployeeTextSearch.class);
+
+    public PostgresEmployeeTextSearch() {
+        log.info("Using Postgres trigram/full-text employee search backend");
+    }
+
+    @Override
+    public Specification<Employee> matches(String q, boolean ranked) {
+        Specification<Employee> spec = EmployeeSpecs.textMatches(q);
+        return ranked ? spec.and(EmployeeSpecs.orderByTextRank(q)) : spec;
+    }
+
+    @Override
+    public String sqlMatches() {
+        return "(" + EmployeeSearchFunctions.matchSql()
+                + " or lower(e.full_name) like :like or lower(e.email) like :like or lower(e.emp_role) like :like)";
+    }
+
+    @Override
+    public String sqlRank() {
+        return EmployeeSearchFunctions.rankSql();
+    }
+}
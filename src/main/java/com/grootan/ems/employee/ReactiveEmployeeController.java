@@ -0,0 +1,71 @@
+package com.grootan.ems.employee;
+
+import com.grootan.ems.employee.dto.EmployeePage;
+import com.grootan.ems.employee.dto.EmployeeResponse;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.web.PageableDefault;
+import org.springframework.data.web.SortDefault;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Reactive read endpoints next to {@link EmployeeController}; writes stay there. The request
+ * thread is released while the cache and R2DBC calls are in flight (async servlet), and no JDBC
+ * connection is held.
+ */
+@RestController
+@RequestMapping("/api/reactive/employees")
+public class ReactiveEmployeeController {
+
+    private final ReactiveEmployeeService service;
+    private static final Logger log = LoggerFactory.getLogger(ReactiveEmployeeController.class);
+
+    public ReactiveEmployeeController(ReactiveEmployeeService service) {
+        this.service = service;
+    }
+
+    @GetMapping("/{id}")
+    public Mono<EmployeeResponse> get(@PathVariable Long id) {
+        log.debug("Reactive fetch employee request id={}", id);
+        return service.getById(id);
+    }
+
+    /**
+     * Same parameters and response as {@code GET /api/employees}:
+     *   /api/reactive/employees?q=ali&departmentId=1&status=ACTIVE&page=0&size=10&sort=fullName,asc
+     */
+    @GetMapping
+    public Mono<EmployeePage> search(
+            @RequestParam(required = false) String q,
+            @RequestParam(required = false) Long departmentId,
+            @RequestParam(required = false) String status,
+            @PageableDefault(
+                    size = 10,
+                    sort = "fullName",
+                    direction = Sort.Direction.ASC
+            ) Pageable pageable
+    ) {
+        log.debug("Reactive search employees q={} departmentId={} status={} page={} size={}", q, departmentId, status, pageable.getPageNumber(), pageable.getPageSize());
+        return service.search(q, departmentId, status, pageable);
+    }
+
+    /**
+     * Every match as newline-delimited JSON, written as the client reads it:
+     *   /api/reactive/employees/stream?departmentId=1&status=ACTIVE&sort=hireDate,desc
+     */
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<EmployeeResponse> stream(
+            @RequestParam(required = false) String q,
+            @RequestParam(required = false) Long departmentId,
+            @RequestParam(required = false) String status,
+            @SortDefault(sort = "fullName", direction = Sort.Direction.ASC) Sort sort
+    ) {
+        log.debug("Reactive stream employees q={} departmentId={} status={}", q, departmentId, status);
+        return service.stream(q, departmentId, status, sort);
+    }
+}
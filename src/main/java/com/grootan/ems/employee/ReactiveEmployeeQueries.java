@@ -0,0 +1,193 @@
+package com.grootan.ems.employee;
+
+import com.grootan.ems.common.ApiException;
+import com.grootan.ems.employee.dto.EmployeeResponse;
+import io.r2dbc.spi.Readable;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Employee reads over R2DBC ({@code DatabaseClient}), for {@link ReactiveEmployeeService}. The
+ * filters mean what {@link EmployeeSpecs} means on the JPA side: {@code q} through the configured
+ * {@link EmployeeTextSearch}, department and status by equality, every condition skipped when
+ * its value is absent. Department fields come from a join rather than the directory, so a row
+ * never needs a second, blocking lookup.
+ */
+@Component
+public class ReactiveEmployeeQueries {
+
+    private static final String COLUMNS = "e.id, e.full_name, e.email, e.hire_date, e.status, e.created_at, e.updated_at, "
+            + "d.id as department_id, d.code as department_code, d.name as department_name";
+    private static final String FROM = " from employees e join departments d on d.id = e.department_id";
+
+    // sortable properties of Employee, as in the JPA queries
+    private static final Map<String, String> SORT_COLUMNS = Map.of(
+            "id", "e.id",
+            "fullName", "e.full_name",
+            "email", "e.email",
+            "empRole", "e.emp_role",
+            "hireDate", "e.hire_date",
+            "status", "e.status",
+            "createdAt", "e.created_at",
+            "updatedAt", "e.updated_at");
+
+    private final DatabaseClient db;
+    private final EmployeeTextSearch textSearch;
+    private final int streamFetchSize;
+
+    public ReactiveEmployeeQueries(DatabaseClient db, EmployeeTextSearch textSearch,
+                                   @Value("${app.reactive.stream-fetch-size:250}") int streamFetchSize) {
+        this.db = db;
+        this.textSearch = textSearch;
+        this.streamFetchSize = streamFetchSize;
+    }
+
+    public Mono<EmployeeResponse> findById(long id) {
+        return db.sql("select " + COLUMNS + FROM + " where e.id = :id")
+                .bind("id", id)
+                .map(ReactiveEmployeeQueries::toResponse)
+                .one();
+    }
+
+    /**
+     * One page of matches. {@code ranked} orders by relevance where the search backend has a
+     * score, by name otherwise, and ignores {@code sort}.
+     */
+    public Flux<EmployeeResponse> find(Filter filter, Sort sort, boolean ranked, long offset, int limit) {
+        return select(filter, sort, ranked, " limit :limit offset :offset")
+                .bind("limit", limit)
+                .bind("offset", offset)
+                .map(ReactiveEmployeeQueries::toResponse)
+                .all();
+    }
+
+    /**
+     * Every match, fetched {@code app.reactive.stream-fetch-size} rows at a time as the subscriber
+     * asks for them, so a slow consumer holds back the database cursor instead of filling memory.
+     */
+    public Flux<EmployeeResponse> stream(Filter filter, Sort sort) {
+        return select(filter, sort, false, "")
+                .filter(statement -> statement.fetchSize(streamFetchSize))
+                .map(ReactiveEmployeeQueries::toResponse)
+                .all();
+    }
+
+    public Mono<Long> count(Filter filter) {
+        return sql("select count(*) from employees e" + filter.where, filter)
+                .map(row -> row.get(0, Long.class))
+                .one();
+    }
+
+    private DatabaseClient.GenericExecuteSpec select(Filter filter, Sort sort, boolean ranked, String page) {
+        String rank = ranked && filter.hasText() ? textSearch.sqlRank() : null;
+        String orderBy = rank != null ? rank + " desc, e.id"
+                : ranked ? "e.full_name, e.id"
+                : orderBy(sort);
+        return sql("select " + COLUMNS + FROM + filter.where + " order by " + orderBy + page, filter);
+    }
+
+    // only the parameters the statement uses: a text match may not need both forms of the term
+    private DatabaseClient.GenericExecuteSpec sql(String sql, Filter filter) {
+        DatabaseClient.GenericExecuteSpec spec = db.sql(sql);
+        for (Map.Entry<String, Object> param : filter.params.entrySet()) {
+            if (sql.contains(":" + param.getKey())) {
+                spec = spec.bind(param.getKey(), param.getValue());
+            }
+        }
+        return spec;
+    }
+
+    private static String orderBy(Sort sort) {
+        List<String> terms = new ArrayList<>();
+        for (Sort.Order order : sort) {
+            String column = SORT_COLUMNS.get(order.getProperty());
+            if (column == null) {
+                throw ApiException.badRequest("invalid_sort", "Employees cannot be sorted by " + order.getProperty());
+            }
+            terms.add(column + (order.isAscending() ? " asc" : " desc"));
+        }
+        terms.add("e.id"); // ties in a stable order, so pages neither repeat nor skip rows
+        return String.join(", ", terms);
+    }
+
+    /** The where clause for these filters; an absent (or blank) value adds no condition. */
+    public Filter filter(String q, Long departmentId, EmployeeStatus status) {
+        List<String> conditions = new ArrayList<>();
+        Map<String, Object> params = new LinkedHashMap<>();
+        String term = q == null ? "" : q.trim().toLowerCase();
+        if (!term.isEmpty()) {
+            conditions.add(textSearch.sqlMatches());
+            params.put("q", term);
+            params.put("like", "%" + term + "%");
+        }
+        if (departmentId != null) {
+            conditions.add("e.department_id = :departmentId");
+            params.put("departmentId", departmentId);
+        }
+        if (status != null) {
+            // typed, so it also compares with the enum column Hibernate generates for H2 in tests
+            conditions.add("e.status = cast(:status as varchar(20))");
+            params.put("status", status.name());
+        }
+        String where = conditions.isEmpty() ? "" : " where " + String.join(" and ", conditions);
+        return new Filter(where, params);
+    }
+
+    private static EmployeeResponse toResponse(Readable row) {
+        return new EmployeeResponse(
+                row.get("id", Long.class),
+                row.get("full_name", String.class),
+                row.get("email", String.class),
+                row.get("hire_date", LocalDate.class),
+                row.get("status", String.class),
+                row.get("department_id", Long.class),
+                row.get("department_code", String.class),
+                row.get("department_name", String.class),
+                timestamp(row.get("created_at")),
+                timestamp(row.get("updated_at"))
+        );
+    }
+
+    // timestamp columns hold UTC (hibernate.jdbc.time_zone); drivers hand them back as local or zoned values
+    private static OffsetDateTime timestamp(Object value) {
+        if (value instanceof OffsetDateTime odt) {
+            return odt;
+        }
+        if (value instanceof ZonedDateTime zdt) {
+            return zdt.toOffsetDateTime();
+        }
+        if (value instanceof LocalDateTime ldt) {
+            return ldt.atOffset(ZoneOffset.UTC);
+        }
+        return null;
+    }
+
+    /** Where clause (empty, or starting with {@code " where"}) and its named parameters. */
+    public static final class Filter {
+        private final String where;
+        private final Map<String, Object> params;
+
+        private Filter(String where, Map<String, Object> params) {
+            this.where = where;
+            this.params = Map.copyOf(params);
+        }
+
+        boolean hasText() {
+            return params.containsKey("q");
+        }
+    }
+}
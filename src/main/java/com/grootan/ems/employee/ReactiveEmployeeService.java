@@ -0,0 +1,76 @@
+package com.grootan.ems.employee;
+
+import com.grootan.ems.common.ApiException;
+import com.grootan.ems.employee.dto.EmployeePage;
+import com.grootan.ems.employee.dto.EmployeeResponse;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking counterparts of the {@link EmployeeService} reads, over R2DBC. They share its
+ * caches and keys ({@code employeeById}, {@code employeeSearch}), so an entry loaded on either
+ * side serves both, and the writes in {@link EmployeeService} evict them as before. On a miss
+ * the cache is checked and filled asynchronously ({@code TwoLevelCache#retrieve}).
+ */
+@Service
+public class ReactiveEmployeeService {
+
+    private static final String RELEVANCE = "relevance";
+
+    private final ReactiveEmployeeQueries queries;
+    private static final Logger log = LoggerFactory.getLogger(ReactiveEmployeeService.class);
+
+    public ReactiveEmployeeService(ReactiveEmployeeQueries queries) {
+        this.queries = queries;
+    }
+
+    @Cacheable(cacheNames = "employeeById", key = "#id", sync = true)
+    public Mono<EmployeeResponse> getById(Long id) {
+        log.debug("Fetching employee id={} (reactive)", id);
+        return queries.findById(id)
+                .switchIfEmpty(Mono.error(() -> ApiException.notFound("employee_not_found", "Employee not found")));
+    }
+
+    /**
+     * {@link EmployeeService#search} with an exact total, counted alongside the page query.
+     */
+    @Cacheable(
+            cacheNames = "employeeSearch",
+            key = "T(com.grootan.ems.employee.EmployeeService).searchKey(#q, #departmentId, #status, #pageable)",
+            sync = true
+    )
+    public Mono<EmployeePage> search(String q, Long departmentId, String status, Pageable pageable) {
+        return Mono.defer(() -> {
+            log.debug("Searching employees with q={} departmentId={} status={} (reactive)", q, departmentId, status);
+            ReactiveEmployeeQueries.Filter filter = queries.filter(q, departmentId, parseStatus(status));
+
+            // as in EmployeeService: sort=relevance leaves the order to the search backend
+            boolean ranked = pageable.getSort().getOrderFor(RELEVANCE) != null;
+            Pageable page = ranked ? PageRequest.of(pageable.getPageNumber(), pageable.getPageSize()) : pageable;
+
+            return Mono.zip(
+                    queries.find(filter, page.getSort(), ranked, page.getOffset(), page.getPageSize()).collectList(),
+                    queries.count(filter)
+            ).map(result -> new EmployeePage(result.getT1(), page, result.getT2(), EmployeePage.TotalAccuracy.EXACT));
+        });
+    }
+
+    /** Every match in {@code sort} order, as the subscriber requests it. Not cached. */
+    public Flux<EmployeeResponse> stream(String q, Long departmentId, String status, Sort sort) {
+        return Flux.defer(() -> {
+            log.debug("Streaming employees with q={} departmentId={} status={}", q, departmentId, status);
+            return queries.stream(queries.filter(q, departmentId, parseStatus(status)), sort);
+        });
+    }
+
+    private static EmployeeStatus parseStatus(String status) {
+        return status == null || status.isBlank() ? null : EmployeeService.parseStatus(status);
+    }
+}
@@ -0,0 +1,21 @@
+package com.grootan.ems.employee.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/** Temporary password of an imported employee; like the single create, it is returned only once. */
+@Getter
+@Setter
+public class EmployeeImportCredential {
+    private long line;
+    private Long id;
+    private String email;
+    private String temporaryPassword;
+
+    public EmployeeImportCredential(long line, Long id, String email, String temporaryPassword) {
+        this.line = line;
+        this.id = id;
+        this.email = email;
+        this.temporaryPassword = temporaryPassword;
+    }
+}
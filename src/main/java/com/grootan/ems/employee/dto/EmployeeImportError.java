@@ -0,0 +1,20 @@
+package com.grootan.ems.employee.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+public class EmployeeImportError {
+    private long line;
+    private String email;
+    private String code;
+    private String message;
+
+    public EmployeeImportError(long line, String email, String code, String message) {
+        this.line = line;
+        this.email = email;
+        this.code = code;
+        this.message = message;
+    }
+}
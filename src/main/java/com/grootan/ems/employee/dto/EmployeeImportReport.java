@@ -0,0 +1,30 @@
+package com.grootan.ems.employee.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+public class EmployeeImportReport {
+    private long received;
+    private long imported;
+    private long failed;
+    private long elapsedMs;
+    private double rowsPerSecond;
+    private List<EmployeeImportError> errors;
+    private boolean errorsTruncated; // more than app.import.max-errors rows failed
+    // the credentials are streamed ahead of these fields, see EmployeeImportService
+
+    public EmployeeImportReport(long received, long imported, long failed, long elapsedMs, double rowsPerSecond,
+                                List<EmployeeImportError> errors, boolean errorsTruncated) {
+        this.received = received;
+        this.imported = imported;
+        this.failed = failed;
+        this.elapsedMs = elapsedMs;
+        this.rowsPerSecond = rowsPerSecond;
+        this.errors = errors;
+        this.errorsTruncated = errorsTruncated;
+    }
+}
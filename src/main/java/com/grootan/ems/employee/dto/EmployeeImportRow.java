@@ -0,0 +1,22 @@
+package com.grootan.ems.employee.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDate;
+
+/**
+ * One row of {@code POST /api/employees/import}: a CSV record or an NDJSON object. The department
+ * is given by {@code departmentId} or {@code departmentCode}.
+ */
+@Getter
+@Setter
+public class EmployeeImportRow {
+    private String fullName;
+    private String email;
+    private String empRole;
+    private LocalDate hireDate;
+    private Long departmentId;
+    private String departmentCode;
+    private String status; // optional, "ACTIVE" or "INACTIVE"
+}
@@ -0,0 +1,34 @@
+package com.grootan.ems.employee.dto;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+
+/**
+ * Page of employees that also says how {@code totalElements} was obtained.
+ */
+public class EmployeePage extends PageImpl<EmployeeResponse> {
+
+    public enum TotalAccuracy {
+        EXACT,      // counted for this request
+        CACHED,     // exact count cached since the last employee write
+        ESTIMATED   // planner row estimate
+    }
+
+    private final TotalAccuracy totalAccuracy;
+
+    public EmployeePage(List<EmployeeResponse> content, Pageable pageable, long total, TotalAccuracy totalAccuracy) {
+        super(content, pageable, total);
+        this.totalAccuracy = totalAccuracy;
+    }
+
+    public static EmployeePage exact(Page<EmployeeResponse> page) {
+        return new EmployeePage(page.getContent(), page.getPageable(), page.getTotalElements(), TotalAccuracy.EXACT);
+    }
+
+    public TotalAccuracy getTotalAccuracy() {
+        return totalAccuracy;
+    }
+}
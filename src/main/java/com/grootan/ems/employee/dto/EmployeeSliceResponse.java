@@ -0,0 +1,23 @@
+package com.grootan.ems.employee.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+public class EmployeeSliceResponse {
+
+    private List<EmployeeResponse> content;
+    private int size;
+    private boolean hasNext;
+    private String nextCursor; // pass back as "after" to fetch the following slice
+
+    public EmployeeSliceResponse(List<EmployeeResponse> content, int size, boolean hasNext, String nextCursor) {
+        this.content = content;
+        this.size = size;
+        this.hasNext = hasNext;
+        this.nextCursor = nextCursor;
+    }
+}
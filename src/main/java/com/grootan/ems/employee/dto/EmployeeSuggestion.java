@@ -0,0 +1,18 @@
+package com.grootan.ems.employee.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+public class EmployeeSuggestion {
+    private Long id;
+    private String fullName;
+    private String departmentCode;
+
+    public EmployeeSuggestion(Long id, String fullName, String departmentCode) {
+        this.id = id;
+        this.fullName = fullName;
+        this.departmentCode = departmentCode;
+    }
+}
@@ -13,8 +13,11 @@ import java.time.OffsetDateTime;
 @Getter
 public class AppUser {
 
+    // pooled ids from the bigserial's sequence (incremented by 50 in schema.sql): IDENTITY would
+    // force one round trip per insert and disable JDBC batching
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "app_user_seq")
+    @SequenceGenerator(name = "app_user_seq", sequenceName = "app_users_id_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false, unique = true, length = 180)
@@ -0,0 +1,16 @@
+package com.grootan.ems.user;
+
+/**
+ * Published inside the writing transaction whenever an account is deleted, disabled or changes
+ * role, so authenticated requests stop trusting tokens issued before the change.
+ */
+public class AppUserChangedEvent {
+
+    private final String email;
+
+    public AppUserChangedEvent(String email) {
+        this.email = email;
+    }
+
+    public String getEmail() { return email; }
+}
@@ -1,10 +1,30 @@
 package com.grootan.ems.user;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 
+import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface AppUserRepository extends JpaRepository<AppUser, Long> {
     Optional<AppUser> findByEmail(String email);
     boolean existsByEmail(String email);
+
+    @Query("select new com.grootan.ems.user.UserState(u.id, u.enabled, u.role) from AppUser u where u.email = :email")
+    Optional<UserState> findStateByEmail(String email);
+
+    @Query("select u.email from AppUser u where u.email in :emails")
+    List<String> findExistingEmails(Collection<String> emails);
+
+    /** Sets the hash of an account created by {@link CredentialProvisioner} and enables it. */
+    @Modifying
+    @Query("update AppUser u set u.passwordHash = :hash, u.enabled = true, u.updatedAt = :now where u.id = :id")
+    int activate(Long id, String hash, OffsetDateTime now);
+
+    @Modifying
+    @Query("update AppUser u set u.passwordHash = :hash, u.updatedAt = :now where u.email = :email")
+    int updatePasswordHash(String email, String hash, OffsetDateTime now);
 }
@@ -0,0 +1,253 @@
+package com.grootan.ems.user;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Creates login accounts without hashing on the request path. BCrypt costs tens of milliseconds
+ * of CPU per password; done inside the create transaction it also holds a connection that long.
+ * <p>
+ * {@link #createAccounts} saves the users disabled, with a {@link PendingCredential} each, in the
+ * caller's transaction. After commit the credentials go to a fixed pool of hashing threads with a
+ * bounded queue ({@code app.credentials.hash-threads}, {@code queue-capacity}); each hash is
+ * written and the account enabled in a short transaction of its own. The pending rows hold the
+ * password encrypted ({@link PendingPasswordCipher}); it is decrypted only to hash it. Credentials the queue had no
+ * room for, or that a stopped node never finished, are resubmitted by {@link #sweep()} once they
+ * are older than {@code app.credentials.sweep-after}.
+ * <p>
+ * Each pending row is claimed by one node ({@code claimed_by}, {@code claimed_at}): the creating
+ * node on insert, otherwise the sweep that wins the claim update. Every sweep renews this node's
+ * claims, so other nodes only take over rows whose claim is older than
+ * {@code app.credentials.claim-lease}, i.e. rows of a stopped node, and a burst is hashed once
+ * rather than once per node.
+ * <p>
+ * Meters: {@code credentials.hash} (hash latency), {@code credentials.activation} (commit to
+ * enabled), {@code credentials.queue} (credentials queued or hashing on this node),
+ * {@code credentials.pending} (rows in {@code pending_credentials} as of the last sweep) and
+ * {@code credentials.rejected} (queue full).
+ */
+@Service
+public class CredentialProvisioner {
+
+    /** Stored until the real hash is written; no encoder matches it and the account is disabled meanwhile. */
+    static final String PENDING_HASH = "!pending";
+    private static final int PASSWORD_LENGTH = 12;
+
+    private final AppUserRepository userRepo;
+    private final PendingCredentialRepository pendingRepo;
+    private final PasswordEncoder encoder;
+    private final PasswordGenerator passwordGenerator;
+    private final PendingPasswordCipher cipher;
+    private final TransactionTemplate tx;
+    private final ThreadPoolExecutor workers;
+    private final Duration sweepAfter;
+    private final Duration claimLease;
+    private final String node = UUID.randomUUID().toString();
+    private final int queueCapacity;
+    private final Set<Long> inFlight = ConcurrentHashMap.newKeySet();
+    private final AtomicLong pending = new AtomicLong();
+    private final Timer hashTimer;
+    private final Timer activationTimer;
+    private final Counter rejected;
+    private static final Logger log = LoggerFactory.getLogger(CredentialProvisioner.class);
+
+    public CredentialProvisioner(AppUserRepository userRepo,
+                                 PendingCredentialRepository pendingRepo,
+                                 PasswordEncoder encoder,
+                                 PasswordGenerator passwordGenerator,
+                                 PendingPasswordCipher cipher,
+                                 PlatformTransactionManager txManager,
+                                 MeterRegistry registry,
+                                 @Value("${app.credentials.hash-threads:0}") int hashThreads,
+                                 @Value("${app.credentials.queue-capacity:10000}") int queueCapacity,
+                                 @Value("${app.credentials.sweep-after:30s}") Duration sweepAfter,
+                                 @Value("${app.credentials.claim-lease:2m}") Duration claimLease) {
+        this.userRepo = userRepo;
+        this.pendingRepo = pendingRepo;
+        this.encoder = encoder;
+        this.passwordGenerator = passwordGenerator;
+        this.cipher = cipher;
+        this.tx = new TransactionTemplate(txManager);
+        this.sweepAfter = sweepAfter;
+        this.claimLease = claimLease;
+        this.queueCapacity = Math.max(1, queueCapacity);
+
+        // half the cores by default, so hashing bursts leave room for request threads
+        int threads = hashThreads > 0 ? hashThreads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        AtomicInteger n = new AtomicInteger();
+        this.workers = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(this.queueCapacity), r -> {
+                    Thread t = new Thread(r, "credential-hash-" + n.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+
+        this.hashTimer = Timer.builder("credentials.hash").description("Time to hash one temporary password")
+                .publishPercentiles(0.5, 0.99).register(registry);
+        this.activationTimer = Timer.builder("credentials.activation").description("Time from account creation to login enabled")
+                .publishPercentiles(0.5, 0.99).register(registry);
+        this.rejected = Counter.builder("credentials.rejected").description("Credentials left to the sweep because the hash queue was full")
+                .register(registry);
+        Gauge.builder("credentials.queue", workers, w -> w.getQueue().size() + w.getActiveCount())
+                .description("Credentials queued or being hashed on this node").register(registry);
+        Gauge.builder("credentials.pending", pending, AtomicLong::get)
+                .description("Accounts waiting for their hash, as of the last sweep").register(registry);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        // whatever is still queued stays in pending_credentials for the next sweep
+        workers.shutdownNow();
+    }
+
+    /**
+     * Saves {@code users} disabled, each with a generated temporary password that is hashed once
+     * the current transaction commits. Returns the passwords in the order of {@code users}.
+     */
+    public List<String> createAccounts(List<AppUser> users) {
+        for (AppUser u : users) {
+            u.setPasswordHash(PENDING_HASH);
+            u.setEnabled(false);
+        }
+        userRepo.saveAll(users);
+
+        List<String> passwords = new ArrayList<>(users.size());
+        List<PendingCredential> credentials = new ArrayList<>(users.size());
+        for (AppUser u : users) {
+            String password = passwordGenerator.generate(PASSWORD_LENGTH);
+            passwords.add(password);
+            credentials.add(new PendingCredential(u.getId(), cipher.encrypt(u.getId(), password), node));
+        }
+        pendingRepo.saveAll(credentials);
+
+        List<Task> tasks = credentials.stream().map(Task::new).toList();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    tasks.forEach(CredentialProvisioner.this::submit);
+                }
+            });
+        } else {
+            tasks.forEach(this::submit);
+        }
+        return passwords;
+    }
+
+    public String createAccount(AppUser user) {
+        return createAccounts(List.of(user)).get(0);
+    }
+
+    /** Renews this node's claims, then claims and resubmits credentials left over by a full queue or a stopped node. */
+    @Scheduled(fixedDelayString = "${app.credentials.sweep-interval:30s}",
+            initialDelayString = "${app.credentials.sweep-interval:30s}")
+    public void sweep() {
+        try {
+            pending.set(pendingRepo.count());
+            if (pending.get() == 0) {
+                return;
+            }
+            OffsetDateTime now = OffsetDateTime.now();
+            int room = workers.getQueue().remainingCapacity();
+            List<PendingCredential> claimed = tx.execute(status -> {
+                // renewed even when the queue is full, so credentials queued here are not taken over
+                pendingRepo.renewClaims(node, now);
+                if (room == 0) {
+                    return List.<PendingCredential>of();
+                }
+                List<Long> ids = pendingRepo.findClaimable(now.minus(sweepAfter), now.minus(claimLease), node,
+                        PageRequest.of(0, Math.min(room + inFlight.size(), queueCapacity)));
+                if (ids.isEmpty()) {
+                    return List.<PendingCredential>of();
+                }
+                pendingRepo.claim(ids, node, now, now.minus(claimLease));
+                return pendingRepo.findClaimed(ids, node);
+            });
+            int submitted = 0;
+            for (PendingCredential p : claimed) {
+                if (submit(new Task(p))) submitted++;
+            }
+            if (submitted > 0) {
+                log.info("Resubmitted {} pending credentials ({} pending in total)", submitted, pending.get());
+            }
+        } catch (RuntimeException ex) {
+            log.warn("Pending credential sweep failed: {}", ex.getMessage());
+        }
+    }
+
+    private boolean submit(Task task) {
+        if (!inFlight.add(task.pendingId)) {
+            return false;
+        }
+        try {
+            workers.execute(() -> hash(task));
+            return true;
+        } catch (RejectedExecutionException ex) {
+            inFlight.remove(task.pendingId);
+            rejected.increment();
+            log.debug("Hash queue full, credential of user id={} left to the sweep", task.userId);
+            return false;
+        }
+    }
+
+    private void hash(Task task) {
+        try {
+            long start = System.nanoTime();
+            String hash = encoder.encode(cipher.decrypt(task.userId, task.encryptedPassword));
+            hashTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+
+            tx.executeWithoutResult(status -> {
+                userRepo.activate(task.userId, hash, OffsetDateTime.now());
+                pendingRepo.deleteById(task.pendingId);
+            });
+            activationTimer.record(Duration.between(task.createdAt, OffsetDateTime.now()));
+            log.debug("Activated user id={}", task.userId);
+        } catch (RuntimeException ex) {
+            log.warn("Activating user id={} failed, left to the sweep: {}", task.userId, ex.getMessage());
+        } finally {
+            inFlight.remove(task.pendingId);
+        }
+    }
+
+    private static final class Task {
+        final Long pendingId;
+        final Long userId;
+        final String encryptedPassword;
+        final OffsetDateTime createdAt;
+
+        Task(PendingCredential p) {
+            this.pendingId = p.getId();
+            this.userId = p.getUserId();
+            this.encryptedPassword = p.getEncryptedPassword();
+            this.createdAt = p.getCreatedAt() == null ? OffsetDateTime.now() : p.getCreatedAt();
+        }
+    }
+}
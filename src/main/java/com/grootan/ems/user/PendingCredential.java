@@ -0,0 +1,58 @@
+package com.grootan.ems.user;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.OffsetDateTime;
+
+/**
+ * A user account waiting for its password hash. Holds the generated temporary password (already
+ * handed out in the create response), encrypted by {@link PendingPasswordCipher}, only until
+ * {@link CredentialProvisioner} has hashed it; the row is deleted in the transaction that
+ * activates the account.
+ */
+@Entity
+@Table(name = "pending_credentials")
+@Getter
+@Setter
+public class PendingCredential {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "pending_credential_seq")
+    @SequenceGenerator(name = "pending_credential_seq", sequenceName = "pending_credentials_id_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false, unique = true)
+    private Long userId;
+
+    @Column(name = "encrypted_password", nullable = false, length = 200)
+    private String encryptedPassword;
+
+    @Column(name = "created_at", nullable = false)
+    private OffsetDateTime createdAt;
+
+    /** Node hashing this credential; others leave it alone until {@code claimedAt} is older than the lease. */
+    @Column(name = "claimed_by", length = 36)
+    private String claimedBy;
+
+    @Column(name = "claimed_at")
+    private OffsetDateTime claimedAt;
+
+    protected PendingCredential() {
+    }
+
+    public PendingCredential(Long userId, String encryptedPassword, String claimedBy) {
+        this.userId = userId;
+        this.encryptedPassword = encryptedPassword;
+        this.claimedBy = claimedBy;
+    }
+
+    @PrePersist
+    void prePersist() {
+        createdAt = OffsetDateTime.now();
+        if (claimedBy != null) {
+            claimedAt = createdAt;
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.grootan.ems.user;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface PendingCredentialRepository extends JpaRepository<PendingCredential, Long> {
+
+    /** Rows created before {@code before} that are unclaimed, whose claim lapsed, or that {@code node} holds. */
+    @Query("""
+            select p.id from PendingCredential p
+            where p.createdAt < :before
+              and (p.claimedAt is null or p.claimedAt < :leaseStart or p.claimedBy = :node)
+            order by p.id""")
+    List<Long> findClaimable(OffsetDateTime before, OffsetDateTime leaseStart, String node, Pageable pageable);
+
+    /**
+     * Claims those of {@code ids} that are still claimable. Concurrent claims of a row serialize on
+     * its lock and the later one no longer matches, so each row ends up claimed by one node.
+     */
+    @Modifying
+    @Query("""
+            update PendingCredential p set p.claimedBy = :node, p.claimedAt = :now
+            where p.id in :ids
+              and (p.claimedAt is null or p.claimedAt < :leaseStart or p.claimedBy = :node)""")
+    int claim(Collection<Long> ids, String node, OffsetDateTime now, OffsetDateTime leaseStart);
+
+    @Query("select p from PendingCredential p where p.id in :ids and p.claimedBy = :node order by p.id")
+    List<PendingCredential> findClaimed(Collection<Long> ids, String node);
+
+    /** Extends the lease of everything {@code node} holds, including credentials still queued there. */
+    @Modifying
+    @Query("update PendingCredential p set p.claimedAt = :now where p.claimedBy = :node")
+    int renewClaims(String node, OffsetDateTime now);
+}
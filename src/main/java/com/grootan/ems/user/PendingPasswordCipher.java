@@ -0,0 +1,71 @@
+package com.grootan.ems.user;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.Base64;
+
+/**
+ * AES-GCM for the temporary passwords in {@code pending_credentials}, so the table (and its WAL,
+ * backups and replicas) never holds a usable login secret. The key is the SHA-256 of
+ * {@code app.credentials.key}; the user id is bound as associated data, so a value copied to
+ * another row does not decrypt. Stored as base64 of IV followed by ciphertext and tag.
+ */
+@Component
+public class PendingPasswordCipher {
+
+    private static final String TRANSFORMATION = "AES/GCM/NoPadding";
+    private static final int IV_BYTES = 12;
+    private static final int TAG_BITS = 128;
+
+    private final SecretKeySpec key;
+    private final SecureRandom random = new SecureRandom();
+
+    public PendingPasswordCipher(@Value("${app.credentials.key}") String secret) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(secret.getBytes(StandardCharsets.UTF_8));
+            this.key = new SecretKeySpec(digest, "AES");
+        } catch (GeneralSecurityException ex) {
+            throw new IllegalStateException("SHA-256 not available", ex);
+        }
+    }
+
+    public String encrypt(long userId, String password) {
+        byte[] iv = new byte[IV_BYTES];
+        random.nextBytes(iv);
+        try {
+            Cipher cipher = cipher(Cipher.ENCRYPT_MODE, iv, userId);
+            byte[] sealed = cipher.doFinal(password.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(ByteBuffer.allocate(IV_BYTES + sealed.length).put(iv).put(sealed).array());
+        } catch (GeneralSecurityException ex) {
+            throw new IllegalStateException("Encrypting the temporary password failed", ex);
+        }
+    }
+
+    public String decrypt(long userId, String encrypted) {
+        byte[] bytes = Base64.getDecoder().decode(encrypted);
+        try {
+            Cipher cipher = cipher(Cipher.DECRYPT_MODE, Arrays.copyOf(bytes, IV_BYTES), userId);
+            return new String(cipher.doFinal(bytes, IV_BYTES, bytes.length - IV_BYTES), StandardCharsets.UTF_8);
+        } catch (GeneralSecurityException ex) {
+            // wrong key (app.credentials.key changed) or the value was moved or altered
+            throw new IllegalStateException("Temporary password of user id=" + userId + " does not decrypt", ex);
+        }
+    }
+
+    private Cipher cipher(int mode, byte[] iv, long userId) throws GeneralSecurityException {
+        Cipher cipher = Cipher.getInstance(TRANSFORMATION);
+        cipher.init(mode, key, new GCMParameterSpec(TAG_BITS, iv));
+        cipher.updateAAD(ByteBuffer.allocate(Long.BYTES).putLong(userId).array());
+        return cipher;
+    }
+}
@@ -0,0 +1,22 @@
+package com.grootan.ems.user;
+
+/**
+ * What a request needs to know about an account once its token is verified: which user it is,
+ * whether it may still log in, and its current role.
+ */
+public class UserState {
+
+    private final Long id;
+    private final boolean enabled;
+    private final Role role;
+
+    public UserState(Long id, boolean enabled, Role role) {
+        this.id = id;
+        this.enabled = enabled;
+        this.role = role;
+    }
+
+    public Long getId() { return id; }
+    public boolean isEnabled() { return enabled; }
+    public Role getRole() { return role; }
+}
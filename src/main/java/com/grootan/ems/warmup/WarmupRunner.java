@@ -0,0 +1,205 @@
+package com.grootan.ems.warmup;
+
+import com.grootan.ems.auth.JwtService;
+import com.grootan.ems.department.DepartmentService;
+import com.grootan.ems.department.dto.DepartmentResponse;
+import com.grootan.ems.employee.EmployeeService;
+import com.grootan.ems.employee.dto.EmployeeResponse;
+import com.grootan.ems.user.AppUserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.env.Environment;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+
+/**
+ * Warms caches, Hibernate query plans and the JIT before the instance takes traffic.
+ * <p>
+ * Application runners finish before Spring Boot publishes {@code ReadinessState.ACCEPTING_TRAFFIC},
+ * so {@code /actuator/health/readiness} stays down until this is done. Steps:
+ * <ol>
+ *   <li>the department directory</li>
+ *   <li>the most recently updated employees by id</li>
+ *   <li>the first pages of the default search, the active filter and each department</li>
+ *   <li>a weighted request mix replayed over HTTP against this instance, so the filter chain,
+ *       JWT handling and Jackson run too</li>
+ * </ol>
+ * A failing step is logged and skipped; warm-up never keeps the instance from becoming ready.
+ */
+@Component
+@ConditionalOnProperty(name = "app.warmup.enabled", havingValue = "true", matchIfMissing = true)
+public class WarmupRunner implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(WarmupRunner.class);
+    private static final int PAGE_SIZE = 10; // controller default
+
+    private final DepartmentService departmentService;
+    private final EmployeeService employeeService;
+    private final AppUserRepository userRepo;
+    private final JwtService jwtService;
+    private final Environment environment;
+    private final int topEmployees;
+    private final int searchPages;
+    private final List<WeightedRequest> requestMix;
+    private final int rounds;
+    private final String userEmail;
+    private final Duration maxDuration;
+
+    private final List<Long> warmedEmployeeIds = new ArrayList<>();
+    private List<DepartmentResponse> departments = List.of();
+
+    public WarmupRunner(DepartmentService departmentService,
+                        EmployeeService employeeService,
+                        AppUserRepository userRepo,
+                        JwtService jwtService,
+                        Environment environment,
+                        @Value("${app.warmup.top-employees:200}") int topEmployees,
+                        @Value("${app.warmup.search-pages:3}") int searchPages,
+                        @Value("${app.warmup.requests:}") String requestMix,
+                        @Value("${app.warmup.rounds:50}") int rounds,
+                        @Value("${app.warmup.user-email:admin@grootan.com}") String userEmail,
+                        @Value("${app.warmup.max-duration:60s}") Duration maxDuration) {
+        this.departmentService = departmentService;
+        this.employeeService = employeeService;
+        this.userRepo = userRepo;
+        this.jwtService = jwtService;
+        this.environment = environment;
+        this.topEmployees = topEmployees;
+        this.searchPages = searchPages;
+        this.requestMix = WeightedRequest.parseMix(requestMix);
+        this.rounds = rounds;
+        this.userEmail = userEmail;
+        this.maxDuration = maxDuration;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        log.info("Warm-up started; readiness stays REFUSING_TRAFFIC until it finishes");
+        long deadline = System.nanoTime() + maxDuration.toNanos();
+        Map<String, String> report = new LinkedHashMap<>();
+        long start = System.nanoTime();
+
+        step(report, "departments", this::warmDepartments);
+        step(report, "employees", this::warmEmployees);
+        step(report, "searches", this::warmSearches);
+        step(report, "requests", () -> replayRequests(deadline));
+
+        StringJoiner summary = new StringJoiner(", ");
+        report.forEach((name, result) -> summary.add(name + "=" + result));
+        log.info("Warm-up finished in {} ms: {}", millisSince(start), summary);
+    }
+
+    private void step(Map<String, String> report, String name, Step step) {
+        long start = System.nanoTime();
+        try {
+            String detail = step.run();
+            long ms = millisSince(start);
+            log.info("Warm-up step {} took {} ms ({})", name, ms, detail);
+            report.put(name, ms + " ms");
+        } catch (RuntimeException ex) {
+            log.warn("Warm-up step {} failed after {} ms: {}", name, millisSince(start), ex.getMessage());
+            report.put(name, "failed");
+        }
+    }
+
+    private String warmDepartments() {
+        departments = departmentService.list(); // loads the directory
+        return departments.size() + " departments";
+    }
+
+    private String warmEmployees() {
+        List<EmployeeResponse> recent = employeeService.search(null, null, null,
+                PageRequest.of(0, Math.max(1, topEmployees), Sort.by(Sort.Direction.DESC, "updatedAt"))).getContent();
+        for (EmployeeResponse e : recent) {
+            employeeService.getById(e.getId());
+            warmedEmployeeIds.add(e.getId());
+        }
+        return recent.size() + " employees";
+    }
+
+    private String warmSearches() {
+        Sort byName = Sort.by("fullName");
+        int pages = 0;
+        for (int p = 0; p < searchPages; p++) {
+            employeeService.search(null, null, null, PageRequest.of(p, PAGE_SIZE, byName));
+            pages++;
+        }
+        employeeService.search(null, null, "ACTIVE", PageRequest.of(0, PAGE_SIZE, byName));
+        pages++;
+        for (DepartmentResponse d : departments) {
+            employeeService.search(null, d.getId(), null, PageRequest.of(0, PAGE_SIZE, byName));
+            pages++;
+        }
+        return pages + " pages";
+    }
+
+    private String replayRequests(long deadline) {
+        Integer port = environment.getProperty("local.server.port", Integer.class);
+        if (requestMix.isEmpty() || rounds <= 0 || port == null) {
+            return "skipped";
+        }
+        var user = userRepo.findByEmail(userEmail).orElse(null);
+        if (user == null) {
+            return "skipped, no user " + userEmail;
+        }
+        String bearer = "Bearer " + jwtService.generateToken(user.getId(), user.getEmail(), user.getRole());
+        RestClient client = RestClient.builder()
+                .baseUrl("http://localhost:" + port)
+                .defaultHeader(HttpHeaders.AUTHORIZATION, bearer)
+                .build();
+
+        int sent = 0;
+        int failed = 0;
+        int nextId = 0;
+        replay:
+        for (int round = 0; round < rounds; round++) {
+            for (WeightedRequest request : requestMix) {
+                for (int i = 0; i < request.getWeight(); i++) {
+                    if (System.nanoTime() > deadline) {
+                        log.warn("Warm-up hit app.warmup.max-duration={} after {} requests", maxDuration, sent);
+                        break replay;
+                    }
+                    String path = request.getPath();
+                    if (path.contains("{id}")) {
+                        if (warmedEmployeeIds.isEmpty()) {
+                            continue;
+                        }
+                        path = path.replace("{id}", String.valueOf(warmedEmployeeIds.get(nextId++ % warmedEmployeeIds.size())));
+                    }
+                    try {
+                        client.get().uri(path).retrieve().toBodilessEntity();
+                    } catch (RuntimeException ex) {
+                        if (failed++ == 0) {
+                            log.warn("Warm-up request {} failed: {}", path, ex.getMessage());
+                        }
+                    }
+                    sent++;
+                }
+            }
+        }
+        return sent + " requests, " + failed + " failed";
+    }
+
+    private static long millisSince(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1_000_000;
+    }
+
+    @FunctionalInterface
+    private interface Step {
+        String run();
+    }
+}
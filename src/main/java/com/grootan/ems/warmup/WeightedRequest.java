@@ -0,0 +1,48 @@
+package com.grootan.ems.warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One entry of {@code app.warmup.requests}: {@code [weight*]path}, entries separated by
+ * {@code ;} (paths may contain commas, e.g. {@code sort=hireDate,desc}). {@code {id}} in a path
+ * is replaced with ids of employees warmed earlier.
+ */
+final class WeightedRequest {
+
+    private final int weight;
+    private final String path;
+
+    WeightedRequest(int weight, String path) {
+        this.weight = weight;
+        this.path = path;
+    }
+
+    static List<WeightedRequest> parseMix(String mix) {
+        List<WeightedRequest> out = new ArrayList<>();
+        if (mix == null || mix.isBlank()) {
+            return out;
+        }
+        for (String entry : mix.split(";")) {
+            String e = entry.trim();
+            if (e.isEmpty()) {
+                continue;
+            }
+            int star = e.indexOf('*');
+            int weight = 1;
+            String path = e;
+            if (star > 0 && e.substring(0, star).trim().chars().allMatch(Character::isDigit)) {
+                weight = Integer.parseInt(e.substring(0, star).trim());
+                path = e.substring(star + 1).trim();
+            }
+            if (!path.startsWith("/")) {
+                throw new IllegalArgumentException("app.warmup.requests entry must be a path starting with '/': " + e);
+            }
+            out.add(new WeightedRequest(weight, path));
+        }
+        return out;
+    }
+
+    int getWeight() { return weight; }
+    String getPath() { return path; }
+}
@@ -1,3 +1,9 @@
+insert into catalog_versions (name, version) values ('departments', 0)
+on conflict do nothing;
+
+insert into catalog_versions (name, version) values ('users', 0)
+on conflict do nothing;
+
 INSERT INTO departments (code, name) VALUES
 ('ENG', 'Engineering'),
 ('HR', 'Human Resources'),
@@ -1,4 +1,5 @@
 CREATE EXTENSION IF NOT EXISTS pgcrypto;
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
 
 create table if not exists departments (
   id bigserial primary key,
@@ -8,6 +9,12 @@ create table if not exists departments (
   updated_at timestamp not null default now()
 );
 
+-- Bumped with every write to a small reference table; nodes poll it to reload in-memory copies
+create table if not exists catalog_versions (
+  name varchar(40) primary key,
+  version bigint not null default 0
+);
+
 create table if not exists employees (
   id bigserial primary key,
   full_name varchar(120) not null,
@@ -35,3 +42,52 @@ create table if not exists app_users (
       ON DELETE CASCADE
 );
 
+
+-- Keyset (cursor) scrolling seeks on (sort key, id)
+create index if not exists idx_employees_full_name_id on employees (full_name, id);
+create index if not exists idx_employees_hire_date_id on employees (hire_date, id);
+
+-- Text search (app.search.backend=postgres). Trigram GIN indexes also serve the plain
+-- lower(col) LIKE '%q%' predicates; the tsvector expression must match EmployeeSearchFunctions.
+create index if not exists idx_employees_full_name_trgm on employees using gin (lower(full_name) gin_trgm_ops);
+create index if not exists idx_employees_email_trgm on employees using gin (lower(email) gin_trgm_ops);
+create index if not exists idx_employees_emp_role_trgm on employees using gin (lower(emp_role) gin_trgm_ops);
+create index if not exists idx_employees_fts on employees
+    using gin (to_tsvector('simple', full_name || ' ' || email || ' ' || emp_role));
+
+-- Hibernate allocates employee and user ids in blocks of 50 (pooled optimizer), so that inserts can be batched
+alter sequence employees_id_seq increment by 50;
+alter sequence app_users_id_seq increment by 50;
+
+-- Accounts created disabled, waiting for a background thread to hash their temporary password
+create table if not exists pending_credentials (
+  id bigserial primary key,
+  user_id bigint not null unique references app_users(id) on delete cascade,
+  encrypted_password varchar(200) not null, -- AES-GCM under app.credentials.key, never the plain password
+  created_at timestamp not null default now(),
+  -- node hashing the credential; others skip the row until claimed_at is older than app.credentials.claim-lease
+  claimed_by varchar(36),
+  claimed_at timestamp
+);
+alter sequence pending_credentials_id_seq increment by 50;
+
+-- Tokens revoked before their expiry (logout), by jti; rows are purged once the token has expired anyway
+create table if not exists revoked_tokens (
+  jti varchar(36) primary key,
+  expires_at timestamp not null,
+  revoked_at timestamp not null default now()
+);
+create index if not exists idx_revoked_tokens_revoked_at on revoked_tokens (revoked_at);
+
+-- Opaque refresh tokens (SHA-256 of the value); a family is one login and its rotations
+create table if not exists refresh_tokens (
+  id bigserial primary key,
+  token_hash varchar(64) not null unique,
+  family_id varchar(36) not null,
+  user_id bigint not null references app_users(id) on delete cascade,
+  expires_at timestamp not null,
+  used_at timestamp,
+  created_at timestamp not null default now()
+);
+create index if not exists idx_refresh_tokens_family on refresh_tokens (family_id);
+alter sequence refresh_tokens_id_seq increment by 50;
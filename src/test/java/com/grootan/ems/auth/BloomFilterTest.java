@@ -0,0 +1,45 @@
+package com.grootan.ems.auth;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BloomFilterTest {
+
+    @Test
+    void everyInsertedValueIsFound() {
+        BloomFilter filter = new BloomFilter(1000, 0.01);
+        var values = IntStream.range(0, 1000).mapToObj(i -> UUID.randomUUID().toString()).toList();
+
+        values.forEach(filter::put);
+
+        assertThat(values).allMatch(filter::mightContain);
+        assertThat(filter.isSaturated()).isFalse();
+    }
+
+    @Test
+    void falsePositiveRateStaysNearTheTarget() {
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        IntStream.range(0, 10_000).forEach(i -> filter.put(UUID.randomUUID().toString()));
+
+        long hits = IntStream.range(0, 100_000).filter(i -> filter.mightContain(UUID.randomUUID().toString())).count();
+
+        assertThat(hits / 100_000.0).isLessThan(0.02);
+    }
+
+    @Test
+    void reportsSaturationPastItsSize() {
+        BloomFilter filter = new BloomFilter(2, 0.01);
+        filter.put("a");
+        filter.put("b");
+        assertThat(filter.isSaturated()).isFalse();
+
+        filter.put("c");
+
+        assertThat(filter.isSaturated()).isTrue();
+        assertThat(filter.insertions()).isEqualTo(3);
+    }
+}
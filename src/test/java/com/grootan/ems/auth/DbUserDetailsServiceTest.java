@@ -14,6 +14,9 @@ import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -47,4 +50,16 @@ class DbUserDetailsServiceTest {
 
         assertThrows(UsernameNotFoundException.class, () -> service.loadUserByUsername("missing@example.com"));
     }
+
+    @Test
+    void updatePassword_storesNewHashAndKeepsIdentity() {
+        AppUserDetails user = new AppUserDetails(7L, "alice@example.com", "$2a$10$old", true, Role.HR);
+
+        var updated = (AppUserDetails) service.updatePassword(user, "{bcrypt}$2a$12$new");
+
+        verify(repository).updatePasswordHash(eq("alice@example.com"), eq("{bcrypt}$2a$12$new"), any());
+        assertThat(updated.getPassword()).isEqualTo("{bcrypt}$2a$12$new");
+        assertThat(updated.getUserId()).isEqualTo(7L);
+        assertThat(updated.getRole()).isEqualTo(Role.HR);
+    }
 }
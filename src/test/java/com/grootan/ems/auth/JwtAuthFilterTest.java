@@ -0,0 +1,105 @@
+package com.grootan.ems.auth;
+
+import com.grootan.ems.user.Role;
+import com.grootan.ems.user.UserState;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class JwtAuthFilterTest {
+
+    @Mock
+    private UserStateCache userStates;
+
+    @Mock
+    private TokenRevocationList revocations;
+
+    private final JwtService jwtService = new JwtService("01234567890123456789012345678901", 60);
+    private JwtAuthFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        filter = new JwtAuthFilter(jwtService, userStates, revocations);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    private Authentication authenticate(String token) throws Exception {
+        MockHttpServletRequest req = new MockHttpServletRequest("GET", "/api/employees");
+        if (token != null) req.addHeader("Authorization", "Bearer " + token);
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(req, new MockHttpServletResponse(), chain);
+
+        assertThat(chain.getRequest()).isSameAs(req);
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+
+    @Test
+    void principalIsBuiltFromTheClaims() throws Exception {
+        when(userStates.find("jane@example.com")).thenReturn(Optional.of(new UserState(7L, true, Role.HR)));
+
+        Authentication auth = authenticate(jwtService.generateToken(7L, "jane@example.com", Role.HR));
+
+        assertThat(auth.getPrincipal()).isInstanceOfSatisfying(AppUserDetails.class, u -> {
+            assertThat(u.getUserId()).isEqualTo(7L);
+            assertThat(u.getUsername()).isEqualTo("jane@example.com");
+        });
+        assertThat(auth.getAuthorities()).extracting("authority").containsExactly("ROLE_HR");
+    }
+
+    @Test
+    void tokenWithAStaleRoleIsIgnored() throws Exception {
+        when(userStates.find("jane@example.com")).thenReturn(Optional.of(new UserState(7L, true, Role.EMPLOYEE)));
+
+        assertThat(authenticate(jwtService.generateToken(7L, "jane@example.com", Role.HR))).isNull();
+    }
+
+    @Test
+    void tokenOfADeletedOrRecreatedAccountIsIgnored() throws Exception {
+        when(userStates.find("gone@example.com")).thenReturn(Optional.empty());
+        when(userStates.find("jane@example.com")).thenReturn(Optional.of(new UserState(8L, true, Role.HR)));
+
+        assertThat(authenticate(jwtService.generateToken(1L, "gone@example.com", Role.HR))).isNull();
+        assertThat(authenticate(jwtService.generateToken(7L, "jane@example.com", Role.HR))).isNull();
+    }
+
+    @Test
+    void revokedTokenIsIgnored() throws Exception {
+        String token = jwtService.generateToken(7L, "jane@example.com", Role.HR);
+        when(revocations.isRevoked(jwtService.verify(token).getId())).thenReturn(true);
+
+        assertThat(authenticate(token)).isNull();
+        verify(userStates, never()).find(anyString());
+    }
+
+    @Test
+    void invalidOrMissingTokenNeverReachesTheCache() throws Exception {
+        JwtService otherKey = new JwtService("abcdefghijabcdefghijabcdefghij12", 60);
+
+        assertThat(authenticate(otherKey.generateToken(7L, "jane@example.com", Role.ADMIN))).isNull();
+        assertThat(authenticate("not-a-jwt")).isNull();
+        assertThat(authenticate(null)).isNull();
+
+        verify(userStates, never()).find(anyString());
+        verify(revocations, never()).isRevoked(anyString());
+    }
+}
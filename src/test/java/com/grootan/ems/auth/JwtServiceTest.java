@@ -1,9 +1,12 @@
 package com.grootan.ems.auth;
 
 import com.grootan.ems.user.Role;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.security.SignatureException;
 import org.junit.jupiter.api.Test;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 class JwtServiceTest {
 
@@ -17,4 +20,54 @@ class JwtServiceTest {
         assertThat(jwtService.extractEmail(token)).isEqualTo("alice@example.com");
         assertThat(jwtService.extractRole(token)).isEqualTo(Role.ADMIN);
     }
+
+    @Test
+    void tokenCarriesTheUserId() {
+        JwtService jwtService = new JwtService("01234567890123456789012345678901", 60);
+
+        String token = jwtService.generateToken(42L, "alice@example.com", Role.HR);
+
+        var claims = jwtService.verify(token);
+        assertThat(claims.getSubject()).isEqualTo("alice@example.com");
+        assertThat(claims.get(JwtService.USER_ID_CLAIM, Long.class)).isEqualTo(42L);
+        assertThat(claims.get(JwtService.ROLE_CLAIM, String.class)).isEqualTo("HR");
+        String other = jwtService.generateToken(42L, "alice@example.com", Role.HR);
+        assertThat(claims.getId()).isNotBlank().isNotEqualTo(jwtService.verify(other).getId());
+    }
+
+    @Test
+    void repeatedTokenIsServedFromTheVerifiedCache() {
+        JwtService jwtService = new JwtService("01234567890123456789012345678901", 60);
+        String token = jwtService.generateToken(42L, "alice@example.com", Role.HR);
+
+        var first = jwtService.verify(token);
+        var second = jwtService.verify(token);
+        jwtService.extractRole(token);
+
+        assertThat(second).isSameAs(first);
+        assertThat(jwtService.verifiedTokenStats().missCount()).isEqualTo(1);
+        assertThat(jwtService.verifiedTokenStats().hitCount()).isEqualTo(2);
+    }
+
+    @Test
+    void tamperedTokenIsRejectedEvenAfterTheOriginalWasCached() {
+        JwtService jwtService = new JwtService("01234567890123456789012345678901", 60);
+        String token = jwtService.generateToken(42L, "alice@example.com", Role.HR);
+        jwtService.verify(token);
+
+        char last = token.charAt(token.length() - 2);
+        String tampered = token.substring(0, token.length() - 2) + (last == 'A' ? 'B' : 'A') + token.charAt(token.length() - 1);
+
+        assertThatThrownBy(() -> jwtService.verify(tampered)).isInstanceOf(SignatureException.class);
+    }
+
+    @Test
+    void expiredTokenIsNeverCached() {
+        JwtService jwtService = new JwtService("01234567890123456789012345678901", 0);
+        String token = jwtService.generateToken(42L, "alice@example.com", Role.HR);
+
+        assertThatThrownBy(() -> jwtService.verify(token)).isInstanceOf(ExpiredJwtException.class);
+        assertThatThrownBy(() -> jwtService.verify(token)).isInstanceOf(ExpiredJwtException.class);
+        assertThat(jwtService.verifiedTokenStats().hitCount()).isZero();
+    }
 }
@@ -0,0 +1,38 @@
+package com.grootan.ems.auth;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PasswordHashCalibratorTest {
+
+    private static final long MS = 1_000_000;
+
+    private static int calibrate(long millisAtMin, Duration target, int min, int max) {
+        return new PasswordHashCalibrator(target, min, max, strength -> millisAtMin * MS).calibrate();
+    }
+
+    @Test
+    void picksHighestStrengthWithinTarget() {
+        // 20 ms at 10 -> 40 at 11 -> 80 at 12 -> 160 at 13
+        assertThat(calibrate(20, Duration.ofMillis(100), 10, 14)).isEqualTo(12);
+        assertThat(calibrate(20, Duration.ofMillis(80), 10, 14)).isEqualTo(12);
+    }
+
+    @Test
+    void neverBelowMinimumOnSlowHosts() {
+        assertThat(calibrate(500, Duration.ofMillis(100), 10, 14)).isEqualTo(10);
+    }
+
+    @Test
+    void cappedAtMaximumOnFastHosts() {
+        assertThat(calibrate(1, Duration.ofSeconds(1), 10, 14)).isEqualTo(14);
+    }
+
+    @Test
+    void measuresRealBcrypt() {
+        assertThat(PasswordHashCalibrator.measureMatch(4)).isPositive();
+    }
+}
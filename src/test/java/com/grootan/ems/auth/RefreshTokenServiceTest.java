@@ -0,0 +1,125 @@
+package com.grootan.ems.auth;
+
+import com.grootan.ems.auth.dto.LoginResponse;
+import com.grootan.ems.common.ApiException;
+import com.grootan.ems.user.AppUser;
+import com.grootan.ems.user.AppUserRepository;
+import com.grootan.ems.user.Role;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class RefreshTokenServiceTest {
+
+    @Mock
+    private RefreshTokenRepository repo;
+    @Mock
+    private AppUserRepository users;
+
+    private final JwtService jwtService = new JwtService("01234567890123456789012345678901", 15);
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private RefreshTokenService service;
+    private AppUser jane;
+
+    @BeforeEach
+    void setUp() {
+        service = new RefreshTokenService(repo, users, jwtService, registry, Duration.ofDays(7));
+        jane = new AppUser();
+        jane.setId(7L);
+        jane.setEmail("jane@example.com");
+        jane.setRole(Role.HR);
+        jane.setPasswordHash("{bcrypt}hash");
+        when(users.getReferenceById(7L)).thenReturn(jane);
+        when(repo.markUsed(anyLong(), any())).thenReturn(1);
+    }
+
+    private RefreshToken stored(String token, OffsetDateTime expiresAt) {
+        RefreshToken t = new RefreshToken(RefreshTokenService.digest(token), "family-1", jane, expiresAt);
+        t.setId(1L);
+        when(repo.findByTokenHash(RefreshTokenService.digest(token))).thenReturn(Optional.of(t));
+        return t;
+    }
+
+    @Test
+    void loginIssuesAnAccessTokenAndStoresOnlyTheRefreshDigest() {
+        LoginResponse tokens = service.login(new AppUserDetails(jane));
+
+        ArgumentCaptor<RefreshToken> saved = ArgumentCaptor.forClass(RefreshToken.class);
+        verify(repo).save(saved.capture());
+        assertThat(saved.getValue().getTokenHash())
+                .isEqualTo(RefreshTokenService.digest(tokens.getRefreshToken()))
+                .isNotEqualTo(tokens.getRefreshToken());
+        assertThat(jwtService.extractEmail(tokens.getAccessToken())).isEqualTo("jane@example.com");
+        assertThat(tokens.getExpiresIn()).isEqualTo(15 * 60);
+    }
+
+    @Test
+    void refreshUsesTheTokenUpAndIssuesItsSuccessorInTheSameFamily() {
+        stored("refresh-1", OffsetDateTime.now().plusDays(1));
+
+        LoginResponse tokens = service.refresh("refresh-1");
+
+        verify(repo).markUsed(eq(1L), any());
+        ArgumentCaptor<RefreshToken> saved = ArgumentCaptor.forClass(RefreshToken.class);
+        verify(repo).save(saved.capture());
+        assertThat(saved.getValue().getFamilyId()).isEqualTo("family-1");
+        assertThat(tokens.getRefreshToken()).isNotEqualTo("refresh-1");
+        assertThat(jwtService.extractRole(tokens.getAccessToken())).isEqualTo(Role.HR);
+    }
+
+    @Test
+    void reusedTokenRevokesTheFamily() {
+        RefreshToken t = stored("refresh-1", OffsetDateTime.now().plusDays(1));
+        t.setUsedAt(OffsetDateTime.now().minusMinutes(1));
+
+        assertThatThrownBy(() -> service.refresh("refresh-1"))
+                .isInstanceOfSatisfying(ApiException.class, ex -> assertThat(ex.getCode()).isEqualTo("refresh_token_reused"));
+
+        verify(repo).deleteFamily("family-1");
+        verify(repo, never()).save(any());
+        assertThat(registry.get("auth.refresh.reused").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void concurrentRefreshThatLosesTheRaceCountsAsReuse() {
+        stored("refresh-1", OffsetDateTime.now().plusDays(1));
+        when(repo.markUsed(anyLong(), any())).thenReturn(0);
+
+        assertThatThrownBy(() -> service.refresh("refresh-1")).isInstanceOf(ApiException.class);
+
+        verify(repo).deleteFamily("family-1");
+    }
+
+    @Test
+    void expiredUnknownOrDisabledIsRejected() {
+        stored("expired", OffsetDateTime.now().minusSeconds(1));
+        stored("disabled", OffsetDateTime.now().plusDays(1));
+
+        assertThatThrownBy(() -> service.refresh("expired"))
+                .isInstanceOfSatisfying(ApiException.class, ex -> assertThat(ex.getCode()).isEqualTo("invalid_refresh_token"));
+        assertThatThrownBy(() -> service.refresh("unknown")).isInstanceOf(ApiException.class);
+        jane.setEnabled(false);
+        assertThatThrownBy(() -> service.refresh("disabled")).isInstanceOf(ApiException.class);
+
+        verify(repo, never()).save(any());
+        verify(repo, never()).deleteFamily(any());
+    }
+}
@@ -0,0 +1,123 @@
+package com.grootan.ems.auth;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TokenRevocationListTest {
+
+    @Mock
+    private RevokedTokenRepository repo;
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private TokenRevocationList revocations;
+
+    @BeforeEach
+    void setUp() {
+        revocations = new TokenRevocationList(repo, registry, 100, 0.01, Duration.ofMinutes(1));
+    }
+
+    @Test
+    void tokenNeverRevokedCostsNoQuery() {
+        when(repo.findActiveJtis(any())).thenReturn(List.of("revoked-1"));
+
+        assertThat(revocations.isRevoked("fresh-1")).isFalse();
+        assertThat(revocations.isRevoked("fresh-2")).isFalse();
+
+        verify(repo, times(1)).findActiveJtis(any());
+        verify(repo, never()).existsById(anyString());
+    }
+
+    @Test
+    void requestsWaitingForTheFirstLoadDoNotLoadAgain() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(repo.findActiveJtis(any())).thenAnswer(inv -> {
+            loading.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return List.of();
+        });
+        ExecutorService requests = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Boolean>> checks = new ArrayList<>();
+            checks.add(requests.submit(() -> revocations.isRevoked("a")));
+            assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+            for (int i = 0; i < 3; i++) {
+                checks.add(requests.submit(() -> revocations.isRevoked("b")));
+            }
+            Thread.sleep(100); // let them queue on the load
+            release.countDown();
+            for (Future<Boolean> check : checks) {
+                assertThat(check.get(5, TimeUnit.SECONDS)).isFalse();
+            }
+        } finally {
+            requests.shutdownNow();
+        }
+
+        verify(repo, times(1)).findActiveJtis(any());
+    }
+
+    @Test
+    void filterHitIsConfirmedAgainstTheTable() {
+        when(repo.findActiveJtis(any())).thenReturn(List.of("revoked-1"));
+        when(repo.existsById("revoked-1")).thenReturn(true);
+
+        assertThat(revocations.isRevoked("revoked-1")).isTrue();
+        assertThat(registry.get("tokens.revocation.lookups").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void revokeIsVisibleOnThisNodeAtOnce() {
+        when(repo.findActiveJtis(any())).thenReturn(List.of());
+        when(repo.existsById("jti-1")).thenReturn(true);
+
+        revocations.revoke("jti-1", Instant.now().plusSeconds(600));
+
+        verify(repo).save(argThat(t -> t.getJti().equals("jti-1")));
+        assertThat(revocations.isRevoked("jti-1")).isTrue();
+    }
+
+    @Test
+    void pollAddsRevocationsMadeOnOtherNodes() {
+        when(repo.findActiveJtis(any())).thenReturn(List.of());
+        revocations.isRevoked("jti-1"); // loads the filter
+        when(repo.findJtisRevokedSince(any(), any())).thenReturn(List.of("jti-1"));
+        when(repo.existsById("jti-1")).thenReturn(true);
+
+        revocations.poll();
+
+        assertThat(revocations.isRevoked("jti-1")).isTrue();
+        assertThat(registry.get("tokens.revoked").gauge().value()).isEqualTo(1.0);
+    }
+
+    @Test
+    void purgeRebuildsWithoutExpiredTokens() {
+        when(repo.findActiveJtis(any())).thenReturn(List.of("old-1", "old-2"), List.of());
+        revocations.isRevoked("x");
+        when(repo.deleteExpired(any())).thenReturn(2);
+
+        revocations.purgeExpired();
+
+        assertThat(revocations.isRevoked("old-1")).isFalse();
+        assertThat(registry.get("tokens.revoked").gauge().value()).isZero();
+    }
+}
@@ -0,0 +1,95 @@
+package com.grootan.ems.auth;
+
+import com.grootan.ems.department.CatalogVersion;
+import com.grootan.ems.department.CatalogVersionRepository;
+import com.grootan.ems.user.AppUserChangedEvent;
+import com.grootan.ems.user.AppUserRepository;
+import com.grootan.ems.user.Role;
+import com.grootan.ems.user.UserState;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserStateCacheTest {
+
+    @Mock
+    private AppUserRepository users;
+
+    @Mock
+    private CatalogVersionRepository versions;
+
+    private UserStateCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new UserStateCache(users, versions, new SimpleMeterRegistry(), 100, Duration.ofMinutes(10));
+    }
+
+    @Test
+    void enabledAccountIsLoadedOnce() {
+        when(versions.findVersion(UserStateCache.CATALOG)).thenReturn(Optional.of(0L));
+        when(users.findStateByEmail("jane@example.com")).thenReturn(Optional.of(new UserState(1L, true, Role.HR)));
+
+        assertThat(cache.find("jane@example.com")).get().extracting(UserState::getRole).isEqualTo(Role.HR);
+        assertThat(cache.find("jane@example.com")).isPresent();
+
+        verify(users, times(1)).findStateByEmail("jane@example.com");
+        verify(versions, times(1)).findVersion(UserStateCache.CATALOG);
+    }
+
+    @Test
+    void disabledAndMissingAccountsAreNotCached() {
+        when(versions.findVersion(UserStateCache.CATALOG)).thenReturn(Optional.of(0L));
+        when(users.findStateByEmail("pending@example.com")).thenReturn(Optional.of(new UserState(2L, false, Role.EMPLOYEE)));
+        when(users.findStateByEmail("gone@example.com")).thenReturn(Optional.empty());
+
+        assertThat(cache.find("pending@example.com")).isEmpty();
+        assertThat(cache.find("pending@example.com")).isEmpty();
+        assertThat(cache.find("gone@example.com")).isEmpty();
+
+        verify(users, times(2)).findStateByEmail("pending@example.com");
+    }
+
+    @Test
+    void localChangeClearsAfterCommitAndBumpsTheVersion() {
+        when(versions.findVersion(UserStateCache.CATALOG)).thenReturn(Optional.of(0L));
+        when(users.findStateByEmail("jane@example.com")).thenReturn(Optional.of(new UserState(1L, true, Role.HR)));
+        cache.find("jane@example.com");
+        when(versions.increment(UserStateCache.CATALOG)).thenReturn(0);
+
+        AppUserChangedEvent event = new AppUserChangedEvent("jane@example.com");
+        cache.bumpVersion(event);
+        cache.onAppUserChanged(event);
+        cache.find("jane@example.com");
+
+        verify(versions).save(any(CatalogVersion.class));
+        verify(users, times(2)).findStateByEmail("jane@example.com");
+    }
+
+    @Test
+    void pollClearsOnlyWhenTheStoredVersionMoved() {
+        when(versions.findVersion(UserStateCache.CATALOG)).thenReturn(Optional.of(1L));
+        when(users.findStateByEmail("jane@example.com")).thenReturn(Optional.of(new UserState(1L, true, Role.HR)));
+        cache.find("jane@example.com");
+
+        cache.poll();
+        cache.find("jane@example.com");
+        verify(users, times(1)).findStateByEmail("jane@example.com");
+
+        when(versions.findVersion(UserStateCache.CATALOG)).thenReturn(Optional.of(2L));
+        cache.poll();
+        cache.find("jane@example.com");
+        verify(users, times(2)).findStateByEmail("jane@example.com");
+    }
+}
@@ -0,0 +1,136 @@
+package com.grootan.ems.cache;
+
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Stand-in for the Redis L2 that injects latency and failures, toxiproxy style: {@link #down()}
+ * makes every call fail as a lost connection, {@link #timingOut()} as a command timeout, and
+ * {@link #latency(Duration)} delays calls that succeed, and {@link #corrupt()} fails them as a codec
+ * error. The asynchronous calls fail with a failed
+ * future, as the Lettuce-backed cache does.
+ */
+class FlakyCache extends ConcurrentMapCache {
+
+    private volatile RuntimeException failure;
+    private volatile long latencyMillis;
+    final AtomicInteger calls = new AtomicInteger();
+
+    FlakyCache(String name) {
+        super(name, false);
+    }
+
+    void down() {
+        failure = new RedisConnectionFailureException("Unable to connect to Redis");
+    }
+
+    void timingOut() {
+        failure = new QueryTimeoutException("Redis command timed out after 250 millisecond(s)");
+    }
+
+    /** Redis answers, but the entry does not decode. */
+    void corrupt() {
+        failure = new SerializationException("Unknown cache entry header 64");
+    }
+
+    void healthy() {
+        failure = null;
+        latencyMillis = 0;
+    }
+
+    void latency(Duration latency) {
+        latencyMillis = latency.toMillis();
+    }
+
+    private void inject() {
+        calls.incrementAndGet();
+        RuntimeException f = failure;
+        if (f != null) {
+            throw f;
+        }
+        if (latencyMillis > 0) {
+            try {
+                Thread.sleep(latencyMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        inject();
+        return super.get(key);
+    }
+
+    @Override
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        inject();
+        return super.get(key, valueLoader);
+    }
+
+    @Override
+    public CompletableFuture<?> retrieve(Object key) {
+        try {
+            inject();
+        } catch (RuntimeException ex) {
+            return CompletableFuture.failedFuture(ex);
+        }
+        return super.retrieve(key);
+    }
+
+    @Override
+    public <T> CompletableFuture<T> retrieve(Object key, Supplier<CompletableFuture<T>> valueLoader) {
+        try {
+            inject();
+        } catch (RuntimeException ex) {
+            return CompletableFuture.failedFuture(ex);
+        }
+        // stored before returning (ConcurrentMapCache stores on the common pool), so tests can look
+        return CompletableFuture.completedFuture(super.get(key, () -> valueLoader.get().join()));
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        inject();
+        super.put(key, value);
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        inject();
+        return super.putIfAbsent(key, value);
+    }
+
+    @Override
+    public void evict(Object key) {
+        inject();
+        super.evict(key);
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        inject();
+        return super.evictIfPresent(key);
+    }
+
+    @Override
+    public void clear() {
+        inject();
+        super.clear();
+    }
+
+    @Override
+    public boolean invalidate() {
+        inject();
+        return super.invalidate();
+    }
+}
@@ -0,0 +1,114 @@
+package com.grootan.ems.cache;
+
+import com.grootan.ems.department.dto.DepartmentResponse;
+import com.grootan.ems.employee.dto.EmployeePage;
+import com.grootan.ems.employee.dto.EmployeeResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SchemaCacheCodecTest {
+
+    private final SchemaCacheCodec codec = new SchemaCacheCodec();
+
+    private static EmployeeResponse employee(long id) {
+        OffsetDateTime ts = OffsetDateTime.of(2024, 3, 1, 10, 15, 30, 123_456_000, ZoneOffset.UTC);
+        return new EmployeeResponse(id, "Employee " + id, "employee" + id + "@example.com",
+                LocalDate.of(2020, 1, 15), "ACTIVE", 3L, "ENG", "Engineering", ts, ts.plusDays(1));
+    }
+
+    @Test
+    void roundTripsEmployeeWithNulls() {
+        EmployeeResponse e = new EmployeeResponse(7L, "Zoë Ünal", null, null, "INACTIVE", null, null, null, null, null);
+
+        Object decoded = codec.decode(codec.encode(e));
+
+        assertThat(decoded).isInstanceOf(EmployeeResponse.class).usingRecursiveComparison().isEqualTo(e);
+    }
+
+    @Test
+    void roundTripsEmployeePageWithPageableAndAccuracy() {
+        EmployeePage page = new EmployeePage(List.of(employee(1), employee(2)),
+                PageRequest.of(3, 2, Sort.by(Sort.Order.desc("hireDate"), Sort.Order.asc("id"))),
+                1_234_567L, EmployeePage.TotalAccuracy.ESTIMATED);
+
+        EmployeePage decoded = (EmployeePage) codec.decode(codec.encode(page));
+
+        assertThat(decoded.getPageable()).isEqualTo(page.getPageable());
+        assertThat(decoded.getTotalElements()).isEqualTo(1_234_567L);
+        assertThat(decoded.getTotalAccuracy()).isEqualTo(EmployeePage.TotalAccuracy.ESTIMATED);
+        assertThat(decoded.getContent()).usingRecursiveFieldByFieldElementComparator().isEqualTo(page.getContent());
+    }
+
+    @Test
+    void roundTripsDepartmentListAndLong() {
+        List<DepartmentResponse> departments = List.of(
+                new DepartmentResponse(1L, "ENG", "Engineering", OffsetDateTime.now(ZoneOffset.ofHours(5)), null));
+
+        assertThat((List<?>) codec.decode(codec.encode(departments)))
+                .usingRecursiveFieldByFieldElementComparator().isEqualTo(departments);
+        assertThat(codec.decode(codec.encode(-42L))).isEqualTo(-42L);
+    }
+
+    @Test
+    void rejectsUnknownTypesAndTruncatedEntries() {
+        assertThatThrownBy(() -> codec.encode(new Object())).isInstanceOf(SerializationException.class);
+
+        byte[] bytes = codec.encode(employee(1));
+        byte[] truncated = Arrays.copyOf(bytes, bytes.length - 3);
+        assertThatThrownBy(() -> codec.decode(truncated)).isInstanceOf(SerializationException.class);
+    }
+
+    @Test
+    void compressesLargeEntriesOnly() {
+        CompressingCacheSerializer serializer = new CompressingCacheSerializer(codec, 512);
+        List<EmployeeResponse> content = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            content.add(employee(i));
+        }
+        EmployeePage page = new EmployeePage(content, PageRequest.of(0, 50), 50, EmployeePage.TotalAccuracy.EXACT);
+
+        byte[] small = serializer.serialize(employee(1));
+        byte[] large = serializer.serialize(page);
+
+        assertThat(small[0]).isEqualTo((byte) 0);
+        assertThat(large[0]).isEqualTo((byte) 1);
+        assertThat(large.length).isLessThan(codec.encode(page).length / 2);
+        assertThat(((EmployeePage) serializer.deserialize(large)).getContent())
+                .usingRecursiveFieldByFieldElementComparator().isEqualTo(content);
+        assertThat(serializer.deserialize(small)).usingRecursiveComparison().isEqualTo(employee(1));
+    }
+
+    @Test
+    void rejectsCorruptInflatedLength() {
+        CompressingCacheSerializer serializer = new CompressingCacheSerializer(codec, 16);
+        byte[] negative = {1, (byte) 0xff, (byte) 0xff, (byte) 0xff, (byte) 0xfe, 0};
+        byte[] huge = {1, 0x7f, (byte) 0xff, (byte) 0xff, (byte) 0xff, 0};
+
+        assertThatThrownBy(() -> serializer.deserialize(negative)).isInstanceOf(SerializationException.class);
+        assertThatThrownBy(() -> serializer.deserialize(huge)).isInstanceOf(SerializationException.class);
+    }
+
+    @Test
+    void stampTravelsInTheHeader() {
+        CompressingCacheSerializer serializer = new CompressingCacheSerializer(codec, 16);
+
+        Object decoded = serializer.deserialize(serializer.serialize(new StampedValue(employee(1), 1_700_000_000_000L, 42)));
+
+        StampedValue stamped = (StampedValue) decoded;
+        assertThat(stamped.writtenAtMillis).isEqualTo(1_700_000_000_000L);
+        assertThat(stamped.loadMillis).isEqualTo(42);
+        assertThat(stamped.value).usingRecursiveComparison().isEqualTo(employee(1));
+    }
+}
@@ -0,0 +1,355 @@
+package com.grootan.ems.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.grootan.ems.cache.dto.CacheStats;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.Cache;
+import org.springframework.data.redis.cache.RedisCacheWriter;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+@ExtendWith(MockitoExtension.class)
+class TwoLevelCacheTest {
+
+    @Mock
+    private CacheInvalidationBus bus;
+
+    private FlakyCache l2;
+    private final AtomicLong now = new AtomicLong();
+    private RedisCircuitBreaker breaker;
+    private SimpleMeterRegistry registry;
+    private TwoLevelCache cache;
+
+    @BeforeEach
+    void setUp() {
+        l2 = new FlakyCache("employeeById");
+        breaker = new RedisCircuitBreaker(2, Duration.ofMillis(100), Duration.ofSeconds(10), now::get);
+        registry = new SimpleMeterRegistry();
+        cache = cache(NearCacheSpec.of(10, Duration.ofMinutes(1)), null);
+    }
+
+    private TwoLevelCache cache(NearCacheSpec spec, Duration l2Ttl) {
+        return new TwoLevelCache("employeeById", Caffeine.newBuilder().maximumSize(10).build(), l2, bus, breaker,
+                spec, l2Ttl, Runnable::run, new CacheMetrics("employeeById", registry));
+    }
+
+    @Test
+    void readThroughPopulatesL1() {
+        l2.put(1L, "alice");
+
+        assertThat(cache.get(1L).get()).isEqualTo("alice");
+        l2.evict(1L); // served from L1 now
+        assertThat(cache.get(1L).get()).isEqualTo("alice");
+    }
+
+    @Test
+    void evictClearsBothLevelsAndNotifiesOtherNodes() {
+        cache.put(1L, "alice");
+
+        cache.evict(1L);
+
+        assertThat(cache.get(1L)).isNull();
+        verify(bus, times(2)).publishEvict("employeeById", "1"); // put, then evict
+    }
+
+    @Test
+    void loadedValuesAreNotBroadcast() {
+        cache.get(1L, () -> "alice");
+        cache.evictLocal("1");
+        cache.get(2L, () -> "bob");
+
+        verifyNoInteractions(bus);
+    }
+
+    @Test
+    void remoteInvalidationDropsOnlyL1() {
+        cache.put(1L, "alice");
+        l2.put(1L, "alice v2"); // another node wrote a newer value
+
+        cache.evictLocal("1");
+
+        assertThat(cache.get(1L).get()).isEqualTo("alice v2");
+    }
+
+    @Test
+    void clearBroadcastsAllEntriesEviction() {
+        cache.put(1L, "alice");
+
+        cache.clear();
+
+        assertThat(cache.get(1L)).isNull();
+        verify(bus).publishClear("employeeById");
+    }
+
+    @Test
+    void concurrentMissesShareOneLoad() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(pool.submit(() -> cache.get(1L, () -> {
+                    loads.incrementAndGet();
+                    release.await();
+                    return "alice";
+                })));
+            }
+            Thread.sleep(100); // let every caller reach the cache
+            release.countDown();
+
+            for (Future<String> result : results) {
+                assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("alice");
+            }
+            assertThat(loads).hasValue(1);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void waitersSeeTheLoaderFailure() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            Future<?> leader = pool.submit(() -> cache.get(1L, () -> {
+                loading.countDown();
+                release.await();
+                throw new IllegalStateException("db down");
+            }));
+            loading.await();
+            Future<?> waiter = pool.submit(() -> cache.get(1L, () -> "never"));
+            Thread.sleep(100); // let the waiter block on the leader's load
+            release.countDown();
+
+            assertThatThrownBy(() -> leader.get(5, TimeUnit.SECONDS)).hasRootCauseMessage("db down");
+            assertThatThrownBy(() -> waiter.get(5, TimeUnit.SECONDS))
+                    .hasCauseInstanceOf(Cache.ValueRetrievalException.class)
+                    .hasRootCauseMessage("db down");
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void asyncMissLoadsAndStoresInBothLevels() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+
+        CompletableFuture<String> first = cache.retrieve(1L, () -> {
+            loads.incrementAndGet();
+            return CompletableFuture.completedFuture("alice");
+        });
+
+        assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo("alice");
+        assertThat(l2.get(1L).get()).isInstanceOf(StampedValue.class);
+        assertThat(cache.retrieve(1L).get(5, TimeUnit.SECONDS)).isEqualTo("alice");
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void asyncLookupFindsWhatAnotherNodeStored() throws Exception {
+        l2.put(1L, "alice");
+
+        assertThat(cache.retrieve(1L).get(5, TimeUnit.SECONDS)).isEqualTo("alice");
+        assertThat(cache.retrieve(2L).get(5, TimeUnit.SECONDS)).isNull();
+        l2.evict(1L); // served from L1 now
+        assertThat(cache.<String>retrieve(1L, () -> CompletableFuture.completedFuture("never"))
+                .get(5, TimeUnit.SECONDS)).isEqualTo("alice");
+    }
+
+    @Test
+    void asyncMissesShareOneLoadAndItsFailure() {
+        CompletableFuture<String> load = new CompletableFuture<>();
+        AtomicInteger loads = new AtomicInteger();
+
+        CompletableFuture<String> first = cache.retrieve(1L, () -> {
+            loads.incrementAndGet();
+            return load;
+        });
+        CompletableFuture<String> second = cache.retrieve(1L, () -> {
+            loads.incrementAndGet();
+            return CompletableFuture.completedFuture("never");
+        });
+        first.cancel(true); // one subscriber going away leaves the shared load running
+        load.completeExceptionally(new IllegalStateException("db down"));
+
+        assertThat(loads).hasValue(1);
+        assertThatThrownBy(() -> second.get(5, TimeUnit.SECONDS)).hasRootCauseMessage("db down");
+        assertThat(cache.get(1L)).isNull(); // a failure is not cached
+    }
+
+    @Test
+    void asyncRedisDownFallsBackToLoaderAndL1() throws Exception {
+        l2.down();
+        AtomicInteger loads = new AtomicInteger();
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(cache.retrieve(1L, () -> CompletableFuture.completedFuture("alice" + loads.incrementAndGet()))
+                    .get(5, TimeUnit.SECONDS)).isEqualTo("alice1");
+        }
+        assertThat(breaker.getState()).isEqualTo(RedisCircuitBreaker.State.OPEN);
+    }
+
+    @Test
+    void hitNearExpiryReloadsInBackground() throws Exception {
+        TwoLevelCache refreshing = cache(NearCacheSpec.of(10, Duration.ofMinutes(1)).refreshAhead(1.0), Duration.ofMillis(1));
+        assertThat(refreshing.get(1L, () -> "v1")).isEqualTo("v1");
+        Thread.sleep(5); // past the (tiny) Redis TTL
+
+        // the caller still gets the cached value; the reload replaces it behind its back
+        assertThat(refreshing.get(1L, () -> "v2")).isEqualTo("v1");
+        assertThat(refreshing.get(1L).get()).isEqualTo("v2");
+    }
+
+    @Test
+    void noRefreshAheadUnlessConfigured() throws Exception {
+        TwoLevelCache plain = cache(NearCacheSpec.of(10, Duration.ofMinutes(1)), Duration.ofMillis(1));
+        plain.get(1L, () -> "v1");
+        Thread.sleep(5);
+
+        plain.get(1L, () -> "v2");
+
+        assertThat(plain.get(1L).get()).isEqualTo("v1");
+    }
+
+    @Test
+    void recordsHitsMissesLoadsAndEvictions() {
+        cache.get(1L, () -> "alice");      // miss + load
+        cache.get(1L, () -> "unused");     // L1 hit
+        cache.evictLocal("1");             // another node evicted
+        cache.get(1L, () -> "unused");     // L2 hit
+        cache.evict(1L);
+        cache.clear();
+
+        CacheStats stats = cache.stats();
+        assertThat(stats.getL1Hits()).isEqualTo(1);
+        assertThat(stats.getL2Hits()).isEqualTo(1);
+        assertThat(stats.getMisses()).isEqualTo(1);
+        assertThat(stats.getHitRatio()).isCloseTo(2 / 3.0, within(1e-9));
+        assertThat(stats.getLoads()).isEqualTo(1);
+        assertThat(stats.getEvictions()).isEqualTo(1);
+        assertThat(stats.getAllEntriesEvictions()).isEqualTo(1);
+        assertThat(stats.getRemoteInvalidations()).isEqualTo(1);
+        assertThat(registry.get("cache.gets").tags("cache", "employeeById", "result", "miss").counter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void redisDownFallsBackToLoaderAndL1() {
+        l2.down();
+        AtomicInteger loads = new AtomicInteger();
+
+        assertThat(cache.get(1L, () -> "alice" + loads.incrementAndGet())).isEqualTo("alice1");
+        assertThat(cache.get(1L, () -> "alice" + loads.incrementAndGet())).isEqualTo("alice1");
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void openCircuitStopsCallingRedisUntilAProbeSucceeds() {
+        l2.timingOut();
+        for (long id = 1; id <= 5; id++) {
+            long key = id;
+            assertThat(cache.get(key, () -> "e" + key)).isEqualTo("e" + key);
+        }
+        assertThat(breaker.getState()).isEqualTo(RedisCircuitBreaker.State.OPEN);
+        int callsWhenOpened = l2.calls.get();
+        cache.get(6L, () -> "e6");
+        assertThat(l2.calls.get()).isEqualTo(callsWhenOpened);
+
+        l2.healthy();
+        now.addAndGet(Duration.ofSeconds(10).toNanos());
+        cache.get(7L, () -> "e7");
+
+        assertThat(breaker.getState()).isEqualTo(RedisCircuitBreaker.State.CLOSED);
+        assertThat(l2.get(7L).get()).isInstanceOf(StampedValue.class);
+    }
+
+    @Test
+    void probeThatHitsACodecErrorStillClosesTheCircuit() throws Exception {
+        l2.timingOut();
+        cache.get(1L);
+        cache.get(2L);
+        assertThat(breaker.getState()).isEqualTo(RedisCircuitBreaker.State.OPEN);
+
+        l2.corrupt();
+        now.addAndGet(Duration.ofSeconds(10).toNanos());
+        assertThatThrownBy(() -> cache.get(3L)).isInstanceOf(SerializationException.class);
+
+        assertThat(breaker.getState()).isEqualTo(RedisCircuitBreaker.State.CLOSED);
+        l2.healthy();
+        l2.put(4L, "dave");
+        assertThat(cache.get(4L).get()).isEqualTo("dave");
+    }
+
+    @Test
+    void asyncProbeThatHitsACodecErrorStillClosesTheCircuit() {
+        l2.timingOut();
+        cache.get(1L);
+        cache.get(2L);
+
+        l2.corrupt();
+        now.addAndGet(Duration.ofSeconds(10).toNanos());
+        assertThatThrownBy(() -> cache.retrieve(3L).get(5, TimeUnit.SECONDS)).hasCauseInstanceOf(SerializationException.class);
+
+        assertThat(breaker.getState()).isEqualTo(RedisCircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void ttlByValueSeesTheValueWithoutItsStamp() {
+        RedisCacheWriter.TtlFunction ttl = TwoLevelCacheManager.ttlByValue(value ->
+                "estimate".equals(value) ? Duration.ofMinutes(10) : Duration.ofHours(6));
+
+        assertThat(ttl.getTimeToLive("k", new StampedValue("estimate", 0, 1))).isEqualTo(Duration.ofMinutes(10));
+        assertThat(ttl.getTimeToLive("k", "exact")).isEqualTo(Duration.ofHours(6));
+        assertThat(ttl.getTimeToLive(Object.class, null)).isEqualTo(Duration.ofHours(6));
+    }
+
+    @Test
+    void slowRedisOpensTheCircuit() {
+        l2.latency(Duration.ofMillis(150));
+
+        cache.get(1L);
+        cache.get(2L);
+
+        assertThat(breaker.getState()).isEqualTo(RedisCircuitBreaker.State.OPEN);
+    }
+
+    @Test
+    void evictionLostDuringOutageClearsRedisOnRecovery() {
+        cache.put(1L, "alice");
+        l2.down();
+        cache.evict(1L); // never reaches Redis
+        cache.evict(1L);
+        assertThat(breaker.getState()).isEqualTo(RedisCircuitBreaker.State.OPEN);
+
+        l2.healthy();
+        now.addAndGet(Duration.ofSeconds(10).toNanos());
+
+        assertThat(cache.get(1L)).isNull(); // not the stale "alice" still in Redis
+        assertThat(breaker.getState()).isEqualTo(RedisCircuitBreaker.State.CLOSED);
+    }
+}
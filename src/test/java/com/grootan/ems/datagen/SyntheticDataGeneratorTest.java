@@ -0,0 +1,124 @@
+package com.grootan.ems.datagen;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.support.StaticApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * The generator against an in-memory H2 database with the production table layout, through the
+ * JDBC batch path (COPY needs PostgreSQL).
+ */
+class SyntheticDataGeneratorTest {
+
+    private final BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(4);
+    private final ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager("employeeSearch");
+    private JdbcTemplate jdbc;
+    private DataSourceTransactionManager txManager;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1;MODE=PostgreSQL", "sa", "");
+        jdbc = new JdbcTemplate(dataSource);
+        txManager = new DataSourceTransactionManager(dataSource);
+        for (String sql : List.of(
+                "create table departments (id bigserial primary key, code varchar(40) not null unique, "
+                        + "name varchar(120) not null unique, created_at timestamp not null default now(), "
+                        + "updated_at timestamp not null default now())",
+                "create table catalog_versions (name varchar(40) primary key, version bigint not null default 0)",
+                "create table employees (id bigserial primary key, full_name varchar(120) not null, "
+                        + "email varchar(180) not null unique, emp_role varchar(60) not null, hire_date date not null, "
+                        + "status varchar(20) not null default 'ACTIVE', "
+                        + "department_id bigint not null references departments(id), "
+                        + "created_at timestamp not null default now(), updated_at timestamp not null default now())",
+                "create table app_users (id bigserial primary key, email varchar(180) not null unique, "
+                        + "password_hash varchar(255) not null, role varchar(30) not null, "
+                        + "employee_id bigint not null references employees(id), enabled boolean not null default true, "
+                        + "created_at timestamp not null default now(), updated_at timestamp not null default now())",
+                "insert into catalog_versions (name, version) values ('departments', 0), ('users', 0)",
+                "insert into departments (code, name) values ('ENG', 'Engineering'), ('HR', 'Human Resources')",
+                "insert into employees (full_name, email, emp_role, hire_date, department_id) "
+                        + "values ('Admin', 'admin@grootan.com', 'ADMIN', date '2021-03-15', 1)",
+                "insert into app_users (email, password_hash, role, employee_id) values ('admin@grootan.com', 'x', 'ADMIN', 1)")) {
+            jdbc.execute(sql);
+        }
+    }
+
+    private SyntheticDataGenerator generator(long seed, String emailDomain) {
+        return new SyntheticDataGenerator(jdbc, txManager, encoder, cacheManager, new StaticApplicationContext(),
+                1_000, 20, seed, 1.1, 300, "Synthetic@123", 3, emailDomain, LocalDate.of(2025, 12, 31), false);
+    }
+
+    private List<Map<String, Object>> generatedEmployees(String emailDomain) {
+        return jdbc.queryForList("select full_name, email, emp_role, hire_date, status, d.code "
+                + "from employees e join departments d on d.id = e.department_id where email like ? order by e.id",
+                "%@" + emailDomain);
+    }
+
+    @Test
+    void writesDepartmentsEmployeesAndLoginAccounts() {
+        cacheManager.getCache("employeeSearch").put("k", "stale");
+
+        SyntheticDataGenerator.Result result = generator(42, "synthetic.test").generate();
+
+        assertThat(result.departments()).isEqualTo(20);
+        assertThat(result.employees()).isEqualTo(1_000);
+        assertThat(jdbc.queryForObject("select count(*) from departments", Long.class)).isEqualTo(22);
+        assertThat(jdbc.queryForObject("select count(*) from employees", Long.class)).isEqualTo(1_001);
+        assertThat(jdbc.queryForObject("select count(*) from app_users u join employees e on e.id = u.employee_id "
+                + "where u.email = e.email and u.role = e.emp_role and u.enabled", Long.class)).isEqualTo(1_001);
+        String hash = jdbc.queryForObject("select password_hash from app_users where email <> 'admin@grootan.com' "
+                + "order by id limit 1", String.class);
+        assertThat(encoder.matches("Synthetic@123", hash)).isTrue();
+        assertThat(jdbc.queryForObject("select count(distinct password_hash) from app_users where email <> 'admin@grootan.com'",
+                Long.class)).isEqualTo(3);
+        assertThat(jdbc.queryForList("select version from catalog_versions", Long.class)).containsOnly(1L);
+        assertThat(cacheManager.getCache("employeeSearch").get("k")).isNull();
+    }
+
+    @Test
+    void idsContinueAfterTheGeneratedRows() {
+        generator(42, "synthetic.test").generate();
+
+        jdbc.update("insert into employees (full_name, email, emp_role, hire_date, department_id) "
+                + "values ('Later', 'later@grootan.com', 'EMPLOYEE', date '2026-01-05', 1)");
+
+        assertThat(jdbc.queryForObject("select id from employees where email = 'later@grootan.com'", Long.class))
+                .isEqualTo(1_002);
+    }
+
+    @Test
+    void sameSeedOnTheSameStartingDatabaseGivesTheSameRows() {
+        generator(42, "synthetic.test").generate();
+        List<Map<String, Object>> first = generatedEmployees("synthetic.test");
+        setUp();
+        generator(42, "synthetic.test").generate();
+
+        assertThat(generatedEmployees("synthetic.test")).isEqualTo(first);
+    }
+
+    @Test
+    void refusesADomainThatWasGeneratedBefore() {
+        generator(42, "synthetic.test").generate();
+
+        assertThatThrownBy(() -> generator(43, "Synthetic.Test").generate())
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("synthetic.test");
+        generator(43, "second.test").generate();
+        assertThat(jdbc.queryForObject("select count(*) from employees", Long.class)).isEqualTo(2_001);
+        assertThat(jdbc.queryForObject("select count(*) from departments", Long.class)).isEqualTo(42);
+    }
+}
@@ -0,0 +1,117 @@
+package com.grootan.ems.datagen;
+
+import com.grootan.ems.employee.EmployeeStatus;
+import com.grootan.ems.user.Role;
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.offset;
+
+class SyntheticDirectoryTest {
+
+    private static final LocalDate HIRED_UNTIL = LocalDate.of(2025, 12, 31);
+
+    private static List<SyntheticDirectory.EmployeeRow> employees(long seed, int count) {
+        SyntheticDirectory directory = new SyntheticDirectory(seed, HIRED_UNTIL, "Synthetic.Test");
+        directory.useDepartments(LongStream.rangeClosed(1, 50).boxed().toList(), 1.1);
+        return LongStream.rangeClosed(1, count).mapToObj(directory::employee).toList();
+    }
+
+    @Test
+    void sameSeedGivesTheSameRows() {
+        assertThat(employees(7, 2_000)).isEqualTo(employees(7, 2_000));
+        assertThat(employees(7, 2_000)).isNotEqualTo(employees(8, 2_000));
+    }
+
+    @Test
+    void emailsAreUniqueAndLowerCase() {
+        List<SyntheticDirectory.EmployeeRow> rows = employees(1, 20_000);
+
+        Set<String> emails = rows.stream().map(SyntheticDirectory.EmployeeRow::email).collect(Collectors.toSet());
+
+        assertThat(emails).hasSize(rows.size());
+        assertThat(emails).allMatch(e -> e.matches("[a-z]+\\.[a-z]+[0-9]*@synthetic\\.test"));
+    }
+
+    @Test
+    void departmentSizesAndNamesAreSkewed() {
+        List<SyntheticDirectory.EmployeeRow> rows = employees(3, 20_000);
+
+        List<Long> departmentSizes = countBy(rows, SyntheticDirectory.EmployeeRow::departmentId).values().stream()
+                .sorted((a, b) -> Long.compare(b, a)).toList();
+        List<Long> nameCounts = countBy(rows, r -> r.fullName().split(" ")[0]).values().stream()
+                .sorted((a, b) -> Long.compare(b, a)).toList();
+
+        // Zipf(1.1) over 50: the largest department holds about a quarter, the smallest a fraction of a percent
+        assertThat(departmentSizes.get(0)).isGreaterThan(3_000);
+        assertThat(departmentSizes.get(departmentSizes.size() - 1)).isLessThan(200);
+        assertThat(nameCounts.get(0)).isGreaterThan(10 * nameCounts.get(nameCounts.size() - 1));
+    }
+
+    @Test
+    void hireDatesFavourRecentWeekdaysAndTenureDrivesAttrition() {
+        List<SyntheticDirectory.EmployeeRow> rows = employees(5, 20_000);
+        LocalDate fourYearsBack = HIRED_UNTIL.minusYears(4);
+
+        Map<Boolean, List<SyntheticDirectory.EmployeeRow>> byRecent = rows.stream()
+                .collect(Collectors.partitioningBy(r -> r.hireDate().isAfter(fourYearsBack)));
+
+        assertThat(rows).allMatch(r -> !r.hireDate().isAfter(HIRED_UNTIL)
+                && !r.hireDate().isBefore(HIRED_UNTIL.minusYears(SyntheticDirectory.MAX_TENURE_YEARS).minusDays(2))
+                && r.hireDate().getDayOfWeek() != DayOfWeek.SATURDAY
+                && r.hireDate().getDayOfWeek() != DayOfWeek.SUNDAY);
+        assertThat(byRecent.get(true)).hasSizeBetween(11_000, 14_000); // 1 - e^-1 of them
+        assertThat(inactiveShare(byRecent.get(false))).isGreaterThan(inactiveShare(byRecent.get(true)));
+        assertThat(rows.stream().filter(r -> r.role() == Role.EMPLOYEE).count()).isGreaterThan(16_000);
+        assertThat(rows.stream().map(SyntheticDirectory.EmployeeRow::role)).contains(Role.MANAGER, Role.HR);
+    }
+
+    @Test
+    void departmentsSkipTakenCodesAndNumberPastEveryCombination() {
+        List<SyntheticDirectory.DepartmentRow> first = SyntheticDirectory.departments(5, 9, Set.of(), Set.of());
+        List<SyntheticDirectory.DepartmentRow> many = SyntheticDirectory.departments(500, 9,
+                Set.of(first.get(0).code()), Set.of(first.get(1).name()));
+
+        assertThat(SyntheticDirectory.departments(5, 9, Set.of(), Set.of())).isEqualTo(first);
+        assertThat(many).extracting(SyntheticDirectory.DepartmentRow::code)
+                .doesNotContain(first.get(0).code(), first.get(1).code())
+                .doesNotHaveDuplicates();
+        assertThat(new HashSet<>(many.stream().map(SyntheticDirectory.DepartmentRow::name).toList())).hasSize(500);
+        assertThat(many).allMatch(d -> d.code().length() <= 40 && d.name().length() <= 120);
+        assertThat(many.get(499).code()).endsWith("-2");
+    }
+
+    @Test
+    void zipfRanksFollowTheirWeights() {
+        ZipfSampler zipf = new ZipfSampler(4, 1);
+        Random random = new Random(11);
+        int[] counts = new int[zipf.size()];
+        for (int i = 0; i < 100_000; i++) {
+            counts[zipf.next(random)]++;
+        }
+
+        // weights 1, 1/2, 1/3, 1/4 of 25/12
+        assertThat(counts[0] / 100_000.0).isCloseTo(0.48, offset(0.01));
+        assertThat(counts[3] / 100_000.0).isCloseTo(0.12, offset(0.01));
+    }
+
+    private static <K> Map<K, Long> countBy(List<SyntheticDirectory.EmployeeRow> rows,
+                                            Function<SyntheticDirectory.EmployeeRow, K> key) {
+        return rows.stream().collect(Collectors.groupingBy(key, Collectors.counting()));
+    }
+
+    private static double inactiveShare(List<SyntheticDirectory.EmployeeRow> rows) {
+        return rows.stream().filter(r -> r.status() == EmployeeStatus.INACTIVE).count() / (double) rows.size();
+    }
+}
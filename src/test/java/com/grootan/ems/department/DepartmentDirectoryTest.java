@@ -0,0 +1,103 @@
+package com.grootan.ems.department;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Sort;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DepartmentDirectoryTest {
+
+    @Mock
+    private DepartmentRepository repository;
+
+    @Mock
+    private CatalogVersionRepository versions;
+
+    @InjectMocks
+    private DepartmentDirectory directory;
+
+    private static Department department(long id, String code, String name) {
+        Department d = new Department();
+        d.setId(id);
+        d.setCode(code);
+        d.setName(name);
+        return d;
+    }
+
+    @Test
+    void loadsOnceAndServesByIdAndCode() {
+        when(versions.findVersion(DepartmentDirectory.CATALOG)).thenReturn(Optional.of(3L));
+        when(repository.findAll(Sort.by("name").ascending()))
+                .thenReturn(List.of(department(1, "ENG", "Engineering"), department(2, "HR", "Human Resources")));
+
+        assertThat(directory.list()).extracting("code").containsExactly("ENG", "HR");
+        assertThat(directory.findById(2L)).get().extracting("name").isEqualTo("Human Resources");
+        assertThat(directory.findByCode("eng")).get().extracting("id").isEqualTo(1L);
+        assertThat(directory.findById(9L)).isEmpty();
+        assertThat(directory.version()).isEqualTo(3);
+
+        verify(repository, times(1)).findAll(any(Sort.class));
+    }
+
+    @Test
+    void pollReloadsOnlyWhenTheStoredVersionMoved() {
+        when(versions.findVersion(DepartmentDirectory.CATALOG)).thenReturn(Optional.of(1L));
+        when(repository.findAll(any(Sort.class))).thenReturn(List.of(department(1, "ENG", "Engineering")));
+        directory.list();
+
+        directory.poll();
+        verify(repository, times(1)).findAll(any(Sort.class));
+
+        when(versions.findVersion(DepartmentDirectory.CATALOG)).thenReturn(Optional.of(2L));
+        when(repository.findAll(any(Sort.class))).thenReturn(List.of(department(1, "ENG", "Platform Engineering")));
+        directory.poll();
+
+        assertThat(directory.findById(1L)).get().extracting("name").isEqualTo("Platform Engineering");
+        assertThat(directory.version()).isEqualTo(2);
+    }
+
+    @Test
+    void writeLookupCatchesUpWithDepartmentsCreatedElsewhere() {
+        when(versions.findVersion(DepartmentDirectory.CATALOG)).thenReturn(Optional.of(1L));
+        when(repository.findAll(any(Sort.class))).thenReturn(List.of(department(1, "ENG", "Engineering")));
+        directory.list();
+
+        // another node created FIN; this node's poll has not run yet
+        when(versions.findVersion(DepartmentDirectory.CATALOG)).thenReturn(Optional.of(2L));
+        when(repository.findAll(any(Sort.class)))
+                .thenReturn(List.of(department(1, "ENG", "Engineering"), department(2, "FIN", "Finance")));
+
+        assertThat(directory.findById(2L)).isEmpty();
+        assertThat(directory.findCurrentById(2L)).get().extracting("code").isEqualTo("FIN");
+        assertThat(directory.findCurrentByCode("fin")).get().extracting("id").isEqualTo(2L);
+        // an id that does not exist costs a version check, not a reload
+        assertThat(directory.findCurrentById(9L)).isEmpty();
+        verify(repository, times(2)).findAll(any(Sort.class));
+    }
+
+    @Test
+    void pollBeforeFirstLoadDoesNothing() {
+        directory.poll();
+
+        verifyNoInteractions(repository, versions);
+    }
+
+    @Test
+    void bumpCreatesTheVersionRowWhenMissing() {
+        when(versions.increment(DepartmentDirectory.CATALOG)).thenReturn(0);
+
+        directory.bumpVersion(new DepartmentChangedEvent(DepartmentChangedEvent.Type.CREATED, 1L));
+
+        verify(versions).save(argThat(v -> v.getName().equals("departments") && v.getVersion() == 1));
+    }
+}
@@ -9,7 +9,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.data.domain.Sort;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.time.OffsetDateTime;
 import java.util.List;
@@ -27,6 +27,12 @@ class DepartmentServiceTest {
     @Mock
     private DepartmentRepository repository;
 
+    @Mock
+    private DepartmentDirectory directory;
+
+    @Mock
+    private ApplicationEventPublisher events;
+
     @InjectMocks
     private DepartmentService service;
 
@@ -61,6 +67,8 @@ class DepartmentServiceTest {
         assertEquals(2L, response.getId());
         assertEquals("ENG", response.getCode());
         verify(repository).save(any(Department.class));
+        verify(events).publishEvent(argThat((DepartmentChangedEvent ev) ->
+                ev.getType() == DepartmentChangedEvent.Type.CREATED && ev.getId() == 2L));
     }
 
     @Test
@@ -77,7 +85,7 @@ class DepartmentServiceTest {
 
     @Test
     void getById_returnsDepartment() {
-        when(repository.findById(1L)).thenReturn(Optional.of(department));
+        when(directory.findById(1L)).thenReturn(Optional.of(DepartmentDirectory.toResponse(department)));
 
         var response = service.getById(1L);
 
@@ -86,14 +94,14 @@ class DepartmentServiceTest {
 
     @Test
     void getById_notFoundThrows() {
-        when(repository.findById(99L)).thenReturn(Optional.empty());
+        when(directory.findById(99L)).thenReturn(Optional.empty());
 
         assertThrows(ApiException.class, () -> service.getById(99L));
     }
 
     @Test
     void list_returnsAllDepartments() {
-        when(repository.findAll(Sort.by("name").ascending())).thenReturn(List.of(department));
+        when(directory.list()).thenReturn(List.of(DepartmentDirectory.toResponse(department)));
 
         var results = service.list();
 
@@ -124,6 +132,7 @@ class DepartmentServiceTest {
 
         assertThrows(ApiException.class, () -> service.delete(5L));
         verify(repository, never()).delete(any());
+        verifyNoInteractions(events);
     }
 
     @Test
@@ -133,5 +142,6 @@ class DepartmentServiceTest {
         service.delete(1L);
 
         verify(repository).delete(department);
+        verify(events).publishEvent(any(DepartmentChangedEvent.class));
     }
 }
@@ -0,0 +1,79 @@
+package com.grootan.ems.employee;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.grootan.ems.employee.dto.EmployeePage.TotalAccuracy;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class EmployeeCounterTest {
+
+    @Mock
+    private EmployeeRepository employeeRepo;
+    @Mock
+    private JdbcTemplate jdbc;
+
+    private final ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager(EmployeeCounter.CACHE);
+    private final Specification<Employee> spec = EmployeeSpecs.statusEquals(EmployeeStatus.ACTIVE);
+    private EmployeeCounter counter;
+
+    @BeforeEach
+    void setUp() {
+        counter = new EmployeeCounter(employeeRepo, cacheManager, jdbc, new ObjectMapper(), new SyncTaskExecutor(),
+                EmployeeCounter.Strategy.AUTO, 50_000);
+    }
+
+    @Test
+    void textSearchIsAlwaysCountedExactly() {
+        when(employeeRepo.count(Mockito.<Specification<Employee>>any())).thenReturn(7L);
+
+        var result = counter.count(spec, "ali", null, EmployeeStatus.ACTIVE);
+
+        assertThat(result.getTotal()).isEqualTo(7L);
+        assertThat(result.getAccuracy()).isEqualTo(TotalAccuracy.EXACT);
+        verifyNoInteractions(jdbc);
+    }
+
+    @Test
+    void broadFilterReturnsEstimateThenCachedExactCount() {
+        when(jdbc.execute(Mockito.<ConnectionCallback<String>>any())).thenReturn("PostgreSQL");
+        when(jdbc.queryForObject(anyString(), eq(String.class))).thenReturn("[{\"Plan\": {\"Plan Rows\": 380000}}]");
+        when(employeeRepo.count(Mockito.<Specification<Employee>>any())).thenReturn(379_512L);
+
+        var first = counter.count(spec, null, null, EmployeeStatus.ACTIVE);
+        var second = counter.count(spec, null, null, EmployeeStatus.ACTIVE);
+
+        assertThat(first.getAccuracy()).isEqualTo(TotalAccuracy.ESTIMATED);
+        assertThat(first.getTotal()).isEqualTo(380_000L);
+        assertThat(second.getAccuracy()).isEqualTo(TotalAccuracy.CACHED);
+        assertThat(second.getTotal()).isEqualTo(379_512L);
+        verify(employeeRepo, times(1)).count(Mockito.<Specification<Employee>>any());
+    }
+
+    @Test
+    void smallBroadFilterIsCountedExactlyAndCached() {
+        when(jdbc.execute(Mockito.<ConnectionCallback<String>>any())).thenReturn("PostgreSQL");
+        when(jdbc.queryForObject(anyString(), eq(String.class))).thenReturn("[{\"Plan\": {\"Plan Rows\": 1200}}]");
+        when(employeeRepo.count(Mockito.<Specification<Employee>>any())).thenReturn(1180L);
+
+        var result = counter.count(spec, null, 3L, null);
+
+        assertThat(result.getAccuracy()).isEqualTo(TotalAccuracy.EXACT);
+        assertThat(cacheManager.getCache(EmployeeCounter.CACHE).get("dept=3|st=", Long.class)).isEqualTo(1180L);
+    }
+}
@@ -0,0 +1,139 @@
+package com.grootan.ems.employee;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.grootan.ems.common.ApiException;
+import com.grootan.ems.department.Department;
+import com.grootan.ems.department.DepartmentChangedEvent;
+import com.grootan.ems.department.DepartmentDirectory;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "app.export.fetch-size=7"
+})
+@ActiveProfiles("test")
+@Import({EmployeeExportService.class, LikeEmployeeTextSearch.class, DepartmentDirectory.class})
+class EmployeeExportServiceTest {
+
+    @Autowired
+    private EmployeeExportService exportService;
+
+    @Autowired
+    private DepartmentDirectory departments;
+
+    @Autowired
+    private EntityManager em;
+
+    private Long engId;
+
+    @BeforeEach
+    void setUp() {
+        for (String code : List.of("ENG", "HR")) {
+            Department dept = new Department();
+            dept.setCode(code);
+            dept.setName(code.equals("ENG") ? "Engineering, Core" : "Human Resources");
+            em.persist(dept);
+            if (engId == null) engId = dept.getId();
+            for (int i = 0; i < 25; i++) {
+                Employee e = new Employee();
+                e.setFullName(code + " \"Person\" " + i);
+                e.setEmail(code.toLowerCase() + i + "@example.com");
+                e.setEmpRole("EMPLOYEE");
+                e.setHireDate(LocalDate.of(2020, 1, 1).plusDays(i));
+                e.setStatus(i % 5 == 0 ? EmployeeStatus.INACTIVE : EmployeeStatus.ACTIVE);
+                e.setDepartment(dept);
+                em.persist(e);
+            }
+        }
+        em.flush();
+        departments.onDepartmentChanged(new DepartmentChangedEvent(DepartmentChangedEvent.Type.CREATED, engId));
+        em.clear(); // nothing managed before the export
+    }
+
+    private String export(String q, Long departmentId, String status, EmployeeExportService.Format format) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exportService.export(q, departmentId, status, format, out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void csvHasHeaderAndOneQuotedLinePerMatchingEmployee() throws Exception {
+        String csv = export(null, engId, "ACTIVE", EmployeeExportService.Format.CSV);
+
+        List<String> lines = csv.lines().toList();
+        assertThat(lines.get(0)).isEqualTo(String.join(",", EmployeeExportService.COLUMNS));
+        assertThat(lines).hasSize(1 + 20);
+        assertThat(lines.get(1)).contains("\"ENG \"\"Person\"\" 1\"", "eng1@example.com", "2020-01-02", "ACTIVE",
+                ",ENG,\"Engineering, Core\",");
+    }
+
+    @Test
+    void csvCellsThatWouldRunAsFormulasAreEscaped() throws Exception {
+        Employee e = new Employee();
+        e.setFullName("=HYPERLINK(\"http://x.test\",\"Pay\")");
+        e.setEmail("@evil@example.com");
+        e.setEmpRole("-EMPLOYEE");
+        e.setHireDate(LocalDate.of(2021, 1, 1));
+        e.setDepartment(em.find(Department.class, engId));
+        em.persist(e);
+        em.flush();
+        em.clear();
+
+        String csv = export("hyperlink", null, null, EmployeeExportService.Format.CSV);
+        String ndjson = export("hyperlink", null, null, EmployeeExportService.Format.NDJSON);
+
+        assertThat(csv.lines().toList().get(1))
+                .contains(",\"'=HYPERLINK(\"\"http://x.test\"\",\"\"Pay\"\")\",'@evil@example.com,'-EMPLOYEE,2021-01-01,");
+        assertThat(new ObjectMapper().readTree(ndjson).get("fullName").asText()).startsWith("=HYPERLINK");
+    }
+
+    @Test
+    void ndjsonIsOneObjectPerLine() throws Exception {
+        String ndjson = export("hr \"person\" 1", null, null, EmployeeExportService.Format.NDJSON);
+
+        List<String> lines = ndjson.lines().toList();
+        // HR "Person" 1, 10..19
+        assertThat(lines).hasSize(11);
+        JsonNode first = new ObjectMapper().readTree(lines.get(0));
+        assertThat(first.get("fullName").asText()).isEqualTo("HR \"Person\" 1");
+        assertThat(first.get("departmentCode").asText()).isEqualTo("HR");
+        assertThat(first.get("id").isNumber()).isTrue();
+        assertThat(ndjson).endsWith("}\n");
+    }
+
+    @Test
+    void exportRunsOneQueryAndManagesNoEntities() throws Exception {
+        Statistics statistics = em.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        String csv = export(null, null, null, EmployeeExportService.Format.CSV);
+
+        assertThat(csv.lines()).hasSize(1 + 50);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+        assertThat(em.unwrap(Session.class).getStatistics().getEntityCount()).isZero();
+    }
+
+    @Test
+    void rejectsUnknownFormat() {
+        assertThatThrownBy(() -> EmployeeExportService.parseFormat("xml")).isInstanceOf(ApiException.class);
+    }
+}
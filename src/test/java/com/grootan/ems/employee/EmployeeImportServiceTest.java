@@ -0,0 +1,250 @@
+package com.grootan.ems.employee;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.grootan.ems.common.ApiException;
+import com.grootan.ems.department.Department;
+import com.grootan.ems.department.DepartmentDirectory;
+import com.grootan.ems.department.DepartmentRepository;
+import com.grootan.ems.department.dto.DepartmentResponse;
+import com.grootan.ems.employee.dto.EmployeeImportError;
+import com.grootan.ems.employee.dto.EmployeeImportReport;
+import com.grootan.ems.user.AppUser;
+import com.grootan.ems.user.AppUserRepository;
+import com.grootan.ems.user.CredentialProvisioner;
+import com.grootan.ems.user.Role;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class EmployeeImportServiceTest {
+
+    @Mock
+    private EmployeeRepository employeeRepo;
+    @Mock
+    private DepartmentRepository deptRepo;
+    @Mock
+    private DepartmentDirectory departments;
+    @Mock
+    private AppUserRepository appUserRepo;
+    @Mock
+    private CredentialProvisioner credentials;
+    @Mock
+    private ApplicationEventPublisher events;
+    @Mock
+    private PlatformTransactionManager txManager;
+
+    private EmployeeImportService service;
+    private final AtomicLong ids = new AtomicLong(100);
+
+    @BeforeEach
+    void setUp() {
+        ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+        // chunks of 2 rows, so every test crosses chunk boundaries
+        service = new EmployeeImportService(employeeRepo, deptRepo, departments, appUserRepo, credentials,
+                Validation.buildDefaultValidatorFactory().getValidator(), events, objectMapper, txManager, 2, 2, 1000);
+
+        DepartmentResponse eng = new DepartmentResponse(1L, "ENG", "Engineering", null, null);
+        when(departments.findById(1L)).thenReturn(Optional.of(eng));
+        when(departments.findByCode("ENG")).thenReturn(Optional.of(eng));
+        when(departments.findCurrentById(1L)).thenReturn(Optional.of(eng));
+        when(departments.findCurrentByCode("ENG")).thenReturn(Optional.of(eng));
+        Department ref = new Department();
+        ref.setId(1L);
+        when(deptRepo.getReferenceById(1L)).thenReturn(ref);
+        when(credentials.createAccounts(anyList())).thenAnswer(inv ->
+                inv.<List<AppUser>>getArgument(0).stream().map(u -> "RawPass123").toList());
+        when(employeeRepo.saveAll(anyList())).thenAnswer(inv -> {
+            List<Employee> employees = inv.getArgument(0);
+            employees.forEach(e -> e.setId(ids.incrementAndGet()));
+            return employees;
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    private final ByteArrayOutputStream response = new ByteArrayOutputStream();
+
+    private static ByteArrayInputStream body(String s) {
+        return new ByteArrayInputStream(s.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private EmployeeImportReport importCsv(String csv) throws IOException {
+        response.reset();
+        return service.importCsv(body(csv), response);
+    }
+
+    private EmployeeImportReport importNdjson(String ndjson) throws IOException {
+        response.reset();
+        return service.importNdjson(body(ndjson), response);
+    }
+
+    /** The {@code credentials} array of the written report. */
+    private List<JsonNode> writtenCredentials() throws IOException {
+        List<JsonNode> out = new ArrayList<>();
+        new ObjectMapper().readTree(response.toByteArray()).get("credentials").forEach(out::add);
+        return out;
+    }
+
+    @Test
+    void importCsv_insertsValidRowsInChunksAndReportsTheRest() throws IOException {
+        String csv = """
+                fullName,email,empRole,hireDate,departmentCode,status
+                Jane Doe,Jane@Example.com,employee,2024-01-31,ENG,
+                "Doe, John",john@example.com,MANAGER,2024-02-01,ENG,INACTIVE
+                No Dept,nodept@example.com,EMPLOYEE,2024-02-01,XXX,
+
+                Bad Date,baddate@example.com,EMPLOYEE,31/01/2024,ENG,
+                Dup,jane@example.com,EMPLOYEE,2024-01-31,ENG,
+                Bad Role,badrole@example.com,INTERN,2024-01-31,ENG,
+                Taken,taken@example.com,HR,2024-01-31,ENG,
+                """;
+        when(employeeRepo.findExistingEmails(anyCollection())).thenAnswer(inv ->
+                inv.<List<String>>getArgument(0).stream().filter("taken@example.com"::equals).toList());
+
+        EmployeeImportReport report = importCsv(csv);
+
+        assertThat(report.getReceived()).isEqualTo(7);
+        assertThat(report.getImported()).isEqualTo(2);
+        assertThat(report.getFailed()).isEqualTo(5);
+        assertThat(report.getErrors()).extracting(EmployeeImportError::getLine)
+                .containsExactly(4L, 6L, 7L, 8L, 9L);
+        assertThat(report.getErrors()).extracting(EmployeeImportError::getCode).containsExactly(
+                "department_not_found", "invalid_row", "duplicate_email", "invalid_role", "employee_email_exists");
+        assertThat(writtenCredentials()).extracting(c -> c.get("email").asText())
+                .containsExactly("jane@example.com", "john@example.com");
+        assertThat(writtenCredentials()).allSatisfy(c -> assertThat(c.get("temporaryPassword").asText()).isEqualTo("RawPass123"));
+        JsonNode written = new ObjectMapper().readTree(response.toByteArray());
+        assertThat(written.get("imported").asLong()).isEqualTo(2);
+        assertThat(written.get("errors")).hasSize(5);
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<AppUser>> users = ArgumentCaptor.forClass(List.class);
+        verify(credentials).createAccounts(users.capture());
+        assertThat(users.getValue()).extracting(AppUser::getRole).containsExactly(Role.EMPLOYEE, Role.MANAGER);
+        assertThat(users.getValue()).allSatisfy(u -> assertThat(u.getEmployee().getId()).isNotNull());
+        verify(events, times(2)).publishEvent(any(EmployeeChangedEvent.class));
+        verify(txManager, times(1)).commit(any());
+    }
+
+    @Test
+    void importNdjson_resolvesDepartmentById() throws IOException {
+        String ndjson = """
+                {"fullName":"Jane Doe","email":"jane@example.com","empRole":"EMPLOYEE","hireDate":"2024-01-31","departmentId":1}
+                {"fullName":"Ann Lee","email":"ann@example.com","empRole":"HR","hireDate":"2024-01-31","departmentId":1,"status":"retired"}
+                not json
+                """;
+
+        EmployeeImportReport report = importNdjson(ndjson);
+
+        assertThat(report.getImported()).isEqualTo(1);
+        assertThat(report.getErrors()).extracting(EmployeeImportError::getCode)
+                .containsExactly("invalid_status", "invalid_row");
+        verify(departments, never()).findByCode(any());
+    }
+
+    @Test
+    void failedChunkRejectsOnlyItsRows() throws IOException {
+        String csv = """
+                fullName,email,empRole,hireDate,departmentId
+                A,a@example.com,EMPLOYEE,2024-01-31,1
+                B,b@example.com,EMPLOYEE,2024-01-31,1
+                C,c@example.com,EMPLOYEE,2024-01-31,1
+                """;
+        List<Integer> calls = new ArrayList<>();
+        when(employeeRepo.saveAll(anyList())).thenAnswer(inv -> {
+            calls.add(1);
+            if (calls.size() == 1) {
+                throw new DataIntegrityViolationException("duplicate key value violates unique constraint");
+            }
+            List<Employee> employees = inv.getArgument(0);
+            employees.forEach(e -> e.setId(ids.incrementAndGet()));
+            return employees;
+        });
+
+        EmployeeImportReport report = importCsv(csv);
+
+        assertThat(report.getImported()).isEqualTo(1);
+        assertThat(report.getErrors()).extracting(EmployeeImportError::getCode)
+                .containsExactly("batch_failed", "batch_failed");
+        assertThat(writtenCredentials()).extracting(c -> c.get("email").asText()).containsExactly("c@example.com");
+        verify(txManager).rollback(any());
+    }
+
+    @Test
+    void credentialsAreWrittenAsEachChunkCommits() throws IOException {
+        String csv = """
+                fullName,email,empRole,hireDate,departmentId
+                A,a@example.com,EMPLOYEE,2024-01-31,1
+                B,b@example.com,EMPLOYEE,2024-01-31,1
+                C,c@example.com,EMPLOYEE,2024-01-31,1
+                """;
+        List<Integer> writtenBeforeChunk = new ArrayList<>();
+        when(employeeRepo.saveAll(anyList())).thenAnswer(inv -> {
+            writtenBeforeChunk.add(response.size());
+            List<Employee> employees = inv.getArgument(0);
+            employees.forEach(e -> e.setId(ids.incrementAndGet()));
+            return employees;
+        });
+
+        importCsv(csv);
+
+        // chunks of 2: the first chunk's passwords were on the wire before the second chunk ran
+        assertThat(writtenBeforeChunk).hasSize(2);
+        assertThat(writtenBeforeChunk.get(1)).isGreaterThan(writtenBeforeChunk.get(0));
+        assertThat(writtenCredentials()).hasSize(3);
+    }
+
+    @Test
+    void errorListIsCappedButCountIsExact() throws IOException {
+        service = new EmployeeImportService(employeeRepo, deptRepo, departments, appUserRepo, credentials,
+                Validation.buildDefaultValidatorFactory().getValidator(), events, new ObjectMapper(), txManager, 2, 2, 1);
+        String csv = "fullName,email,empRole,hireDate,departmentId\nA,not-an-email,EMPLOYEE,2024-01-31,1\n,b@example.com,EMPLOYEE,2024-01-31,1\n";
+
+        EmployeeImportReport report = importCsv(csv);
+
+        assertThat(report.getFailed()).isEqualTo(2);
+        assertThat(report.getErrors()).hasSize(1);
+        assertThat(report.isErrorsTruncated()).isTrue();
+    }
+
+    @Test
+    void csvWithoutRequiredColumnsIsRejected() throws IOException {
+        assertThatThrownBy(() -> importCsv("name,email\nA,a@example.com\n"))
+                .isInstanceOf(ApiException.class);
+        assertThat(response.size()).isZero(); // nothing written, so the error response can still go out
+        verifyNoInteractions(employeeRepo);
+    }
+}
@@ -0,0 +1,77 @@
+package com.grootan.ems.employee;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EmployeeNgramIndexTest {
+
+    private EmployeeNgramIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new EmployeeNgramIndex();
+        index.upsert(1, "Alice Johnson", "alice.johnson@ems.local", "ENG");
+        index.upsert(2, "Alina Kumar", "alina@ems.local", "HR");
+        index.upsert(3, "Bob Alison", "bob@ems.local", "ENG");
+        index.upsert(4, "Carol Smith", "carol@ems.local", "FIN");
+    }
+
+    @Test
+    void shortQueryMatchesWordPrefixesAndRanksNameStartFirst() {
+        assertThat(index.suggest("ali", 10))
+                .extracting("id")
+                .containsExactly(2L, 1L, 3L);
+    }
+
+    @Test
+    void longQueryMatchesSubstringsAcrossFields() {
+        assertThat(index.suggest("johnson", 10)).extracting("id").containsExactly(1L);
+        assertThat(index.suggest("lison", 10)).extracting("id").containsExactly(3L);
+        assertThat(index.suggest("fin", 10)).extracting("id").containsExactly(4L);
+    }
+
+    @Test
+    void multipleTokensAreIntersected() {
+        assertThat(index.suggest("ali eng", 10)).extracting("id").containsExactlyInAnyOrder(1L, 3L);
+    }
+
+    @Test
+    void limitKeepsBestRankedResults() {
+        assertThat(index.suggest("ali", 1)).extracting("id").containsExactly(2L);
+    }
+
+    @Test
+    void broadPrefixRanksEveryMatchNotJustTheLowestIds() {
+        for (int id = 10; id < 60_010; id++) {
+            index.upsert(id, "Alexander Person " + id, "alexander" + id + "@ems.local", "ENG");
+        }
+        index.upsert(90_000, "Al Wu", "al.wu@ems.local", "ENG");
+
+        assertThat(index.suggest("al", 1)).extracting("id").containsExactly(90_000L);
+        assertThat(index.suggest("al eng", 1)).extracting("id").containsExactly(90_000L);
+    }
+
+    @Test
+    void idsBeyondIntRangeAreSkipped() {
+        long id = Integer.MAX_VALUE + 1L;
+
+        index.upsert(id, "Dana Scully", "dana@ems.local", "FBI");
+        index.remove(id);
+
+        assertThat(index.suggest("dana", 10)).isEmpty();
+        assertThat(index.size()).isEqualTo(4);
+    }
+
+    @Test
+    void upsertReplacesOldGramsAndRemoveDropsEntry() {
+        index.upsert(4, "Caroline Stone", "caroline@ems.local", "FIN");
+        assertThat(index.suggest("smith", 10)).isEmpty();
+        assertThat(index.suggest("stone", 10)).extracting("fullName").containsExactly("Caroline Stone");
+
+        index.remove(4);
+        assertThat(index.suggest("stone", 10)).isEmpty();
+        assertThat(index.size()).isEqualTo(3);
+    }
+}
@@ -0,0 +1,148 @@
+package com.grootan.ems.employee;
+
+import com.grootan.ems.department.Department;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Hibernate;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Read paths run one select per page and never load departments: responses take department
+ * fields from {@link com.grootan.ems.department.DepartmentDirectory} by the association's id,
+ * which an uninitialized proxy knows.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+class EmployeeRepositoryTest {
+
+    @Autowired
+    private EmployeeRepository repository;
+
+    @Autowired
+    private EntityManager em;
+
+    private Statistics statistics;
+    private Long firstId;
+
+    @BeforeEach
+    void setUp() {
+        for (int d = 0; d < 3; d++) {
+            Department dept = new Department();
+            dept.setCode("D" + d);
+            dept.setName("Department " + d);
+            em.persist(dept);
+            for (int i = 0; i < 5; i++) {
+                Employee e = new Employee();
+                e.setFullName("Employee " + d + "-" + i);
+                e.setEmail("e" + d + "-" + i + "@example.com");
+                e.setEmpRole("EMPLOYEE");
+                e.setHireDate(LocalDate.of(2020, 1, 1));
+                e.setDepartment(dept);
+                em.persist(e);
+                if (firstId == null) firstId = e.getId();
+            }
+        }
+        em.flush();
+        em.clear(); // nothing cached in the persistence context
+        statistics = em.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    private static Specification<Employee> active() {
+        return EmployeeSpecs.statusEquals(EmployeeStatus.ACTIVE).and(EmployeeSpecs.departmentIdEquals(null));
+    }
+
+    private static void readDepartmentIds(Iterable<Employee> employees) {
+        for (Employee e : employees) {
+            assertThat(e.getDepartment().getId()).isNotNull();
+            assertThat(Hibernate.isInitialized(e.getDepartment())).isFalse();
+        }
+    }
+
+    @Test
+    void searchPageIsOneSelectPlusCount() {
+        Page<Employee> page = repository.findAll(active(), PageRequest.of(0, 10, Sort.by("fullName")));
+        readDepartmentIds(page);
+
+        assertThat(page.getTotalElements()).isEqualTo(15);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    @Test
+    void sliceIsOneSelect() {
+        Slice<Employee> slice = repository.findBy(active(), q -> q
+                .sortBy(Sort.by("fullName")).slice(PageRequest.of(1, 5)));
+        readDepartmentIds(slice);
+
+        assertThat(slice.getContent()).hasSize(5);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void keysetScrollIsOneSelect() {
+        Window<Employee> window = repository.findBy(active(), q -> q
+                .sortBy(Sort.by("fullName", "id")).limit(5).scroll(ScrollPosition.keyset()));
+        readDepartmentIds(window);
+
+        assertThat(window.size()).isEqualTo(5);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void relevanceOrderWithoutTermFallsBackToName() {
+        Page<Employee> page = repository.findAll(active().and(EmployeeSpecs.orderByTextRank("  ")),
+                PageRequest.of(1, 5));
+
+        assertThat(page.getContent()).extracting(Employee::getFullName)
+                .containsExactly("Employee 1-0", "Employee 1-1", "Employee 1-2", "Employee 1-3", "Employee 1-4");
+        assertThat(page.getTotalElements()).isEqualTo(15);
+    }
+
+    @Test
+    void lookupByIdIsOneSelect() {
+        Employee e = repository.findById(firstId).orElseThrow();
+        readDepartmentIds(List.of(e));
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void insertsAreBatchedWithPooledIds() {
+        Department dept = em.find(Department.class, repository.findById(firstId).orElseThrow().getDepartment().getId());
+        statistics.clear();
+        List<Employee> employees = new ArrayList<>();
+        for (int i = 0; i < 120; i++) {
+            Employee e = new Employee();
+            e.setFullName("Imported " + i);
+            e.setEmail("imported" + i + "@example.com");
+            e.setEmpRole("EMPLOYEE");
+            e.setHireDate(LocalDate.of(2024, 1, 1));
+            e.setDepartment(dept);
+            employees.add(e);
+        }
+        repository.saveAll(employees);
+        em.flush();
+
+        // 3 sequence calls (blocks of 50) and 3 insert batches (hibernate.jdbc.batch_size=50), not 120 round trips
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(6);
+        assertThat(employees).extracting(Employee::getId).doesNotContainNull().doesNotHaveDuplicates();
+    }
+}
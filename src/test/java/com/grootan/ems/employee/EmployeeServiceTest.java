@@ -2,29 +2,40 @@ package com.grootan.ems.employee;
 
 import com.grootan.ems.common.ApiException;
 import com.grootan.ems.department.Department;
+import com.grootan.ems.department.DepartmentDirectory;
 import com.grootan.ems.department.DepartmentRepository;
+import com.grootan.ems.department.dto.DepartmentResponse;
 import com.grootan.ems.employee.dto.EmployeeCreateRequest;
+import com.grootan.ems.employee.dto.EmployeePage;
 import com.grootan.ems.employee.dto.EmployeeUpdateRequest;
-import com.grootan.ems.user.AppUserRepository;
-import com.grootan.ems.user.PasswordGenerator;
+import com.grootan.ems.user.AppUser;
+import com.grootan.ems.user.AppUserChangedEvent;
+import com.grootan.ems.user.CredentialProvisioner;
 import com.grootan.ems.employee.EmployeeStatus;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.Mockito;
+import org.springframework.data.domain.KeysetScrollPosition;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.jpa.domain.Specification;
 
 import java.time.LocalDate;
 import java.time.OffsetDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -42,11 +53,15 @@ class EmployeeServiceTest {
     @Mock
     private DepartmentRepository deptRepo;
     @Mock
-    private AppUserRepository appUserRepo;
+    private DepartmentDirectory departments;
     @Mock
-    private PasswordEncoder encoder;
+    private CredentialProvisioner credentials;
+    @Spy
+    private EmployeeTextSearch textSearch = new LikeEmployeeTextSearch();
     @Mock
-    private PasswordGenerator passwordGenerator;
+    private ApplicationEventPublisher events;
+    @Mock
+    private EmployeeCounter counter;
 
     @InjectMocks
     private EmployeeService service;
@@ -61,6 +76,10 @@ class EmployeeServiceTest {
         department.setName("Engineering");
     }
 
+    private DepartmentResponse departmentResponse() {
+        return new DepartmentResponse(department.getId(), department.getCode(), department.getName(), null, null);
+    }
+
     @Test
     void create_createsEmployeeAndUser() {
         EmployeeCreateRequest req = new EmployeeCreateRequest();
@@ -72,9 +91,10 @@ class EmployeeServiceTest {
         req.setStatus("ACTIVE");
 
         when(employeeRepo.existsByEmail("jane@example.com")).thenReturn(false);
-        when(deptRepo.findById(department.getId())).thenReturn(Optional.of(department));
-        when(passwordGenerator.generate(12)).thenReturn("RawPass123");
-        when(encoder.encode("RawPass123")).thenReturn("EncodedPass");
+        when(departments.findCurrentById(department.getId())).thenReturn(Optional.of(departmentResponse()));
+        when(departments.findById(department.getId())).thenReturn(Optional.of(departmentResponse()));
+        when(deptRepo.getReferenceById(department.getId())).thenReturn(department);
+        when(credentials.createAccount(any(AppUser.class))).thenReturn("RawPass123");
         when(employeeRepo.save(any(Employee.class))).thenAnswer(invocation -> {
             Employee e = invocation.getArgument(0);
             e.setId(10L);
@@ -91,7 +111,7 @@ class EmployeeServiceTest {
         assertEquals("RawPass123", response.getPassword());
         assertEquals("ENGINEERING", response.getDepartmentName().toUpperCase());
 
-        verify(appUserRepo).save(any());
+        verify(credentials).createAccount(argThat(u -> u.getEmployee().getId() == 10L && u.getEmail().equals("jane@example.com")));
     }
 
     @Test
@@ -135,7 +155,9 @@ class EmployeeServiceTest {
 
         when(employeeRepo.findById(10L)).thenReturn(Optional.of(existing));
         when(employeeRepo.existsByEmailAndIdNot("jane.new@example.com", 10L)).thenReturn(false);
-        when(deptRepo.findById(department.getId())).thenReturn(Optional.of(department));
+        when(departments.findCurrentById(department.getId())).thenReturn(Optional.of(departmentResponse()));
+        when(departments.findById(department.getId())).thenReturn(Optional.of(departmentResponse()));
+        when(deptRepo.getReferenceById(department.getId())).thenReturn(department);
         when(employeeRepo.save(any(Employee.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
         var response = service.update(10L, req);
@@ -176,6 +198,9 @@ class EmployeeServiceTest {
         service.delete(10L);
 
         verify(employeeRepo).delete(existing);
+        verify(events).publishEvent(Mockito.<Object>argThat(ev -> ev instanceof EmployeeChangedEvent e
+                && e.getType() == EmployeeChangedEvent.Type.DELETED && e.getId() == 10L));
+        verify(events).publishEvent(any(AppUserChangedEvent.class));
     }
 
     @Test
@@ -194,6 +219,75 @@ class EmployeeServiceTest {
         assertThat(results.getContent()).extracting("fullName").containsExactly("Alice", "Bob");
     }
 
+    @Test
+    void search_takesDepartmentFieldsFromDirectory() {
+        Pageable pageable = PageRequest.of(0, 10);
+        when(employeeRepo.findAll(Mockito.<Specification<Employee>>any(), eq(pageable)))
+                .thenReturn(new PageImpl<>(List.of(employeeWith("Alice", "alice@example.com")), pageable, 1));
+        when(departments.findById(department.getId()))
+                .thenReturn(Optional.of(new DepartmentResponse(department.getId(), "ENG", "Platform Engineering", null, null)));
+
+        Page<?> results = service.search(null, null, null, pageable);
+
+        assertThat(results.getContent()).extracting("departmentName").containsExactly("Platform Engineering");
+    }
+
+    @Test
+    void search_approximateModeSkipsCountQueryAndReportsAccuracy() {
+        Pageable pageable = PageRequest.of(0, 1);
+        when(counter.approximate()).thenReturn(true);
+        when(employeeRepo.findBy(Mockito.<Specification<Employee>>any(), any()))
+                .thenReturn(new SliceImpl<>(List.of(employeeWith("Alice", "alice@example.com")), pageable, true));
+        when(counter.count(any(), eq(null), eq(null), eq(EmployeeStatus.ACTIVE)))
+                .thenReturn(new EmployeeCounter.Result(250_000, EmployeePage.TotalAccuracy.ESTIMATED));
+
+        var results = (EmployeePage) service.search(null, null, "ACTIVE", pageable);
+
+        assertThat(results.getTotalElements()).isEqualTo(250_000);
+        assertThat(results.getTotalAccuracy()).isEqualTo(EmployeePage.TotalAccuracy.ESTIMATED);
+        verify(employeeRepo, never()).findAll(Mockito.<Specification<Employee>>any(), any(Pageable.class));
+    }
+
+    @Test
+    void search_relevanceSortIsHandedToSearchBackend() {
+        Pageable pageable = PageRequest.of(0, 10, Sort.by("relevance"));
+        when(employeeRepo.findAll(Mockito.<Specification<Employee>>any(), eq(PageRequest.of(0, 10))))
+                .thenReturn(Page.empty());
+
+        service.search("ali", null, null, pageable);
+
+        verify(textSearch).matches("ali", true);
+    }
+
+    @Test
+    void scroll_returnsCursorThatSeeksPastLastRow() {
+        Employee e1 = employeeWith("Alice", "alice@example.com");
+        Employee e2 = employeeWith("Bob", "bob@example.com");
+        e2.setId(2L);
+        Window<Employee> window = Window.from(List.of(e1, e2),
+                i -> ScrollPosition.forward(Map.of("fullName", i == 0 ? "Alice" : "Bob", "id", i + 1L)),
+                true);
+
+        when(employeeRepo.<Employee, Window<Employee>>findBy(Mockito.<Specification<Employee>>any(), any())).thenReturn(window);
+
+        Sort sort = Sort.by("fullName");
+        var slice = service.scroll("a", null, "ACTIVE", null, 2, sort);
+
+        assertThat(slice.getContent()).extracting("fullName").containsExactly("Alice", "Bob");
+        assertThat(slice.isHasNext()).isTrue();
+        var next = (KeysetScrollPosition) EmployeeCursor.decode(slice.getNextCursor(), EmployeeCursor.keysetSort(sort));
+        assertThat(next.getKeys()).containsEntry("fullName", "Bob").containsEntry("id", 2L);
+    }
+
+    @Test
+    void scroll_rejectsCursorForDifferentSort() {
+        String cursor = EmployeeCursor.encode(ScrollPosition.forward(Map.of("fullName", "Bob", "id", 2L)),
+                EmployeeCursor.keysetSort(Sort.by("fullName")));
+
+        assertThrows(ApiException.class,
+                () -> service.scroll(null, null, null, cursor, 10, Sort.by(Sort.Direction.DESC, "hireDate")));
+    }
+
     private Employee employeeWith(String name, String email) {
         Employee e = new Employee();
         e.setId(1L);
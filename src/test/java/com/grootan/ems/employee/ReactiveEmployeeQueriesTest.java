@@ -0,0 +1,109 @@
+package com.grootan.ems.employee;
+
+import com.grootan.ems.common.ApiException;
+import com.grootan.ems.employee.dto.EmployeeResponse;
+import io.r2dbc.spi.ConnectionFactories;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * The R2DBC reads against an in-memory H2 database with the production table layout, through the
+ * {@code like} search backend.
+ */
+class ReactiveEmployeeQueriesTest {
+
+    private ReactiveEmployeeQueries queries;
+
+    @BeforeEach
+    void setUp() {
+        DatabaseClient db = DatabaseClient.create(ConnectionFactories.get(
+                "r2dbc:h2:mem:///" + UUID.randomUUID() + "?options=DB_CLOSE_DELAY=-1;MODE=PostgreSQL"));
+        for (String sql : List.of(
+                "create table departments (id bigserial primary key, code varchar(40) not null, "
+                        + "name varchar(120) not null, created_at timestamp not null default now(), "
+                        + "updated_at timestamp not null default now())",
+                "create table employees (id bigserial primary key, full_name varchar(120) not null, "
+                        + "email varchar(180) not null, emp_role varchar(60) not null, hire_date date not null, "
+                        + "status varchar(20) not null default 'ACTIVE', department_id bigint not null, "
+                        + "created_at timestamp not null default now(), updated_at timestamp not null default now())",
+                "insert into departments (code, name) values ('ENG', 'Engineering'), ('HR', 'Human Resources')",
+                "insert into employees (full_name, email, emp_role, hire_date, status, department_id) values "
+                        + "('Carol Diaz', 'carol@example.com', 'ENGINEER', date '2021-03-01', 'ACTIVE', 1), "
+                        + "('Alice Brown', 'alice@example.com', 'ENGINEER', date '2020-01-15', 'ACTIVE', 1), "
+                        + "('Bob Alison', 'bob@example.com', 'RECRUITER', date '2022-07-10', 'INACTIVE', 2), "
+                        + "('Dan Alvarez', 'dan@example.com', 'RECRUITER', date '2023-05-20', 'ACTIVE', 2)")) {
+            db.sql(sql).then().block();
+        }
+        queries = new ReactiveEmployeeQueries(db, new LikeEmployeeTextSearch(), 2);
+    }
+
+    private static List<String> names(List<EmployeeResponse> employees) {
+        return employees.stream().map(EmployeeResponse::getFullName).toList();
+    }
+
+    @Test
+    void findByIdJoinsTheDepartment() {
+        EmployeeResponse carol = queries.findById(1).block();
+
+        assertThat(carol.getFullName()).isEqualTo("Carol Diaz");
+        assertThat(carol.getDepartmentCode()).isEqualTo("ENG");
+        assertThat(carol.getDepartmentName()).isEqualTo("Engineering");
+        assertThat(carol.getCreatedAt()).isNotNull();
+        assertThat(queries.findById(99).blockOptional()).isEmpty();
+    }
+
+    @Test
+    void filtersCombineAndAbsentValuesAreSkipped() {
+        ReactiveEmployeeQueries.Filter filter = queries.filter(" ALI ", null, EmployeeStatus.ACTIVE);
+
+        List<EmployeeResponse> page = queries.find(filter, Sort.by("fullName"), false, 0, 10).collectList().block();
+
+        assertThat(names(page)).containsExactly("Alice Brown");
+        assertThat(queries.count(filter).block()).isEqualTo(1);
+        assertThat(queries.count(queries.filter(null, 2L, null)).block()).isEqualTo(2);
+        assertThat(queries.count(queries.filter("  ", null, null)).block()).isEqualTo(4);
+    }
+
+    @Test
+    void pagesFollowTheSortWithIdAsTieBreaker() {
+        ReactiveEmployeeQueries.Filter all = queries.filter(null, null, null);
+
+        List<EmployeeResponse> second = queries.find(all, Sort.by(Sort.Direction.DESC, "empRole"), false, 2, 2)
+                .collectList().block();
+
+        assertThat(names(second)).containsExactly("Carol Diaz", "Alice Brown");
+    }
+
+    @Test
+    void rankedWithoutScoreOrdersByName() {
+        List<EmployeeResponse> ranked = queries.find(queries.filter("al", null, null), Sort.unsorted(), true, 0, 10)
+                .collectList().block();
+
+        assertThat(names(ranked)).containsExactly("Alice Brown", "Bob Alison", "Dan Alvarez");
+    }
+
+    @Test
+    void streamReturnsEveryMatchAcrossFetches() {
+        List<EmployeeResponse> streamed = queries.stream(queries.filter(null, null, null), Sort.by("hireDate"))
+                .collectList().block();
+
+        assertThat(names(streamed)).containsExactly("Alice Brown", "Carol Diaz", "Bob Alison", "Dan Alvarez");
+    }
+
+    @Test
+    void unknownSortPropertyIsABadRequest() {
+        ReactiveEmployeeQueries.Filter all = queries.filter(null, null, null);
+
+        assertThatThrownBy(() -> queries.find(all, Sort.by("department_id; drop table employees"), false, 0, 10))
+                .isInstanceOf(ApiException.class)
+                .hasMessageContaining("cannot be sorted");
+    }
+}
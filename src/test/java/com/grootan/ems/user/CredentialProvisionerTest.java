@@ -0,0 +1,188 @@
+package com.grootan.ems.user;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.data.domain.Pageable;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class CredentialProvisionerTest {
+
+    @Mock
+    private AppUserRepository userRepo;
+    @Mock
+    private PendingCredentialRepository pendingRepo;
+    @Mock
+    private PasswordEncoder encoder;
+    @Mock
+    private PasswordGenerator passwordGenerator;
+    @Mock
+    private PlatformTransactionManager txManager;
+
+    private final PendingPasswordCipher cipher = new PendingPasswordCipher("test-credentials-key");
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final AtomicLong ids = new AtomicLong();
+    private CredentialProvisioner provisioner;
+
+    @BeforeEach
+    void setUp() {
+        when(passwordGenerator.generate(12)).thenReturn("RawPass123");
+        when(encoder.encode("RawPass123")).thenReturn("EncodedPass");
+        when(userRepo.saveAll(anyList())).thenAnswer(inv -> {
+            inv.<List<AppUser>>getArgument(0).forEach(u -> u.setId(ids.incrementAndGet()));
+            return inv.getArgument(0);
+        });
+        when(pendingRepo.saveAll(anyList())).thenAnswer(inv -> {
+            inv.<List<PendingCredential>>getArgument(0).forEach(p -> p.setId(100 + p.getUserId()));
+            return inv.getArgument(0);
+        });
+        provisioner = provisioner(2, 100);
+    }
+
+    @AfterEach
+    void tearDown() {
+        provisioner.shutdown();
+    }
+
+    private CredentialProvisioner provisioner(int threads, int capacity) {
+        return new CredentialProvisioner(userRepo, pendingRepo, encoder, passwordGenerator, cipher, txManager, registry,
+                threads, capacity, Duration.ofSeconds(30), Duration.ofMinutes(2));
+    }
+
+    private static AppUser user(String email) {
+        AppUser u = new AppUser();
+        u.setEmail(email);
+        u.setRole(Role.EMPLOYEE);
+        return u;
+    }
+
+    @Test
+    void accountIsSavedDisabledAndActivatedInTheBackground() {
+        AppUser u = user("jane@example.com");
+
+        String password = provisioner.createAccount(u);
+
+        assertThat(password).isEqualTo("RawPass123");
+        assertThat(u.isEnabled()).isFalse();
+        assertThat(u.getPasswordHash()).isEqualTo(CredentialProvisioner.PENDING_HASH);
+        verify(userRepo, timeout(2000)).activate(eq(1L), eq("EncodedPass"), any());
+        verify(pendingRepo, timeout(2000)).deleteById(101L);
+        assertThat(registry.get("credentials.hash").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void pendingRowHoldsOnlyTheEncryptedPassword() {
+        ArgumentCaptor<List<PendingCredential>> saved = ArgumentCaptor.captor();
+
+        provisioner.createAccount(user("jane@example.com"));
+
+        verify(pendingRepo).saveAll(saved.capture());
+        String stored = saved.getValue().get(0).getEncryptedPassword();
+        assertThat(stored).doesNotContain("RawPass123");
+        assertThat(cipher.decrypt(1L, stored)).isEqualTo("RawPass123");
+        // bound to its user: the same value on another row does not decrypt
+        assertThatThrownBy(() -> cipher.decrypt(2L, stored)).isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> new PendingPasswordCipher("another-key").decrypt(1L, stored))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void fullQueueLeavesCredentialsToTheSweep() throws Exception {
+        provisioner.shutdown();
+        provisioner = provisioner(1, 1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(encoder.encode(anyString())).thenAnswer(inv -> {
+            release.await(5, TimeUnit.SECONDS);
+            return "EncodedPass";
+        });
+
+        provisioner.createAccounts(List.of(user("a@example.com"), user("b@example.com"), user("c@example.com"),
+                user("d@example.com")));
+
+        // one hashing, one queued, the rest rejected but still saved as pending
+        verify(pendingRepo).saveAll(argThat(list -> ((List<?>) list).size() == 4));
+        assertThat(registry.get("credentials.rejected").counter().count()).isGreaterThanOrEqualTo(2);
+        release.countDown();
+        verify(userRepo, timeout(2000).times(2)).activate(anyLong(), eq("EncodedPass"), any());
+    }
+
+    @Test
+    void sweepResubmitsStalePendingCredentials() {
+        PendingCredential stale = new PendingCredential(7L, cipher.encrypt(7L, "OldPass"), null);
+        stale.setId(70L);
+        stale.setCreatedAt(OffsetDateTime.now().minusMinutes(5));
+        when(encoder.encode("OldPass")).thenReturn("OldHash");
+        when(pendingRepo.count()).thenReturn(1L);
+        when(pendingRepo.findClaimable(any(), any(), anyString(), any(Pageable.class))).thenReturn(List.of(70L));
+        when(pendingRepo.findClaimed(eq(List.of(70L)), anyString())).thenReturn(List.of(stale));
+
+        provisioner.sweep();
+
+        verify(pendingRepo).renewClaims(anyString(), any());
+        verify(pendingRepo).claim(eq(List.of(70L)), anyString(), any(), any());
+        verify(userRepo, timeout(2000)).activate(eq(7L), eq("OldHash"), any());
+        verify(pendingRepo, timeout(2000)).deleteById(70L);
+        assertThat(registry.get("credentials.pending").gauge().value()).isEqualTo(1.0);
+    }
+
+    @Test
+    void sweepHashesOnlyRowsThisNodeClaimed() {
+        when(pendingRepo.count()).thenReturn(1L);
+        when(pendingRepo.findClaimable(any(), any(), anyString(), any(Pageable.class))).thenReturn(List.of(70L));
+        // another node claimed row 70 between the select and the update
+        when(pendingRepo.findClaimed(eq(List.of(70L)), anyString())).thenReturn(List.of());
+
+        provisioner.sweep();
+
+        verify(encoder, after(200).never()).encode(anyString());
+        verify(userRepo, never()).activate(anyLong(), anyString(), any());
+    }
+
+    @Test
+    void createdRowsAreClaimedByTheCreatingNode() {
+        ArgumentCaptor<List<PendingCredential>> saved = ArgumentCaptor.captor();
+
+        provisioner.createAccounts(List.of(user("a@example.com"), user("b@example.com")));
+
+        verify(pendingRepo).saveAll(saved.capture());
+        assertThat(saved.getValue()).extracting(PendingCredential::getClaimedBy).doesNotContainNull()
+                .containsOnly(saved.getValue().get(0).getClaimedBy());
+    }
+
+    @Test
+    void failedActivationKeepsThePendingRow() {
+        when(userRepo.activate(anyLong(), anyString(), any())).thenThrow(new QueryTimeoutException("timeout"));
+
+        provisioner.createAccount(user("jane@example.com"));
+
+        verify(userRepo, timeout(2000)).activate(eq(1L), eq("EncodedPass"), any());
+        verify(txManager, timeout(2000)).rollback(any());
+        verify(pendingRepo, never()).deleteById(any());
+    }
+}
@@ -0,0 +1,74 @@
+package com.grootan.ems.user;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/** The sweep's claim queries: a row is taken by one node until its claim lapses. */
+@DataJpaTest
+@ActiveProfiles("test")
+class PendingCredentialRepositoryTest {
+
+    @Autowired
+    private PendingCredentialRepository repository;
+
+    @Autowired
+    private EntityManager em;
+
+    private final OffsetDateTime later = OffsetDateTime.now().plusMinutes(1);
+    private Long unclaimed;
+    private Long heldByA;
+
+    @BeforeEach
+    void setUp() {
+        unclaimed = repository.save(new PendingCredential(1L, "x", null)).getId();
+        heldByA = repository.save(new PendingCredential(2L, "x", "node-a")).getId();
+        em.flush();
+    }
+
+    private List<Long> claimable(String node, OffsetDateTime leaseStart) {
+        return repository.findClaimable(later, leaseStart, node, PageRequest.of(0, 10));
+    }
+
+    private List<PendingCredential> claim(String node, List<Long> ids, OffsetDateTime leaseStart) {
+        repository.claim(ids, node, later, leaseStart);
+        em.clear();
+        return repository.findClaimed(ids, node);
+    }
+
+    @Test
+    void claimedRowIsLeftToItsNodeWhileTheLeaseRuns() {
+        OffsetDateTime leaseStart = OffsetDateTime.now().minusMinutes(2);
+
+        assertThat(claimable("node-b", leaseStart)).containsExactly(unclaimed);
+        assertThat(claimable("node-a", leaseStart)).containsExactly(unclaimed, heldByA);
+        assertThat(claim("node-b", List.of(unclaimed, heldByA), leaseStart))
+                .extracting(PendingCredential::getId).containsExactly(unclaimed);
+        // node-b's claim is now fresh, so a later claim by node-a finds nothing to take
+        assertThat(claim("node-a", List.of(unclaimed), leaseStart)).isEmpty();
+    }
+
+    @Test
+    void lapsedClaimIsTakenOver() {
+        assertThat(claim("node-b", List.of(heldByA), later)).extracting(PendingCredential::getId)
+                .containsExactly(heldByA);
+    }
+
+    @Test
+    void renewKeepsOnlyTheNodesOwnClaimsFresh() {
+        repository.renewClaims("node-a", later);
+        em.clear();
+
+        assertThat(repository.findById(heldByA).orElseThrow().getClaimedAt()).isAfter(OffsetDateTime.now());
+        assertThat(repository.findById(unclaimed).orElseThrow().getClaimedAt()).isNull();
+    }
+}
@@ -0,0 +1,87 @@
+package com.grootan.ems.warmup;
+
+import com.grootan.ems.auth.JwtService;
+import com.grootan.ems.department.DepartmentService;
+import com.grootan.ems.department.dto.DepartmentResponse;
+import com.grootan.ems.employee.EmployeeService;
+import com.grootan.ems.employee.dto.EmployeeResponse;
+import com.grootan.ems.user.AppUserRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.DefaultApplicationArguments;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class WarmupRunnerTest {
+
+    @Mock
+    private DepartmentService departmentService;
+
+    @Mock
+    private EmployeeService employeeService;
+
+    @Mock
+    private AppUserRepository userRepo;
+
+    @Mock
+    private JwtService jwtService;
+
+    private WarmupRunner runner(String mix) {
+        // no local.server.port: the HTTP replay step is skipped
+        return new WarmupRunner(departmentService, employeeService, userRepo, jwtService, new MockEnvironment(),
+                2, 2, mix, 1, "admin@grootan.com", Duration.ofSeconds(5));
+    }
+
+    @Test
+    void preloadsDepartmentsEmployeesAndSearchPages() {
+        when(departmentService.list()).thenReturn(List.of(new DepartmentResponse(7L, "ENG", "Engineering", null, null)));
+        EmployeeResponse e = new EmployeeResponse(1L, "Ann", "ann@x.com", null, "ACTIVE", 7L, "ENG", "Engineering", null, null);
+        when(employeeService.search(any(), any(), any(), any(Pageable.class))).thenReturn(new PageImpl<>(List.of(e)));
+
+        runner("").run(new DefaultApplicationArguments());
+
+        verify(departmentService).list();
+        verify(employeeService).getById(1L);
+        Sort byName = Sort.by("fullName");
+        verify(employeeService).search(null, null, null, PageRequest.of(0, 10, byName));
+        verify(employeeService).search(null, null, null, PageRequest.of(1, 10, byName));
+        verify(employeeService).search(isNull(), isNull(), eq("ACTIVE"), eq(PageRequest.of(0, 10, byName)));
+        verify(employeeService).search(null, 7L, null, PageRequest.of(0, 10, byName));
+        verifyNoInteractions(jwtService);
+    }
+
+    @Test
+    void failingStepDoesNotStopTheOthers() {
+        when(departmentService.list()).thenThrow(new IllegalStateException("redis down"));
+        when(employeeService.search(any(), any(), any(), any(Pageable.class))).thenReturn(new PageImpl<>(List.of()));
+
+        runner("").run(new DefaultApplicationArguments());
+
+        verify(employeeService, atLeast(3)).search(any(), any(), any(), any(Pageable.class));
+    }
+
+    @Test
+    void parsesWeightedRequestMix() {
+        List<WeightedRequest> mix = WeightedRequest.parseMix(" 3*/api/employees?sort=hireDate,desc ; /api/departments ;");
+
+        assertThat(mix).extracting(WeightedRequest::getWeight).containsExactly(3, 1);
+        assertThat(mix).extracting(WeightedRequest::getPath).containsExactly("/api/employees?sort=hireDate,desc", "/api/departments");
+        assertThatThrownBy(() -> WeightedRequest.parseMix("2*api/employees")).isInstanceOf(IllegalArgumentException.class);
+    }
+}